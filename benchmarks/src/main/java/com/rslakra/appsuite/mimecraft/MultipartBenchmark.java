@@ -0,0 +1,69 @@
+package com.rslakra.appsuite.mimecraft;
+
+import com.rslakra.appsuite.protocol.http.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of a <code>multipart/form-data</code> body with a few text fields and one binary part.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:40 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultipartBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    private int fileSize;
+
+    private Multipart multipart;
+    private ByteArrayOutputStream outputStream;
+
+    @Setup
+    public void setUp() {
+        final Multipart.Builder builder = new Multipart.Builder("appsuite-benchmark-boundary")
+            .type(Multipart.Type.FORM);
+        for (int i = 0; i < 5; i++) {
+            builder.addPart(new Part.Builder()
+                                .contentDisposition("form-data; name=\"field" + i + "\"")
+                                .body("value-" + i)
+                                .build());
+        }
+        builder.addPart(new Part.Builder()
+                            .contentDisposition("form-data; name=\"file\"; filename=\"payload.json\"")
+                            .contentType("application/json")
+                            .body(BenchmarkData.textBytes(fileSize))
+                            .build());
+        multipart = builder.build();
+        outputStream = new ByteArrayOutputStream(fileSize + 4096);
+    }
+
+    /**
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public int writeBodyTo() throws IOException {
+        outputStream.reset();
+        multipart.writeBodyTo(outputStream);
+        return outputStream.size();
+    }
+}
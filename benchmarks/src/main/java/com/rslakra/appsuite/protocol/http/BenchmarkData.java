@@ -0,0 +1,84 @@
+package com.rslakra.appsuite.protocol.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Deterministic payloads shared by the benchmarks, so that the runs of two releases are comparable.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:05 PM
+ */
+public final class BenchmarkData {
+
+    private static final String TEXT = "{\"id\":12345,\"name\":\"appsuite-protocols\",\"tags\":[\"http\",\"client\"],"
+                                       + "\"description\":\"The quick brown fox jumps over the lazy dog.\"}\n";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Returns <code>size</code> bytes of JSON-like text, which compresses like a typical API response.
+     *
+     * @param size
+     * @return
+     */
+    public static byte[] textBytes(final int size) {
+        final byte[] pattern = TEXT.getBytes(StandardCharsets.UTF_8);
+        final byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = pattern[i % pattern.length];
+        }
+
+        return bytes;
+    }
+
+    /**
+     * @param bytes
+     * @return
+     */
+    public static byte[] gzip(final byte[] bytes) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * @param bytes
+     * @return
+     */
+    public static byte[] deflate(final byte[] bytes) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(outputStream)) {
+            deflaterOutputStream.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * @param count
+     * @return
+     */
+    public static Map<String, Object> queryParams(final int count) {
+        final Map<String, Object> queryParams = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            queryParams.put("param" + i, "value " + i + " & more/" + i);
+        }
+
+        return queryParams;
+    }
+}
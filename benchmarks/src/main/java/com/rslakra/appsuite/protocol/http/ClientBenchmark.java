@@ -0,0 +1,76 @@
+package com.rslakra.appsuite.protocol.http;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full round trip of the sync and async clients against the in-process <code>LoopbackServer</code>,
+ * including the circuit breaker and the retry decorators.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:20 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientBenchmark {
+
+    @Param({"1024", "65536"})
+    private int bodySize;
+
+    private LoopbackServer loopbackServer;
+    private SyncHttpClient syncHttpClient;
+    private AsyncHttpClient asyncHttpClient;
+    private Request request;
+
+    @Setup
+    public void setUp() throws Exception {
+        loopbackServer = new LoopbackServer(bodySize);
+        syncHttpClient = new HttpClientBuilder(ClientBenchmark.class.getSimpleName() + "-sync").buildSyncClient();
+        asyncHttpClient = new HttpClientBuilder(ClientBenchmark.class.getSimpleName() + "-async").buildAsyncClient();
+        request = Request.newBuilder()
+            .setUri(loopbackServer.getUri())
+            .setHttpMethod(HttpMethod.GET)
+            .addHeader("Accept", "text/plain")
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        asyncHttpClient.close();
+        syncHttpClient.close();
+        loopbackServer.close();
+    }
+
+    /**
+     * @return
+     */
+    @Benchmark
+    public Response<String> syncExecute() {
+        return syncHttpClient.execute(request);
+    }
+
+    /**
+     * @return
+     */
+    @Benchmark
+    public Response<String> asyncExecuteCallback() {
+        return asyncHttpClient.executeCallback(request, new StringResponseHandler(), FutureCallbacks.ignoreCallback())
+            .join();
+    }
+}
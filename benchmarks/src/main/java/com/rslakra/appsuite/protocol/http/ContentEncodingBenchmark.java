@@ -0,0 +1,115 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.protocol.http.encoding.DeflateEncoding;
+import com.rslakra.appsuite.protocol.http.encoding.GZIPEncoding;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the response decoding of the <code>ContentEncoding</code> interceptors, from the compressed entity to the
+ * last decoded byte.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:35 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentEncodingBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    private int bodySize;
+
+    private final HttpContext httpContext = new BasicHttpContext();
+    private final byte[] buffer = new byte[8 * 1024];
+    private byte[] gzipBytes;
+    private byte[] deflateBytes;
+    private HttpResponseInterceptor gzipInterceptor;
+    private HttpResponseInterceptor deflateInterceptor;
+
+    @Setup
+    public void setUp() {
+        final byte[] textBytes = BenchmarkData.textBytes(bodySize);
+        gzipBytes = BenchmarkData.gzip(textBytes);
+        deflateBytes = BenchmarkData.deflate(textBytes);
+        gzipInterceptor = new GZIPEncoding().getResponseInterceptor();
+        deflateInterceptor = new DeflateEncoding().getResponseInterceptor();
+    }
+
+    /**
+     * @return
+     * @throws Exception
+     */
+    @Benchmark
+    public long gzipDecoding() throws Exception {
+        return decode(gzipInterceptor, gzipBytes, "gzip");
+    }
+
+    /**
+     * @return
+     * @throws Exception
+     */
+    @Benchmark
+    public long deflateDecoding() throws Exception {
+        return decode(deflateInterceptor, deflateBytes, "deflate");
+    }
+
+    /**
+     * @param responseInterceptor
+     * @param encodedBytes
+     * @param contentEncoding
+     * @return
+     * @throws Exception
+     */
+    private long decode(final HttpResponseInterceptor responseInterceptor, final byte[] encodedBytes,
+                        final String contentEncoding) throws Exception {
+        final ByteArrayEntity httpEntity = new ByteArrayEntity(encodedBytes, ContentType.APPLICATION_JSON);
+        httpEntity.setContentEncoding(contentEncoding);
+        final HttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        httpResponse.setEntity(httpEntity);
+        responseInterceptor.process(httpResponse, httpContext);
+
+        return drain(httpResponse.getEntity().getContent());
+    }
+
+    /**
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    private long drain(final InputStream inputStream) throws IOException {
+        long count = 0;
+        try (InputStream input = inputStream) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                count += read;
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process HTTP/1.1 server bound to the loopback interface on an ephemeral port. It answers every request with the
+ * same <code>text/plain</code> body, so that the client benchmarks measure the client and not the server.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:10 PM
+ */
+public final class LoopbackServer implements AutoCloseable {
+
+    public static final String PATH = "/bench";
+
+    private final HttpServer httpServer;
+    private final ExecutorService executorService;
+    private final byte[] body;
+
+    /**
+     * @param bodySize
+     * @throws IOException
+     */
+    public LoopbackServer(final int bodySize) throws IOException {
+        this.body = BenchmarkData.textBytes(bodySize);
+        this.executorService = Executors.newVirtualThreadPerTaskExecutor();
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.setExecutor(executorService);
+        this.httpServer.createContext(PATH, this::handle);
+        this.httpServer.start();
+    }
+
+    /**
+     * @param httpExchange
+     * @throws IOException
+     */
+    private void handle(final HttpExchange httpExchange) throws IOException {
+        try (InputStream inputStream = httpExchange.getRequestBody()) {
+            // drain the request, so that the connection stays reusable
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        httpExchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        httpExchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = httpExchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    /**
+     * @return
+     */
+    public URI getUri() {
+        return URI.create("http://" + httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort()
+                          + PATH);
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executorService.shutdownNow();
+    }
+}
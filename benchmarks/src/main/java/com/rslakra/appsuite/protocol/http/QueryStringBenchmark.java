@@ -0,0 +1,77 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.protocol.http.rest.UriBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the query string encoders of <code>HTTPUtils</code> and <code>UriBuilder</code>.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:30 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryStringBenchmark {
+
+    private static final URI BASE_URI = URI.create("http://localhost:8080/api/v1/search");
+
+    @Param({"1", "10", "50"})
+    private int paramCount;
+
+    private Map<String, Object> queryParams;
+
+    @Setup
+    public void setUp() {
+        queryParams = BenchmarkData.queryParams(paramCount);
+    }
+
+    /**
+     * @return
+     */
+    @Benchmark
+    public String toUrlQueryString() {
+        return HTTPUtils.toUrlQueryString(queryParams);
+    }
+
+    /**
+     * @return
+     * @throws URISyntaxException
+     */
+    @Benchmark
+    public URI uriBuilderSetQuery() throws URISyntaxException {
+        return new UriBuilder(BASE_URI).setQuery(queryParams).toURI();
+    }
+
+    /**
+     * @return
+     * @throws URISyntaxException
+     */
+    @Benchmark
+    public URI uriBuilderAddQueryParam() throws URISyntaxException {
+        final UriBuilder uriBuilder = new UriBuilder(BASE_URI);
+        for (Map.Entry<String, Object> entry : queryParams.entrySet()) {
+            uriBuilder.addQueryParam(entry.getKey(), entry.getValue());
+        }
+
+        return uriBuilder.toURI();
+    }
+}
@@ -0,0 +1,87 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.protocol.http.handler.ByteBufferResponseHandler;
+import com.rslakra.appsuite.protocol.http.handler.OutputStreamResponseHandler;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares materializing the response body as <code>String</code> with the streaming handlers.
+ * <p>
+ * The entity is a repeatable in-memory entity, so the numbers are the decoding cost only. Run with
+ * <code>-prof gc</code> to compare the allocation rates.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:25 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseHandlerBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    private int bodySize;
+
+    private HttpResponse httpResponse;
+    private StringResponseHandler stringResponseHandler;
+    private OutputStreamResponseHandler outputStreamResponseHandler;
+    private ByteBufferResponseHandler byteBufferResponseHandler;
+
+    @Setup
+    public void setUp() {
+        httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        httpResponse.setEntity(new ByteArrayEntity(BenchmarkData.textBytes(bodySize), ContentType.APPLICATION_JSON));
+        stringResponseHandler = new StringResponseHandler();
+        outputStreamResponseHandler = new OutputStreamResponseHandler(OutputStream.nullOutputStream());
+        byteBufferResponseHandler = new ByteBufferResponseHandler(bodySize);
+    }
+
+    /**
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public String stringHandler() throws IOException {
+        return stringResponseHandler.handleResponse(httpResponse);
+    }
+
+    /**
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public Long streamingOutputStreamHandler() throws IOException {
+        return outputStreamResponseHandler.handleResponse(httpResponse);
+    }
+
+    /**
+     * @return
+     * @throws IOException
+     */
+    @Benchmark
+    public ByteBuffer streamingByteBufferHandler() throws IOException {
+        return byteBufferResponseHandler.handleResponse(httpResponse);
+    }
+}
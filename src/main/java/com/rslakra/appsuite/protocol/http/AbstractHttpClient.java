@@ -2,25 +2,26 @@ package com.rslakra.appsuite.protocol.http;
 
 import com.rslakra.appsuite.core.BeanUtils;
 import com.rslakra.appsuite.core.IOUtils;
+import com.rslakra.appsuite.protocol.http.limit.ConcurrencyLimiter;
+import com.rslakra.appsuite.protocol.http.metrics.HttpClientMetrics;
+import com.rslakra.appsuite.protocol.http.retry.RetryEngine;
+import com.rslakra.appsuite.protocol.http.retry.RetryPolicy;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.retry.Retry;
-import org.apache.commons.collections4.MapUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.methods.HttpDelete;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.URI;
-import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Decorates Apache HTTP Client with resilence4j to handle circuit breaking and retry logic for synchronous rest(s)
  * invocations. Provides standardized logging for better insights into outbound rest(s) traffic.
+ * <p>
+ * Every network call is reported to the <code>HttpClientMetrics</code> of the builder. Requests and successful
+ * responses are logged at debug level only, unless sampled at INFO level with <code>logSampleRate</code>.
  *
  * @author Rohtash Lakra
  * @created 3/26/21 5:42 PM
@@ -33,6 +34,10 @@ public abstract class AbstractHttpClient implements AutoCloseable {
     private String clientName;
     private CircuitBreaker circuitBreaker;
     private Retry retry;
+    private HttpClientMetrics metrics;
+    private double logSampleRate;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private RetryEngine retryEngine;
 
     protected enum State {
         SUCCESS,
@@ -49,6 +54,21 @@ public abstract class AbstractHttpClient implements AutoCloseable {
         this.clientName = builder.getClientName();
         this.circuitBreaker = builder.getCircuitBreaker();
         this.retry = builder.getRetry();
+        this.metrics = builder.getMetrics();
+        this.logSampleRate = builder.getLogSampleRate();
+        if (BeanUtils.isNotNull(builder.getLimiterConfig())) {
+            this.concurrencyLimiter = new ConcurrencyLimiter(clientName, builder.getLimiterConfig(), metrics);
+        }
+        if (BeanUtils.isNotNull(retry)) {
+            // the engine reports the retry events itself
+            this.retryEngine = new RetryEngine(clientName, retry.getRetryConfig(),
+                                               (BeanUtils.isNull(builder.getRetryPolicy()) ? RetryPolicy.ofDefaults()
+                                                : builder.getRetryPolicy()), metrics);
+        }
+        if (HttpClientMetrics.NOOP != metrics && BeanUtils.isNotNull(circuitBreaker)) {
+            // the circuit breaker may be shared with other clients of the same name
+            ResilienceRegistries.observe(clientName, circuitBreaker, metrics);
+        }
     }
 
     /**
@@ -72,6 +92,31 @@ public abstract class AbstractHttpClient implements AutoCloseable {
         return retry;
     }
 
+    /**
+     * Returns the retry engine, <code>null</code> when the retry is off.
+     *
+     * @return
+     */
+    public RetryEngine getRetryEngine() {
+        return retryEngine;
+    }
+
+    /**
+     * @return
+     */
+    public HttpClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the concurrency limiter, <code>null</code> when the concurrency limit is off.
+     *
+     * @return
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
     /**
      * can be called explicitly by client if they are managing keep-alive connections
      */
@@ -85,51 +130,64 @@ public abstract class AbstractHttpClient implements AutoCloseable {
      * @return
      */
     protected final HttpRequestBase ofApacheRequest(final Request request) {
-        HttpRequestBase apacheRequest;
-        final HttpMethod httpMethod = request.getHttpMethod();
-        final URI uri = request.getUri();
-        final HttpEntity payload = request.getPayload();
+        final HttpRequestBase apacheRequest = HttpRequestFactory.newRequest(request.getHttpMethod(), request.getUri(),
+                                                                            request.getPayload());
+        request.getHeaders().forEach(apacheRequest::addHeader);
+        return apacheRequest;
+    }
 
-        switch (httpMethod) {
-            case GET:
-                apacheRequest = new HttpGet(uri);
-                break;
-            case POST:
-                apacheRequest = new HttpPost(uri);
-                if (payload != null) {
-                    ((HttpPost) apacheRequest).setEntity(payload);
-                }
-                break;
-            case PUT:
-                apacheRequest = new HttpPut(uri);
-                if (payload != null) {
-                    ((HttpPut) apacheRequest).setEntity(payload);
-                }
-                break;
-            case DELETE:
-                apacheRequest = new HttpDelete(uri);
-                break;
-            default:
-                throw new HttpClientException("Unsupported rest request method");
+    /**
+     * Reports the start of a network call.
+     *
+     * @param request
+     */
+    protected final void requestStarted(final Request request) {
+        final String route = HttpClientMetrics.routeOf(request.getUri());
+        metrics.requestStarted(getClientName(), route);
+        final HttpEntity payload = request.getPayload();
+        if (BeanUtils.isNotNull(payload) && payload.getContentLength() > 0) {
+            metrics.bytesSent(getClientName(), route, payload.getContentLength());
         }
+    }
 
-        if (MapUtils.isNotEmpty(request.getHeaders())) {
-            for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
-                apacheRequest.addHeader(entry.getKey(), entry.getValue());
+    /**
+     * Reports the end of a network call, exactly once per <code>requestStarted</code>.
+     *
+     * @param request
+     * @param response
+     * @param durationNanos
+     * @param error
+     */
+    protected final void requestCompleted(final Request request, final HttpResponse response,
+                                          final long durationNanos, final Throwable error) {
+        final String route = HttpClientMetrics.routeOf(request.getUri());
+        int statusCode = 0;
+        if (BeanUtils.isNotNull(response) && BeanUtils.isNotNull(response.getStatusLine())) {
+            statusCode = response.getStatusLine().getStatusCode();
+            if (BeanUtils.isNotNull(response.getEntity()) && response.getEntity().getContentLength() > 0) {
+                metrics.bytesReceived(getClientName(), route, response.getEntity().getContentLength());
             }
         }
+        metrics.requestCompleted(getClientName(), route, statusCode, durationNanos, error);
+    }
 
-        return apacheRequest;
+    /**
+     * @return
+     */
+    private boolean isSampled() {
+        return (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate);
     }
 
     /**
      * @param request
      */
     protected final void logHttpRequest(final Request request) {
-        LOGGER.info("logHttpRequest({}), clientName={}", request, getClientName());
+        LOGGER.debug("logHttpRequest({}), clientName={}", request, getClientName());
     }
 
     /**
+     * Failures are always logged, successes at debug level or when sampled.
+     *
      * @param state
      * @param request
      * @param response
@@ -140,6 +198,11 @@ public abstract class AbstractHttpClient implements AutoCloseable {
      */
     protected <T> void logHttpResponse(State state, Request request, HttpResponse response, T payload,
                                        long durationMillis, Throwable error) {
+        final boolean sampled = (State.SUCCESS != state || isSampled());
+        if (!sampled && !LOGGER.isDebugEnabled()) {
+            return;
+        }
+
         Integer statusCode = null;
         if (response != null && response.getStatusLine() != null) {
             statusCode = response.getStatusLine().getStatusCode();
@@ -153,9 +216,15 @@ public abstract class AbstractHttpClient implements AutoCloseable {
         }
 
         // NOTE : enable logging for org.apache.rest.impl.client.* package to capture raw rest response payload
-        LOGGER.info(
-            "logHttpResponse() - clientName={}, state={}, request={}, duration(ms)={}, statusCode={}, exceptionName={}, exceptionMsg={}",
-            getClientName(), state, request, durationMillis, statusCode, errorClassName, errorMessage);
+        final String message = "logHttpResponse() - clientName={}, state={}, request={}, duration(ms)={}, "
+                               + "statusCode={}, exceptionName={}, exceptionMsg={}";
+        if (sampled) {
+            LOGGER.info(message, getClientName(), state, request, durationMillis, statusCode, errorClassName,
+                        errorMessage);
+        } else {
+            LOGGER.debug(message, getClientName(), state, request, durationMillis, statusCode, errorClassName,
+                         errorMessage);
+        }
     }
 
     /**
@@ -69,6 +69,19 @@ public abstract class AbstractResponseHandler<T> implements ResponseHandler<T> {
     }
 
 
+    /**
+     * Returns the key of the payloads of the handler, <code>null</code> by default.
+     * <p>
+     * The handlers of the same class returning the same key decode a response to the same payload without side
+     * effects, so that the <code>AsyncHttpClient</code> shares one payload between their identical requests in flight.
+     * The handlers with state or writing to a sink must keep returning <code>null</code>.
+     *
+     * @return
+     */
+    public String getShareKey() {
+        return null;
+    }
+
     /**
      * @param httpResponse
      * @return
@@ -1,20 +1,37 @@
 package com.rslakra.appsuite.protocol.http;
 
-import com.rslakra.appsuite.core.IOUtils;
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.protocol.http.cache.CacheEntry;
+import com.rslakra.appsuite.protocol.http.cache.HttpCache;
+import com.rslakra.appsuite.protocol.http.hedge.RequestHedger;
+import com.rslakra.appsuite.protocol.http.limit.AdaptiveLimiter;
+import com.rslakra.appsuite.protocol.http.ssl.KeyMaterialReloader;
 import io.github.resilience4j.decorators.Decorators;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.StatusLine;
 import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -25,25 +42,214 @@ public class AsyncHttpClient extends AbstractHttpClient implements AutoCloseable
 
     // LOGGER
     private static final Logger LOGGER = LoggerFactory.getLogger(AsyncHttpClient.class);
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3);
     private CloseableHttpAsyncClient httpAsyncClient;
+    private AsyncIdleConnectionEvictor idleConnectionEvictor;
+    private KeyMaterialReloader keyMaterialReloader;
+    private ConnectionWarmer connectionWarmer;
+    private final boolean sharedConnectionWarmer;
+    private final boolean sharedKeyMaterialReloader;
+    private final ScheduledExecutorService scheduler;
+    // true if the scheduler is the process-wide one and must be released on close
+    private final boolean sharedScheduler;
+    private final Duration shutdownTimeout;
+    private final AtomicReference<Lifecycle> lifecycle = new AtomicReference<>(Lifecycle.INACTIVE);
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final Object drainLock = new Object();
+    private final RequestCoalescer requestCoalescer;
+    private final HttpCache httpCache;
+    private final RequestHedger requestHedger;
+    private final HttpRequestInterceptor contentCompressionInterceptor;
+    private final HttpResponseInterceptor contentDecodingInterceptor;
+
+    /**
+     * The lifecycle of the client, the I/O reactor is started once when the client is built.
+     */
+    public enum Lifecycle {
+        INACTIVE,
+        ACTIVE,
+        DRAINING,
+        STOPPED;
+    }
 
     /**
      * can only be instantiated from HttpClientBuilder
      *
      * @param builder
+     * @param sharedConnectionWarmer    true if the connection warmer belongs to a client built earlier with the pool.
+     * @param sharedKeyMaterialReloader true if the key material reloader belongs to a client built earlier.
      */
-    protected AsyncHttpClient(final HttpClientBuilder builder) {
+    protected AsyncHttpClient(final HttpClientBuilder builder, final boolean sharedConnectionWarmer,
+                              final boolean sharedKeyMaterialReloader) {
         super(builder);
         this.httpAsyncClient = builder.getHttpAsyncClient();
+        this.idleConnectionEvictor = builder.getAsyncIdleConnectionEvictor();
+        this.keyMaterialReloader = builder.getKeyMaterialReloader();
+        this.sharedKeyMaterialReloader = sharedKeyMaterialReloader;
+        this.connectionWarmer = builder.getAsyncConnectionWarmer();
+        this.sharedConnectionWarmer = sharedConnectionWarmer;
+        this.shutdownTimeout = builder.getShutdownTimeout();
+        if (BeanUtils.isNotNull(builder.getRetryScheduler())) {
+            this.scheduler = builder.getRetryScheduler();
+            this.sharedScheduler = false;
+        } else if (BeanUtils.isNotNull(getRetry())) {
+            this.scheduler = RetrySchedulers.acquire();
+            this.sharedScheduler = true;
+        } else {
+            this.scheduler = null;
+            this.sharedScheduler = false;
+        }
+        this.requestCoalescer = (BeanUtils.isNull(builder.getCoalescingHeaders()) ? null
+                                 : new RequestCoalescer(builder.getCoalescingHeaders()));
+        this.httpCache = (BeanUtils.isNull(builder.getCacheConfig()) ? null : new HttpCache(builder.getCacheConfig()));
+        this.requestHedger = (BeanUtils.isNull(builder.getHedgingConfig()) ? null
+                              : new RequestHedger(getClientName(), builder.getHedgingConfig(), getMetrics(),
+                                                  getCircuitBreaker()));
+        this.contentCompressionInterceptor = builder.getContentCompressionInterceptor();
+        this.contentDecodingInterceptor = builder.getContentDecodingInterceptor();
+        start();
+    }
+
+    /**
+     * Starts the I/O reactor of the underlying client. Called once at build time, so that the request path does not
+     * pay for the synchronized start check of the apache client.
+     */
+    private void start() {
+        if (lifecycle.compareAndSet(Lifecycle.INACTIVE, Lifecycle.ACTIVE)) {
+            if (!httpAsyncClient.isRunning()) {
+                httpAsyncClient.start();
+            }
+            LOGGER.debug("start() - started async client for name={}", getClientName());
+        }
+    }
+
+    /**
+     * @return
+     */
+    public Lifecycle getLifecycle() {
+        return lifecycle.get();
+    }
+
+    /**
+     * Returns true if the client accepts requests and the I/O reactor is running.
+     *
+     * @return
+     */
+    public boolean isHealthy() {
+        return (Lifecycle.ACTIVE == lifecycle.get() && httpAsyncClient.isRunning());
+    }
+
+    /**
+     * @return
+     */
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    /**
+     * Returns the number of requests served by an identical in-flight request, always 0 without coalescing.
+     *
+     * @return
+     */
+    public long getCoalescedRequests() {
+        return (BeanUtils.isNull(requestCoalescer) ? 0 : requestCoalescer.getCoalescedRequests());
+    }
+
+    /**
+     * Returns the connection warmer, <code>null</code> without warm-up.
+     *
+     * @return
+     */
+    public ConnectionWarmer getConnectionWarmer() {
+        return connectionWarmer;
+    }
+
+    /**
+     * Returns the response cache, <code>null</code> when caching is off.
+     *
+     * @return
+     */
+    public HttpCache getHttpCache() {
+        return httpCache;
     }
 
     /**
+     * Returns the request hedger, <code>null</code> when hedging is off.
+     *
+     * @return
+     */
+    public RequestHedger getRequestHedger() {
+        return requestHedger;
+    }
+
+    /**
+     * Gracefully shuts down the client. New requests are rejected, in-flight requests are drained until they complete
+     * or the shutdown timeout elapses, then the I/O reactor and the connection pool are closed.
+     *
      * @throws Exception
      */
     @Override
     public void close() throws Exception {
-        IOUtils.closeSilently(this);
+        if (!lifecycle.compareAndSet(Lifecycle.ACTIVE, Lifecycle.DRAINING)
+            && !lifecycle.compareAndSet(Lifecycle.INACTIVE, Lifecycle.DRAINING)) {
+            return;
+        }
+
+        try {
+            awaitInFlightRequests();
+        } finally {
+            if (BeanUtils.isNotNull(idleConnectionEvictor)) {
+                idleConnectionEvictor.shutdown();
+            }
+            // the shared warmer is owned by the client built with the pool
+            if (BeanUtils.isNotNull(connectionWarmer) && !sharedConnectionWarmer) {
+                connectionWarmer.shutdown();
+            }
+            // the shared reloader is owned by the client built with it
+            if (BeanUtils.isNotNull(keyMaterialReloader) && !sharedKeyMaterialReloader) {
+                keyMaterialReloader.close();
+            }
+            // the injected scheduler is owned by the caller
+            if (sharedScheduler) {
+                RetrySchedulers.release(scheduler);
+            }
+            if (BeanUtils.isNotNull(httpCache)) {
+                httpCache.close();
+            }
+            httpAsyncClient.close();
+            lifecycle.set(Lifecycle.STOPPED);
+            LOGGER.debug("close() - stopped async client for name={}", getClientName());
+        }
+    }
+
+    /**
+     * Waits for in-flight requests to complete until the shutdown timeout.
+     *
+     * @throws InterruptedException
+     */
+    private void awaitInFlightRequests() throws InterruptedException {
+        final long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        synchronized (drainLock) {
+            long remaining;
+            while (inFlightRequests.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                drainLock.wait(Math.max(1, remaining / 1_000_000));
+            }
+        }
+
+        if (inFlightRequests.get() > 0) {
+            LOGGER.warn("awaitInFlightRequests() - shutdown timeout elapsed with {} in-flight requests for name={}",
+                        inFlightRequests.get(), getClientName());
+        }
+    }
+
+    /**
+     * Marks the request as completed and wakes up the drain, if any.
+     */
+    private void requestCompleted() {
+        if (inFlightRequests.decrementAndGet() == 0 && Lifecycle.DRAINING == lifecycle.get()) {
+            synchronized (drainLock) {
+                drainLock.notifyAll();
+            }
+        }
     }
 
     public CompletableFuture<Response<String>> executeWithCallback(final Request request) {
@@ -73,32 +279,100 @@ public class AsyncHttpClient extends AbstractHttpClient implements AutoCloseable
         assert request != null;
         assert futureCallback != null;
 
-        Supplier<CompletionStage<HttpResponse>> supplier = () -> {
-            logHttpRequest(request);
-            CompletableFuture<HttpResponse> completableFuture = new CompletableFuture<>();
-            httpAsyncClient.start();
-            httpAsyncClient.execute(ofApacheRequest(request), new FutureCallback<HttpResponse>() {
-                @Override
-                public void completed(HttpResponse httpResponse) {
-                    logHttpResponse(State.SUCCESS, request, httpResponse, null);
-                    completableFuture.complete(httpResponse);
-                }
+        if (Lifecycle.ACTIVE != lifecycle.get()) {
+            final HttpClientException error = new HttpClientException(
+                "Client is not active. name=" + getClientName() + ", lifecycle=" + lifecycle.get());
+            // same contract as a failed call, the callback is notified and the future completes with null
+            futureCallback.failed(error);
+            return CompletableFuture.completedFuture(null);
+        }
 
-                @Override
-                public void failed(Exception ex) {
-                    logHttpResponse(State.FAILED, request, null, ex);
-                    LOGGER.error("failed() - execute async rest client for name=%s", getClientName(), ex);
-                    completableFuture.completeExceptionally(ex);
-                }
+        if (BeanUtils.isNotNull(httpCache) && httpCache.isCacheable(request)) {
+            final long now = System.currentTimeMillis();
+            final CacheEntry cacheEntry = httpCache.lookup(request);
+            if (httpCache.isServable(request, cacheEntry, now)) {
+                return completeFromCache(cacheEntry, now, responseHandler, futureCallback);
+            } else if (httpCache.isServableStale(request, cacheEntry, now)) {
+                revalidateInBackground(request);
+                return completeFromCache(cacheEntry, now, responseHandler, futureCallback);
+            }
+        }
 
-                @Override
-                public void cancelled() {
-                    logHttpResponse(State.CANCELLED, request, null, null);
-                    LOGGER.error("cancelled() - execute async rest client call cancelled for name=%s", getClientName());
-                    completableFuture.cancel(true);
-                }
-            });
-            return completableFuture;
+        if (BeanUtils.isNotNull(requestCoalescer) && requestCoalescer.isCoalescable(request)) {
+            return requestCoalescer.execute(request, responseHandler, futureCallback,
+                                            callback -> doExecuteCallback(request, responseHandler, callback));
+        }
+
+        return doExecuteCallback(request, responseHandler, futureCallback);
+    }
+
+    /**
+     * Answers the request with the stored response, same contract as a network call.
+     *
+     * @param cacheEntry
+     * @param now
+     * @param responseHandler
+     * @param futureCallback
+     * @param <T>
+     * @return
+     */
+    private <T> CompletableFuture<Response<T>> completeFromCache(final CacheEntry cacheEntry, final long now,
+                                                                 final ResponseHandler<T> responseHandler,
+                                                                 final FutureCallback<Response<T>> futureCallback) {
+        final HttpResponse httpResponse = httpCache.serve(cacheEntry, now);
+        Response<T> response;
+        try {
+            response = Response.of(httpResponse.getStatusLine(), responseHandler.handleResponse(httpResponse));
+        } catch (Throwable t) {
+            LOGGER.error("execute() - handle cached response failed for name={}", getClientName(), t);
+            response = Response.of(httpResponse.getStatusLine());
+        }
+        futureCallback.completed(response);
+        return CompletableFuture.completedFuture(response);
+    }
+
+    /**
+     * Refreshes a stale entry served under <code>stale-while-revalidate</code>, at most one revalidation runs per
+     * entry.
+     *
+     * @param request
+     */
+    private void revalidateInBackground(final Request request) {
+        if (httpCache.startRevalidation(request)) {
+            doExecuteCallback(request, httpResponse -> null, FutureCallbacks.ignoreCallback())
+                .whenComplete((response, throwable) -> httpCache.finishRevalidation(request));
+        }
+    }
+
+    /**
+     * @param request
+     * @param responseHandler
+     * @param futureCallback
+     * @param <T>
+     * @return
+     */
+    private <T> CompletableFuture<Response<T>> doExecuteCallback(final Request request,
+                                                                 final ResponseHandler<T> responseHandler,
+                                                                 final FutureCallback<Response<T>> futureCallback) {
+        inFlightRequests.incrementAndGet();
+        // the stages of the returned future don't reach the attempts, they are cancelled through this handle
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicReference<CompletableFuture<HttpResponse>> currentAttempt = new AtomicReference<>();
+        // the hedger runs inside the circuit breaker and the retry, so that a hedged call counts once
+        Supplier<CompletionStage<HttpResponse>> supplier = () -> {
+            if (cancelled.get()) {
+                return CompletableFuture.failedFuture(new CancellationException("Request cancelled"));
+            }
+            final CompletableFuture<HttpResponse> attempt = (
+                BeanUtils.isNotNull(requestHedger) && requestHedger.isHedgeable(request)
+                ? requestHedger.execute(request, () -> executeAttempt(request))
+                : executeAttempt(request));
+            currentAttempt.set(attempt);
+            if (cancelled.get()) {
+                attempt.cancel(true);
+            }
+
+            return attempt;
         };
 
         // decoratedSupplier
@@ -106,10 +380,18 @@ public class AsyncHttpClient extends AbstractHttpClient implements AutoCloseable
         if (getCircuitBreaker() != null) {
             decoratedSupplier.withCircuitBreaker(getCircuitBreaker());
         }
-        if (getRetry() != null) {
-            decoratedSupplier.withRetry(getRetry(), scheduler);
+
+        final CompletionStage<HttpResponse> completionStage;
+        try {
+            completionStage = (getRetryEngine() != null
+                               ? getRetryEngine().executeAsync(decoratedSupplier.decorate(), scheduler)
+                               : decoratedSupplier.get());
+        } catch (RuntimeException ex) {
+            requestCompleted();
+            throw ex;
         }
-        return decoratedSupplier.get().thenApply(
+
+        final CompletableFuture<Response<T>> completableFuture = completionStage.thenApply(
             httpResponse -> {
                 StatusLine statusLine = httpResponse.getStatusLine();
                 T payload = null;
@@ -121,19 +403,163 @@ public class AsyncHttpClient extends AbstractHttpClient implements AutoCloseable
                     return response;
                 } catch (Throwable t) {
                     LOGGER.error("execute() - handle response failed for name=%s", getClientName(), t);
+                    // i.e. the decoded ErrorResponseException of the handler
                     response = Response.of(statusLine);
+                    response.setError(t);
                     futureCallback.completed(response);
                     return response;
                 }
             }).exceptionally(throwable -> {
-            if (throwable instanceof CancellationException) {
+            final Throwable cause = (throwable instanceof CompletionException
+                                     && BeanUtils.isNotNull(throwable.getCause()) ? throwable.getCause() : throwable);
+            if (cause instanceof CancellationException) {
                 futureCallback.cancelled();
-            } else if (throwable instanceof Exception) {
-                futureCallback.failed((Exception) throwable);
+            } else if (cause instanceof Exception) {
+                futureCallback.failed((Exception) cause);
             } else {
-                futureCallback.failed(new RuntimeException(throwable));
+                futureCallback.failed(new RuntimeException(cause));
             }
             return null;
-        }).toCompletableFuture();
+        }).whenComplete((response, throwable) -> requestCompleted()).toCompletableFuture();
+
+        // a dependent future, so that cancelling it still runs the stages above
+        final CompletableFuture<Response<T>> responseFuture = completableFuture.thenApply(Function.identity());
+        responseFuture.whenComplete((response, throwable) -> {
+            if (responseFuture.isCancelled()) {
+                cancelled.set(true);
+                // stops the retries, then aborts the exchange in flight
+                completionStage.toCompletableFuture().cancel(true);
+                final CompletableFuture<HttpResponse> attempt = currentAttempt.get();
+                if (BeanUtils.isNotNull(attempt)) {
+                    attempt.cancel(true);
+                }
+            }
+        });
+
+        return responseFuture;
+    }
+
+    /**
+     * Sends one attempt of the request, with a permit of the concurrency limiter if any. Cancelling the returned
+     * future aborts the attempt.
+     *
+     * @param request
+     * @return
+     */
+    private CompletableFuture<HttpResponse> executeAttempt(final Request request) {
+        if (BeanUtils.isNull(getConcurrencyLimiter())) {
+            return executeAsync(request);
+        }
+
+        // a queued attempt waits without blocking a thread
+        final CompletableFuture<HttpResponse> completableFuture = new CompletableFuture<>();
+        final CompletableFuture<AdaptiveLimiter.Permit> permitFuture = getConcurrencyLimiter().acquire(request);
+        permitFuture.whenComplete((permit, rejection) -> {
+            if (BeanUtils.isNotNull(rejection)) {
+                completableFuture.completeExceptionally(rejection);
+                return;
+            } else if (completableFuture.isDone()) {
+                // cancelled while the permit was granted
+                permit.ignore();
+                return;
+            }
+
+            final CompletableFuture<HttpResponse> responseFuture;
+            try {
+                responseFuture = executeAsync(request);
+            } catch (RuntimeException ex) {
+                permit.ignore();
+                completableFuture.completeExceptionally(ex);
+                return;
+            }
+            completableFuture.whenComplete((httpResponse, throwable) -> responseFuture.cancel(true));
+            responseFuture.whenComplete((httpResponse, throwable) -> {
+                getConcurrencyLimiter().release(permit, httpResponse, throwable);
+                if (BeanUtils.isNotNull(throwable)) {
+                    completableFuture.completeExceptionally(throwable);
+                } else {
+                    completableFuture.complete(httpResponse);
+                }
+            });
+        });
+        completableFuture.whenComplete((httpResponse, throwable) -> permitFuture.cancel(false));
+        return completableFuture;
+    }
+
+    /**
+     * Sends the request, once per attempt. Cancelling the returned future aborts the exchange.
+     *
+     * @param request
+     * @return
+     */
+    private CompletableFuture<HttpResponse> executeAsync(final Request request) {
+        logHttpRequest(request);
+        CompletableFuture<HttpResponse> completableFuture = new CompletableFuture<>();
+        final CacheEntry cacheEntry = (BeanUtils.isNotNull(httpCache) && httpCache.isCacheable(request)
+                                       ? httpCache.lookup(request) : null);
+        final HttpRequestBase apacheRequest = ofApacheRequest(request);
+        if (BeanUtils.isNotNull(cacheEntry)) {
+            httpCache.addConditionalHeaders(apacheRequest, cacheEntry);
+        }
+        if (BeanUtils.isNotNull(contentCompressionInterceptor)) {
+            // the apache async client streams the entity the request is executed with, whatever its interceptors set
+            try {
+                contentCompressionInterceptor.process(apacheRequest, HttpClientContext.create());
+            } catch (IOException | HttpException ex) {
+                throw new HttpClientException(ex);
+            }
+        }
+        final long requestTime = System.currentTimeMillis();
+        final long startTime = System.nanoTime();
+        requestStarted(request);
+        final Future<HttpResponse> future = httpAsyncClient.execute(apacheRequest, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse httpResponse) {
+                if (BeanUtils.isNotNull(contentDecodingInterceptor)) {
+                    // the apache async client buffers the content after its response interceptors run
+                    try {
+                        contentDecodingInterceptor.process(httpResponse, HttpClientContext.create());
+                    } catch (IOException | HttpException ex) {
+                        failed(ex);
+                        return;
+                    }
+                }
+                requestCompleted(request, httpResponse, System.nanoTime() - startTime, null);
+                logHttpResponse(State.SUCCESS, request, httpResponse, null);
+                if (BeanUtils.isNull(httpCache)) {
+                    completableFuture.complete(httpResponse);
+                    return;
+                }
+                try {
+                    completableFuture.complete(httpCache.cacheResponse(request, cacheEntry, httpResponse,
+                                                                       requestTime, System.currentTimeMillis()));
+                } catch (IOException ex) {
+                    completableFuture.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                requestCompleted(request, null, System.nanoTime() - startTime, ex);
+                logHttpResponse(State.FAILED, request, null, ex);
+                LOGGER.error("failed() - execute async rest client for name=%s", getClientName(), ex);
+                completableFuture.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                requestCompleted(request, null, System.nanoTime() - startTime, null);
+                logHttpResponse(State.CANCELLED, request, null, null);
+                // routine for the loser of a hedged call
+                LOGGER.debug("cancelled() - execute async rest client call cancelled for name={}", getClientName());
+                completableFuture.cancel(true);
+            }
+        });
+        completableFuture.whenComplete((httpResponse, throwable) -> {
+            if (completableFuture.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return completableFuture;
     }
 }
@@ -0,0 +1,87 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background daemon that closes expired and idle connections of the async connection pool.
+ * <p>
+ * Apache's <code>IdleConnectionEvictor</code> only handles the blocking connection managers, this one does the same
+ * for the <code>NHttpClientConnectionManager</code> used by the <code>AsyncHttpClient</code>.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 10:20 AM
+ */
+public final class AsyncIdleConnectionEvictor {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncIdleConnectionEvictor.class);
+
+    private final NHttpClientConnectionManager connectionManager;
+    private final long maxIdleTimeMillis;
+    private final long evictionIntervalMillis;
+    private final Thread evictorThread;
+    private volatile boolean shutdown;
+
+    /**
+     * @param clientName
+     * @param connectionManager
+     * @param maxIdleTime
+     * @param evictionInterval
+     */
+    public AsyncIdleConnectionEvictor(final String clientName, final NHttpClientConnectionManager connectionManager,
+                                      final Duration maxIdleTime, final Duration evictionInterval) {
+        BeanUtils.assertNonNull(connectionManager, "connectionManager must provide!");
+        this.connectionManager = connectionManager;
+        this.maxIdleTimeMillis = maxIdleTime.toMillis();
+        this.evictionIntervalMillis = evictionInterval.toMillis();
+        this.evictorThread = new Thread(this::evict, "idle-connection-evictor-" + clientName);
+        this.evictorThread.setDaemon(true);
+    }
+
+    /**
+     * Closes expired and idle connections until shutdown.
+     */
+    private void evict() {
+        while (!shutdown && !Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(evictionIntervalMillis);
+                connectionManager.closeExpiredConnections();
+                if (maxIdleTimeMillis > 0) {
+                    connectionManager.closeIdleConnections(maxIdleTimeMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                LOGGER.warn("evict() - failed to evict connections", ex);
+            }
+        }
+    }
+
+    /**
+     *
+     */
+    public void start() {
+        evictorThread.start();
+    }
+
+    /**
+     *
+     */
+    public void shutdown() {
+        shutdown = true;
+        evictorThread.interrupt();
+    }
+
+    /**
+     * @return
+     */
+    public boolean isRunning() {
+        return evictorThread.isAlive();
+    }
+}
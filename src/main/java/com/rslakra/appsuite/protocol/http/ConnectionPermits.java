@@ -0,0 +1,121 @@
+package com.rslakra.appsuite.protocol.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mirrors the total and per-route caps of the connection pool of the <code>SyncHttpClient</code>s with fair semaphores.
+ * <p>
+ * The pool of httpcore 4.4 waits for a free connection inside a monitor, which pins a virtual thread to its carrier
+ * thread for as long as it waits. With thousands of virtual threads queued on one pool, the carrier threads run out
+ * and everything stalls. Every lease of the pool acquires a permit here first, so that the virtual threads park on a
+ * <code>Semaphore</code> instead and only enter the pool when a connection is (almost certainly) free. There is one
+ * instance per pool, shared by the clients of the pool and its warmer, since the caps are the ones of the pool.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 3:10 PM
+ */
+final class ConnectionPermits {
+
+    private final long timeoutMillis;
+    private final int maxConnPerRoute;
+    private final Map<HttpRoute, Integer> routeOverrides;
+    private final Semaphore totalPermits;
+    private final Map<HttpRoute, Semaphore> routePermits = new ConcurrentHashMap<>();
+
+    /**
+     * @param poolConfig
+     * @param timeoutMillis max wait for a permit, <code>0</code> or less waits forever.
+     */
+    ConnectionPermits(final ConnectionPoolConfig poolConfig, final long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxConnPerRoute = poolConfig.getMaxConnPerRoute();
+        this.routeOverrides = poolConfig.getRouteOverrides();
+        this.totalPermits = new Semaphore(poolConfig.getMaxConnTotal(), true);
+    }
+
+    /**
+     * Acquires a route permit and then a total permit, the same order as the pool.
+     *
+     * @param uri
+     * @return the route to release.
+     * @throws ConnectionPoolTimeoutException
+     * @throws InterruptedException
+     */
+    HttpRoute acquire(final URI uri) throws ConnectionPoolTimeoutException, InterruptedException {
+        return acquire(routeOf(uri), timeoutMillis);
+    }
+
+    /**
+     * Acquires a route permit and then a total permit, the same order as the pool.
+     *
+     * @param httpRoute
+     * @param timeoutMillis max wait for the permits, <code>0</code> or less waits forever.
+     * @return the route to release.
+     * @throws ConnectionPoolTimeoutException
+     * @throws InterruptedException
+     */
+    HttpRoute acquire(final HttpRoute httpRoute, final long timeoutMillis)
+        throws ConnectionPoolTimeoutException, InterruptedException {
+        final Semaphore permits = routePermits.computeIfAbsent(
+            httpRoute, route -> new Semaphore(routeOverrides.getOrDefault(route, maxConnPerRoute), true));
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        if (!tryAcquire(permits, deadline, timeoutMillis)) {
+            throw new ConnectionPoolTimeoutException("Timeout waiting for connection permit of route:" + httpRoute);
+        }
+        try {
+            if (!tryAcquire(totalPermits, deadline, timeoutMillis)) {
+                throw new ConnectionPoolTimeoutException("Timeout waiting for connection permit");
+            }
+        } catch (ConnectionPoolTimeoutException | InterruptedException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+
+        return httpRoute;
+    }
+
+    /**
+     * @param httpRoute
+     */
+    void release(final HttpRoute httpRoute) {
+        totalPermits.release();
+        routePermits.get(httpRoute).release();
+    }
+
+    /**
+     * @param semaphore
+     * @param deadline
+     * @param timeoutMillis
+     * @return
+     * @throws InterruptedException
+     */
+    private static boolean tryAcquire(final Semaphore semaphore, final long deadline, final long timeoutMillis)
+        throws InterruptedException {
+        if (timeoutMillis <= 0) {
+            semaphore.acquire();
+            return true;
+        }
+
+        return semaphore.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the route as keyed by <code>ConnectionPoolConfig.getRouteOverrides()</code>.
+     *
+     * @param uri
+     * @return
+     */
+    static HttpRoute routeOf(final URI uri) {
+        final boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        final int port = (uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80));
+        return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+    }
+}
@@ -0,0 +1,273 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.SchemePortResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection pool settings shared by the sync and async clients built by <code>HttpClientBuilder</code>.
+ * <p>
+ * The total cap bounds all sockets of a client, the per-route cap bounds the sockets of a single downstream, so that
+ * one hot route can't starve every other route. Per-route overrides are keyed by host (<code>host</code>,
+ * <code>host:port</code> or <code>scheme://host:port</code>).
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 10:05 AM
+ */
+public final class ConnectionPoolConfig {
+
+    public static final int DEFAULT_MAX_CONN_TOTAL = 200;
+    public static final int DEFAULT_MAX_CONN_PER_ROUTE = 20;
+    public static final Duration DEFAULT_VALIDATE_AFTER_INACTIVITY = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_MAX_IDLE_TIME = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_EVICTION_INTERVAL = Duration.ofSeconds(5);
+
+    private final int maxConnTotal;
+    private final int maxConnPerRoute;
+    private final Map<String, Integer> maxConnPerHost = new LinkedHashMap<>();
+    private final Duration connTimeToLive;
+    private final Duration validateAfterInactivity;
+    private final boolean evictIdleConnections;
+    private final Duration maxIdleTime;
+    private final Duration evictionInterval;
+
+    /**
+     * @param builder
+     */
+    private ConnectionPoolConfig(final ConnectionPoolConfigBuilder builder) {
+        this.maxConnTotal = builder.maxConnTotal;
+        this.maxConnPerRoute = builder.maxConnPerRoute;
+        this.maxConnPerHost.putAll(builder.maxConnPerHost);
+        this.connTimeToLive = builder.connTimeToLive;
+        this.validateAfterInactivity = builder.validateAfterInactivity;
+        this.evictIdleConnections = builder.evictIdleConnections;
+        this.maxIdleTime = builder.maxIdleTime;
+        this.evictionInterval = builder.evictionInterval;
+    }
+
+    /**
+     * @return
+     */
+    public int getMaxConnTotal() {
+        return maxConnTotal;
+    }
+
+    /**
+     * @return
+     */
+    public int getMaxConnPerRoute() {
+        return maxConnPerRoute;
+    }
+
+    /**
+     * @return
+     */
+    public Map<String, Integer> getMaxConnPerHost() {
+        return Collections.unmodifiableMap(maxConnPerHost);
+    }
+
+    /**
+     * Returns the connection time-to-live, <code>null</code> means connections never expire.
+     *
+     * @return
+     */
+    public Duration getConnTimeToLive() {
+        return connTimeToLive;
+    }
+
+    /**
+     * @return
+     */
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    /**
+     * @return
+     */
+    public boolean isEvictIdleConnections() {
+        return evictIdleConnections;
+    }
+
+    /**
+     * @return
+     */
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    /**
+     * @return
+     */
+    public Duration getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    /**
+     * Returns the per-route overrides as apache routes. Hosts without an explicit port get the default port of their
+     * scheme, so that they match the routes computed by the route planner.
+     *
+     * @return
+     */
+    public Map<HttpRoute, Integer> getRouteOverrides() {
+        final SchemePortResolver portResolver = DefaultSchemePortResolver.INSTANCE;
+        final Map<HttpRoute, Integer> routeOverrides = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : maxConnPerHost.entrySet()) {
+            HttpHost httpHost = HttpHost.create(entry.getKey());
+            final boolean secure = "https".equalsIgnoreCase(httpHost.getSchemeName());
+            if (httpHost.getPort() <= 0) {
+                try {
+                    httpHost = new HttpHost(httpHost.getHostName(), portResolver.resolve(httpHost),
+                                            httpHost.getSchemeName());
+                } catch (Exception ex) {
+                    throw new HttpClientException("Invalid route host:" + entry.getKey(), ex);
+                }
+            }
+            routeOverrides.put(new HttpRoute(httpHost, null, secure), entry.getValue());
+        }
+
+        return routeOverrides;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(ConnectionPoolConfig.class)
+            .add("maxConnTotal", getMaxConnTotal())
+            .add("maxConnPerRoute", getMaxConnPerRoute())
+            .add("maxConnPerHost", getMaxConnPerHost())
+            .add("connTimeToLive", getConnTimeToLive())
+            .add("validateAfterInactivity", getValidateAfterInactivity())
+            .add("evictIdleConnections", isEvictIdleConnections())
+            .add("maxIdleTime", getMaxIdleTime())
+            .add("evictionInterval", getEvictionInterval())
+            .toString();
+    }
+
+    /**
+     * @return
+     */
+    public static ConnectionPoolConfig ofDefaults() {
+        return newBuilder().build();
+    }
+
+    /**
+     * @return
+     */
+    public static ConnectionPoolConfigBuilder newBuilder() {
+        return new ConnectionPoolConfigBuilder();
+    }
+
+    /**
+     *
+     */
+    public static class ConnectionPoolConfigBuilder {
+
+        private int maxConnTotal = DEFAULT_MAX_CONN_TOTAL;
+        private int maxConnPerRoute = DEFAULT_MAX_CONN_PER_ROUTE;
+        private final Map<String, Integer> maxConnPerHost = new LinkedHashMap<>();
+        private Duration connTimeToLive;
+        private Duration validateAfterInactivity = DEFAULT_VALIDATE_AFTER_INACTIVITY;
+        private boolean evictIdleConnections = true;
+        private Duration maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+        private Duration evictionInterval = DEFAULT_EVICTION_INTERVAL;
+
+        private ConnectionPoolConfigBuilder() {
+        }
+
+        /**
+         * @param maxConnTotal
+         * @return
+         */
+        public ConnectionPoolConfigBuilder setMaxConnTotal(final int maxConnTotal) {
+            this.maxConnTotal = maxConnTotal;
+            return this;
+        }
+
+        /**
+         * @param maxConnPerRoute
+         * @return
+         */
+        public ConnectionPoolConfigBuilder setMaxConnPerRoute(final int maxConnPerRoute) {
+            this.maxConnPerRoute = maxConnPerRoute;
+            return this;
+        }
+
+        /**
+         * @param host
+         * @param maxConn
+         * @return
+         */
+        public ConnectionPoolConfigBuilder setMaxConnPerRoute(final String host, final int maxConn) {
+            BeanUtils.assertNonNull(host, "host must provide!");
+            this.maxConnPerHost.put(host, maxConn);
+            return this;
+        }
+
+        /**
+         * @param connTimeToLive
+         * @return
+         */
+        public ConnectionPoolConfigBuilder setConnTimeToLive(final Duration connTimeToLive) {
+            this.connTimeToLive = connTimeToLive;
+            return this;
+        }
+
+        /**
+         * @param validateAfterInactivity
+         * @return
+         */
+        public ConnectionPoolConfigBuilder setValidateAfterInactivity(final Duration validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        /**
+         * @param maxIdleTime
+         * @param evictionInterval
+         * @return
+         */
+        public ConnectionPoolConfigBuilder evictIdleConnections(final Duration maxIdleTime,
+                                                                final Duration evictionInterval) {
+            this.evictIdleConnections = true;
+            this.maxIdleTime = maxIdleTime;
+            this.evictionInterval = evictionInterval;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public ConnectionPoolConfigBuilder turnOffEviction() {
+            this.evictIdleConnections = false;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public ConnectionPoolConfig build() {
+            if (maxConnTotal <= 0 || maxConnPerRoute <= 0) {
+                throw new HttpClientException("maxConnTotal and maxConnPerRoute must be positive!");
+            }
+            if (maxConnPerRoute > maxConnTotal) {
+                maxConnPerRoute = maxConnTotal;
+            }
+            if (evictIdleConnections && (BeanUtils.isNull(maxIdleTime) || BeanUtils.isNull(evictionInterval))) {
+                throw new HttpClientException("maxIdleTime and evictionInterval must provide for eviction!");
+            }
+
+            return new ConnectionPoolConfig(this);
+        }
+    }
+}
@@ -0,0 +1,603 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.conn.ManagedNHttpClientConnection;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLSession;
+
+/**
+ * Opens the pooled connections of the <code>WarmupConfig</code> routes ahead of the first requests.
+ * <p>
+ * <code>start()</code> resolves the hosts of the routes, then opens (connects and, for <code>https</code>, handshakes)
+ * the connections of all the routes in parallel. All the pool entries of a route are leased first, so that the pool
+ * creates new entries for the missing connections rather than handing out the same idle connection again. The idle
+ * connections go back to the pool right away, leasing an entry doesn't wait for the network, so the requests are
+ * never kept from an idle connection while the new ones connect. The keeper then periodically tops the pools back
+ * up, after the idle connection evictor closed their connections, unless requests are waiting for the connections of
+ * the route.
+ * <p>
+ * Tunnelled routes (<code>https</code> through a proxy) are not warmed up, their tunnel needs a
+ * <code>CONNECT</code> exchange of the client.
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 3:10 AM
+ */
+public final class ConnectionWarmer {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionWarmer.class);
+    // the cipher suite of the session of a handshake in progress
+    private static final String NULL_CIPHER_SUITE = "SSL_NULL_WITH_NULL_NULL";
+    private static final long HANDSHAKE_POLL_MILLIS = 10;
+
+    private final String clientName;
+    private final WarmupConfig warmupConfig;
+    private final ConnPoolControl<HttpRoute> poolControl;
+    private final Connector connector;
+    private final Map<HttpRoute, Integer> targets;
+    private final ExecutorService executor;
+    private final Thread keeperThread;
+    private final AtomicLong warmedConnections = new AtomicLong();
+    private final AtomicLong failedConnections = new AtomicLong();
+    private volatile boolean ready;
+    private volatile boolean shutdown;
+
+    /**
+     * Leases a pool entry of a route, without waiting for its connection to open.
+     */
+    @FunctionalInterface
+    private interface Connector {
+
+        /**
+         * @param route
+         * @param timeoutMillis
+         * @return
+         * @throws Exception
+         */
+        Lease lease(HttpRoute route, long timeoutMillis) throws Exception;
+    }
+
+    /**
+     * A leased pool entry, an idle connection of the pool or a new one to open, until released to the pool.
+     */
+    private abstract static class Lease {
+
+        private final boolean open;
+
+        /**
+         * @param open
+         */
+        private Lease(final boolean open) {
+            this.open = open;
+        }
+
+        /**
+         * Returns true if the entry is an idle connection of the pool.
+         *
+         * @return
+         */
+        private boolean isOpen() {
+            return open;
+        }
+
+        /**
+         * Opens the connection of a new entry, which is closed if it fails.
+         *
+         * @param timeoutMillis
+         * @throws Exception
+         */
+        abstract void connect(long timeoutMillis) throws Exception;
+
+        abstract void release();
+    }
+
+    /**
+     * @param clientName
+     * @param warmupConfig
+     * @param poolControl
+     * @param connector
+     * @param requestConfig
+     * @param routePlanner
+     */
+    private ConnectionWarmer(final String clientName, final WarmupConfig warmupConfig,
+                             final ConnPoolControl<HttpRoute> poolControl, final Connector connector,
+                             final RequestConfig requestConfig, final HttpRoutePlanner routePlanner) {
+        BeanUtils.assertNonNull(warmupConfig, "warmupConfig must provide!");
+        this.clientName = clientName;
+        this.warmupConfig = warmupConfig;
+        this.poolControl = poolControl;
+        this.connector = connector;
+        this.targets = Collections.unmodifiableMap(determineTargets(requestConfig, routePlanner));
+        this.executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("connection-warmer-" + clientName + "-", 0).factory());
+        this.keeperThread = new Thread(this::keepWarm, "connection-warmer-" + clientName);
+        this.keeperThread.setDaemon(true);
+    }
+
+    /**
+     * Returns the warmer of the pool of a <code>SyncHttpClient</code>.
+     *
+     * @param clientName
+     * @param warmupConfig
+     * @param connectionManager
+     * @param requestConfig
+     * @param routePlanner      the route planner of the client, if any.
+     * @return
+     */
+    public static ConnectionWarmer of(final String clientName, final WarmupConfig warmupConfig,
+                                      final PoolingHttpClientConnectionManager connectionManager,
+                                      final RequestConfig requestConfig, final HttpRoutePlanner routePlanner) {
+        return of(clientName, warmupConfig, connectionManager, requestConfig, routePlanner, null);
+    }
+
+    /**
+     * Returns the warmer of the pool of a <code>SyncHttpClient</code>, leasing with the permits of the pool.
+     *
+     * @param clientName
+     * @param warmupConfig
+     * @param connectionManager
+     * @param requestConfig
+     * @param routePlanner      the route planner of the client, if any.
+     * @param connectionPermits the permits of the pool, if any.
+     * @return
+     */
+    static ConnectionWarmer of(final String clientName, final WarmupConfig warmupConfig,
+                               final PoolingHttpClientConnectionManager connectionManager,
+                               final RequestConfig requestConfig, final HttpRoutePlanner routePlanner,
+                               final ConnectionPermits connectionPermits) {
+        BeanUtils.assertNonNull(connectionManager, "connectionManager must provide!");
+        final int connectTimeout = Math.max(0, requestConfig.getConnectTimeout());
+        final Connector connector = (route, timeoutMillis) -> {
+            final HttpRoute permitRoute = (BeanUtils.isNull(connectionPermits) ? null
+                                           : connectionPermits.acquire(route, timeoutMillis));
+            final HttpClientConnection connection;
+            try {
+                final ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+                // the pool creates the new entries unconnected
+                connection = connectionRequest.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (Exception ex) {
+                if (BeanUtils.isNotNull(permitRoute)) {
+                    connectionPermits.release(permitRoute);
+                }
+                throw ex;
+            }
+            return new Lease(connection.isOpen()) {
+
+                @Override
+                void connect(final long timeoutMillis) throws Exception {
+                    try {
+                        final HttpClientContext context = newContext(requestConfig);
+                        connectionManager.connect(connection, route, connectTimeout, context);
+                        connectionManager.routeComplete(connection, route, context);
+                    } catch (Exception ex) {
+                        connection.close();
+                        throw ex;
+                    }
+                }
+
+                @Override
+                void release() {
+                    connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+                    if (BeanUtils.isNotNull(permitRoute)) {
+                        connectionPermits.release(permitRoute);
+                    }
+                }
+            };
+        };
+
+        return new ConnectionWarmer(clientName, warmupConfig, connectionManager, connector, requestConfig,
+                                    routePlanner);
+    }
+
+    /**
+     * Returns the warmer of the pool of an <code>AsyncHttpClient</code>, started after its I/O reactor.
+     *
+     * @param clientName
+     * @param warmupConfig
+     * @param connectionManager
+     * @param requestConfig
+     * @param routePlanner      the route planner of the client, if any.
+     * @return
+     */
+    public static ConnectionWarmer of(final String clientName, final WarmupConfig warmupConfig,
+                                      final PoolingNHttpClientConnectionManager connectionManager,
+                                      final RequestConfig requestConfig, final HttpRoutePlanner routePlanner) {
+        BeanUtils.assertNonNull(connectionManager, "connectionManager must provide!");
+        final long connectTimeout = Math.max(0, requestConfig.getConnectTimeout());
+        final Connector connector = (route, timeoutMillis) -> {
+            final Future<NHttpClientConnection> future = connectionManager.requestConnection(
+                route, null, connectTimeout, timeoutMillis, TimeUnit.MILLISECONDS, null);
+            // an idle connection is handed out right away, a new one once the I/O reactor connected it
+            final boolean open = (future.isDone() && connectionManager.isRouteComplete(future.get()));
+            return new Lease(open) {
+
+                @Override
+                void connect(final long timeoutMillis) throws Exception {
+                    final NHttpClientConnection connection;
+                    try {
+                        connection = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException ex) {
+                        // the pool releases the connection of a cancelled lease
+                        future.cancel(true);
+                        throw ex;
+                    }
+                    try {
+                        if (!connectionManager.isRouteComplete(connection)) {
+                            final HttpClientContext context = newContext(requestConfig);
+                            connectionManager.startRoute(connection, route, context);
+                            connectionManager.routeComplete(connection, route, context);
+                            // the SSL I/O session only writes its first handshake message on the next event mask
+                            // update
+                            connection.requestInput();
+                        }
+                        // the I/O reactor handshakes in the background
+                        if (route.isSecure()) {
+                            awaitHandshake((ManagedNHttpClientConnection) connection, timeoutMillis);
+                        }
+                    } catch (Exception ex) {
+                        connection.shutdown();
+                        throw ex;
+                    }
+                }
+
+                @Override
+                void release() {
+                    // a failed or cancelled lease has no connection
+                    if (future.isDone() && !future.isCancelled()) {
+                        try {
+                            connectionManager.releaseConnection(future.get(), null, 0, TimeUnit.MILLISECONDS);
+                        } catch (Exception ex) {
+                            LOGGER.debug("release() - failed connection of route={}", route, ex);
+                        }
+                    }
+                }
+            };
+        };
+
+        return new ConnectionWarmer(clientName, warmupConfig, connectionManager, connector, requestConfig,
+                                    routePlanner);
+    }
+
+    /**
+     * @param requestConfig
+     * @return
+     */
+    private static HttpClientContext newContext(final RequestConfig requestConfig) {
+        final HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig);
+        return context;
+    }
+
+    /**
+     * Waits for the TLS handshake of the connection.
+     *
+     * @param connection
+     * @param timeoutMillis
+     * @throws Exception
+     */
+    private static void awaitHandshake(final ManagedNHttpClientConnection connection, final long timeoutMillis)
+        throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            if (!connection.isOpen()) {
+                throw new IOException("Connection closed during the TLS handshake!");
+            }
+            final SSLSession sslSession = connection.getSSLSession();
+            if (BeanUtils.isNotNull(sslSession) && !NULL_CIPHER_SUITE.equals(sslSession.getCipherSuite())) {
+                return;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new TimeoutException("TLS handshake timed out!");
+            }
+            Thread.sleep(HANDSHAKE_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Returns the connections to open per route, the same routes as the requests of the client to the
+     * <code>WarmupConfig</code> routes.
+     *
+     * @param requestConfig
+     * @param routePlanner
+     * @return
+     */
+    private Map<HttpRoute, Integer> determineTargets(final RequestConfig requestConfig,
+                                                     final HttpRoutePlanner routePlanner) {
+        final HttpRoutePlanner planner = (BeanUtils.isNull(routePlanner)
+                                          ? new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE)
+                                          : routePlanner);
+        final Map<HttpRoute, Integer> targets = new LinkedHashMap<>();
+        for (URI uri : warmupConfig.getRoutes()) {
+            try {
+                final HttpRoute route = planner.determineRoute(URIUtils.extractHost(uri),
+                                                               new BasicHttpRequest("GET", uri.toString()),
+                                                               newContext(requestConfig));
+                if (route.isTunnelled()) {
+                    LOGGER.warn("determineTargets() - not warming up the tunnelled route={} of clientName={}", route,
+                                clientName);
+                    continue;
+                }
+                targets.put(route, Math.min(warmupConfig.getConnectionsPerRoute(), poolControl.getMaxPerRoute(route)));
+            } catch (Exception ex) {
+                throw new HttpClientException(ex);
+            }
+        }
+
+        return targets;
+    }
+
+    /**
+     * Warms up the pool, waiting up to the timeout of the <code>WarmupConfig</code>, then starts the keeper, if
+     * enabled. The client is usable, only not ready, when the connections could not all be opened in time.
+     *
+     * @return
+     */
+    public boolean start() {
+        final boolean warmedUp = warmUp();
+        if (warmupConfig.isKeepWarm()) {
+            keeperThread.start();
+        }
+
+        return warmedUp;
+    }
+
+    /**
+     * Resolves the hosts of the routes and opens their connections, returns true if all the connections were open
+     * before the timeout of the <code>WarmupConfig</code>.
+     *
+     * @return
+     */
+    public boolean warmUp() {
+        final long startTime = System.nanoTime();
+        final long deadline = startTime + warmupConfig.getTimeout().toNanos();
+        resolveHosts(deadline);
+        final int warmed = open(targets, deadline);
+        final int expected = targets.values().stream().mapToInt(Integer::intValue).sum();
+        ready = (warmed == expected);
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        if (ready) {
+            LOGGER.info("warmUp() - warmed up {} connections for clientName={} in {} ms", warmed, clientName,
+                        elapsedMillis);
+        } else {
+            LOGGER.warn("warmUp() - warmed up {} of {} connections for clientName={} in {} ms", warmed, expected,
+                        clientName, elapsedMillis);
+        }
+
+        return ready;
+    }
+
+    /**
+     * Resolves the hosts of the routes in parallel, so that the connections don't wait for the DNS lookups in turn.
+     *
+     * @param deadline
+     */
+    private void resolveHosts(final long deadline) {
+        final Set<String> hostNames = new LinkedHashSet<>();
+        for (HttpRoute route : targets.keySet()) {
+            for (int hop = 0; hop < route.getHopCount(); hop++) {
+                hostNames.add(route.getHopTarget(hop).getHostName());
+            }
+        }
+        final List<Future<InetAddress[]>> futures = new ArrayList<>();
+        for (String hostName : hostNames) {
+            futures.add(executor.submit(() -> InetAddress.getAllByName(hostName)));
+        }
+        for (Future<InetAddress[]> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                // the connections of the host fail and are counted instead
+                LOGGER.warn("resolveHosts() - failed to resolve hosts of clientName={}", clientName, ex);
+            }
+        }
+    }
+
+    /**
+     * Leases the connections of the routes and opens those the pool has no idle connection for in parallel, returns the
+     * number open before the deadline.
+     *
+     * @param connections
+     * @param deadline
+     * @return
+     */
+    private int open(final Map<HttpRoute, Integer> connections, final long deadline) {
+        // all the entries are leased first, otherwise the pool would hand out the same idle connection again
+        final List<Lease> leases = new ArrayList<>();
+        for (Map.Entry<HttpRoute, Integer> entry : connections.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                try {
+                    leases.add(connector.lease(entry.getKey(), remainingMillis(deadline)));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception ex) {
+                    failedConnections.incrementAndGet();
+                    LOGGER.debug("open() - failed to lease connection of route={}", entry.getKey(), ex);
+                }
+            }
+        }
+
+        // the idle connections go back to the requests right away
+        final AtomicInteger opened = new AtomicInteger();
+        final List<Lease> newLeases = new ArrayList<>();
+        for (Lease lease : leases) {
+            if (lease.isOpen()) {
+                lease.release();
+                opened.incrementAndGet();
+            } else {
+                newLeases.add(lease);
+            }
+        }
+
+        final CountDownLatch attempted = new CountDownLatch(newLeases.size());
+        for (Lease lease : newLeases) {
+            executor.execute(() -> {
+                try {
+                    lease.connect(remainingMillis(deadline));
+                    warmedConnections.incrementAndGet();
+                    opened.incrementAndGet();
+                } catch (Exception ex) {
+                    failedConnections.incrementAndGet();
+                    LOGGER.debug("open() - failed to open connection", ex);
+                } finally {
+                    lease.release();
+                    attempted.countDown();
+                }
+            });
+        }
+
+        try {
+            attempted.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        return opened.get();
+    }
+
+    /**
+     * @param deadline
+     * @return
+     */
+    private static long remainingMillis(final long deadline) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * Tops the pools back up until shutdown.
+     */
+    private void keepWarm() {
+        final long intervalMillis = warmupConfig.getKeepWarmInterval().toMillis();
+        while (!shutdown && !Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervalMillis);
+                final Map<HttpRoute, Integer> connections = new LinkedHashMap<>();
+                for (Map.Entry<HttpRoute, Integer> entry : targets.entrySet()) {
+                    final PoolStats stats = poolControl.getStats(entry.getKey());
+                    final int missing = entry.getValue() - stats.getLeased() - stats.getAvailable();
+                    // the requests waiting for a connection get the new ones, if any
+                    if (missing > 0 && stats.getPending() == 0) {
+                        // the idle connections too, otherwise the pool hands them out instead of creating new ones
+                        connections.put(entry.getKey(), stats.getAvailable() + missing);
+                    }
+                }
+                if (!connections.isEmpty()) {
+                    final long warmed = warmedConnections.get();
+                    open(connections, System.nanoTime() + warmupConfig.getTimeout().toNanos());
+                    LOGGER.debug("keepWarm() - reopened {} connections for clientName={}",
+                                 warmedConnections.get() - warmed, clientName);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                LOGGER.warn("keepWarm() - failed to top up connections", ex);
+            }
+        }
+    }
+
+    /**
+     *
+     */
+    public void shutdown() {
+        shutdown = true;
+        keeperThread.interrupt();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns true while the keeper is running.
+     *
+     * @return
+     */
+    public boolean isRunning() {
+        return keeperThread.isAlive();
+    }
+
+    /**
+     * Returns true if the last warm-up opened all the connections in time.
+     *
+     * @return
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the connections to open per route.
+     *
+     * @return
+     */
+    public Map<HttpRoute, Integer> getTargets() {
+        return targets;
+    }
+
+    /**
+     * Returns the number of connections opened, by the warm-ups and the keeper.
+     *
+     * @return
+     */
+    public long getWarmedConnections() {
+        return warmedConnections.get();
+    }
+
+    /**
+     * @return
+     */
+    public long getFailedConnections() {
+        return failedConnections.get();
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(ConnectionWarmer.class)
+            .add("clientName", clientName)
+            .add("targets", getTargets())
+            .add("ready", isReady())
+            .add("warmedConnections", getWarmedConnections())
+            .add("failedConnections", getFailedConnections())
+            .toString();
+    }
+}
@@ -4,18 +4,28 @@ import com.rslakra.appsuite.core.BeanUtils;
 import org.apache.http.Header;
 import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.protocol.HTTP;
 import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Locale;
 
 /**
+ * A content coding of the http clients. It decodes the responses and, when it supports compression, compresses the
+ * request bodies. The <code>quality</code> is its q-value in the <code>Accept-Encoding</code> header.
+ * <p>
+ * The codings without an <code>EncodingType</code>, i.e. <code>br</code> or <code>zstd</code>, are identified by their
+ * token, so that the decoders of third-party libraries can be registered.
+ *
  * @author Rohtash Lakra
  * @created 4/13/20 6:06 PM
  */
@@ -23,20 +33,62 @@ public abstract class ContentEncoding {
 
     // LOGGER
     private static final Logger LOGGER = LoggerFactory.getLogger(ContentEncoding.class);
-    private final EncodingType contentEncodingType;
+    private final String contentEncoding;
+    private final double quality;
+
+    /**
+     * @param contentEncoding the content coding token, i.e. <code>br</code>.
+     * @param quality
+     */
+    public ContentEncoding(final String contentEncoding, final double quality) {
+        if (BeanUtils.isEmpty(contentEncoding)) {
+            throw new HttpClientException("contentEncoding must provide!");
+        }
+        if (quality < 0 || quality > 1) {
+            throw new HttpClientException("quality must be between 0.0 and 1.0!");
+        }
+        this.contentEncoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        this.quality = quality;
+    }
+
+    /**
+     * @param contentEncodingType
+     * @param quality
+     */
+    public ContentEncoding(final EncodingType contentEncodingType, final double quality) {
+        this(BeanUtils.isNull(contentEncodingType) ? null : contentEncodingType.getToken(), quality);
+    }
 
     /**
      * @param contentEncodingType
      */
     public ContentEncoding(final EncodingType contentEncodingType) {
-        this.contentEncodingType = contentEncodingType;
+        this(contentEncodingType, 1.0);
+    }
+
+    /**
+     * Returns the type of the coding, <code>null</code> for a coding without one.
+     *
+     * @return
+     */
+    public EncodingType getContentEncodingType() {
+        return EncodingType.forToken(contentEncoding);
     }
 
     /**
+     * Returns the content coding token, i.e. <code>gzip</code>.
+     *
      * @return
      */
     public String getContentEncoding() {
-        return contentEncodingType.toString();
+        return contentEncoding;
+    }
+
+    /**
+     * @return
+     */
+    public double getQuality() {
+        return quality;
     }
 
     /**
@@ -45,6 +97,25 @@ public abstract class ContentEncoding {
      */
     protected abstract HttpEntity wrapResponseEntity(HttpEntity httpEntity);
 
+    /**
+     * Returns true if the encoding compresses request bodies, see <code>wrapRequestEntity()</code>.
+     *
+     * @return
+     */
+    public boolean isCompressionSupported() {
+        return false;
+    }
+
+    /**
+     * Returns the compressed <code>httpEntity</code>, only called when <code>isCompressionSupported()</code>.
+     *
+     * @param httpEntity
+     * @return
+     */
+    protected HttpEntity wrapRequestEntity(HttpEntity httpEntity) {
+        throw new UnsupportedOperationException(getContentEncoding() + " doesn't compress request bodies!");
+    }
+
     /**
      * @return
      */
@@ -52,6 +123,21 @@ public abstract class ContentEncoding {
         return new ContentEncoding.RequestInterceptor();
     }
 
+    /**
+     * Returns the interceptor compressing the request bodies of at least <code>minSize</code> bytes, the bodies of
+     * unknown length are always compressed.
+     *
+     * @param minSize
+     * @return
+     */
+    public HttpRequestInterceptor getCompressionInterceptor(final long minSize) {
+        if (!isCompressionSupported()) {
+            throw new HttpClientException(getContentEncoding() + " doesn't compress request bodies!");
+        }
+
+        return new ContentEncoding.CompressionInterceptor(minSize);
+    }
+
     /**
      * @return
      */
@@ -76,6 +162,10 @@ public abstract class ContentEncoding {
         public void process(HttpResponse httpResponse, HttpContext httpContext) {
             if (this.hasEncoding(httpResponse, ContentEncoding.this.getContentEncoding())) {
                 httpResponse.setEntity(ContentEncoding.this.wrapResponseEntity(httpResponse.getEntity()));
+                // describe the encoded body, so that neither a handler nor the cache decodes it twice
+                httpResponse.removeHeaders(HttpHeaders.CONTENT_ENCODING);
+                httpResponse.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+                httpResponse.removeHeaders(HttpHeaders.CONTENT_MD5);
             }
         }
 
@@ -120,7 +210,55 @@ public abstract class ContentEncoding {
          */
         @Override
         public void process(HttpRequest httpRequest, HttpContext httpContext) throws HttpException, IOException {
-            HTTPUtils.setAcceptEncodingHeader(httpRequest, getContentEncoding());
+            HTTPUtils.setAcceptEncodingHeader(httpRequest, getContentEncoding(), getQuality());
+        }
+    }
+
+    /**
+     * Compresses the request body and owns the headers describing it: <code>Content-Encoding</code> and, when
+     * <code>RequestContent</code> already framed the original body, <code>Content-Length</code> and
+     * <code>Transfer-Encoding</code>. Otherwise <code>RequestContent</code> frames the compressed body, which is
+     * chunked.
+     */
+    protected class CompressionInterceptor implements HttpRequestInterceptor {
+
+        private final long minSize;
+
+        /**
+         * @param minSize
+         */
+        protected CompressionInterceptor(final long minSize) {
+            this.minSize = minSize;
+        }
+
+        /**
+         * @param httpRequest
+         * @param httpContext
+         */
+        @Override
+        public void process(HttpRequest httpRequest, HttpContext httpContext) {
+            if (!(httpRequest instanceof HttpEntityEnclosingRequest)) {
+                return;
+            }
+
+            final HttpEntityEnclosingRequest entityRequest = (HttpEntityEnclosingRequest) httpRequest;
+            final HttpEntity httpEntity = entityRequest.getEntity();
+            // already encoded by the caller, or too small to pay off
+            if (BeanUtils.isNull(httpEntity) || BeanUtils.isNotNull(httpEntity.getContentEncoding())
+                || httpRequest.containsHeader(HttpHeaders.CONTENT_ENCODING)
+                || (httpEntity.getContentLength() >= 0 && httpEntity.getContentLength() < minSize)) {
+                return;
+            }
+
+            entityRequest.setEntity(wrapRequestEntity(httpEntity));
+            httpRequest.setHeader(HttpHeaders.CONTENT_ENCODING, getContentEncoding());
+            // the length of the original body, the compressed one is unknown
+            if (httpRequest.containsHeader(HttpHeaders.CONTENT_LENGTH)
+                || httpRequest.containsHeader(HttpHeaders.TRANSFER_ENCODING)) {
+                httpRequest.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+                httpRequest.setHeader(HttpHeaders.TRANSFER_ENCODING, HTTP.CHUNK_CODING);
+            }
+            httpRequest.removeHeaders(HttpHeaders.CONTENT_MD5);
         }
     }
 
@@ -132,6 +270,15 @@ public abstract class ContentEncoding {
         COMPRESS,
         DEFLATE;
 
+        /**
+         * Returns the content coding token of the headers.
+         *
+         * @return
+         */
+        public String getToken() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
         /**
          * @param encodingType
          * @return
@@ -139,5 +286,21 @@ public abstract class ContentEncoding {
         public static EncodingType forName(final String encodingType) {
             return (BeanUtils.isNull(encodingType) ? null : EncodingType.valueOf(encodingType.toUpperCase()));
         }
+
+        /**
+         * Returns the type of the content coding <code>token</code>, <code>null</code> if none.
+         *
+         * @param token
+         * @return
+         */
+        public static EncodingType forToken(final String token) {
+            for (EncodingType encodingType : values()) {
+                if (encodingType.getToken().equalsIgnoreCase(token)) {
+                    return encodingType;
+                }
+            }
+
+            return null;
+        }
     }
 }
@@ -3,14 +3,31 @@ package com.rslakra.appsuite.protocol.http;
 import com.rslakra.appsuite.core.BeanUtils;
 import com.rslakra.appsuite.protocol.http.encoding.DeflateEncoding;
 import com.rslakra.appsuite.protocol.http.encoding.GZIPEncoding;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
+ * The content encodings of the http clients keyed by their coding token, GZIP and DEFLATE by default.
+ * <p>
+ * The encodings of other q-values, or of other codings (i.e. a <code>br</code> or <code>zstd</code> decoder of a
+ * third-party library, none ships with the clients), are plugged with <code>register()</code>. The
+ * <code>Accept-Encoding</code> header lists every coding of the interceptors with its q-value.
+ *
  * @author Rohtash Lakra
  * @created 4/13/20 6:12 PM
  */
@@ -19,17 +36,91 @@ public final class ContentEncodingRegistry {
     // LOGGER
     private static final Logger LOGGER = LoggerFactory.getLogger(ContentEncodingRegistry.class);
     // availableEncoders
-    private final Map<ContentEncoding.EncodingType, ContentEncoding> availableEncoders = new HashMap<>();
+    private final Map<String, ContentEncoding> availableEncoders = new HashMap<>();
 
     public ContentEncodingRegistry() {
         // register default encoders
         if (BeanUtils.isEmpty(availableEncoders)) {
-            availableEncoders.put(ContentEncoding.EncodingType.GZIP, new GZIPEncoding());
-            availableEncoders.put(ContentEncoding.EncodingType.DEFLATE, new DeflateEncoding());
+            register(new GZIPEncoding());
+            register(new DeflateEncoding());
             LOGGER.debug("availableEncoders:{}", availableEncoders);
         }
     }
 
+    /**
+     * Registers the <code>contentEncoding</code>, replacing the one of its coding if any.
+     *
+     * @param contentEncoding
+     * @return
+     */
+    public ContentEncodingRegistry register(final ContentEncoding contentEncoding) {
+        BeanUtils.assertNonNull(contentEncoding, "contentEncoding must provide!");
+        availableEncoders.put(contentEncoding.getContentEncoding(), contentEncoding);
+        return this;
+    }
+
+    /**
+     * @param contentEncodingType
+     * @return
+     */
+    public ContentEncoding getContentEncoding(final ContentEncoding.EncodingType contentEncodingType) {
+        return (BeanUtils.isNull(contentEncodingType) ? null : getContentEncoding(contentEncodingType.getToken()));
+    }
+
+    /**
+     * @param contentEncoding the content coding token, i.e. <code>br</code>.
+     * @return
+     */
+    public ContentEncoding getContentEncoding(final String contentEncoding) {
+        return (BeanUtils.isNull(contentEncoding) ? null
+                : availableEncoders.get(contentEncoding.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Returns one request interceptor advertising all the <code>contentEncodings</code> in the
+     * <code>Accept-Encoding</code> header. The apache builders keep a single interceptor per class, so the ones of
+     * the encodings can't be added one by one.
+     *
+     * @param contentEncodings the content coding tokens.
+     * @return
+     */
+    public HttpRequestInterceptor getRequestInterceptor(final Collection<String> contentEncodings) {
+        final List<HttpRequestInterceptor> requestInterceptors = new ArrayList<>();
+        for (String contentEncoding : contentEncodings) {
+            requestInterceptors.add(getRegisteredEncoding(contentEncoding).getRequestInterceptor());
+        }
+
+        return new AcceptEncodingInterceptor(requestInterceptors);
+    }
+
+    /**
+     * Returns one response interceptor decoding any of the <code>contentEncodings</code>.
+     *
+     * @param contentEncodings the content coding tokens.
+     * @return
+     */
+    public HttpResponseInterceptor getResponseInterceptor(final Collection<String> contentEncodings) {
+        final List<HttpResponseInterceptor> responseInterceptors = new ArrayList<>();
+        for (String contentEncoding : contentEncodings) {
+            responseInterceptors.add(getRegisteredEncoding(contentEncoding).getResponseInterceptor());
+        }
+
+        return new ContentDecodingInterceptor(responseInterceptors);
+    }
+
+    /**
+     * @param contentEncoding
+     * @return
+     */
+    private ContentEncoding getRegisteredEncoding(final String contentEncoding) {
+        final ContentEncoding registeredEncoding = getContentEncoding(contentEncoding);
+        if (BeanUtils.isNull(registeredEncoding)) {
+            throw new HttpClientException("No content encoding registered for " + contentEncoding + "!");
+        }
+
+        return registeredEncoding;
+    }
+
     /**
      * TODO: FIX ME!
      *
@@ -41,7 +132,7 @@ public final class ContentEncodingRegistry {
         httpClient.removeRequestInterceptorByClass(ContentEncoding.RequestInterceptor.class);
         httpClient.removeResponseInterceptorByClass(ContentEncoding.ResponseInterceptor.class);
         for (ContentEncoding.EncodingType contentEncodingType : contentEncodingTypes) {
-            final ContentEncoding contentEncoding = availableEncoders.get(contentEncodingType);
+            final ContentEncoding contentEncoding = getContentEncoding(contentEncodingType);
             LOGGER.debug("contentEncoding:{}", contentEncoding);
             if (BeanUtils.isNotNull(contentEncoding)) {
                 httpClient.addRequestInterceptor(contentEncoding.getRequestInterceptor());
@@ -49,5 +140,62 @@ public final class ContentEncodingRegistry {
             }
         }
     }
-}
 
+    /**
+     * AcceptEncodingInterceptor
+     */
+    private static final class AcceptEncodingInterceptor implements HttpRequestInterceptor {
+
+        private final List<HttpRequestInterceptor> requestInterceptors;
+
+        /**
+         * @param requestInterceptors
+         */
+        private AcceptEncodingInterceptor(final List<HttpRequestInterceptor> requestInterceptors) {
+            this.requestInterceptors = requestInterceptors;
+        }
+
+        /**
+         * @param httpRequest
+         * @param httpContext
+         * @throws HttpException
+         * @throws IOException
+         */
+        @Override
+        public void process(HttpRequest httpRequest, HttpContext httpContext) throws HttpException, IOException {
+            for (HttpRequestInterceptor requestInterceptor : requestInterceptors) {
+                requestInterceptor.process(httpRequest, httpContext);
+            }
+        }
+    }
+
+    /**
+     * ContentDecodingInterceptor
+     */
+    private static final class ContentDecodingInterceptor implements HttpResponseInterceptor {
+
+        private final List<HttpResponseInterceptor> responseInterceptors;
+
+        /**
+         * @param responseInterceptors
+         */
+        private ContentDecodingInterceptor(final List<HttpResponseInterceptor> responseInterceptors) {
+            this.responseInterceptors = responseInterceptors;
+        }
+
+        /**
+         * The interceptor of the response coding decodes it, the others find no coding afterwards.
+         *
+         * @param httpResponse
+         * @param httpContext
+         * @throws HttpException
+         * @throws IOException
+         */
+        @Override
+        public void process(HttpResponse httpResponse, HttpContext httpContext) throws HttpException, IOException {
+            for (HttpResponseInterceptor responseInterceptor : responseInterceptors) {
+                responseInterceptor.process(httpResponse, httpContext);
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.rslakra.appsuite.protocol.http;
 
+import com.rslakra.appsuite.core.ToString;
+import lombok.Getter;
+import lombok.Setter;
+
 /**
  * <pre>
  * {
@@ -13,9 +17,24 @@ package com.rslakra.appsuite.protocol.http;
  * @author Rohtash Lakra
  * @created 9/16/22 2:57 PM
  */
+@Getter
+@Setter
 public class Error {
     private int code;
     private String field;
     private String message;
     private String description;
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(Error.class)
+            .add("code", getCode())
+            .add("field", getField())
+            .add("message", getMessage())
+            .add("description", getDescription())
+            .toString();
+    }
 }
@@ -1,5 +1,9 @@
 package com.rslakra.appsuite.protocol.http;
 
+import com.rslakra.appsuite.core.ToString;
+import lombok.Getter;
+import lombok.Setter;
+
 import java.util.List;
 
 /**
@@ -25,8 +29,22 @@ import java.util.List;
  * @author Rohtash Lakra
  * @created 9/16/22 2:57 PM
  */
+@Getter
+@Setter
 public class ErrorResponse {
     private int statusCode;
     private String message;
     private List<Error> errors;
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(ErrorResponse.class)
+            .add("statusCode", getStatusCode())
+            .add("message", getMessage())
+            .add("errors", getErrors())
+            .toString();
+    }
 }
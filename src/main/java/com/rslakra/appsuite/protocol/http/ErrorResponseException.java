@@ -0,0 +1,65 @@
+package com.rslakra.appsuite.protocol.http;
+
+/**
+ * Thrown by the response handlers when the response is not accepted and its body was decoded as
+ * <code>ErrorResponse</code>.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 1:30 PM
+ */
+public class ErrorResponseException extends HttpClientException {
+
+    private final int statusCode;
+    private final ErrorResponse errorResponse;
+
+    /**
+     * @param statusCode
+     * @param errorResponse
+     */
+    public ErrorResponseException(final int statusCode, final ErrorResponse errorResponse) {
+        super("Error response, statusCode=" + statusCode + ", errorResponse=" + errorResponse);
+        this.statusCode = statusCode;
+        this.errorResponse = errorResponse;
+    }
+
+    /**
+     * @return
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return
+     */
+    public ErrorResponse getErrorResponse() {
+        return errorResponse;
+    }
+
+    /**
+     * Returns true for 4xx responses, which are not worth retrying.
+     *
+     * @return
+     */
+    public boolean isClientError() {
+        return (statusCode >= 400 && statusCode < 500);
+    }
+
+    /**
+     * Returns the <code>ErrorResponseException</code> in the cause chain of the <code>throwable</code>, if any.
+     *
+     * @param throwable
+     * @return
+     */
+    public static ErrorResponseException find(final Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause != null) {
+            if (cause instanceof ErrorResponseException) {
+                return (ErrorResponseException) cause;
+            }
+            cause = (cause.getCause() == cause ? null : cause.getCause());
+        }
+
+        return null;
+    }
+}
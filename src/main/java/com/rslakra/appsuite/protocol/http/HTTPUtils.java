@@ -36,6 +36,7 @@ import com.rslakra.appsuite.core.IOUtils;
 import com.rslakra.appsuite.core.StopWatch;
 import com.rslakra.appsuite.core.security.GuardUtils;
 import org.apache.http.Header;
+import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpMessage;
@@ -64,6 +65,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.net.CookieHandler;
 import java.net.CookieManager;
 import java.net.HttpURLConnection;
@@ -2513,12 +2516,35 @@ public enum HTTPUtils {
      * @return
      */
     public static void setAcceptEncodingHeader(final HttpRequest httpRequest, final String contentEncoding) {
-        if (httpRequest.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
-            String acceptEncodingList = HTTPUtils.acceptEncodingHeader(httpRequest, contentEncoding);
-            httpRequest.setHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncodingList);
-        } else {
-            httpRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, contentEncoding);
+        setAcceptEncodingHeader(httpRequest, contentEncoding, 1.0);
+    }
+
+    /**
+     * Adds the <code>contentEncoding</code> to the <code>Accept-Encoding</code> header of the request with its
+     * <code>quality</code> (q-value, 0.0 to 1.0), unless already listed.
+     *
+     * @param httpRequest
+     * @param contentEncoding
+     * @param quality
+     */
+    public static void setAcceptEncodingHeader(final HttpRequest httpRequest, final String contentEncoding,
+                                               final double quality) {
+        // at most 3 decimals, RFC 9110
+        final String qValue = BigDecimal.valueOf(Math.max(0, quality)).setScale(3, RoundingMode.DOWN)
+            .stripTrailingZeros().toPlainString();
+        final String coding = (quality < 1.0 ? contentEncoding + ";q=" + qValue : contentEncoding);
+        final Header acceptEncoding = httpRequest.getFirstHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (BeanUtils.isNull(acceptEncoding)) {
+            httpRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, coding);
+            return;
+        }
+
+        for (HeaderElement headerElement : acceptEncoding.getElements()) {
+            if (contentEncoding.equalsIgnoreCase(headerElement.getName())) {
+                return;
+            }
         }
+        httpRequest.setHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding.getValue() + ", " + coding);
     }
 
 
@@ -1,6 +1,21 @@
 package com.rslakra.appsuite.protocol.http;
 
 import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.protocol.http.cache.CacheConfig;
+import com.rslakra.appsuite.protocol.http.h2.Http2AsyncClient;
+import com.rslakra.appsuite.protocol.http.hedge.HedgingConfig;
+import com.rslakra.appsuite.protocol.http.limit.ConcurrencyLimitExceededException;
+import com.rslakra.appsuite.protocol.http.limit.LimiterConfig;
+import com.rslakra.appsuite.protocol.http.metrics.HandshakeTimingSSLIOSessionStrategy;
+import com.rslakra.appsuite.protocol.http.metrics.HandshakeTimingSSLSocketFactory;
+import com.rslakra.appsuite.protocol.http.metrics.HttpClientMetrics;
+import com.rslakra.appsuite.protocol.http.metrics.LeaseTimingConnectionManager;
+import com.rslakra.appsuite.protocol.http.metrics.LeaseTimingNHttpConnectionManager;
+import com.rslakra.appsuite.protocol.http.retry.RetryPolicy;
+import com.rslakra.appsuite.protocol.http.ssl.SSLFactory;
+import com.rslakra.appsuite.protocol.http.ssl.KeyMaterialReloader;
+import com.rslakra.appsuite.protocol.http.ssl.MutualTlsConfig;
+import com.rslakra.appsuite.protocol.http.ssl.SSLSessionConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
@@ -8,22 +23,51 @@ import io.github.resilience4j.core.IntervalFunction;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.retry.RetryRegistry;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.DefaultConnectionReuseStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.ImmutableHttpProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import javax.net.ssl.SSLContext;
 
@@ -44,18 +88,70 @@ public final class HttpClientBuilder {
     private static final int DEFAULT_SOCKET_TIMEOUT = 60000;
     private static final int DEFAULT_CONN_REQUEST_TIMEOUT = 30000;
     private static final int DEFAULT_CONN_TIMEOUT = 10000;
+    private static final long DEFAULT_SELECT_INTERVAL = 1000;
+    private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    // the intervals compared by isSameSettings()
+    private static final int INTERVAL_SAMPLES = 5;
+    // one instance, so that the clients built with the defaults share their circuit breaker and retry
+    private static final CircuitBreakerConfig DEFAULT_CIRCUIT_BREAKER_CONFIG = CircuitBreakerConfig.custom()
+        .failureRateThreshold(25)
+        .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+        .slidingWindowSize(50)
+        .minimumNumberOfCalls(10)
+        .slowCallDurationThreshold(Duration.ofMillis(5000))
+        .slowCallRateThreshold(50)
+        .ignoreException(throwable -> isClientError(throwable) || isLimitExceeded(throwable))
+        .build();
+    private static final RetryConfig DEFAULT_RETRY_CONFIG = RetryConfig.custom()
+        .maxAttempts(3)
+        .intervalFunction(IntervalFunction.ofExponentialBackoff())
+        .retryOnException(throwable -> !isClientError(throwable) && !isLimitExceeded(throwable))
+        .build();
 
     private String clientName;
     private CircuitBreakerConfig circuitBreakerConfig;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
     private boolean enableCircuitBreaker = true;
     private RetryConfig retryConfig;
+    private RetryRegistry retryRegistry;
+    private RetryPolicy retryPolicy;
     private boolean enableRetry = true;
     private RequestConfig requestConfig;
     private CloseableHttpClient httpSyncClient;
     private CloseableHttpAsyncClient httpAsyncClient;
+    private boolean enableHttp2;
     private CircuitBreaker circuitBreaker;
     private Retry retry;
     private HttpRoutePlanner routePlanner;
+    private ConnectionPoolConfig connectionPoolConfig;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private IdleConnectionEvictor idleConnectionEvictor;
+    private AsyncIdleConnectionEvictor asyncIdleConnectionEvictor;
+    private WarmupConfig warmupConfig;
+    private ConnectionWarmer connectionWarmer;
+    @Getter(AccessLevel.PACKAGE)
+    private ConnectionPermits connectionPermits;
+    private ConnectionWarmer asyncConnectionWarmer;
+    private IOReactorConfig ioReactorConfig;
+    private Duration shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+    private ScheduledExecutorService retryScheduler;
+    private ExecutorService fanOutExecutor;
+    private Set<String> coalescingHeaders;
+    private CacheConfig cacheConfig;
+    private LimiterConfig limiterConfig;
+    private HedgingConfig hedgingConfig;
+    private ContentEncodingRegistry contentEncodingRegistry;
+    private Set<String> contentEncodings;
+    private String requestCompressionEncoding;
+    private long requestCompressionMinSize;
+    private HttpRequestInterceptor contentCompressionInterceptor;
+    private HttpResponseInterceptor contentDecodingInterceptor;
+    private SSLSessionConfig sslSessionConfig;
+    private MutualTlsConfig mutualTlsConfig;
+    private KeyMaterialReloader keyMaterialReloader;
+    private HttpClientMetrics metrics = HttpClientMetrics.NOOP;
+    private double logSampleRate;
 
     /**
      * @param clientName used as the resilience4j registry key.
@@ -82,6 +178,18 @@ public final class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * The registry of the circuit breaker, defaults to the process-wide
+     * <code>ResilienceRegistries.circuitBreakerRegistry()</code>.
+     *
+     * @param circuitBreakerRegistry
+     * @return
+     */
+    public HttpClientBuilder circuitBreakerRegistry(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        return this;
+    }
+
     /**
      * @return
      */
@@ -99,6 +207,29 @@ public final class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * The registry of the retry, defaults to the process-wide <code>ResilienceRegistries.retryRegistry()</code>.
+     *
+     * @param retryRegistry
+     * @return
+     */
+    public HttpClientBuilder retryRegistry(RetryRegistry retryRegistry) {
+        this.retryRegistry = retryRegistry;
+        return this;
+    }
+
+    /**
+     * The back-off cap, the retryable statuses, the <code>Retry-After</code> limit and the retry budget of the clients
+     * built, see <code>RetryEngine</code>. Defaults to <code>RetryPolicy.ofDefaults()</code>.
+     *
+     * @param retryPolicy
+     * @return
+     */
+    public HttpClientBuilder retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
     /**
      * @param requestConfig
      * @return
@@ -126,6 +257,18 @@ public final class HttpClientBuilder {
         return this;
     }
 
+    /**
+     * Sends the requests of the async clients built over the JDK <code>HttpClient</code>, which multiplexes them as
+     * HTTP/2 streams over one connection per origin, see <code>Http2AsyncClient</code>. The connection pool config,
+     * the route planner and the TLS handshake metrics don't apply to it.
+     *
+     * @return
+     */
+    public HttpClientBuilder http2() {
+        this.enableHttp2 = true;
+        return this;
+    }
+
     /**
      * @param routePlanner
      * @return
@@ -136,45 +279,366 @@ public final class HttpClientBuilder {
     }
 
     /**
+     * @param connectionPoolConfig
+     * @return
+     */
+    public HttpClientBuilder connectionPoolConfig(ConnectionPoolConfig connectionPoolConfig) {
+        this.connectionPoolConfig = connectionPoolConfig;
+        return this;
+    }
+
+    /**
+     * The scheduler used for the retry back-off of the async client. It is owned by the caller and not shut down when
+     * the client is closed. When not set, all async clients share the process-wide <code>RetrySchedulers</code>.
      *
+     * @param retryScheduler
+     * @return
+     */
+    public HttpClientBuilder retryScheduler(ScheduledExecutorService retryScheduler) {
+        this.retryScheduler = retryScheduler;
+        return this;
+    }
+
+    /**
+     * The executor running the requests of <code>SyncHttpClient.executeAll()</code>. It is owned by the caller and not
+     * shut down when the client is closed. When not set, every request runs on its own virtual thread.
+     *
+     * @param fanOutExecutor
+     * @return
+     */
+    public HttpClientBuilder fanOutExecutor(ExecutorService fanOutExecutor) {
+        this.fanOutExecutor = fanOutExecutor;
+        return this;
+    }
+
+    /**
+     * Turns on the coalescing of identical in-flight GET/HEAD requests of the async client. Requests share one
+     * upstream call when the method, the URI and the values of the <code>headerNames</code> match.
+     *
+     * @param headerNames
+     * @return
+     */
+    public HttpClientBuilder requestCoalescing(String... headerNames) {
+        this.coalescingHeaders = new LinkedHashSet<>(Arrays.asList(headerNames));
+        return this;
+    }
+
+    /**
+     * Turns on the RFC 9111 response cache, each client built gets its own cache which is closed with the client.
+     *
+     * @param cacheConfig
+     * @return
+     */
+    public HttpClientBuilder responseCache(CacheConfig cacheConfig) {
+        this.cacheConfig = cacheConfig;
+        return this;
+    }
+
+    /**
+     * Turns on the adaptive (AIMD) concurrency limit, each client built gets its own limiter, client-wide or per
+     * route as configured.
+     *
+     * @param limiterConfig
+     * @return
+     */
+    public HttpClientBuilder concurrencyLimit(LimiterConfig limiterConfig) {
+        this.limiterConfig = limiterConfig;
+        return this;
+    }
+
+    /**
+     * Turns on hedging of the idempotent requests of the async clients built, each client gets its own hedge budget
+     * and latencies.
+     *
+     * @param hedgingConfig
+     * @return
+     */
+    public HttpClientBuilder hedging(HedgingConfig hedgingConfig) {
+        this.hedgingConfig = hedgingConfig;
+        return this;
+    }
+
+    /**
+     * The TLS session settings of the <code>SSLContext</code> of the clients built. The clients with the same settings
+     * share one cached context of the <code>SSLFactory</code>, and so their TLS sessions.
+     *
+     * @param sslSessionConfig
+     * @return
+     */
+    public HttpClientBuilder sslSessionConfig(SSLSessionConfig sslSessionConfig) {
+        this.sslSessionConfig = sslSessionConfig;
+        return this;
+    }
+
+    /**
+     * Presents the client certificate of the <code>MutualTlsConfig</code> files, reloaded when they change without
+     * rebuilding the connection pools. Each client built gets its own <code>SSLContext</code>, with the TLS session
+     * settings of the <code>sslSessionConfig</code>, and stops watching the files when closed.
+     *
+     * @param mutualTlsConfig
+     * @return
+     */
+    public HttpClientBuilder mutualTls(MutualTlsConfig mutualTlsConfig) {
+        this.mutualTlsConfig = mutualTlsConfig;
+        return this;
+    }
+
+    /**
+     * Opens the pooled connections of the <code>WarmupConfig</code> routes when the sync and async clients are built,
+     * then keeps their pools topped up, see <code>ConnectionWarmer</code>. The HTTP/2 client is not warmed up.
+     *
+     * @param warmupConfig
+     * @return
+     */
+    public HttpClientBuilder warmup(WarmupConfig warmupConfig) {
+        this.warmupConfig = warmupConfig;
+        return this;
+    }
+
+    /**
+     * The registry providing the content encodings of the clients built, a new <code>ContentEncodingRegistry</code>
+     * when not set.
+     *
+     * @param contentEncodingRegistry
+     * @return
+     */
+    public HttpClientBuilder contentEncodingRegistry(ContentEncodingRegistry contentEncodingRegistry) {
+        this.contentEncodingRegistry = contentEncodingRegistry;
+        return this;
+    }
+
+    /**
+     * Advertises the <code>contentEncodings</code> in the <code>Accept-Encoding</code> header and decodes the
+     * responses with the encodings of the registry, on the sync, the async and the HTTP/2 clients. It replaces the
+     * built-in decompression of the apache sync client.
+     *
+     * @param contentEncodings the content coding tokens, i.e. <code>br</code> of a registered third-party decoder.
+     * @return
+     */
+    public HttpClientBuilder contentEncoding(String... contentEncodings) {
+        this.contentEncodings = new LinkedHashSet<>();
+        for (String contentEncoding : contentEncodings) {
+            this.contentEncodings.add(contentEncoding.trim().toLowerCase(Locale.ROOT));
+        }
+        return this;
+    }
+
+    /**
+     * @param contentEncodingTypes
+     * @return
+     */
+    public HttpClientBuilder contentEncoding(ContentEncoding.EncodingType... contentEncodingTypes) {
+        return contentEncoding(Arrays.stream(contentEncodingTypes).map(ContentEncoding.EncodingType::getToken)
+                                   .toArray(String[]::new));
+    }
+
+    /**
+     * Compresses the request bodies of at least <code>minSize</code> bytes (or of an unknown length) with the
+     * <code>contentEncoding</code> of the registry.
+     *
+     * @param contentEncoding the content coding token.
+     * @param minSize
+     * @return
+     */
+    public HttpClientBuilder requestCompression(String contentEncoding, long minSize) {
+        this.requestCompressionEncoding = contentEncoding;
+        this.requestCompressionMinSize = minSize;
+        return this;
+    }
+
+    /**
+     * @param contentEncodingType
+     * @param minSize
+     * @return
+     */
+    public HttpClientBuilder requestCompression(ContentEncoding.EncodingType contentEncodingType, long minSize) {
+        return requestCompression(BeanUtils.isNull(contentEncodingType) ? null : contentEncodingType.getToken(),
+                                  minSize);
+    }
+
+    /**
+     * The metrics of the clients built, i.e. a shared <code>DefaultHttpClientMetrics</code> or a micrometer adapter.
+     *
+     * @param metrics
+     * @return
+     */
+    public HttpClientBuilder metrics(HttpClientMetrics metrics) {
+        BeanUtils.assertNonNull(metrics, "metrics must provide!");
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * The fraction (0.0 to 1.0) of successful requests logged at INFO level, the others are logged at debug level.
+     *
+     * @param logSampleRate
+     * @return
+     */
+    public HttpClientBuilder logSampleRate(double logSampleRate) {
+        this.logSampleRate = Math.max(0, Math.min(1, logSampleRate));
+        return this;
+    }
+
+    /**
+     * The I/O reactor settings (I/O thread count, select interval, socket buffers etc.) of the async client.
+     *
+     * @param ioReactorConfig
+     * @return
+     */
+    public HttpClientBuilder ioReactorConfig(IOReactorConfig ioReactorConfig) {
+        this.ioReactorConfig = ioReactorConfig;
+        return this;
+    }
+
+    /**
+     * The max time <code>AsyncHttpClient.close()</code> waits for in-flight requests to drain.
+     *
+     * @param shutdownTimeout
+     * @return
+     */
+    public HttpClientBuilder shutdownTimeout(Duration shutdownTimeout) {
+        BeanUtils.assertNonNull(shutdownTimeout, "shutdownTimeout must provide!");
+        this.shutdownTimeout = shutdownTimeout;
+        return this;
+    }
+
+    /**
+     * The circuit breaker of the clients of a <code>clientName</code> is shared through the registry, unless built
+     * with a config of other settings, which replaces it for the clients built from then on.
+     * <p>
+     * The settings compare by value, the interval functions by their first intervals. The predicates only compare by
+     * instance, so a config of the same settings but other predicate instances keeps the registered one.
      */
     private void buildCircuitBreaker() {
         if (BeanUtils.isNull(circuitBreakerConfig)) {
-            circuitBreakerConfig = CircuitBreakerConfig.custom()
-                .failureRateThreshold(25)
-                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
-                .slidingWindowSize(50)
-                .minimumNumberOfCalls(10)
-                .slowCallDurationThreshold(Duration.ofMillis(5000))
-                .slowCallRateThreshold(50)
-                .build();
+            circuitBreakerConfig = DEFAULT_CIRCUIT_BREAKER_CONFIG;
         }
 
-        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
-        Optional<CircuitBreakerConfig> oldConfig = registry.getConfiguration(clientName);
-        if (oldConfig.isPresent()) {
-            LOGGER.warn("buildCircuitBreaker() - overriding resilience4j circuit breaker config. name={}", clientName);
+        final CircuitBreakerRegistry registry = (BeanUtils.isNull(circuitBreakerRegistry)
+                                                 ? ResilienceRegistries.circuitBreakerRegistry()
+                                                 : circuitBreakerRegistry);
+        circuitBreaker = registry.circuitBreaker(clientName, circuitBreakerConfig);
+        final CircuitBreakerConfig registeredConfig = circuitBreaker.getCircuitBreakerConfig();
+        if (registeredConfig == circuitBreakerConfig) {
+            return;
         }
 
-        circuitBreaker = registry.circuitBreaker(clientName, circuitBreakerConfig);
+        if (!isSameSettings(registeredConfig, circuitBreakerConfig)) {
+            LOGGER.warn("buildCircuitBreaker() - overriding resilience4j circuit breaker config. name={}", clientName);
+            circuitBreaker = CircuitBreaker.of(clientName, circuitBreakerConfig);
+            registry.replace(clientName, circuitBreaker);
+        } else if (registeredConfig.getRecordExceptionPredicate() != circuitBreakerConfig.getRecordExceptionPredicate()
+                   || registeredConfig.getIgnoreExceptionPredicate()
+                      != circuitBreakerConfig.getIgnoreExceptionPredicate()) {
+            LOGGER.warn("buildCircuitBreaker() - keeping the registered circuit breaker of other predicates. name={}",
+                        clientName);
+        }
     }
 
+    /**
+     * The retry of the clients of a <code>clientName</code> is shared the same way as the circuit breaker.
+     */
     private void buildRetry() {
         if (BeanUtils.isNull(retryConfig)) {
-            retryConfig = RetryConfig.custom()
-                .maxAttempts(3)
-                .intervalFunction(IntervalFunction.ofExponentialBackoff())
-                .build();
+            retryConfig = DEFAULT_RETRY_CONFIG;
         }
 
-        RetryRegistry registry = RetryRegistry.ofDefaults();
-        Optional<RetryConfig> oldConfig = registry.getConfiguration(clientName);
-        if (oldConfig.isPresent()) {
-            LOGGER.warn("buildRetry() - overriding resilience4j circuit breaker config. name=%s",
-                        clientName);
+        final RetryRegistry registry = (BeanUtils.isNull(retryRegistry) ? ResilienceRegistries.retryRegistry()
+                                        : retryRegistry);
+        retry = registry.retry(clientName, retryConfig);
+        final RetryConfig registeredConfig = retry.getRetryConfig();
+        if (registeredConfig == retryConfig) {
+            return;
         }
 
-        retry = registry.retry(clientName, retryConfig);
+        if (!isSameSettings(registeredConfig, retryConfig)) {
+            LOGGER.warn("buildRetry() - overriding resilience4j retry config. name={}", clientName);
+            retry = Retry.of(clientName, retryConfig);
+            registry.replace(clientName, retry);
+        } else if (registeredConfig.getExceptionPredicate() != retryConfig.getExceptionPredicate()
+                   || registeredConfig.getResultPredicate() != retryConfig.getResultPredicate()) {
+            // RetryConfig.Builder composes a new exception predicate on every build()
+            LOGGER.warn("buildRetry() - keeping the registered retry of other predicates. name={}", clientName);
+        }
+    }
+
+    /**
+     * Returns true if the configs have the same settings, the predicates aside.
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    static boolean isSameSettings(final CircuitBreakerConfig first, final CircuitBreakerConfig second) {
+        return (first.getFailureRateThreshold() == second.getFailureRateThreshold()
+                && first.getSlowCallRateThreshold() == second.getSlowCallRateThreshold()
+                && Objects.equals(first.getSlowCallDurationThreshold(), second.getSlowCallDurationThreshold())
+                && Objects.equals(first.getWaitDurationInOpenState(), second.getWaitDurationInOpenState())
+                && first.getSlidingWindowType() == second.getSlidingWindowType()
+                && first.getSlidingWindowSize() == second.getSlidingWindowSize()
+                && first.getMinimumNumberOfCalls() == second.getMinimumNumberOfCalls()
+                && first.getPermittedNumberOfCallsInHalfOpenState()
+                   == second.getPermittedNumberOfCallsInHalfOpenState()
+                && first.isAutomaticTransitionFromOpenToHalfOpenEnabled()
+                   == second.isAutomaticTransitionFromOpenToHalfOpenEnabled()
+                && first.isWritableStackTraceEnabled() == second.isWritableStackTraceEnabled()
+                && isSameIntervals(first.getWaitIntervalFunctionInOpenState(),
+                                   second.getWaitIntervalFunctionInOpenState()));
+    }
+
+    /**
+     * Returns true if the configs have the same settings, the predicates aside.
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    static boolean isSameSettings(final RetryConfig first, final RetryConfig second) {
+        return (first.getMaxAttempts() == second.getMaxAttempts()
+                && isSameIntervals(first.getIntervalFunction(), second.getIntervalFunction()));
+    }
+
+    /**
+     * Returns true if the interval functions return the same first intervals, the randomized ones hardly ever do.
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    private static boolean isSameIntervals(final Function<Integer, Long> first, final Function<Integer, Long> second) {
+        if (first == second) {
+            return true;
+        }
+
+        for (int attempt = 1; attempt <= INTERVAL_SAMPLES; attempt++) {
+            if (!Objects.equals(first.apply(attempt), second.apply(attempt))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if the <code>throwable</code> reports a 4xx error response, which is neither retried nor recorded
+     * as a circuit breaker failure by the default configs.
+     *
+     * @param throwable
+     * @return
+     */
+    private static boolean isClientError(final Throwable throwable) {
+        final ErrorResponseException errorResponseException = ErrorResponseException.find(throwable);
+        return (errorResponseException != null && errorResponseException.isClientError());
+    }
+
+    /**
+     * Returns true if the request was rejected by the concurrency limiter and never reached the network.
+     *
+     * @param throwable
+     * @return
+     */
+    private static boolean isLimitExceeded(final Throwable throwable) {
+        return (throwable instanceof ConcurrencyLimitExceededException);
     }
 
     /**
@@ -192,6 +656,35 @@ public final class HttpClientBuilder {
         return requestConfig;
     }
 
+    /**
+     * @return
+     */
+    private ConnectionPoolConfig getDefaultConnectionPoolConfig() {
+        if (BeanUtils.isNull(connectionPoolConfig)) {
+            connectionPoolConfig = ConnectionPoolConfig.ofDefaults();
+        }
+
+        return connectionPoolConfig;
+    }
+
+    /**
+     * @return
+     */
+    private IOReactorConfig getDefaultIOReactorConfig() {
+        if (BeanUtils.isNull(ioReactorConfig)) {
+            ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(Runtime.getRuntime().availableProcessors())
+                .setSelectInterval(DEFAULT_SELECT_INTERVAL)
+                .setConnectTimeout(DEFAULT_CONN_TIMEOUT)
+                .setSoTimeout(DEFAULT_SOCKET_TIMEOUT)
+                .setSoKeepAlive(true)
+                .setTcpNoDelay(true)
+                .build();
+        }
+
+        return ioReactorConfig;
+    }
+
     /**
      * @return
      */
@@ -202,46 +695,261 @@ public final class HttpClientBuilder {
         );
     }
 
+    /**
+     * @param sslContext
+     * @param poolConfig
+     */
+    private void buildConnectionManager(final SSLContext sslContext, final ConnectionPoolConfig poolConfig) {
+        final Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", (HttpClientMetrics.NOOP == metrics ? new SSLConnectionSocketFactory(sslContext)
+                                : new HandshakeTimingSSLSocketFactory(sslContext, clientName, metrics)))
+            .build();
+
+        final long timeToLive = (BeanUtils.isNull(poolConfig.getConnTimeToLive())
+                                 ? -1 : poolConfig.getConnTimeToLive().toMillis());
+        if (HttpClientMetrics.NOOP == metrics) {
+            connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry, null, null, null,
+                                                                       timeToLive, TimeUnit.MILLISECONDS);
+        } else {
+            connectionManager = new LeaseTimingConnectionManager(socketFactoryRegistry, timeToLive,
+                                                                 TimeUnit.MILLISECONDS, clientName, metrics);
+        }
+        connectionManager.setMaxTotal(poolConfig.getMaxConnTotal());
+        connectionManager.setDefaultMaxPerRoute(poolConfig.getMaxConnPerRoute());
+        for (Map.Entry<HttpRoute, Integer> entry : poolConfig.getRouteOverrides().entrySet()) {
+            connectionManager.setMaxPerRoute(entry.getKey(), entry.getValue());
+        }
+        if (BeanUtils.isNotNull(poolConfig.getValidateAfterInactivity())) {
+            connectionManager.setValidateAfterInactivity((int) poolConfig.getValidateAfterInactivity().toMillis());
+        }
+
+        if (poolConfig.isEvictIdleConnections()) {
+            idleConnectionEvictor = new IdleConnectionEvictor(connectionManager,
+                                                              poolConfig.getEvictionInterval().toMillis(),
+                                                              TimeUnit.MILLISECONDS,
+                                                              poolConfig.getMaxIdleTime().toMillis(),
+                                                              TimeUnit.MILLISECONDS);
+            idleConnectionEvictor.start();
+        }
+    }
+
+    /**
+     * @return
+     */
+    private boolean hasContentEncodings() {
+        return BeanUtils.isNotEmpty(contentEncodings);
+    }
+
+    /**
+     * @return
+     */
+    private ContentEncodingRegistry getDefaultContentEncodingRegistry() {
+        if (BeanUtils.isNull(contentEncodingRegistry)) {
+            contentEncodingRegistry = new ContentEncodingRegistry();
+        }
+
+        return contentEncodingRegistry;
+    }
+
+    /**
+     * Returns the <code>Accept-Encoding</code> and, with <code>compression</code>, the request compression
+     * interceptors.
+     *
+     * @param compression
+     * @return
+     */
+    private List<HttpRequestInterceptor> getContentEncodingRequestInterceptors(final boolean compression) {
+        final List<HttpRequestInterceptor> requestInterceptors = new ArrayList<>();
+        if (hasContentEncodings()) {
+            requestInterceptors.add(getDefaultContentEncodingRegistry().getRequestInterceptor(contentEncodings));
+        }
+        if (compression && BeanUtils.isNotNull(requestCompressionEncoding)) {
+            requestInterceptors.add(newCompressionInterceptor());
+        }
+
+        return requestInterceptors;
+    }
+
+    /**
+     * @return
+     */
+    private HttpRequestInterceptor newCompressionInterceptor() {
+        final ContentEncoding contentEncoding = getDefaultContentEncodingRegistry()
+            .getContentEncoding(requestCompressionEncoding);
+        if (BeanUtils.isNull(contentEncoding)) {
+            throw new HttpClientException("No content encoding registered for " + requestCompressionEncoding + "!");
+        }
+
+        return contentEncoding.getCompressionInterceptor(requestCompressionMinSize);
+    }
+
+    /**
+     * @return
+     */
+    private List<HttpResponseInterceptor> getContentEncodingResponseInterceptors() {
+        final List<HttpResponseInterceptor> responseInterceptors = new ArrayList<>();
+        if (hasContentEncodings()) {
+            responseInterceptors.add(getDefaultContentEncodingRegistry().getResponseInterceptor(contentEncodings));
+        }
+
+        return responseInterceptors;
+    }
+
     private void buildHttpClient() {
+        final ConnectionPoolConfig poolConfig = getDefaultConnectionPoolConfig();
+        LOGGER.debug("buildHttpClient() - clientName={}, poolConfig={}", clientName, poolConfig);
+        buildConnectionManager(buildSSLContext(), poolConfig);
         org.apache.http.impl.client.HttpClientBuilder builder = org.apache.http.impl.client.HttpClientBuilder.create()
             .setUserAgent(DEFAULT_USER_AGENT)
             .setDefaultRequestConfig(getDefaultRequestConfig())
             .setConnectionReuseStrategy(new DefaultConnectionReuseStrategy())
             .setDefaultHeaders(getDefaultHeaders())
-            .setMaxConnTotal(100)
-            .setMaxConnPerRoute(Integer.MAX_VALUE)
-            .disableRedirectHandling()
-            .setSSLContext(buildSSLContext());
+            .setConnectionManager(connectionManager)
+            .disableRedirectHandling();
 
-        if (BeanUtils.isNull(routePlanner)) {
+        if (BeanUtils.isNotNull(routePlanner)) {
             builder.setRoutePlanner(routePlanner);
         }
+        if (BeanUtils.isNotNull(mutualTlsConfig)) {
+            // the client certificate is the identity of the client, not of a user, so the connections are shared
+            builder.disableConnectionState();
+        }
+        if (hasContentEncodings()) {
+            // the registry decodes the responses instead
+            builder.disableContentCompression();
+        }
+        // after RequestContent, the compression interceptor reframes the compressed body
+        getContentEncodingRequestInterceptors(true).forEach(builder::addInterceptorLast);
+        getContentEncodingResponseInterceptors().forEach(builder::addInterceptorLast);
 
         httpSyncClient = builder.build();
+        // one set of permits per pool, shared by its clients and its warmer
+        connectionPermits = new ConnectionPermits(poolConfig, getDefaultRequestConfig().getConnectionRequestTimeout());
+        if (BeanUtils.isNotNull(warmupConfig)) {
+            connectionWarmer = ConnectionWarmer.of(clientName, warmupConfig, connectionManager,
+                                                   getDefaultRequestConfig(), routePlanner, connectionPermits);
+        }
+    }
+
+    /**
+     * @param sslContext
+     * @param poolConfig
+     */
+    private void buildAsyncConnectionManager(final SSLContext sslContext, final ConnectionPoolConfig poolConfig) {
+        final Registry<SchemeIOSessionStrategy> sessionStrategyRegistry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+            .register("http", NoopIOSessionStrategy.INSTANCE)
+            .register("https", (HttpClientMetrics.NOOP == metrics ? new SSLIOSessionStrategy(sslContext)
+                                : new HandshakeTimingSSLIOSessionStrategy(sslContext, clientName, metrics)))
+            .build();
+
+        final long timeToLive = (BeanUtils.isNull(poolConfig.getConnTimeToLive())
+                                 ? -1 : poolConfig.getConnTimeToLive().toMillis());
+        try {
+            final DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(getDefaultIOReactorConfig());
+            if (HttpClientMetrics.NOOP == metrics) {
+                asyncConnectionManager = new PoolingNHttpClientConnectionManager(ioReactor, null,
+                                                                                 sessionStrategyRegistry, null, null,
+                                                                                 timeToLive, TimeUnit.MILLISECONDS);
+            } else {
+                asyncConnectionManager = new LeaseTimingNHttpConnectionManager(ioReactor, sessionStrategyRegistry,
+                                                                               timeToLive, TimeUnit.MILLISECONDS,
+                                                                               clientName, metrics);
+            }
+        } catch (IOReactorException ex) {
+            LOGGER.error("buildAsyncConnectionManager() - error building I/O reactor for clientName={}", clientName,
+                         ex);
+            throw new HttpClientException(ex);
+        }
+        asyncConnectionManager.setMaxTotal(poolConfig.getMaxConnTotal());
+        asyncConnectionManager.setDefaultMaxPerRoute(poolConfig.getMaxConnPerRoute());
+        for (Map.Entry<HttpRoute, Integer> entry : poolConfig.getRouteOverrides().entrySet()) {
+            asyncConnectionManager.setMaxPerRoute(entry.getKey(), entry.getValue());
+        }
+
+        if (poolConfig.isEvictIdleConnections()) {
+            asyncIdleConnectionEvictor = new AsyncIdleConnectionEvictor(clientName, asyncConnectionManager,
+                                                                        poolConfig.getMaxIdleTime(),
+                                                                        poolConfig.getEvictionInterval());
+            asyncIdleConnectionEvictor.start();
+        }
     }
 
     private void buildHttpAsyncClient() {
+        final ConnectionPoolConfig poolConfig = getDefaultConnectionPoolConfig();
+        LOGGER.debug("buildHttpAsyncClient() - clientName={}, poolConfig={}", clientName, poolConfig);
+        buildAsyncConnectionManager(buildSSLContext(), poolConfig);
         HttpAsyncClientBuilder asyncBuilder = HttpAsyncClientBuilder.create()
             .setUserAgent(DEFAULT_USER_AGENT)
             .setDefaultRequestConfig(getDefaultRequestConfig())
             .setConnectionReuseStrategy(new DefaultConnectionReuseStrategy())
             .setDefaultHeaders(getDefaultHeaders())
-            .setMaxConnTotal(100)
-            .setMaxConnPerRoute(Integer.MAX_VALUE)
-            .setSSLContext(buildSSLContext());
+            .setConnectionManager(asyncConnectionManager);
 
         if (routePlanner != null) {
             asyncBuilder.setRoutePlanner(routePlanner);
         }
+        if (BeanUtils.isNotNull(mutualTlsConfig)) {
+            // the client certificate is the identity of the client, not of a user, so the connections are shared
+            asyncBuilder.disableConnectionState();
+        }
+        getContentEncodingRequestInterceptors(false).forEach(asyncBuilder::addInterceptorLast);
+        // its request producer streams the entity of the request before the interceptors run, and its response
+        // interceptors see the entity before it is buffered, the AsyncHttpClient compresses and decodes instead
+        contentCompressionInterceptor = (BeanUtils.isNotNull(requestCompressionEncoding) ? newCompressionInterceptor()
+                                         : null);
+        contentDecodingInterceptor = (hasContentEncodings()
+                                      ? getDefaultContentEncodingRegistry().getResponseInterceptor(contentEncodings)
+                                      : null);
 
         httpAsyncClient = asyncBuilder.build();
+        if (BeanUtils.isNotNull(warmupConfig)) {
+            asyncConnectionWarmer = ConnectionWarmer.of(clientName, warmupConfig, asyncConnectionManager,
+                                                        getDefaultRequestConfig(), routePlanner);
+        }
+    }
+
+    /**
+     * Builds the HTTP/2 async client, the timeouts are the ones of the request config.
+     */
+    private void buildHttp2AsyncClient() {
+        final RequestConfig config = getDefaultRequestConfig();
+        LOGGER.debug("buildHttp2AsyncClient() - clientName={}, requestConfig={}", clientName, config);
+        final HttpClient.Builder http2Builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .sslContext(buildSSLContext());
+        if (config.getConnectTimeout() > 0) {
+            http2Builder.connectTimeout(Duration.ofMillis(config.getConnectTimeout()));
+        }
+
+        final List<HttpRequestInterceptor> requestInterceptors = getContentEncodingRequestInterceptors(true);
+        final List<HttpResponseInterceptor> responseInterceptors = getContentEncodingResponseInterceptors();
+        httpAsyncClient = new Http2AsyncClient(http2Builder.build(), (config.getSocketTimeout() > 0
+                                                                      ? Duration.ofMillis(config.getSocketTimeout())
+                                                                      : null), DEFAULT_USER_AGENT,
+                                               getDefaultHeaders(),
+                                               (requestInterceptors.isEmpty() && responseInterceptors.isEmpty()
+                                                ? null
+                                                : new ImmutableHttpProcessor(requestInterceptors,
+                                                                             responseInterceptors)));
     }
 
     private SSLContext buildSSLContext() {
         SSLContext sslContext = null;
         try {
-            LOGGER.warn("buildSSLContext() - Not using mTLS+Athenz for clientName=%s", clientName);
-            sslContext = SSLContext.getDefault();
+            final SSLSessionConfig sessionConfig = (BeanUtils.isNull(sslSessionConfig)
+                                                    ? SSLSessionConfig.ofDefaults() : sslSessionConfig);
+            if (BeanUtils.isNotNull(mutualTlsConfig)) {
+                // one watcher of the key material for the sync and the async clients
+                if (BeanUtils.isNull(keyMaterialReloader)) {
+                    keyMaterialReloader = new KeyMaterialReloader(clientName, mutualTlsConfig, sessionConfig);
+                }
+                return keyMaterialReloader.getSSLContext();
+            }
+
+            LOGGER.warn("buildSSLContext() - Not using mTLS for clientName={}", clientName);
+            sslContext = SSLFactory.INSTANCE.getDefaultSSLContext(sessionConfig);
         } catch (Exception ex) {
             LOGGER.error("buildSSLContext()", ex, "Error building SSLContext");
             throw new HttpClientException(ex);
@@ -257,11 +965,19 @@ public final class HttpClientBuilder {
         if (enableCircuitBreaker) {
             buildCircuitBreaker();
         }
-        if (BeanUtils.isNull(httpSyncClient)) {
+        // the clients built later share the pool, and its warmer started once
+        final boolean newClient = BeanUtils.isNull(httpSyncClient);
+        final boolean newKeyMaterialReloader = BeanUtils.isNull(keyMaterialReloader);
+        if (newClient) {
             buildHttpClient();
         }
 
-        return new SyncHttpClient(this);
+        final SyncHttpClient syncHttpClient = new SyncHttpClient(this, !newClient, !newKeyMaterialReloader);
+        if (newClient && BeanUtils.isNotNull(connectionWarmer)) {
+            connectionWarmer.start();
+        }
+
+        return syncHttpClient;
     }
 
     public AsyncHttpClient buildAsyncClient() {
@@ -271,11 +987,24 @@ public final class HttpClientBuilder {
         if (enableCircuitBreaker) {
             buildCircuitBreaker();
         }
-        if (BeanUtils.isNull(httpAsyncClient)) {
-            buildHttpAsyncClient();
+        // the clients built later share the pool, and its warmer started once
+        final boolean newClient = BeanUtils.isNull(httpAsyncClient);
+        final boolean newKeyMaterialReloader = BeanUtils.isNull(keyMaterialReloader);
+        if (newClient) {
+            if (enableHttp2) {
+                buildHttp2AsyncClient();
+            } else {
+                buildHttpAsyncClient();
+            }
+        }
+
+        // the connections are opened by the I/O reactor, started with the client
+        final AsyncHttpClient asyncHttpClient = new AsyncHttpClient(this, !newClient, !newKeyMaterialReloader);
+        if (newClient && BeanUtils.isNotNull(asyncConnectionWarmer)) {
+            asyncConnectionWarmer.start();
         }
 
-        return new AsyncHttpClient(this);
+        return asyncHttpClient;
     }
 
 }
@@ -0,0 +1,104 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpOptions;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Creates the apache request of each <code>HttpMethod</code> with constructor references, so no reflection is involved
+ * per request.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 3:10 PM
+ */
+public final class HttpRequestFactory {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpRequestFactory.class);
+
+    private static final Map<HttpMethod, Function<URI, HttpRequestBase>> REQUEST_FACTORIES;
+    private static final Set<HttpMethod> ENTITY_ENCLOSING_METHODS = Collections.unmodifiableSet(
+        EnumSet.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH));
+
+    static {
+        final Map<HttpMethod, Function<URI, HttpRequestBase>> requestFactories = new EnumMap<>(HttpMethod.class);
+        requestFactories.put(HttpMethod.HEAD, HttpHead::new);
+        requestFactories.put(HttpMethod.PATCH, HttpPatch::new);
+        requestFactories.put(HttpMethod.OPTIONS, HttpOptions::new);
+        requestFactories.put(HttpMethod.TRACE, HttpTrace::new);
+        requestFactories.put(HttpMethod.GET, HttpGet::new);
+        requestFactories.put(HttpMethod.POST, HttpPost::new);
+        requestFactories.put(HttpMethod.PUT, HttpPut::new);
+        requestFactories.put(HttpMethod.DELETE, HttpDelete::new);
+        REQUEST_FACTORIES = Collections.unmodifiableMap(requestFactories);
+    }
+
+    private HttpRequestFactory() {
+    }
+
+    /**
+     * Returns true if the <code>httpMethod</code> can carry a request body otherwise false.
+     *
+     * @param httpMethod
+     * @return
+     */
+    public static boolean isEntityEnclosing(final HttpMethod httpMethod) {
+        return ENTITY_ENCLOSING_METHODS.contains(httpMethod);
+    }
+
+    /**
+     * @param httpMethod
+     * @param uri
+     * @return
+     */
+    public static HttpRequestBase newRequest(final HttpMethod httpMethod, final URI uri) {
+        final Function<URI, HttpRequestBase> requestFactory =
+            (BeanUtils.isNull(httpMethod) ? null : REQUEST_FACTORIES.get(httpMethod));
+        if (BeanUtils.isNull(requestFactory)) {
+            throw new HttpClientException("Unsupported rest request method:" + httpMethod);
+        }
+
+        return requestFactory.apply(uri);
+    }
+
+    /**
+     * Creates the request and attaches the <code>payload</code> to the entity-enclosing methods. The payload of the
+     * other methods is ignored.
+     *
+     * @param httpMethod
+     * @param uri
+     * @param payload
+     * @return
+     */
+    public static HttpRequestBase newRequest(final HttpMethod httpMethod, final URI uri, final HttpEntity payload) {
+        final HttpRequestBase apacheRequest = newRequest(httpMethod, uri);
+        if (BeanUtils.isNotNull(payload)) {
+            if (apacheRequest instanceof HttpEntityEnclosingRequest) {
+                ((HttpEntityEnclosingRequest) apacheRequest).setEntity(payload);
+            } else {
+                LOGGER.warn("Ignoring payload of {} request, uri:{}", httpMethod.name(), uri);
+            }
+        }
+
+        return apacheRequest;
+    }
+}
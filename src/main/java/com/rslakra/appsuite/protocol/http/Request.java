@@ -2,13 +2,17 @@ package com.rslakra.appsuite.protocol.http;
 
 import com.rslakra.appsuite.core.BeanUtils;
 import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.entity.ByteBufferEntity;
+import com.rslakra.appsuite.protocol.http.entity.FileChannelEntity;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.ResponseHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -145,7 +149,7 @@ public class Request {
      */
     public static class RequestBuilder {
 
-        private final Map<String, String> headers = new HashMap<String, String>();
+        private final Map<String, String> headers = new LinkedHashMap<String, String>();
         private URI uri;
         private HttpMethod httpMethod;
         private HttpEntity payload;
@@ -181,6 +185,32 @@ public class Request {
             return this;
         }
 
+        /**
+         * Sends the file with <code>FileChannel.transferTo</code>, without loading it into the heap.
+         *
+         * @param file
+         * @param contentType
+         * @return
+         */
+        public RequestBuilder setPayload(final Path file, final String contentType) {
+            try {
+                return setPayload(new FileChannelEntity(file, contentType));
+            } catch (IOException ex) {
+                throw new HttpClientException("Unable to read file:" + file, ex);
+            }
+        }
+
+        /**
+         * Sends the remaining bytes of the <code>buffer</code>, the buffer itself is not consumed.
+         *
+         * @param buffer
+         * @param contentType
+         * @return
+         */
+        public RequestBuilder setPayload(final ByteBuffer buffer, final String contentType) {
+            return setPayload(new ByteBufferEntity(buffer, contentType));
+        }
+
         /**
          * @param key
          * @param value
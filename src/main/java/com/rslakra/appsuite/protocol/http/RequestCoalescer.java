@@ -0,0 +1,299 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.concurrent.FutureCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Single-flight layer of the <code>AsyncHttpClient</code>. Identical GET/HEAD requests in flight at the same time
+ * share one upstream call and the same decoded <code>Response</code>, so the payload must be treated as immutable.
+ * <p>
+ * Requests are identical when the method, the URI, the response handler and the values of the configured headers
+ * match. The handlers of the same class and <code>AbstractResponseHandler.getShareKey()</code> match each other, i.e.
+ * the default <code>StringResponseHandler</code>s or the <code>JsonResponseHandler</code>s of the same type. Other
+ * handlers (i.e. the ones writing to a sink) only match the same instance.
+ * <p>
+ * A waiter that cancels its future leaves the flight without affecting the others, the upstream call is cancelled only
+ * when every waiter has cancelled.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 3:45 PM
+ */
+final class RequestCoalescer {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final Set<String> headerNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final ConcurrentMap<String, Flight<?>> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalescedRequests = new LongAdder();
+
+    /**
+     * @param headerNames the headers that are part of the request identity (i.e. Authorization, Accept)
+     */
+    RequestCoalescer(final Collection<String> headerNames) {
+        if (BeanUtils.isNotNull(headerNames)) {
+            this.headerNames.addAll(headerNames);
+        }
+    }
+
+    /**
+     * @return
+     */
+    Set<String> getHeaderNames() {
+        return Collections.unmodifiableSet(headerNames);
+    }
+
+    /**
+     * Returns the number of requests served by another in-flight call.
+     *
+     * @return
+     */
+    long getCoalescedRequests() {
+        return coalescedRequests.sum();
+    }
+
+    /**
+     * Returns the number of distinct upstream calls currently shared.
+     *
+     * @return
+     */
+    int getInFlightKeys() {
+        return flights.size();
+    }
+
+    /**
+     * Only requests without side effects and without body are coalesced.
+     *
+     * @param request
+     * @return
+     */
+    boolean isCoalescable(final Request request) {
+        return ((HttpMethod.GET == request.getHttpMethod() || HttpMethod.HEAD == request.getHttpMethod())
+                && BeanUtils.isNull(request.getPayload()));
+    }
+
+    /**
+     * Returns the share key of the handler, <code>null</code> if it only matches itself.
+     *
+     * @param responseHandler
+     * @return
+     */
+    private static String shareKeyOf(final ResponseHandler<?> responseHandler) {
+        return (responseHandler instanceof AbstractResponseHandler
+                ? ((AbstractResponseHandler<?>) responseHandler).getShareKey() : null);
+    }
+
+    /**
+     * Returns true if the response of the handler can be shared with the other instances of its class and share key.
+     *
+     * @param responseHandler
+     * @return
+     */
+    static boolean isShareable(final ResponseHandler<?> responseHandler) {
+        return BeanUtils.isNotNull(shareKeyOf(responseHandler));
+    }
+
+    /**
+     * @param request
+     * @param responseHandler
+     * @return
+     */
+    String keyOf(final Request request, final ResponseHandler<?> responseHandler) {
+        final StringBuilder keyBuilder = new StringBuilder(128)
+            .append(request.getHttpMethod().name()).append(' ')
+            .append(request.getUri())
+            .append(' ').append(responseHandler.getClass().getName());
+        final String shareKey = shareKeyOf(responseHandler);
+        if (BeanUtils.isNotNull(shareKey)) {
+            keyBuilder.append('#').append(shareKey);
+        } else {
+            // the identity hash may collide, execute() checks the instance
+            keyBuilder.append('@').append(Integer.toHexString(System.identityHashCode(responseHandler)));
+        }
+        if (!headerNames.isEmpty()) {
+            // sorted by name, so that the header order of the request doesn't matter
+            final Map<String, String> keyHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            request.getHeaders().forEach((name, value) -> {
+                if (headerNames.contains(name)) {
+                    keyHeaders.put(name, value);
+                }
+            });
+            keyHeaders.forEach((name, value) -> keyBuilder.append('\n').append(name.toLowerCase()).append(':')
+                .append(value));
+        }
+
+        return keyBuilder.toString();
+    }
+
+    /**
+     * Joins the in-flight call of an identical request or starts a new one with the <code>upstream</code> function.
+     *
+     * @param request
+     * @param responseHandler
+     * @param futureCallback
+     * @param upstream
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<Response<T>> execute(final Request request, final ResponseHandler<T> responseHandler,
+                                               final FutureCallback<Response<T>> futureCallback,
+                                               final Function<FutureCallback<Response<T>>,
+                                                   CompletableFuture<Response<T>>> upstream) {
+        final String key = keyOf(request, responseHandler);
+        while (true) {
+            final Flight<T> flight = (Flight<T>) flights.get(key);
+            if (BeanUtils.isNull(flight)) {
+                final Flight<T> newFlight = new Flight<>(responseHandler);
+                if (BeanUtils.isNull(flights.putIfAbsent(key, newFlight))) {
+                    final CompletableFuture<Response<T>> waiter = newFlight.newWaiter(futureCallback);
+                    newFlight.launch(upstream, () -> flights.remove(key, newFlight));
+                    return waiter;
+                }
+            } else if (flight.responseHandler != responseHandler && !isShareable(responseHandler)) {
+                // another handler with the same identity hash
+                return upstream.apply(futureCallback);
+            } else if (flight.tryJoin()) {
+                coalescedRequests.increment();
+                LOGGER.debug("execute() - coalesced request:{}", request);
+                return flight.newWaiter(futureCallback);
+            } else {
+                // every waiter has cancelled, the flight is on its way out
+                flights.remove(key, flight);
+            }
+        }
+    }
+
+    /**
+     * One shared upstream call and its waiters.
+     *
+     * @param <T>
+     */
+    private static final class Flight<T> {
+
+        private final ResponseHandler<T> responseHandler;
+        private final CompletableFuture<Response<T>> shared = new CompletableFuture<>();
+        // the leader is the first waiter
+        private final AtomicInteger waiters = new AtomicInteger(1);
+        private volatile CompletableFuture<Response<T>> upstreamFuture;
+
+        /**
+         * @param responseHandler the handler of the leader
+         */
+        private Flight(final ResponseHandler<T> responseHandler) {
+            this.responseHandler = responseHandler;
+        }
+
+        /**
+         * @return
+         */
+        private boolean tryJoin() {
+            int count;
+            while ((count = waiters.get()) > 0) {
+                if (waiters.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Cancels the upstream call once the last waiter has left.
+         */
+        private void leave() {
+            if (waiters.decrementAndGet() == 0) {
+                final CompletableFuture<Response<T>> upstream = upstreamFuture;
+                if (BeanUtils.isNotNull(upstream)) {
+                    upstream.cancel(true);
+                }
+                shared.cancel(false);
+            }
+        }
+
+        /**
+         * @param upstream
+         * @param onComplete
+         */
+        private void launch(final Function<FutureCallback<Response<T>>, CompletableFuture<Response<T>>> upstream,
+                            final Runnable onComplete) {
+            shared.whenComplete((response, throwable) -> onComplete.run());
+            try {
+                upstreamFuture = upstream.apply(new FutureCallback<Response<T>>() {
+                    @Override
+                    public void completed(final Response<T> response) {
+                        shared.complete(response);
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        shared.completeExceptionally(ex);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        shared.cancel(false);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                shared.completeExceptionally(ex);
+                throw ex;
+            }
+
+            if (shared.isCancelled()) {
+                upstreamFuture.cancel(true);
+            }
+        }
+
+        /**
+         * Each waiter gets its own future, so that its cancellation doesn't complete the others.
+         *
+         * @param futureCallback
+         * @return
+         */
+        private CompletableFuture<Response<T>> newWaiter(final FutureCallback<Response<T>> futureCallback) {
+            final CompletableFuture<Response<T>> waiter = new CompletableFuture<>();
+            shared.whenComplete((response, throwable) -> {
+                if (waiter.isDone()) {
+                    return;
+                }
+                // same contract as a direct call, the callback is notified and the future completes with null
+                if (BeanUtils.isNull(throwable)) {
+                    futureCallback.completed(response);
+                    waiter.complete(response);
+                } else if (throwable instanceof CancellationException) {
+                    futureCallback.cancelled();
+                    waiter.complete(null);
+                } else {
+                    futureCallback.failed(throwable instanceof Exception ? (Exception) throwable
+                                                                         : new RuntimeException(throwable));
+                    waiter.complete(null);
+                }
+            });
+            waiter.whenComplete((response, throwable) -> {
+                if (waiter.isCancelled()) {
+                    leave();
+                }
+            });
+
+            return waiter;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.protocol.http.metrics.HttpClientMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Process-wide resilience4j registries of the clients built without registries of their own.
+ * <p>
+ * All the clients of a <code>clientName</code> share its circuit breaker and retry, so that N clients of a dead
+ * dependency trip one breaker instead of hammering it from N independent ones.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 6:10 PM
+ */
+public final class ResilienceRegistries {
+
+    private static final CircuitBreakerRegistry CIRCUIT_BREAKER_REGISTRY = CircuitBreakerRegistry.ofDefaults();
+    private static final RetryRegistry RETRY_REGISTRY = RetryRegistry.ofDefaults();
+    // the metrics already listening to a circuit breaker, so that N clients don't report a transition N times
+    private static final Map<CircuitBreaker, Set<HttpClientMetrics>> OBSERVERS = new WeakHashMap<>();
+
+    private ResilienceRegistries() {
+    }
+
+    /**
+     * @return
+     */
+    public static CircuitBreakerRegistry circuitBreakerRegistry() {
+        return CIRCUIT_BREAKER_REGISTRY;
+    }
+
+    /**
+     * @return
+     */
+    public static RetryRegistry retryRegistry() {
+        return RETRY_REGISTRY;
+    }
+
+    /**
+     * Reports the transitions of the <code>circuitBreaker</code> to the <code>metrics</code>, once per pair whatever
+     * the number of clients sharing them.
+     *
+     * @param clientName
+     * @param circuitBreaker
+     * @param metrics
+     */
+    static void observe(final String clientName, final CircuitBreaker circuitBreaker,
+                        final HttpClientMetrics metrics) {
+        synchronized (OBSERVERS) {
+            if (!OBSERVERS.computeIfAbsent(circuitBreaker,
+                                           key -> Collections.newSetFromMap(new IdentityHashMap<>())).add(metrics)) {
+                return;
+            }
+        }
+
+        metrics.circuitBreakerRegistered(clientName, circuitBreaker);
+        circuitBreaker.getEventPublisher()
+            .onStateTransition(event -> metrics.circuitBreakerTransition(
+                clientName, event.getStateTransition().getFromState().name(),
+                event.getStateTransition().getToState().name()));
+    }
+}
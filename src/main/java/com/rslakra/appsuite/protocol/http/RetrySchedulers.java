@@ -0,0 +1,81 @@
+package com.rslakra.appsuite.protocol.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Process-wide scheduler for the retry back-off of the async clients, see <code>RetryEngine</code>.
+ * <p>
+ * The back-off only re-submits a non-blocking call, so a single scheduler backed by virtual threads is shared by all
+ * clients instead of a thread pool per client. The scheduler is reference counted, it is shut down when the last
+ * client releases it and re-created on the next acquire, so that nothing leaks on redeploy.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 11:40 AM
+ */
+public final class RetrySchedulers {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetrySchedulers.class);
+    private static final int CORE_POOL_SIZE = 1;
+    private static final Object LOCK = new Object();
+    private static ScheduledExecutorService sharedScheduler;
+    private static int references;
+
+    private RetrySchedulers() {
+    }
+
+    /**
+     * @return
+     */
+    private static ScheduledExecutorService newScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(CORE_POOL_SIZE, Thread.ofVirtual()
+            .name("retry-scheduler-", 0)
+            .factory());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Returns the shared scheduler and increments its reference count.
+     *
+     * @return
+     */
+    public static ScheduledExecutorService acquire() {
+        synchronized (LOCK) {
+            if (sharedScheduler == null || sharedScheduler.isShutdown()) {
+                sharedScheduler = newScheduler();
+                LOGGER.debug("acquire() - created shared retry scheduler");
+            }
+            references++;
+            return sharedScheduler;
+        }
+    }
+
+    /**
+     * Decrements the reference count of the shared scheduler and shuts it down once nobody uses it.
+     *
+     * @param scheduler
+     */
+    public static void release(final ScheduledExecutorService scheduler) {
+        synchronized (LOCK) {
+            if (scheduler != null && scheduler == sharedScheduler && --references == 0) {
+                sharedScheduler.shutdown();
+                sharedScheduler = null;
+                LOGGER.debug("release() - shut down shared retry scheduler");
+            }
+        }
+    }
+
+    /**
+     * @return
+     */
+    public static int getReferences() {
+        synchronized (LOCK) {
+            return references;
+        }
+    }
+}
@@ -1,25 +1,57 @@
 package com.rslakra.appsuite.protocol.http;
 
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.protocol.http.retry.RetryEngine;
+import com.rslakra.appsuite.protocol.http.retry.RetryPolicy;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
-import org.apache.http.HttpStatus;
 import org.apache.http.impl.client.DefaultServiceUnavailableRetryStrategy;
 import org.apache.http.protocol.HttpContext;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
+ * Retries the responses with a retryable status of the <code>RetryPolicy</code> (429, 503) inside a plain apache
+ * client, such as the ones of <code>HTTPUtils.getHttpClient()</code>.
+ * <p>
+ * The wait honours the <code>Retry-After</code> of the response, otherwise it is a decorrelated jitter back-off from
+ * <code>retryInterval</code>. Apache sleeps on the calling thread between the attempts, so the clients of
+ * <code>HttpClientBuilder</code> don't use this strategy but their <code>RetryEngine</code>, which doesn't block the
+ * async client and doesn't multiply with it.
+ *
  * @author Rohtash Lakra
  * @created 2/28/20 10:42 AM
  */
 public final class ServiceUnavailableRetryStrategy extends DefaultServiceUnavailableRetryStrategy {
 
+    // the interval of the last retried response, apache asks for it right after retryRequest() on the same thread
+    private static final ThreadLocal<Long> RETRY_INTERVAL = new ThreadLocal<>();
+
     private final int maxRetries;
+    private final int retryInterval;
+    private final RetryPolicy retryPolicy;
 
     /**
      * @param maxRetries
      * @param retryInterval
+     * @param retryPolicy
      */
-    public ServiceUnavailableRetryStrategy(final int maxRetries, final int retryInterval) {
+    public ServiceUnavailableRetryStrategy(final int maxRetries, final int retryInterval,
+                                           final RetryPolicy retryPolicy) {
         super(maxRetries, retryInterval);
+        BeanUtils.assertNonNull(retryPolicy, "retryPolicy must provide!");
         this.maxRetries = maxRetries;
+        this.retryInterval = Math.max(1, retryInterval);
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @param maxRetries
+     * @param retryInterval
+     */
+    public ServiceUnavailableRetryStrategy(final int maxRetries, final int retryInterval) {
+        this(maxRetries, retryInterval, RetryPolicy.ofDefaults());
     }
 
     /**
@@ -37,7 +69,33 @@ public final class ServiceUnavailableRetryStrategy extends DefaultServiceUnavail
      */
     @Override
     public boolean retryRequest(final HttpResponse response, final int executionCount, final HttpContext context) {
-        return executionCount <= maxRetries
-               && response.getStatusLine().getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+        if (executionCount > maxRetries || !retryPolicy.isRetryableStatus(response.getStatusLine().getStatusCode())) {
+            return false;
+        }
+
+        final Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        final long retryAfterMillis = RetryEngine.retryAfterMillis(
+            (BeanUtils.isNull(retryAfter) ? null : retryAfter.getValue()), System.currentTimeMillis());
+        if (retryAfterMillis > retryPolicy.getMaxRetryAfter().toMillis()) {
+            return false;
+        }
+
+        // decorrelated jitter, from the interval up to three times the previous one
+        final Long previous = RETRY_INTERVAL.get();
+        final long upperBound = (executionCount == 1 || BeanUtils.isNull(previous) ? retryInterval
+                                 : Math.max(retryInterval, previous * 3));
+        final long backoff = Math.min(retryPolicy.getMaxDelay().toMillis(),
+                                      ThreadLocalRandom.current().nextLong(retryInterval, upperBound + 1));
+        RETRY_INTERVAL.set(Math.max(retryAfterMillis, backoff));
+        return true;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public long getRetryInterval() {
+        final Long interval = RETRY_INTERVAL.get();
+        return (BeanUtils.isNull(interval) ? retryInterval : interval);
     }
 }
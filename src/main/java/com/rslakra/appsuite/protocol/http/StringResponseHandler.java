@@ -24,6 +24,16 @@ public class StringResponseHandler extends AbstractResponseHandler<String> {
         super();
     }
 
+    /**
+     * The default handlers buffer the body and have no state, so any of them shares the payloads of another.
+     *
+     * @return
+     */
+    @Override
+    public String getShareKey() {
+        return (StringResponseHandler.class == getClass() && SUCCESS_CRITERIA == acceptCriteria ? "" : null);
+    }
+
     /**
      * @param httpResponse
      * @return
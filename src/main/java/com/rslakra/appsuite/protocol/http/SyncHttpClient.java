@@ -1,20 +1,45 @@
 package com.rslakra.appsuite.protocol.http;
 
 import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.protocol.http.cache.CacheEntry;
+import com.rslakra.appsuite.protocol.http.cache.HttpCache;
+import com.rslakra.appsuite.protocol.http.limit.AdaptiveLimiter;
+import com.rslakra.appsuite.protocol.http.limit.ConcurrencyLimitExceededException;
+import com.rslakra.appsuite.protocol.http.ssl.KeyMaterialReloader;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.decorators.Decorators;
 import org.apache.commons.lang3.time.StopWatch;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 
 /**
  * Decorates Apache HTTP Client with resilence4j to handle circuit breaking and retry logic for synchronous rest(s)
  * invocations. Provides standardized logging for better insights into outbound rest(s) traffic.
+ * <p>
+ * Safe to call from virtual threads: the calls wait for a connection on the <code>ConnectionPermits</code> of the pool
+ * rather than inside the pool, and <code>executeAll()</code> fans out on one virtual thread per request unless
+ * <code>HttpClientBuilder.fanOutExecutor()</code> says otherwise.
  *
  * @author Rohtash Lakra
  * @created 3/26/21 5:42 PM
@@ -24,13 +49,91 @@ public final class SyncHttpClient extends AbstractHttpClient implements AutoClos
     // LOGGER
     private static final Logger LOGGER = LoggerFactory.getLogger(SyncHttpClient.class);
     private CloseableHttpClient httpSyncClient;
+    private IdleConnectionEvictor idleConnectionEvictor;
+    private KeyMaterialReloader keyMaterialReloader;
+    private ConnectionWarmer connectionWarmer;
+    private final boolean sharedConnectionWarmer;
+    private final boolean sharedKeyMaterialReloader;
+    private HttpCache httpCache;
+    private final ConnectionPermits connectionPermits;
+    private final ExecutorService fanOutExecutor;
+    private final boolean sharedFanOutExecutor;
 
     /**
      * can only be instantiated from HttpClientBuilder
+     *
+     * @param builder
+     * @param sharedConnectionWarmer    true if the connection warmer belongs to a client built earlier with the pool.
+     * @param sharedKeyMaterialReloader true if the key material reloader belongs to a client built earlier.
      */
-    protected SyncHttpClient(final HttpClientBuilder builder) {
+    protected SyncHttpClient(final HttpClientBuilder builder, final boolean sharedConnectionWarmer,
+                             final boolean sharedKeyMaterialReloader) {
         super(builder);
         this.httpSyncClient = builder.getHttpSyncClient();
+        this.idleConnectionEvictor = builder.getIdleConnectionEvictor();
+        this.keyMaterialReloader = builder.getKeyMaterialReloader();
+        this.sharedKeyMaterialReloader = sharedKeyMaterialReloader;
+        this.connectionWarmer = builder.getConnectionWarmer();
+        this.sharedConnectionWarmer = sharedConnectionWarmer;
+        if (BeanUtils.isNotNull(builder.getCacheConfig())) {
+            this.httpCache = new HttpCache(builder.getCacheConfig());
+        }
+        // the permits of the pool, shared by the clients of the builder
+        this.connectionPermits = builder.getConnectionPermits();
+        if (BeanUtils.isNotNull(builder.getFanOutExecutor())) {
+            this.fanOutExecutor = builder.getFanOutExecutor();
+            this.sharedFanOutExecutor = true;
+        } else {
+            this.fanOutExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(getClientName() + "-", 0).factory());
+            this.sharedFanOutExecutor = false;
+        }
+    }
+
+    /**
+     * Returns the connection warmer, <code>null</code> without warm-up.
+     *
+     * @return
+     */
+    public ConnectionWarmer getConnectionWarmer() {
+        return connectionWarmer;
+    }
+
+    /**
+     * Returns the response cache, <code>null</code> when caching is off.
+     *
+     * @return
+     */
+    public HttpCache getHttpCache() {
+        return httpCache;
+    }
+
+    /**
+     * Stops the idle connection evictor, the connection warmer and the key material reloader, if any, and closes the
+     * underlying client with its connection pool.
+     *
+     * @throws Exception
+     */
+    @Override
+    public void close() throws Exception {
+        if (!sharedFanOutExecutor) {
+            fanOutExecutor.shutdown();
+        }
+        if (BeanUtils.isNotNull(idleConnectionEvictor)) {
+            idleConnectionEvictor.shutdown();
+        }
+        // the shared warmer is owned by the client built with the pool
+        if (BeanUtils.isNotNull(connectionWarmer) && !sharedConnectionWarmer) {
+            connectionWarmer.shutdown();
+        }
+        // the shared reloader is owned by the client built with it
+        if (BeanUtils.isNotNull(keyMaterialReloader) && !sharedKeyMaterialReloader) {
+            keyMaterialReloader.close();
+        }
+        if (BeanUtils.isNotNull(httpCache)) {
+            httpCache.close();
+        }
+        httpSyncClient.close();
     }
 
     /**
@@ -58,7 +161,23 @@ public final class SyncHttpClient extends AbstractHttpClient implements AutoClos
         BeanUtils.assertNonNull(request, "request is null!");
         BeanUtils.assertNonNull(responseHandler, "responseHandler is null!");
 
+        // fresh hits don't touch the network, the circuit breaker nor the retry
+        final CacheEntry cacheEntry = (BeanUtils.isNotNull(httpCache) && httpCache.isCacheable(request)
+                                       ? httpCache.lookup(request) : null);
+        final long now = System.currentTimeMillis();
+        if (BeanUtils.isNotNull(cacheEntry) && httpCache.isServable(request, cacheEntry, now)) {
+            final HttpResponse httpResponse = httpCache.serve(cacheEntry, now);
+            try {
+                return Response.of(httpResponse.getStatusLine(), responseHandler.handleResponse(httpResponse));
+            } catch (IOException ex) {
+                throw new HttpClientException(ex);
+            }
+        }
+
         Supplier<Response<T>> supplier = () -> {
+            // every attempt takes its own permit, a rejected attempt never reaches the network
+            final AdaptiveLimiter.Permit permit = (BeanUtils.isNull(getConcurrencyLimiter()) ? null
+                                                   : getConcurrencyLimiter().acquirePermit(request));
             logHttpRequest(request);
 
             State state = State.SUCCESS;
@@ -68,22 +187,57 @@ public final class SyncHttpClient extends AbstractHttpClient implements AutoClos
 
             final StopWatch stopWatch = new StopWatch();
             stopWatch.start();
+            requestStarted(request);
+            HttpRoute permitRoute = null;
             try {
-                response = httpSyncClient.execute(ofApacheRequest(request));
+                final HttpRequestBase apacheRequest = ofApacheRequest(request);
+                if (BeanUtils.isNotNull(cacheEntry)) {
+                    httpCache.addConditionalHeaders(apacheRequest, cacheEntry);
+                }
+                // the platform threads too, otherwise they hold the connections the permits count as free
+                if (BeanUtils.isNotNull(connectionPermits)) {
+                    permitRoute = connectionPermits.acquire(request.getUri());
+                }
+                final long requestTime = System.currentTimeMillis();
+                response = httpSyncClient.execute(apacheRequest);
+                if (BeanUtils.isNotNull(httpCache)) {
+                    response = httpCache.cacheResponse(request, cacheEntry, response, requestTime,
+                                                       System.currentTimeMillis());
+                }
                 // please refer ResponseHandler, default accept criteria is rest status code between 200 and 299
                 // you can set your own accept criteria to distinguish which response code should be handled as an error
                 payload = responseHandler.handleResponse(response);
             } catch (Throwable t) {
                 LOGGER.error("execute()", t, "rest call failed for name={}", getClientName());
+                if (t instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
                 state = State.FAILED;
                 throwable = t;
                 throw new HttpClientException(t);
             } finally {
+                if (BeanUtils.isNotNull(response)) {
+                    // releases the connection of the responses the handler didn't read i.e. a retryable 429/503
+                    EntityUtils.consumeQuietly(response.getEntity());
+                }
+                if (BeanUtils.isNotNull(permit)) {
+                    getConcurrencyLimiter().release(permit, response, throwable);
+                }
+                if (BeanUtils.isNotNull(permitRoute)) {
+                    connectionPermits.release(permitRoute);
+                }
                 stopWatch.stop();
-                logHttpResponse(state, request, response, payload, stopWatch.getStopTime(), throwable);
+                requestCompleted(request, response, stopWatch.getNanoTime(), throwable);
+                logHttpResponse(state, request, response, payload, stopWatch.getTime(), throwable);
             }
 
-            return Response.of(response.getStatusLine(), payload);
+            final Response<T> result = Response.of(response.getStatusLine(), payload);
+            // for the retry engine and the caller
+            final Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+            if (BeanUtils.isNotNull(retryAfter)) {
+                result.addResponseHeader(HttpHeaders.RETRY_AFTER, Collections.singletonList(retryAfter.getValue()));
+            }
+            return result;
         };
 
         try {
@@ -91,17 +245,81 @@ public final class SyncHttpClient extends AbstractHttpClient implements AutoClos
             if (getCircuitBreaker() != null) {
                 decoratedSupplier.withCircuitBreaker(getCircuitBreaker());
             }
-            if (getRetry() != null) {
-                decoratedSupplier.withRetry(getRetry());
+            if (getRetryEngine() != null) {
+                return getRetryEngine().execute(decoratedSupplier.decorate());
             }
 
             return decoratedSupplier.get();
-        } catch (CallNotPermittedException c) {
-            // log rest request/response when circuitbreaker is open
+        } catch (CallNotPermittedException | ConcurrencyLimitExceededException c) {
+            // log rest request/response when circuitbreaker is open or the concurrency limit is reached
             logHttpRequest(request);
             logHttpResponse(State.CANCELLED, request, null, null, 0, c);
             throw c;
         }
     }
 
+    /**
+     * @param requests
+     * @return
+     */
+    public List<Response<String>> executeAll(final Collection<Request> requests) {
+        return executeAll(requests, new StringResponseHandler());
+    }
+
+    /**
+     * Executes the <code>requests</code> concurrently on the fan-out executor and waits for all of them. Each request
+     * goes through the cache, the circuit breaker and the retry like <code>execute()</code>.
+     * <p>
+     * The responses are in the order of the <code>requests</code>. A failed request doesn't fail the others, its
+     * response has no status line and carries the error. The <code>responseHandler</code> is shared by all requests,
+     * so it must be thread-safe.
+     *
+     * @param requests
+     * @param responseHandler
+     * @param <T>
+     * @return
+     */
+    public <T> List<Response<T>> executeAll(final Collection<Request> requests,
+                                            final ResponseHandler<T> responseHandler) {
+        BeanUtils.assertNonNull(requests, "requests is null!");
+        BeanUtils.assertNonNull(responseHandler, "responseHandler is null!");
+
+        final List<Future<Response<T>>> futures = new ArrayList<>(requests.size());
+        try {
+            for (Request request : requests) {
+                futures.add(fanOutExecutor.submit(() -> executeQuietly(request, responseHandler)));
+            }
+
+            final List<Response<T>> responses = new ArrayList<>(futures.size());
+            for (Future<Response<T>> future : futures) {
+                responses.add(future.get());
+            }
+
+            return responses;
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new HttpClientException(ex);
+        } catch (ExecutionException | RejectedExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new HttpClientException(ex);
+        }
+    }
+
+    /**
+     * @param request
+     * @param responseHandler
+     * @param <T>
+     * @return
+     */
+    private <T> Response<T> executeQuietly(final Request request, final ResponseHandler<T> responseHandler) {
+        try {
+            return execute(request, responseHandler);
+        } catch (RuntimeException ex) {
+            final Response<T> response = new Response<>(null, null);
+            response.setError(ex);
+            return response;
+        }
+    }
+
 }
@@ -0,0 +1,199 @@
+package com.rslakra.appsuite.protocol.http;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Connection warm-up settings of the clients built by <code>HttpClientBuilder</code>.
+ * <p>
+ * At build time, the hosts of the routes are resolved and <code>connectionsPerRoute</code> pooled connections are
+ * opened (TCP connect and TLS handshake) to each route, so that the first requests after a start don't pay for them.
+ * The keeper then tops the pools back up to <code>connectionsPerRoute</code> after their idle connections are evicted.
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 3:00 AM
+ */
+public final class WarmupConfig {
+
+    public static final int DEFAULT_CONNECTIONS_PER_ROUTE = 2;
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_KEEP_WARM_INTERVAL = Duration.ofSeconds(30);
+
+    private final List<URI> routes;
+    private final int connectionsPerRoute;
+    private final Duration timeout;
+    private final boolean keepWarm;
+    private final Duration keepWarmInterval;
+
+    /**
+     * @param builder
+     */
+    private WarmupConfig(final WarmupConfigBuilder builder) {
+        this.routes = Collections.unmodifiableList(new ArrayList<>(builder.routes));
+        this.connectionsPerRoute = builder.connectionsPerRoute;
+        this.timeout = builder.timeout;
+        this.keepWarm = builder.keepWarm;
+        this.keepWarmInterval = builder.keepWarmInterval;
+    }
+
+    /**
+     * Returns the URIs of the routes to warm up, only their scheme, host and port matter.
+     *
+     * @return
+     */
+    public List<URI> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * @return
+     */
+    public int getConnectionsPerRoute() {
+        return connectionsPerRoute;
+    }
+
+    /**
+     * Returns the time the build waits for the warm-up, the client is returned not ready after it.
+     *
+     * @return
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return
+     */
+    public boolean isKeepWarm() {
+        return keepWarm;
+    }
+
+    /**
+     * @return
+     */
+    public Duration getKeepWarmInterval() {
+        return keepWarmInterval;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(WarmupConfig.class)
+            .add("routes", getRoutes())
+            .add("connectionsPerRoute", getConnectionsPerRoute())
+            .add("timeout", getTimeout())
+            .add("keepWarm", isKeepWarm())
+            .add("keepWarmInterval", getKeepWarmInterval())
+            .toString();
+    }
+
+    /**
+     * @return
+     */
+    public static WarmupConfigBuilder newBuilder() {
+        return new WarmupConfigBuilder();
+    }
+
+    /**
+     *
+     */
+    public static class WarmupConfigBuilder {
+
+        private final List<URI> routes = new ArrayList<>();
+        private int connectionsPerRoute = DEFAULT_CONNECTIONS_PER_ROUTE;
+        private Duration timeout = DEFAULT_TIMEOUT;
+        private boolean keepWarm = true;
+        private Duration keepWarmInterval = DEFAULT_KEEP_WARM_INTERVAL;
+
+        private WarmupConfigBuilder() {
+        }
+
+        /**
+         * @param route
+         * @return
+         */
+        public WarmupConfigBuilder addRoute(final URI route) {
+            this.routes.add(route);
+            return this;
+        }
+
+        /**
+         * @param routes
+         * @return
+         */
+        public WarmupConfigBuilder addRoutes(final List<URI> routes) {
+            this.routes.addAll(routes);
+            return this;
+        }
+
+        /**
+         * @param connectionsPerRoute
+         * @return
+         */
+        public WarmupConfigBuilder setConnectionsPerRoute(final int connectionsPerRoute) {
+            this.connectionsPerRoute = connectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * @param timeout
+         * @return
+         */
+        public WarmupConfigBuilder setTimeout(final Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * @param keepWarmInterval
+         * @return
+         */
+        public WarmupConfigBuilder setKeepWarmInterval(final Duration keepWarmInterval) {
+            this.keepWarmInterval = keepWarmInterval;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public WarmupConfigBuilder turnOffKeepWarm() {
+            this.keepWarm = false;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public WarmupConfig build() {
+            if (routes.isEmpty()) {
+                throw new HttpClientException("routes must provide!");
+            }
+            for (URI route : routes) {
+                if (BeanUtils.isNull(route) || BeanUtils.isEmpty(route.getHost())
+                    || !("http".equalsIgnoreCase(route.getScheme()) || "https".equalsIgnoreCase(route.getScheme()))) {
+                    throw new HttpClientException("Invalid route:" + route);
+                }
+            }
+            if (connectionsPerRoute <= 0) {
+                throw new HttpClientException("connectionsPerRoute must be positive!");
+            }
+            if (BeanUtils.isNull(timeout) || timeout.isNegative() || timeout.isZero()) {
+                throw new HttpClientException("timeout must be positive!");
+            }
+            if (keepWarm && (BeanUtils.isNull(keepWarmInterval) || keepWarmInterval.isNegative()
+                             || keepWarmInterval.isZero())) {
+                throw new HttpClientException("keepWarmInterval must be positive!");
+            }
+
+            return new WarmupConfig(this);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.rslakra.appsuite.protocol.http.cache;
+
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of the <code>HttpCache</code>. The memory tier is always on, the disk tier only when a directory is set.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 4:10 PM
+ */
+public final class CacheConfig {
+
+    public static final long DEFAULT_MAX_MEMORY_BYTES = 32L * 1024 * 1024;
+    public static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MAX_DISK_BYTES = 256L * 1024 * 1024;
+    public static final int DEFAULT_DISK_SEGMENT_BYTES = 16 * 1024 * 1024;
+
+    private final long maxMemoryBytes;
+    private final int maxEntryBytes;
+    private final Path diskDirectory;
+    private final long maxDiskBytes;
+    private final int diskSegmentBytes;
+    private final boolean heuristicFreshness;
+
+    /**
+     * @param builder
+     */
+    private CacheConfig(final CacheConfigBuilder builder) {
+        this.maxMemoryBytes = builder.maxMemoryBytes;
+        this.maxEntryBytes = builder.maxEntryBytes;
+        this.diskDirectory = builder.diskDirectory;
+        this.maxDiskBytes = builder.maxDiskBytes;
+        this.diskSegmentBytes = builder.diskSegmentBytes;
+        this.heuristicFreshness = builder.heuristicFreshness;
+    }
+
+    /**
+     * @return
+     */
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    /**
+     * @return
+     */
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Returns the directory of the disk tier segments, <code>null</code> means no disk tier. Each cache keeps its
+     * segments in a subdirectory of its own.
+     *
+     * @return
+     */
+    public Path getDiskDirectory() {
+        return diskDirectory;
+    }
+
+    /**
+     * @return
+     */
+    public long getMaxDiskBytes() {
+        return maxDiskBytes;
+    }
+
+    /**
+     * @return
+     */
+    public int getDiskSegmentBytes() {
+        return diskSegmentBytes;
+    }
+
+    /**
+     * @return
+     */
+    public boolean isHeuristicFreshness() {
+        return heuristicFreshness;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(CacheConfig.class)
+            .add("maxMemoryBytes", getMaxMemoryBytes())
+            .add("maxEntryBytes", getMaxEntryBytes())
+            .add("diskDirectory", getDiskDirectory())
+            .add("maxDiskBytes", getMaxDiskBytes())
+            .add("diskSegmentBytes", getDiskSegmentBytes())
+            .add("heuristicFreshness", isHeuristicFreshness())
+            .toString();
+    }
+
+    /**
+     * @return
+     */
+    public static CacheConfig ofDefaults() {
+        return newBuilder().build();
+    }
+
+    /**
+     * @return
+     */
+    public static CacheConfigBuilder newBuilder() {
+        return new CacheConfigBuilder();
+    }
+
+    /**
+     *
+     */
+    public static class CacheConfigBuilder {
+
+        private long maxMemoryBytes = DEFAULT_MAX_MEMORY_BYTES;
+        private int maxEntryBytes = DEFAULT_MAX_ENTRY_BYTES;
+        private Path diskDirectory;
+        private long maxDiskBytes = DEFAULT_MAX_DISK_BYTES;
+        private int diskSegmentBytes = DEFAULT_DISK_SEGMENT_BYTES;
+        private boolean heuristicFreshness = true;
+
+        private CacheConfigBuilder() {
+        }
+
+        /**
+         * @param maxMemoryBytes
+         * @return
+         */
+        public CacheConfigBuilder setMaxMemoryBytes(final long maxMemoryBytes) {
+            this.maxMemoryBytes = maxMemoryBytes;
+            return this;
+        }
+
+        /**
+         * Responses with a larger body are passed through without being cached.
+         *
+         * @param maxEntryBytes
+         * @return
+         */
+        public CacheConfigBuilder setMaxEntryBytes(final int maxEntryBytes) {
+            this.maxEntryBytes = maxEntryBytes;
+            return this;
+        }
+
+        /**
+         * Turns on the disk tier, entries evicted from memory are written to memory-mapped segment files in the
+         * <code>diskDirectory</code>.
+         *
+         * @param diskDirectory
+         * @param maxDiskBytes
+         * @return
+         */
+        public CacheConfigBuilder setDiskTier(final Path diskDirectory, final long maxDiskBytes) {
+            this.diskDirectory = diskDirectory;
+            this.maxDiskBytes = maxDiskBytes;
+            return this;
+        }
+
+        /**
+         * @param diskSegmentBytes
+         * @return
+         */
+        public CacheConfigBuilder setDiskSegmentBytes(final int diskSegmentBytes) {
+            this.diskSegmentBytes = diskSegmentBytes;
+            return this;
+        }
+
+        /**
+         * When on, responses without explicit expiration but with <code>Last-Modified</code> are fresh for 10% of
+         * their age (RFC 9111 section 4.2.2).
+         *
+         * @param heuristicFreshness
+         * @return
+         */
+        public CacheConfigBuilder setHeuristicFreshness(final boolean heuristicFreshness) {
+            this.heuristicFreshness = heuristicFreshness;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public CacheConfig build() {
+            if (maxMemoryBytes <= 0 || maxEntryBytes <= 0) {
+                throw new HttpClientException("maxMemoryBytes and maxEntryBytes must be positive!");
+            }
+            if (maxEntryBytes > maxMemoryBytes) {
+                maxEntryBytes = (int) maxMemoryBytes;
+            }
+            if (diskDirectory != null && (diskSegmentBytes <= 0 || maxDiskBytes < diskSegmentBytes)) {
+                throw new HttpClientException("maxDiskBytes must hold at least one disk segment!");
+            }
+
+            return new CacheConfig(this);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.rslakra.appsuite.protocol.http.cache;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The parsed directives of the <code>Cache-Control</code> header(s) of a request or a response.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 4:20 PM
+ */
+public final class CacheControl {
+
+    public static final String NO_STORE = "no-store";
+    public static final String NO_CACHE = "no-cache";
+    public static final String MAX_AGE = "max-age";
+    public static final String MUST_REVALIDATE = "must-revalidate";
+    public static final String STALE_WHILE_REVALIDATE = "stale-while-revalidate";
+    public static final String IMMUTABLE = "immutable";
+
+    private static final CacheControl EMPTY = new CacheControl(Collections.emptyMap());
+
+    // directive name (lower case) -> value (null without value)
+    private final Map<String, String> directives;
+
+    /**
+     * @param directives
+     */
+    private CacheControl(final Map<String, String> directives) {
+        this.directives = directives;
+    }
+
+    /**
+     * @param name
+     * @return
+     */
+    public boolean has(final String name) {
+        return directives.containsKey(name);
+    }
+
+    /**
+     * Returns the delta-seconds value of the directive, -1 when absent or invalid.
+     *
+     * @param name
+     * @return
+     */
+    public long getSeconds(final String name) {
+        final String value = directives.get(name);
+        if (BeanUtils.isNotEmpty(value)) {
+            try {
+                return Math.max(0, Long.parseLong(value.trim()));
+            } catch (NumberFormatException ex) {
+                // invalid delta-seconds, same as absent
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(CacheControl.class)
+            .add("directives", directives)
+            .toString();
+    }
+
+    /**
+     * @param headers
+     * @return
+     */
+    public static CacheControl parse(final Header... headers) {
+        if (BeanUtils.isNull(headers) || headers.length == 0) {
+            return EMPTY;
+        }
+
+        final Map<String, String> directives = new HashMap<>();
+        for (Header header : headers) {
+            for (HeaderElement element : header.getElements()) {
+                directives.putIfAbsent(element.getName().toLowerCase(Locale.ROOT), element.getValue());
+            }
+        }
+
+        return new CacheControl(directives);
+    }
+}
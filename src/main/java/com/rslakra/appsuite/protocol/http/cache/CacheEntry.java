@@ -0,0 +1,434 @@
+package com.rslakra.appsuite.protocol.http.cache;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.Headers;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A stored response with the request/response times needed for the age calculation of RFC 9111 section 4.2.3.
+ * Entries are immutable, a revalidation creates a new entry.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 4:30 PM
+ */
+public final class CacheEntry {
+
+    private static final int RECORD_MAGIC = 0x48434531;
+    private static final long MAX_HEURISTIC_LIFETIME = TimeUnit.DAYS.toMillis(1);
+
+    private final String key;
+    private final ProtocolVersion protocolVersion;
+    private final int statusCode;
+    private final String reasonPhrase;
+    private final Header[] headers;
+    // the request header values selected by the Vary response header
+    private final Map<String, String> varyHeaders;
+    private final byte[] body;
+    private final long requestTime;
+    private final long responseTime;
+    // derived
+    private final CacheControl cacheControl;
+    private final long freshnessLifetime;
+    private final long correctedInitialAge;
+
+    /**
+     * @param key
+     * @param protocolVersion
+     * @param statusCode
+     * @param reasonPhrase
+     * @param headers
+     * @param varyHeaders
+     * @param body
+     * @param requestTime
+     * @param responseTime
+     * @param heuristicFreshness
+     */
+    CacheEntry(final String key, final ProtocolVersion protocolVersion, final int statusCode,
+               final String reasonPhrase, final Header[] headers, final Map<String, String> varyHeaders,
+               final byte[] body, final long requestTime, final long responseTime,
+               final boolean heuristicFreshness) {
+        this.key = key;
+        this.protocolVersion = protocolVersion;
+        this.statusCode = statusCode;
+        this.reasonPhrase = reasonPhrase;
+        this.headers = headers;
+        this.varyHeaders = varyHeaders;
+        this.body = body;
+        this.requestTime = requestTime;
+        this.responseTime = responseTime;
+        this.cacheControl = CacheControl.parse(getHeaders(Headers.CACHE_CONTROL));
+        this.freshnessLifetime = computeFreshnessLifetime(heuristicFreshness);
+        this.correctedInitialAge = computeCorrectedInitialAge();
+    }
+
+    /**
+     * @return
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return
+     */
+    public Header[] getHeaders() {
+        return headers.clone();
+    }
+
+    /**
+     * @param name
+     * @return
+     */
+    public Header[] getHeaders(final String name) {
+        final List<Header> matches = new ArrayList<>(2);
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                matches.add(header);
+            }
+        }
+
+        return matches.toArray(new Header[0]);
+    }
+
+    /**
+     * @param name
+     * @return
+     */
+    public String getFirstHeader(final String name) {
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return
+     */
+    public Map<String, String> getVaryHeaders() {
+        return Collections.unmodifiableMap(varyHeaders);
+    }
+
+    /**
+     * @return
+     */
+    public int getBodyLength() {
+        return body.length;
+    }
+
+    /**
+     * @return
+     */
+    public CacheControl getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * @return
+     */
+    public long getFreshnessLifetime() {
+        return freshnessLifetime;
+    }
+
+    /**
+     * @return
+     */
+    public long getResponseTime() {
+        return responseTime;
+    }
+
+    /**
+     * @return
+     */
+    public String getETag() {
+        return getFirstHeader(HttpHeaders.ETAG);
+    }
+
+    /**
+     * @return
+     */
+    public String getLastModified() {
+        return getFirstHeader(HttpHeaders.LAST_MODIFIED);
+    }
+
+    /**
+     * Returns true if the entry can be revalidated with a conditional request.
+     *
+     * @return
+     */
+    public boolean hasValidators() {
+        return (BeanUtils.isNotNull(getETag()) || BeanUtils.isNotNull(getLastModified()));
+    }
+
+    /**
+     * Returns the approximate heap size of the entry, used to bound the memory tier.
+     *
+     * @return
+     */
+    public long sizeInBytes() {
+        long size = 128 + body.length + key.length() * 2L;
+        for (Header header : headers) {
+            size += 48 + (header.getName().length() + header.getValue().length()) * 2L;
+        }
+
+        return size;
+    }
+
+    /**
+     * The <code>current_age</code> of RFC 9111 section 4.2.3.
+     *
+     * @param now
+     * @return
+     */
+    public long getCurrentAge(final long now) {
+        return correctedInitialAge + Math.max(0, now - responseTime);
+    }
+
+    /**
+     * Returns true if the entry can be served without revalidation.
+     *
+     * @param now
+     * @return
+     */
+    public boolean isFresh(final long now) {
+        return (!cacheControl.has(CacheControl.NO_CACHE) && freshnessLifetime > getCurrentAge(now));
+    }
+
+    /**
+     * Returns true if the entry is stale but still inside its <code>stale-while-revalidate</code> window (RFC 5861).
+     *
+     * @param now
+     * @return
+     */
+    public boolean isStaleWhileRevalidate(final long now) {
+        final long staleWhileRevalidate = cacheControl.getSeconds(CacheControl.STALE_WHILE_REVALIDATE);
+        return (staleWhileRevalidate > 0 && !cacheControl.has(CacheControl.NO_CACHE)
+                && !cacheControl.has(CacheControl.MUST_REVALIDATE)
+                && freshnessLifetime + TimeUnit.SECONDS.toMillis(staleWhileRevalidate) > getCurrentAge(now));
+    }
+
+    /**
+     * Returns a new apache response with the stored status, headers and body, the received <code>Age</code> replaced
+     * by the current one.
+     *
+     * @param now
+     * @return
+     */
+    public HttpResponse toHttpResponse(final long now) {
+        final BasicHttpResponse httpResponse = new BasicHttpResponse(
+            new BasicStatusLine(protocolVersion, statusCode, reasonPhrase));
+        httpResponse.setHeaders(headers);
+        httpResponse.setHeader(HttpHeaders.AGE, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(getCurrentAge(now))));
+        final ByteArrayEntity entity = new ByteArrayEntity(body);
+        entity.setContentType(httpResponse.getFirstHeader(HttpHeaders.CONTENT_TYPE));
+        entity.setContentEncoding(httpResponse.getFirstHeader(HttpHeaders.CONTENT_ENCODING));
+        httpResponse.setEntity(entity);
+        return httpResponse;
+    }
+
+    /**
+     * Returns a new entry with the headers of the <code>304 Not Modified</code> merged in (RFC 9111 section 4.3.4).
+     *
+     * @param notModifiedHeaders
+     * @param requestTime
+     * @param responseTime
+     * @param heuristicFreshness
+     * @return
+     */
+    CacheEntry revalidated(final Header[] notModifiedHeaders, final long requestTime, final long responseTime,
+                           final boolean heuristicFreshness) {
+        final Map<String, List<Header>> merged = new LinkedHashMap<>();
+        for (Header header : headers) {
+            merged.computeIfAbsent(header.getName().toLowerCase(), name -> new ArrayList<>()).add(header);
+        }
+        // the age of the stored response, the 304 carries its own, if any
+        merged.remove(HttpHeaders.AGE.toLowerCase());
+        final Map<String, List<Header>> updates = new LinkedHashMap<>();
+        for (Header header : notModifiedHeaders) {
+            if (!HttpCache.isHopByHop(header.getName())
+                && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getName())) {
+                updates.computeIfAbsent(header.getName().toLowerCase(), name -> new ArrayList<>()).add(header);
+            }
+        }
+        merged.putAll(updates);
+
+        final List<Header> newHeaders = new ArrayList<>();
+        merged.values().forEach(newHeaders::addAll);
+        return new CacheEntry(key, protocolVersion, statusCode, reasonPhrase, newHeaders.toArray(new Header[0]),
+                              varyHeaders, body, requestTime, responseTime, heuristicFreshness);
+    }
+
+    /**
+     * Serializes the entry for the disk tier.
+     *
+     * @return
+     * @throws IOException
+     */
+    byte[] toBytes() throws IOException {
+        final ByteArrayOutputStream byteStream = new ByteArrayOutputStream((int) Math.min(sizeInBytes(),
+                                                                                          Integer.MAX_VALUE));
+        try (DataOutputStream output = new DataOutputStream(byteStream)) {
+            output.writeInt(RECORD_MAGIC);
+            output.writeUTF(key);
+            output.writeUTF(protocolVersion.getProtocol());
+            output.writeInt(protocolVersion.getMajor());
+            output.writeInt(protocolVersion.getMinor());
+            output.writeInt(statusCode);
+            output.writeUTF(BeanUtils.isNull(reasonPhrase) ? "" : reasonPhrase);
+            output.writeLong(requestTime);
+            output.writeLong(responseTime);
+            output.writeInt(headers.length);
+            for (Header header : headers) {
+                output.writeUTF(header.getName());
+                output.writeUTF(header.getValue());
+            }
+            output.writeInt(varyHeaders.size());
+            for (Map.Entry<String, String> entry : varyHeaders.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeUTF(BeanUtils.isNull(entry.getValue()) ? "" : entry.getValue());
+            }
+            output.writeInt(body.length);
+            output.write(body);
+        }
+
+        return byteStream.toByteArray();
+    }
+
+    /**
+     * @param record
+     * @param heuristicFreshness
+     * @return
+     * @throws IOException
+     */
+    static CacheEntry fromBytes(final byte[] record, final boolean heuristicFreshness) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(record))) {
+            if (input.readInt() != RECORD_MAGIC) {
+                throw new IOException("Invalid cache record!");
+            }
+            final String key = input.readUTF();
+            final ProtocolVersion protocolVersion = new ProtocolVersion(input.readUTF(), input.readInt(),
+                                                                        input.readInt());
+            final int statusCode = input.readInt();
+            final String reasonPhrase = input.readUTF();
+            final long requestTime = input.readLong();
+            final long responseTime = input.readLong();
+            final Header[] headers = new Header[input.readInt()];
+            for (int i = 0; i < headers.length; i++) {
+                headers[i] = new BasicHeader(input.readUTF(), input.readUTF());
+            }
+            final int varyCount = input.readInt();
+            final Map<String, String> varyHeaders = new LinkedHashMap<>();
+            for (int i = 0; i < varyCount; i++) {
+                varyHeaders.put(input.readUTF(), input.readUTF());
+            }
+            final byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+            return new CacheEntry(key, protocolVersion, statusCode, reasonPhrase, headers, varyHeaders, body,
+                                  requestTime, responseTime, heuristicFreshness);
+        }
+    }
+
+    /**
+     * The <code>freshness_lifetime</code> of RFC 9111 section 4.2.1, <code>s-maxage</code> is ignored since this is a
+     * private cache.
+     *
+     * @param heuristicFreshness
+     * @return
+     */
+    private long computeFreshnessLifetime(final boolean heuristicFreshness) {
+        final long maxAge = cacheControl.getSeconds(CacheControl.MAX_AGE);
+        if (maxAge >= 0) {
+            return TimeUnit.SECONDS.toMillis(maxAge);
+        }
+
+        final Date date = parseDate(HttpHeaders.DATE);
+        final long dateValue = (BeanUtils.isNull(date) ? responseTime : date.getTime());
+        if (BeanUtils.isNotNull(getFirstHeader(Headers.EXPIRES))) {
+            // an invalid Expires (i.e. "0") means already expired
+            final Date expires = parseDate(Headers.EXPIRES);
+            return (BeanUtils.isNull(expires) ? 0 : Math.max(0, expires.getTime() - dateValue));
+        }
+
+        final Date lastModified = parseDate(HttpHeaders.LAST_MODIFIED);
+        if (heuristicFreshness && BeanUtils.isNotNull(lastModified) && HttpCache.isHeuristicallyCacheable(statusCode)) {
+            return Math.min(MAX_HEURISTIC_LIFETIME, Math.max(0, (dateValue - lastModified.getTime()) / 10));
+        }
+
+        return 0;
+    }
+
+    /**
+     * The <code>corrected_initial_age</code> of RFC 9111 section 4.2.3.
+     *
+     * @return
+     */
+    private long computeCorrectedInitialAge() {
+        final Date date = parseDate(HttpHeaders.DATE);
+        final long apparentAge = (BeanUtils.isNull(date) ? 0 : Math.max(0, responseTime - date.getTime()));
+        long ageValue = 0;
+        final String age = getFirstHeader(HttpHeaders.AGE);
+        if (BeanUtils.isNotEmpty(age)) {
+            try {
+                ageValue = TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(age.trim())));
+            } catch (NumberFormatException ex) {
+                // invalid Age is ignored
+            }
+        }
+        final long responseDelay = Math.max(0, responseTime - requestTime);
+        return Math.max(apparentAge, ageValue + responseDelay);
+    }
+
+    /**
+     * @param name
+     * @return
+     */
+    private Date parseDate(final String name) {
+        final String value = getFirstHeader(name);
+        return (BeanUtils.isNull(value) ? null : DateUtils.parseDate(value));
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(CacheEntry.class)
+            .add("key", getKey())
+            .add("statusCode", getStatusCode())
+            .add("bodyLength", getBodyLength())
+            .add("freshnessLifetime", getFreshnessLifetime())
+            .add("responseTime", getResponseTime())
+            .toString();
+    }
+}
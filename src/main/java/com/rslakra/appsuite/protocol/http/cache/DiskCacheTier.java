@@ -0,0 +1,241 @@
+package com.rslakra.appsuite.protocol.http.cache;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Second tier of the cache, entries evicted from memory are appended to fixed size memory-mapped segment files.
+ * <p>
+ * Segments are written append-only and dropped as a whole, oldest first, once the tier exceeds its size. Replaced and
+ * removed records are only dropped from the index, their space is reclaimed with their segment. The index lives in
+ * memory, so the tier doesn't survive a restart and its segment files are deleted on close. Each tier writes into its
+ * own subdirectory of the configured directory, which the caches of the clients of a builder share.
+ * <p>
+ * Guarded by a <code>ReentrantLock</code> rather than a monitor, since segments are created and deleted under the
+ * lock and a virtual thread blocked on file I/O inside a monitor pins its carrier thread.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 5:05 PM
+ */
+final class DiskCacheTier implements Closeable {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiskCacheTier.class);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<String, Location> index = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int nextSegmentId;
+    private boolean closed;
+
+    /**
+     * @param directory    the parent of the segments directory of the tier
+     * @param segmentBytes
+     * @param maxBytes
+     * @throws IOException
+     */
+    DiskCacheTier(final Path directory, final int segmentBytes, final long maxBytes) throws IOException {
+        BeanUtils.assertNonNull(directory, "directory must provide!");
+        this.directory = Files.createTempDirectory(Files.createDirectories(directory), "cache-");
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(1, maxBytes / segmentBytes);
+    }
+
+    /**
+     * Appends the record, records larger than a segment are not stored.
+     *
+     * @param key
+     * @param record
+     * @return
+     * @throws IOException
+     */
+    boolean put(final String key, final byte[] record) throws IOException {
+        lock.lock();
+        try {
+            if (closed || record.length > segmentBytes) {
+                return false;
+            }
+
+            Segment segment = segments.peekLast();
+            if (segment == null || segmentBytes - segment.position < record.length) {
+                segment = roll();
+            }
+            final ByteBuffer target = segment.buffer.duplicate();
+            target.position(segment.position);
+            target.put(record);
+            index.put(key, new Location(segment, segment.position, record.length));
+            segment.position += record.length;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param key
+     * @return
+     */
+    byte[] get(final String key) {
+        lock.lock();
+        try {
+            final Location location = index.get(key);
+            if (closed || location == null) {
+                return null;
+            }
+
+            final byte[] record = new byte[location.length];
+            final ByteBuffer source = location.segment.buffer.duplicate();
+            source.position(location.offset);
+            source.get(record);
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param key
+     */
+    void remove(final String key) {
+        lock.lock();
+        try {
+            index.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return
+     */
+    int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a new segment and drops the oldest ones over the limit.
+     *
+     * @return
+     * @throws IOException
+     */
+    private Segment roll() throws IOException {
+        final Path path = directory.resolve("segment-" + (nextSegmentId++) + ".dat");
+        final Segment segment;
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            segment = new Segment(path, fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        }
+        segments.addLast(segment);
+
+        while (segments.size() > maxSegments) {
+            final Segment oldest = segments.removeFirst();
+            index.values().removeIf(location -> location.segment == oldest);
+            deleteSegment(oldest);
+        }
+
+        return segment;
+    }
+
+    /**
+     * @param segment
+     */
+    private void deleteSegment(final Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException ex) {
+            LOGGER.warn("Unable to delete cache segment:{}", segment.path, ex);
+        }
+    }
+
+    /**
+     * Drops the index and deletes the segment files.
+     */
+    void clear() {
+        lock.lock();
+        try {
+            index.clear();
+            while (!segments.isEmpty()) {
+                deleteSegment(segments.removeFirst());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Clears the tier and deletes its directory, no record is stored afterwards.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            clear();
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException ex) {
+                LOGGER.warn("Unable to delete cache directory:{}", directory, ex);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A mapped segment file.
+     */
+    private static final class Segment {
+
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        private Segment(final Path path, final MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * The position of a record in a segment.
+     */
+    private static final class Location {
+
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+
+        private Location(final Segment segment, final int offset, final int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
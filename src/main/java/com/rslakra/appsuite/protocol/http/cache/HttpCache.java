@@ -0,0 +1,547 @@
+package com.rslakra.appsuite.protocol.http.cache;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.Headers;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+import com.rslakra.appsuite.protocol.http.HttpMethod;
+import com.rslakra.appsuite.protocol.http.Request;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Private HTTP cache (RFC 9111) shared by the request path of the sync and async clients.
+ * <p>
+ * Only GET responses are stored, keyed by URI (with the request headers named by <code>Vary</code>). Fresh entries
+ * are served without a network call, stale entries with validators are revalidated with a conditional request and
+ * unsafe requests invalidate the entry of their URI. Entries live in a memory tier bounded in bytes and, when
+ * configured, spill over to a disk tier of memory-mapped segment files.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 5:25 PM
+ */
+public class HttpCache implements Closeable {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpCache.class);
+
+    // RFC 9110 section 15.1
+    private static final Set<Integer> HEURISTICALLY_CACHEABLE = Set.of(
+        HttpStatus.SC_OK, HttpStatus.SC_NON_AUTHORITATIVE_INFORMATION, HttpStatus.SC_NO_CONTENT,
+        HttpStatus.SC_MULTIPLE_CHOICES, HttpStatus.SC_MOVED_PERMANENTLY, 308, HttpStatus.SC_NOT_FOUND,
+        HttpStatus.SC_METHOD_NOT_ALLOWED, HttpStatus.SC_GONE, HttpStatus.SC_REQUEST_URI_TOO_LONG,
+        HttpStatus.SC_NOT_IMPLEMENTED);
+    private static final Set<String> HOP_BY_HOP_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        Collections.addAll(HOP_BY_HOP_HEADERS, "Connection", "Keep-Alive", "Proxy-Authenticate",
+                           "Proxy-Authorization", "Proxy-Connection", "TE", "Trailer", "Transfer-Encoding", "Upgrade");
+    }
+
+    private final CacheConfig cacheConfig;
+    private final MemoryCacheTier memoryTier;
+    private final DiskCacheTier diskTier;
+    private final Set<String> revalidations = ConcurrentHashMap.newKeySet();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder revalidationCount = new LongAdder();
+
+    /**
+     * @param cacheConfig
+     */
+    public HttpCache(final CacheConfig cacheConfig) {
+        BeanUtils.assertNonNull(cacheConfig, "cacheConfig must provide!");
+        this.cacheConfig = cacheConfig;
+        this.memoryTier = new MemoryCacheTier(cacheConfig.getMaxMemoryBytes());
+        if (BeanUtils.isNotNull(cacheConfig.getDiskDirectory())) {
+            try {
+                this.diskTier = new DiskCacheTier(cacheConfig.getDiskDirectory(), cacheConfig.getDiskSegmentBytes(),
+                                                  cacheConfig.getMaxDiskBytes());
+            } catch (IOException ex) {
+                throw new HttpClientException("Unable to create disk cache in:" + cacheConfig.getDiskDirectory(), ex);
+            }
+        } else {
+            this.diskTier = null;
+        }
+    }
+
+    /**
+     * @return
+     */
+    public CacheConfig getCacheConfig() {
+        return cacheConfig;
+    }
+
+    /**
+     * @return
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of stale entries refreshed by a <code>304 Not Modified</code>.
+     *
+     * @return
+     */
+    public long getRevalidationCount() {
+        return revalidationCount.sum();
+    }
+
+    /**
+     * @return
+     */
+    public int size() {
+        return memoryTier.size() + (BeanUtils.isNull(diskTier) ? 0 : diskTier.size());
+    }
+
+    /**
+     * @param statusCode
+     * @return
+     */
+    static boolean isHeuristicallyCacheable(final int statusCode) {
+        return HEURISTICALLY_CACHEABLE.contains(statusCode);
+    }
+
+    /**
+     * @param name
+     * @return
+     */
+    static boolean isHopByHop(final String name) {
+        return HOP_BY_HOP_HEADERS.contains(name);
+    }
+
+    /**
+     * Returns true if the response of the <code>request</code> can be served from and stored in the cache.
+     *
+     * @param request
+     * @return
+     */
+    public boolean isCacheable(final Request request) {
+        return (HttpMethod.GET == request.getHttpMethod() && BeanUtils.isNull(request.getPayload())
+                && !requestCacheControl(request).has(CacheControl.NO_STORE));
+    }
+
+    /**
+     * Returns the stored entry of the <code>request</code>, fresh or not, or <code>null</code>.
+     *
+     * @param request
+     * @return
+     */
+    public CacheEntry lookup(final Request request) {
+        final String key = keyOf(request);
+        CacheEntry cacheEntry = memoryTier.get(key);
+        if (BeanUtils.isNull(cacheEntry) && BeanUtils.isNotNull(diskTier)) {
+            cacheEntry = loadFromDisk(key);
+        }
+
+        return (BeanUtils.isNotNull(cacheEntry) && matchesVary(request, cacheEntry) ? cacheEntry : null);
+    }
+
+    /**
+     * Returns true if the entry is fresh and the request allows a cached response.
+     *
+     * @param request
+     * @param cacheEntry
+     * @param now
+     * @return
+     */
+    public boolean isServable(final Request request, final CacheEntry cacheEntry, final long now) {
+        return (BeanUtils.isNotNull(cacheEntry) && !isRevalidationRequired(request) && cacheEntry.isFresh(now));
+    }
+
+    /**
+     * Returns true if the entry is stale but can be served while it's revalidated in the background.
+     *
+     * @param request
+     * @param cacheEntry
+     * @param now
+     * @return
+     */
+    public boolean isServableStale(final Request request, final CacheEntry cacheEntry, final long now) {
+        return (BeanUtils.isNotNull(cacheEntry) && !isRevalidationRequired(request)
+                && cacheEntry.isStaleWhileRevalidate(now));
+    }
+
+    /**
+     * @param cacheEntry
+     * @param now
+     * @return
+     */
+    public HttpResponse serve(final CacheEntry cacheEntry, final long now) {
+        hitCount.increment();
+        LOGGER.debug("serve() - cache hit, key:{}", cacheEntry.getKey());
+        return cacheEntry.toHttpResponse(now);
+    }
+
+    /**
+     * Adds <code>If-None-Match</code>/<code>If-Modified-Since</code> of the stale entry, if any.
+     *
+     * @param httpRequest
+     * @param cacheEntry
+     */
+    public void addConditionalHeaders(final HttpRequest httpRequest, final CacheEntry cacheEntry) {
+        if (BeanUtils.isNotNull(cacheEntry)) {
+            if (BeanUtils.isNotNull(cacheEntry.getETag())) {
+                httpRequest.setHeader(HttpHeaders.IF_NONE_MATCH, cacheEntry.getETag());
+            }
+            if (BeanUtils.isNotNull(cacheEntry.getLastModified())) {
+                httpRequest.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cacheEntry.getLastModified());
+            }
+        }
+    }
+
+    /**
+     * Starts a background revalidation of the request, returns false if one is already running.
+     *
+     * @param request
+     * @return
+     */
+    public boolean startRevalidation(final Request request) {
+        return revalidations.add(keyOf(request));
+    }
+
+    /**
+     * @param request
+     */
+    public void finishRevalidation(final Request request) {
+        revalidations.remove(keyOf(request));
+    }
+
+    /**
+     * Updates the cache with the network response and returns the response to hand to the response handler.
+     * <p>
+     * A <code>304</code> refreshes the stale <code>cacheEntry</code> and is answered with the stored response. A
+     * storable response is buffered (up to <code>maxEntryBytes</code>) and stored, larger bodies are passed through.
+     * Successful unsafe requests invalidate the entry of their URI.
+     *
+     * @param request
+     * @param cacheEntry   the stale entry revalidated by the request, if any
+     * @param httpResponse
+     * @param requestTime
+     * @param responseTime
+     * @return
+     * @throws IOException
+     */
+    public HttpResponse cacheResponse(final Request request, final CacheEntry cacheEntry,
+                                      final HttpResponse httpResponse, final long requestTime,
+                                      final long responseTime) throws IOException {
+        final int statusCode = httpResponse.getStatusLine().getStatusCode();
+        if (!isCacheable(request)) {
+            if (HttpMethod.GET != request.getHttpMethod() && HttpMethod.HEAD != request.getHttpMethod()
+                && statusCode < HttpStatus.SC_BAD_REQUEST) {
+                invalidate(request);
+            }
+            return httpResponse;
+        }
+
+        if (statusCode == HttpStatus.SC_NOT_MODIFIED && BeanUtils.isNotNull(cacheEntry)) {
+            EntityUtils.consume(httpResponse.getEntity());
+            final CacheEntry revalidated = cacheEntry.revalidated(httpResponse.getAllHeaders(), requestTime,
+                                                                  responseTime, cacheConfig.isHeuristicFreshness());
+            revalidationCount.increment();
+            store(revalidated);
+            return revalidated.toHttpResponse(responseTime);
+        }
+
+        missCount.increment();
+        if (!isStorable(httpResponse)) {
+            return httpResponse;
+        }
+
+        final HttpEntity entity = httpResponse.getEntity();
+        byte[] body = new byte[0];
+        if (BeanUtils.isNotNull(entity)) {
+            if (entity.getContentLength() > cacheConfig.getMaxEntryBytes()) {
+                return httpResponse;
+            }
+            final InputStream inputStream = entity.getContent();
+            body = readUpTo(inputStream, cacheConfig.getMaxEntryBytes() + 1);
+            if (body.length > cacheConfig.getMaxEntryBytes()) {
+                // too large to cache, hand the buffered head and the rest of the stream to the handler
+                final InputStreamEntity passThrough = new InputStreamEntity(
+                    new SequenceInputStream(new ByteArrayInputStream(body), inputStream), entity.getContentLength());
+                passThrough.setContentType(entity.getContentType());
+                passThrough.setContentEncoding(entity.getContentEncoding());
+                httpResponse.setEntity(passThrough);
+                return httpResponse;
+            }
+            inputStream.close();
+            final ByteArrayEntity buffered = new ByteArrayEntity(body);
+            buffered.setContentType(entity.getContentType());
+            buffered.setContentEncoding(entity.getContentEncoding());
+            httpResponse.setEntity(buffered);
+        }
+
+        final CacheEntry newEntry = new CacheEntry(keyOf(request), httpResponse.getStatusLine().getProtocolVersion(),
+                                                   statusCode, httpResponse.getStatusLine().getReasonPhrase(),
+                                                   storedHeaders(httpResponse), varyHeaders(request, httpResponse),
+                                                   body, requestTime, responseTime,
+                                                   cacheConfig.isHeuristicFreshness());
+        if (newEntry.getFreshnessLifetime() > 0 || newEntry.hasValidators()) {
+            store(newEntry);
+        } else {
+            invalidate(request);
+        }
+
+        return httpResponse;
+    }
+
+    /**
+     * @param request
+     */
+    public void invalidate(final Request request) {
+        final String key = keyOf(request);
+        memoryTier.remove(key);
+        if (BeanUtils.isNotNull(diskTier)) {
+            diskTier.remove(key);
+        }
+    }
+
+    /**
+     * Drops all entries.
+     */
+    public void clear() {
+        memoryTier.clear();
+        if (BeanUtils.isNotNull(diskTier)) {
+            diskTier.clear();
+        }
+    }
+
+    /**
+     * Drops all entries and deletes the disk segments, if any.
+     */
+    @Override
+    public void close() {
+        memoryTier.clear();
+        if (BeanUtils.isNotNull(diskTier)) {
+            diskTier.close();
+        }
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(HttpCache.class)
+            .add("cacheConfig", getCacheConfig())
+            .add("size", size())
+            .add("hitCount", getHitCount())
+            .add("missCount", getMissCount())
+            .add("revalidationCount", getRevalidationCount())
+            .toString();
+    }
+
+    /**
+     * @param request
+     * @return
+     */
+    private String keyOf(final Request request) {
+        return request.getUri().toString();
+    }
+
+    /**
+     * @param request
+     * @return
+     */
+    private CacheControl requestCacheControl(final Request request) {
+        final String cacheControl = request.getHeader(Headers.CACHE_CONTROL);
+        if (BeanUtils.isNull(cacheControl)) {
+            return CacheControl.parse();
+        }
+
+        return CacheControl.parse(new BasicHeader(Headers.CACHE_CONTROL, cacheControl));
+    }
+
+    /**
+     * Returns true if the request asks for an end-to-end revalidation (<code>no-cache</code>, <code>max-age=0</code>
+     * or <code>Pragma: no-cache</code>).
+     *
+     * @param request
+     * @return
+     */
+    private boolean isRevalidationRequired(final Request request) {
+        final CacheControl cacheControl = requestCacheControl(request);
+        return (cacheControl.has(CacheControl.NO_CACHE) || cacheControl.getSeconds(CacheControl.MAX_AGE) == 0
+                || CacheControl.NO_CACHE.equalsIgnoreCase(request.getHeader(Headers.PRAGMA)));
+    }
+
+    /**
+     * @param httpResponse
+     * @return
+     */
+    private boolean isStorable(final HttpResponse httpResponse) {
+        if (!isHeuristicallyCacheable(httpResponse.getStatusLine().getStatusCode())) {
+            return false;
+        }
+        final CacheControl cacheControl = CacheControl.parse(httpResponse.getHeaders(Headers.CACHE_CONTROL));
+        if (cacheControl.has(CacheControl.NO_STORE)) {
+            return false;
+        }
+        for (Header header : httpResponse.getHeaders(HttpHeaders.VARY)) {
+            if (header.getValue().contains("*")) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the end-to-end headers, the received <code>Age</code> included for the age of the entry.
+     *
+     * @param httpResponse
+     * @return
+     */
+    private Header[] storedHeaders(final HttpResponse httpResponse) {
+        final List<Header> headers = new ArrayList<>();
+        for (Header header : httpResponse.getAllHeaders()) {
+            if (!isHopByHop(header.getName())) {
+                headers.add(header);
+            }
+        }
+
+        return headers.toArray(new Header[0]);
+    }
+
+    /**
+     * @param request
+     * @param httpResponse
+     * @return
+     */
+    private Map<String, String> varyHeaders(final Request request, final HttpResponse httpResponse) {
+        final Map<String, String> varyHeaders = new LinkedHashMap<>();
+        for (Header header : httpResponse.getHeaders(HttpHeaders.VARY)) {
+            for (String name : header.getValue().split(",")) {
+                if (BeanUtils.isNotEmpty(name.trim())) {
+                    varyHeaders.put(name.trim(), valueOf(request.getHeader(name.trim())));
+                }
+            }
+        }
+
+        return varyHeaders;
+    }
+
+    /**
+     * @param request
+     * @param cacheEntry
+     * @return
+     */
+    private boolean matchesVary(final Request request, final CacheEntry cacheEntry) {
+        for (Map.Entry<String, String> entry : cacheEntry.getVaryHeaders().entrySet()) {
+            if (!Objects.equals(entry.getValue(), valueOf(request.getHeader(entry.getKey())))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param value
+     * @return
+     */
+    private static String valueOf(final String value) {
+        return (BeanUtils.isNull(value) ? "" : value);
+    }
+
+    /**
+     * Stores the entry in memory, the entries evicted from memory move to disk.
+     *
+     * @param cacheEntry
+     */
+    private void store(final CacheEntry cacheEntry) {
+        final List<CacheEntry> evicted = memoryTier.put(cacheEntry);
+        if (BeanUtils.isNotNull(diskTier)) {
+            diskTier.remove(cacheEntry.getKey());
+            for (CacheEntry entry : evicted) {
+                try {
+                    diskTier.put(entry.getKey(), entry.toBytes());
+                } catch (IOException ex) {
+                    LOGGER.warn("Unable to write cache entry to disk, key:{}", entry.getKey(), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the entry from disk and promotes it to memory.
+     *
+     * @param key
+     * @return
+     */
+    private CacheEntry loadFromDisk(final String key) {
+        final byte[] record = diskTier.get(key);
+        if (BeanUtils.isNull(record)) {
+            return null;
+        }
+
+        try {
+            final CacheEntry cacheEntry = CacheEntry.fromBytes(record, cacheConfig.isHeuristicFreshness());
+            if (!key.equals(cacheEntry.getKey())) {
+                diskTier.remove(key);
+                return null;
+            }
+            store(cacheEntry);
+            return cacheEntry;
+        } catch (IOException ex) {
+            LOGGER.warn("Unable to read cache entry from disk, key:{}", key, ex);
+            diskTier.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * @param inputStream
+     * @param maxBytes
+     * @return
+     * @throws IOException
+     */
+    private static byte[] readUpTo(final InputStream inputStream, final int maxBytes) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.min(maxBytes, 8 * 1024));
+        final byte[] buffer = new byte[8 * 1024];
+        int count;
+        while (outputStream.size() < maxBytes
+               && (count = inputStream.read(buffer, 0, Math.min(buffer.length, maxBytes - outputStream.size())))
+                  != -1) {
+            outputStream.write(buffer, 0, count);
+        }
+
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,103 @@
+package com.rslakra.appsuite.protocol.http.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU tier bounded by the total size in bytes of its entries rather than their count, so a few large responses can't
+ * blow the heap.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 4:50 PM
+ */
+final class MemoryCacheTier {
+
+    private final long maxBytes;
+    // access-order, the eldest entry is the least recently used
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    /**
+     * @param maxBytes
+     */
+    MemoryCacheTier(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param key
+     * @return
+     */
+    synchronized CacheEntry get(final String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores the entry and returns the entries evicted to make room for it.
+     *
+     * @param entry
+     * @return
+     */
+    synchronized List<CacheEntry> put(final CacheEntry entry) {
+        final CacheEntry oldEntry = entries.put(entry.getKey(), entry);
+        if (oldEntry != null) {
+            currentBytes -= oldEntry.sizeInBytes();
+        }
+        currentBytes += entry.sizeInBytes();
+
+        List<CacheEntry> evicted = null;
+        final Iterator<Map.Entry<String, CacheEntry>> itr = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && itr.hasNext()) {
+            final CacheEntry eldest = itr.next().getValue();
+            if (eldest == entry) {
+                continue;
+            }
+            itr.remove();
+            currentBytes -= eldest.sizeInBytes();
+            if (evicted == null) {
+                evicted = new ArrayList<>();
+            }
+            evicted.add(eldest);
+        }
+
+        return (evicted == null ? List.of() : evicted);
+    }
+
+    /**
+     * @param key
+     * @return
+     */
+    synchronized CacheEntry remove(final String key) {
+        final CacheEntry entry = entries.remove(key);
+        if (entry != null) {
+            currentBytes -= entry.sizeInBytes();
+        }
+
+        return entry;
+    }
+
+    /**
+     *
+     */
+    synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * @return
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return
+     */
+    synchronized long sizeInBytes() {
+        return currentBytes;
+    }
+}
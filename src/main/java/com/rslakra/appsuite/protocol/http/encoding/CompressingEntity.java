@@ -0,0 +1,135 @@
+package com.rslakra.appsuite.protocol.http.encoding;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresses the wrapped request entity on the fly, in the GZIP or the ZLIB (HTTP <code>deflate</code>) format, with
+ * a deflater of a <code>DeflaterPool</code>. The compressed length is unknown, so the entity is sent chunked.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 8:20 PM
+ */
+public final class CompressingEntity extends HttpEntityWrapper {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    // magic, CM=deflate, no flags, no mtime, XFL, OS=unknown
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final String contentEncoding;
+    private final DeflaterPool deflaterPool;
+    private final boolean gzip;
+
+    /**
+     * @param wrappedEntity
+     * @param contentEncoding the content coding of the header, i.e. <code>gzip</code>.
+     * @param deflaterPool    of raw deflaters (<code>nowrap</code>) for the GZIP format, of ZLIB deflaters otherwise.
+     * @param gzip
+     */
+    public CompressingEntity(final HttpEntity wrappedEntity, final String contentEncoding,
+                             final DeflaterPool deflaterPool, final boolean gzip) {
+        super(wrappedEntity);
+        BeanUtils.assertNonNull(contentEncoding, "contentEncoding must provide!");
+        BeanUtils.assertNonNull(deflaterPool, "deflaterPool must provide!");
+        this.contentEncoding = contentEncoding;
+        this.deflaterPool = deflaterPool;
+        this.gzip = gzip;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public Header getContentEncoding() {
+        return new BasicHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    /**
+     * Returns the compressed content, buffered in memory. The apache clients stream it with <code>writeTo()</code>.
+     *
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+        writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    /**
+     * @param outputStream
+     * @throws IOException
+     */
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        BeanUtils.assertNonNull(outputStream, "outputStream must provide!");
+        final Deflater deflater = deflaterPool.acquire();
+        try {
+            if (gzip) {
+                outputStream.write(GZIP_HEADER);
+            }
+            // not closed, closing would close the output stream of the connection
+            final DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream, deflater, BUFFER_SIZE);
+            final CRC32 crc32 = new CRC32();
+            wrappedEntity.writeTo(new CheckedOutputStream(deflaterStream, crc32) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+            deflaterStream.finish();
+            if (gzip) {
+                writeIntLE(outputStream, crc32.getValue());
+                writeIntLE(outputStream, deflater.getBytesRead());
+            }
+            outputStream.flush();
+        } finally {
+            deflaterPool.release(deflater);
+        }
+    }
+
+    /**
+     * Writes the 4 lower bytes of the <code>value</code>, as in the GZIP trailer.
+     *
+     * @param outputStream
+     * @param value
+     * @throws IOException
+     */
+    private static void writeIntLE(final OutputStream outputStream, final long value) throws IOException {
+        outputStream.write((int) (value & 0xff));
+        outputStream.write((int) ((value >> 8) & 0xff));
+        outputStream.write((int) ((value >> 16) & 0xff));
+        outputStream.write((int) ((value >> 24) & 0xff));
+    }
+}
@@ -0,0 +1,360 @@
+package com.rslakra.appsuite.protocol.http.encoding;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses the wrapped response entity, in the GZIP or the HTTP <code>deflate</code> format (ZLIB, or raw deflate
+ * as sent by some servers), with an inflater and a buffer of an <code>InflaterPool</code>. Both go back to the pool
+ * when the content stream ends or is closed.
+ * <p>
+ * The content fails with a <code>ZipException</code> once it inflates beyond <code>maxInflatedBytes</code>, so that a
+ * zip bomb of a few KB can't exhaust the heap of the client.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 9:10 PM
+ */
+public final class DecompressingEntity extends HttpEntityWrapper {
+
+    public static final long DEFAULT_MAX_INFLATED_BYTES = 64L * 1024 * 1024;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InflaterPool inflaterPool;
+    private final long maxInflatedBytes;
+    private final DecompressionStats stats;
+    private final boolean gzip;
+    // the content of a streaming entity can only be read once
+    private InputStream content;
+
+    /**
+     * @param wrappedEntity
+     * @param inflaterPool
+     * @param maxInflatedBytes
+     * @param stats
+     * @param gzip             true for the GZIP format, false for the <code>deflate</code> one.
+     */
+    public DecompressingEntity(final HttpEntity wrappedEntity, final InflaterPool inflaterPool,
+                               final long maxInflatedBytes, final DecompressionStats stats, final boolean gzip) {
+        super(wrappedEntity);
+        BeanUtils.assertNonNull(inflaterPool, "inflaterPool must provide!");
+        BeanUtils.assertNonNull(stats, "stats must provide!");
+        this.inflaterPool = inflaterPool;
+        this.maxInflatedBytes = maxInflatedBytes;
+        this.stats = stats;
+        this.gzip = gzip;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public Header getContentEncoding() {
+        return null;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        if (!wrappedEntity.isStreaming()) {
+            return new InflatingInputStream(wrappedEntity.getContent());
+        }
+
+        if (BeanUtils.isNull(content)) {
+            content = new InflatingInputStream(wrappedEntity.getContent());
+        }
+        return content;
+    }
+
+    /**
+     * @param outputStream
+     * @throws IOException
+     */
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        BeanUtils.assertNonNull(outputStream, "outputStream must provide!");
+        final byte[] buffer = inflaterPool.acquireBuffer();
+        try (InputStream inputStream = getContent()) {
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+        } finally {
+            inflaterPool.releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Inflates the content with a pooled inflater, the GZIP header and trailer are checked as by
+     * <code>GZIPInputStream</code>, a single member is read.
+     */
+    private final class InflatingInputStream extends InputStream {
+
+        private final InputStream inputStream;
+        private final CRC32 crc32 = new CRC32();
+        private final byte[] singleByte = new byte[1];
+        private Inflater inflater;
+        private boolean nowrap;
+        private byte[] buffer;
+        private int bufferLength;
+        private long compressedBytes;
+        private long inflatedBytes;
+        private boolean eof;
+        private boolean closed;
+
+        /**
+         * @param inputStream
+         * @throws IOException
+         */
+        private InflatingInputStream(final InputStream inputStream) throws IOException {
+            this.inputStream = inputStream;
+            this.buffer = inflaterPool.acquireBuffer();
+            try {
+                if (gzip) {
+                    readGzipHeader();
+                    nowrap = true;
+                } else {
+                    // RFC 9110 says ZLIB, but some servers send raw deflate blocks
+                    bufferLength = inputStream.readNBytes(buffer, 0, 2);
+                    compressedBytes += bufferLength;
+                    if (bufferLength == 0) {
+                        eof = true;
+                        release();
+                        return;
+                    }
+                    nowrap = (bufferLength < 2 || !isZlibHeader(buffer[0] & 0xff, buffer[1] & 0xff));
+                }
+                inflater = inflaterPool.acquire(nowrap);
+                if (bufferLength > 0) {
+                    inflater.setInput(buffer, 0, bufferLength);
+                }
+            } catch (IOException | RuntimeException ex) {
+                release();
+                throw ex;
+            }
+        }
+
+        /**
+         * @param cmf
+         * @param flg
+         * @return
+         */
+        private boolean isZlibHeader(final int cmf, final int flg) {
+            return ((cmf & 0x0f) == Deflater.DEFLATED && ((cmf << 8) | flg) % 31 == 0);
+        }
+
+        /**
+         * @throws IOException
+         */
+        private void readGzipHeader() throws IOException {
+            if (readUShort() != GZIP_MAGIC) {
+                throw new ZipException("Not in GZIP format");
+            }
+            if (readUByte() != Deflater.DEFLATED) {
+                throw new ZipException("Unsupported compression method");
+            }
+            final int flags = readUByte();
+            // MTIME, XFL, OS
+            skipBytes(6);
+            if ((flags & FEXTRA) == FEXTRA) {
+                skipBytes(readUShort());
+            }
+            if ((flags & FNAME) == FNAME) {
+                while (readUByte() != 0) {
+                    // file name
+                }
+            }
+            if ((flags & FCOMMENT) == FCOMMENT) {
+                while (readUByte() != 0) {
+                    // comment
+                }
+            }
+            if ((flags & FHCRC) == FHCRC) {
+                skipBytes(2);
+            }
+        }
+
+        /**
+         * Checks the CRC32 and the size of the GZIP trailer, part of it may still be in the input of the inflater.
+         *
+         * @throws IOException
+         */
+        private void readGzipTrailer() throws IOException {
+            final int remaining = inflater.getRemaining();
+            final byte[] trailer = new byte[8];
+            final int buffered = Math.min(trailer.length, remaining);
+            System.arraycopy(buffer, bufferLength - remaining, trailer, 0, buffered);
+            if (inputStream.readNBytes(trailer, buffered, trailer.length - buffered) != trailer.length - buffered) {
+                throw new EOFException("Unexpected end of GZIP trailer");
+            }
+            compressedBytes += trailer.length - buffered;
+            if (readUInt(trailer, 0) != crc32.getValue() || readUInt(trailer, 4) != (inflatedBytes & 0xffffffffL)) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+        }
+
+        /**
+         * @param bytes
+         * @param offset
+         * @return
+         */
+        private long readUInt(final byte[] bytes, final int offset) {
+            return ((bytes[offset] & 0xffL) | ((bytes[offset + 1] & 0xffL) << 8) | ((bytes[offset + 2] & 0xffL) << 16)
+                    | ((bytes[offset + 3] & 0xffL) << 24));
+        }
+
+        /**
+         * @return
+         * @throws IOException
+         */
+        private int readUShort() throws IOException {
+            return readUByte() | (readUByte() << 8);
+        }
+
+        /**
+         * @return
+         * @throws IOException
+         */
+        private int readUByte() throws IOException {
+            final int value = inputStream.read();
+            if (value == -1) {
+                throw new EOFException("Unexpected end of GZIP header");
+            }
+            compressedBytes++;
+            return value;
+        }
+
+        /**
+         * @param count
+         * @throws IOException
+         */
+        private void skipBytes(final int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                readUByte();
+            }
+        }
+
+        /**
+         * @return
+         * @throws IOException
+         */
+        @Override
+        public int read() throws IOException {
+            return (read(singleByte, 0, 1) == -1 ? -1 : (singleByte[0] & 0xff));
+        }
+
+        /**
+         * @param bytes
+         * @param offset
+         * @param length
+         * @return
+         * @throws IOException
+         */
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            } else if (eof) {
+                return -1;
+            } else if (length == 0) {
+                return 0;
+            }
+
+            try {
+                int inflated;
+                while ((inflated = inflater.inflate(bytes, offset, length)) == 0) {
+                    if (inflater.finished()) {
+                        if (gzip) {
+                            readGzipTrailer();
+                        }
+                        eof = true;
+                        release();
+                        return -1;
+                    } else if (inflater.needsDictionary()) {
+                        throw new ZipException("Preset dictionaries are not supported");
+                    } else if (inflater.needsInput()) {
+                        bufferLength = inputStream.read(buffer, 0, buffer.length);
+                        if (bufferLength == -1) {
+                            throw new EOFException("Unexpected end of compressed content");
+                        }
+                        compressedBytes += bufferLength;
+                        inflater.setInput(buffer, 0, bufferLength);
+                    }
+                }
+
+                inflatedBytes += inflated;
+                if (inflatedBytes > maxInflatedBytes) {
+                    stats.recordLimitExceeded();
+                    throw new ZipException("Content inflates beyond " + maxInflatedBytes + " bytes");
+                }
+                if (gzip) {
+                    crc32.update(bytes, offset, inflated);
+                }
+                return inflated;
+            } catch (DataFormatException ex) {
+                throw new ZipException(ex.getMessage());
+            }
+        }
+
+        /**
+         * @return
+         */
+        @Override
+        public int available() {
+            return (closed || eof ? 0 : 1);
+        }
+
+        /**
+         * Gives the inflater and the buffer back to the pool, once.
+         */
+        private void release() {
+            if (BeanUtils.isNotNull(buffer)) {
+                stats.record(compressedBytes, inflatedBytes);
+                if (BeanUtils.isNotNull(inflater)) {
+                    inflaterPool.release(inflater, nowrap);
+                    inflater = null;
+                }
+                inflaterPool.releaseBuffer(buffer);
+                buffer = null;
+            }
+        }
+
+        /**
+         * @throws IOException
+         */
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                release();
+                inputStream.close();
+            }
+        }
+    }
+}
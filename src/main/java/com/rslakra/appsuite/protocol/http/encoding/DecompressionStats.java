@@ -0,0 +1,79 @@
+package com.rslakra.appsuite.protocol.http.encoding;
+
+import com.rslakra.appsuite.core.ToString;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The bytes decompressed by a content encoding, recorded once per response body when its stream ends or is closed.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 9:05 PM
+ */
+public final class DecompressionStats {
+
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder inflatedBytes = new LongAdder();
+    private final LongAdder limitExceeded = new LongAdder();
+
+    /**
+     * @param compressed
+     * @param inflated
+     */
+    void record(final long compressed, final long inflated) {
+        responses.increment();
+        compressedBytes.add(compressed);
+        inflatedBytes.add(inflated);
+    }
+
+    /**
+     *
+     */
+    void recordLimitExceeded() {
+        limitExceeded.increment();
+    }
+
+    /**
+     * @return
+     */
+    public long getResponses() {
+        return responses.sum();
+    }
+
+    /**
+     * @return
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /**
+     * @return
+     */
+    public long getInflatedBytes() {
+        return inflatedBytes.sum();
+    }
+
+    /**
+     * Returns the number of response bodies rejected for inflating beyond the limit.
+     *
+     * @return
+     */
+    public long getLimitExceeded() {
+        return limitExceeded.sum();
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(DecompressionStats.class)
+            .add("responses", getResponses())
+            .add("compressedBytes", getCompressedBytes())
+            .add("inflatedBytes", getInflatedBytes())
+            .add("limitExceeded", getLimitExceeded())
+            .toString();
+    }
+}
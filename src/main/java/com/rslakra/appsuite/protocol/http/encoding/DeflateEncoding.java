@@ -1,8 +1,8 @@
 package com.rslakra.appsuite.protocol.http.encoding;
 
+import com.rslakra.appsuite.core.BeanUtils;
 import com.rslakra.appsuite.protocol.http.ContentEncoding;
 import org.apache.http.HttpEntity;
-import org.apache.http.client.entity.DeflateDecompressingEntity;
 
 /**
  * @author Rohtash Lakra
@@ -10,8 +10,57 @@ import org.apache.http.client.entity.DeflateDecompressingEntity;
  */
 public final class DeflateEncoding extends ContentEncoding {
 
+    private final DeflaterPool deflaterPool;
+    private final InflaterPool inflaterPool;
+    private final long maxInflatedBytes;
+    private final DecompressionStats decompressionStats = new DecompressionStats();
+
+    /**
+     * @param quality
+     * @param deflaterPool     of ZLIB deflaters.
+     * @param inflaterPool
+     * @param maxInflatedBytes the limit of a decompressed response body.
+     */
+    public DeflateEncoding(final double quality, final DeflaterPool deflaterPool, final InflaterPool inflaterPool,
+                           final long maxInflatedBytes) {
+        super(EncodingType.DEFLATE, quality);
+        BeanUtils.assertNonNull(deflaterPool, "deflaterPool must provide!");
+        BeanUtils.assertNonNull(inflaterPool, "inflaterPool must provide!");
+        this.deflaterPool = deflaterPool;
+        this.inflaterPool = inflaterPool;
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
     public DeflateEncoding() {
-        super(EncodingType.DEFLATE);
+        this(0.5, new DeflaterPool(false), new InflaterPool(), DecompressingEntity.DEFAULT_MAX_INFLATED_BYTES);
+    }
+
+    /**
+     * @return
+     */
+    public DeflaterPool getDeflaterPool() {
+        return deflaterPool;
+    }
+
+    /**
+     * @return
+     */
+    public InflaterPool getInflaterPool() {
+        return inflaterPool;
+    }
+
+    /**
+     * @return
+     */
+    public long getMaxInflatedBytes() {
+        return maxInflatedBytes;
+    }
+
+    /**
+     * @return
+     */
+    public DecompressionStats getDecompressionStats() {
+        return decompressionStats;
     }
 
     /**
@@ -19,7 +68,24 @@ public final class DeflateEncoding extends ContentEncoding {
      * @return
      */
     public HttpEntity wrapResponseEntity(HttpEntity rawEntity) {
-        return new DeflateDecompressingEntity(rawEntity);
+        return new DecompressingEntity(rawEntity, inflaterPool, maxInflatedBytes, decompressionStats, false);
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public boolean isCompressionSupported() {
+        return true;
+    }
+
+    /**
+     * @param httpEntity
+     * @return
+     */
+    @Override
+    protected HttpEntity wrapRequestEntity(HttpEntity httpEntity) {
+        return new CompressingEntity(httpEntity, getContentEncoding(), deflaterPool, false);
     }
 }
 
@@ -0,0 +1,96 @@
+package com.rslakra.appsuite.protocol.http.encoding;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Pool of <code>Deflater</code> of a compression level and format. A deflater holds about 256KB of native memory until
+ * <code>end()</code>, so reusing them avoids the native allocation of every compressed request and its release which
+ * otherwise waits for the GC.
+ * <p>
+ * The pool never blocks: an empty pool creates a deflater, a full pool ends the released one.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 8:10 PM
+ */
+public final class DeflaterPool {
+
+    public static final int DEFAULT_MAX_IDLE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final int level;
+    private final boolean nowrap;
+    private final BlockingQueue<Deflater> idleDeflaters;
+
+    /**
+     * @param level   the compression level, 0 to 9 or <code>Deflater.DEFAULT_COMPRESSION</code>.
+     * @param nowrap  true for raw deflate blocks (the GZIP format), false for the ZLIB format.
+     * @param maxIdle
+     */
+    public DeflaterPool(final int level, final boolean nowrap, final int maxIdle) {
+        this.level = level;
+        this.nowrap = nowrap;
+        this.idleDeflaters = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+    }
+
+    /**
+     * @param nowrap
+     */
+    public DeflaterPool(final boolean nowrap) {
+        this(Deflater.DEFAULT_COMPRESSION, nowrap, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Returns an idle deflater, or a new one.
+     *
+     * @return
+     */
+    public Deflater acquire() {
+        final Deflater deflater = idleDeflaters.poll();
+        return (BeanUtils.isNull(deflater) ? new Deflater(level, nowrap) : deflater);
+    }
+
+    /**
+     * Resets the <code>deflater</code> for the next stream and keeps it, unless the pool is full.
+     *
+     * @param deflater
+     */
+    public void release(final Deflater deflater) {
+        deflater.reset();
+        if (!idleDeflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return
+     */
+    public int getIdle() {
+        return idleDeflaters.size();
+    }
+
+    /**
+     * Frees the native memory of the idle deflaters.
+     */
+    public void clear() {
+        Deflater deflater;
+        while (BeanUtils.isNotNull(deflater = idleDeflaters.poll())) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(DeflaterPool.class)
+            .add("level", level)
+            .add("nowrap", nowrap)
+            .add("idle", getIdle())
+            .toString();
+    }
+}
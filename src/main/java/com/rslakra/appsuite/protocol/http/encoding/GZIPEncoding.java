@@ -1,8 +1,8 @@
 package com.rslakra.appsuite.protocol.http.encoding;
 
+import com.rslakra.appsuite.core.BeanUtils;
 import com.rslakra.appsuite.protocol.http.ContentEncoding;
 import org.apache.http.HttpEntity;
-import org.apache.http.client.entity.GzipDecompressingEntity;
 
 /**
  * @author Rohtash Lakra
@@ -10,8 +10,57 @@ import org.apache.http.client.entity.GzipDecompressingEntity;
  */
 public final class GZIPEncoding extends ContentEncoding {
 
+    private final DeflaterPool deflaterPool;
+    private final InflaterPool inflaterPool;
+    private final long maxInflatedBytes;
+    private final DecompressionStats decompressionStats = new DecompressionStats();
+
+    /**
+     * @param quality
+     * @param deflaterPool     of raw (<code>nowrap</code>) deflaters.
+     * @param inflaterPool
+     * @param maxInflatedBytes the limit of a decompressed response body.
+     */
+    public GZIPEncoding(final double quality, final DeflaterPool deflaterPool, final InflaterPool inflaterPool,
+                        final long maxInflatedBytes) {
+        super(EncodingType.GZIP, quality);
+        BeanUtils.assertNonNull(deflaterPool, "deflaterPool must provide!");
+        BeanUtils.assertNonNull(inflaterPool, "inflaterPool must provide!");
+        this.deflaterPool = deflaterPool;
+        this.inflaterPool = inflaterPool;
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
     public GZIPEncoding() {
-        super(EncodingType.GZIP);
+        this(1.0, new DeflaterPool(true), new InflaterPool(), DecompressingEntity.DEFAULT_MAX_INFLATED_BYTES);
+    }
+
+    /**
+     * @return
+     */
+    public DeflaterPool getDeflaterPool() {
+        return deflaterPool;
+    }
+
+    /**
+     * @return
+     */
+    public InflaterPool getInflaterPool() {
+        return inflaterPool;
+    }
+
+    /**
+     * @return
+     */
+    public long getMaxInflatedBytes() {
+        return maxInflatedBytes;
+    }
+
+    /**
+     * @return
+     */
+    public DecompressionStats getDecompressionStats() {
+        return decompressionStats;
     }
 
     /**
@@ -19,6 +68,23 @@ public final class GZIPEncoding extends ContentEncoding {
      * @return
      */
     public HttpEntity wrapResponseEntity(HttpEntity rawEntity) {
-        return new GzipDecompressingEntity(rawEntity);
+        return new DecompressingEntity(rawEntity, inflaterPool, maxInflatedBytes, decompressionStats, true);
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public boolean isCompressionSupported() {
+        return true;
+    }
+
+    /**
+     * @param httpEntity
+     * @return
+     */
+    @Override
+    protected HttpEntity wrapRequestEntity(HttpEntity httpEntity) {
+        return new CompressingEntity(httpEntity, getContentEncoding(), deflaterPool, true);
     }
 }
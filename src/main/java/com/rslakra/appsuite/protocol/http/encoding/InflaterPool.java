@@ -0,0 +1,115 @@
+package com.rslakra.appsuite.protocol.http.encoding;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+
+/**
+ * Pool of <code>Inflater</code>, of both the raw deflate (GZIP) and the ZLIB format, and of their input buffers. Same
+ * as the <code>DeflaterPool</code>, an inflater holds native memory until <code>end()</code>, which otherwise only
+ * happens once the GC collects it.
+ * <p>
+ * The pool never blocks: an empty pool creates an inflater, a full pool ends the released one.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 9:00 PM
+ */
+public final class InflaterPool {
+
+    public static final int DEFAULT_MAX_IDLE = Runtime.getRuntime().availableProcessors() * 2;
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private final int bufferSize;
+    private final BlockingQueue<Inflater> rawInflaters;
+    private final BlockingQueue<Inflater> zlibInflaters;
+    private final BlockingQueue<byte[]> buffers;
+
+    /**
+     * @param maxIdle    the idle inflaters kept per format.
+     * @param bufferSize
+     */
+    public InflaterPool(final int maxIdle, final int bufferSize) {
+        this.bufferSize = Math.max(512, bufferSize);
+        this.rawInflaters = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+        this.zlibInflaters = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, maxIdle) * 2);
+    }
+
+    public InflaterPool() {
+        this(DEFAULT_MAX_IDLE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns an idle inflater of the format, or a new one.
+     *
+     * @param nowrap true for raw deflate blocks (the GZIP format), false for the ZLIB format.
+     * @return
+     */
+    public Inflater acquire(final boolean nowrap) {
+        final Inflater inflater = (nowrap ? rawInflaters : zlibInflaters).poll();
+        return (BeanUtils.isNull(inflater) ? new Inflater(nowrap) : inflater);
+    }
+
+    /**
+     * Resets the <code>inflater</code> for the next stream and keeps it, unless the pool is full.
+     *
+     * @param inflater
+     * @param nowrap   the format the inflater was acquired for.
+     */
+    public void release(final Inflater inflater, final boolean nowrap) {
+        inflater.reset();
+        if (!(nowrap ? rawInflaters : zlibInflaters).offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @return
+     */
+    public byte[] acquireBuffer() {
+        final byte[] buffer = buffers.poll();
+        return (BeanUtils.isNull(buffer) ? new byte[bufferSize] : buffer);
+    }
+
+    /**
+     * @param buffer
+     */
+    public void releaseBuffer(final byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+    /**
+     * @return
+     */
+    public int getIdle() {
+        return rawInflaters.size() + zlibInflaters.size();
+    }
+
+    /**
+     * Frees the native memory of the idle inflaters.
+     */
+    public void clear() {
+        Inflater inflater;
+        while (BeanUtils.isNotNull(inflater = rawInflaters.poll())) {
+            inflater.end();
+        }
+        while (BeanUtils.isNotNull(inflater = zlibInflaters.poll())) {
+            inflater.end();
+        }
+        buffers.clear();
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(InflaterPool.class)
+            .add("bufferSize", bufferSize)
+            .add("idle", getIdle())
+            .toString();
+    }
+}
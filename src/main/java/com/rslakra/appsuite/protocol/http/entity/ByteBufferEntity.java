@@ -0,0 +1,155 @@
+package com.rslakra.appsuite.protocol.http.entity;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Sends the remaining bytes of a <code>ByteBuffer</code> (heap, direct or mapped) as the request body.
+ * <p>
+ * The buffer is never consumed, every write works on a duplicate, so the entity is repeatable. Heap buffers are
+ * written from their backing array, direct buffers are handed to the async encoder as they are.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:20 PM
+ */
+public class ByteBufferEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+
+    private final ByteBuffer buffer;
+    // async producer state
+    private ByteBuffer producerBuffer;
+
+    /**
+     * @param buffer
+     * @param contentType
+     */
+    public ByteBufferEntity(final ByteBuffer buffer, final String contentType) {
+        BeanUtils.assertNonNull(buffer, "buffer must provide!");
+        this.buffer = buffer.asReadOnlyBuffer();
+        setContentType(contentType);
+    }
+
+    /**
+     * @return
+     */
+    protected ByteBuffer getBuffer() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public long getContentLength() {
+        return buffer.remaining();
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public InputStream getContent() {
+        final ByteBuffer source = getBuffer();
+        return new InputStream() {
+
+            @Override
+            public int read() {
+                return (source.hasRemaining() ? source.get() & 0xFF : -1);
+            }
+
+            @Override
+            public int read(final byte[] bytes, final int off, final int len) {
+                if (!source.hasRemaining()) {
+                    return -1;
+                }
+                final int count = Math.min(len, source.remaining());
+                source.get(bytes, off, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return source.remaining();
+            }
+        };
+    }
+
+    /**
+     * @param outputStream
+     * @throws IOException
+     */
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        BeanUtils.assertNonNull(outputStream, "outputStream must provide!");
+        final ByteBuffer source = getBuffer();
+        final WritableByteChannel target = Channels.newChannel(outputStream);
+        while (source.hasRemaining()) {
+            target.write(source);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * @param encoder
+     * @param ioControl
+     * @throws IOException
+     */
+    @Override
+    public void produceContent(final ContentEncoder encoder, final IOControl ioControl) throws IOException {
+        if (producerBuffer == null) {
+            producerBuffer = getBuffer();
+        }
+
+        encoder.write(producerBuffer);
+        if (!producerBuffer.hasRemaining()) {
+            encoder.complete();
+            producerBuffer = null;
+        }
+    }
+
+    /**
+     * Resets the async producer, the next <code>produceContent</code> starts over.
+     */
+    @Override
+    public void close() {
+        producerBuffer = null;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(getClass())
+            .add("length", getContentLength())
+            .add("direct", buffer.isDirect())
+            .add("contentType", getContentType())
+            .toString();
+    }
+}
@@ -0,0 +1,259 @@
+package com.rslakra.appsuite.protocol.http.entity;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.ContentEncoderChannel;
+import org.apache.http.nio.FileContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sends a file (or a region of a file) as the request body using <code>FileChannel.transferTo</code>, without copying
+ * the content through the heap.
+ * <p>
+ * On the async client the entity is its own content producer, so when the encoder is a
+ * <code>FileContentEncoder</code> (length delimited bodies) the bytes go from the page cache straight to the socket.
+ * The file is opened per write, so the entity is repeatable and safe to retry.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:05 PM
+ */
+public class FileChannelEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileChannelEntity.class);
+
+    private final Path path;
+    private final long position;
+    private final long length;
+    // async producer state
+    private FileChannel producerChannel;
+    private long produced;
+
+    /**
+     * @param path
+     * @param position
+     * @param length
+     * @param contentType
+     */
+    public FileChannelEntity(final Path path, final long position, final long length, final String contentType) {
+        BeanUtils.assertNonNull(path, "path must provide!");
+        if (position < 0 || length < 0) {
+            throw new IllegalArgumentException("position and length must not be negative!");
+        }
+        this.path = path;
+        this.position = position;
+        this.length = length;
+        setContentType(contentType);
+    }
+
+    /**
+     * @param path
+     * @param contentType
+     * @throws IOException
+     */
+    public FileChannelEntity(final Path path, final String contentType) throws IOException {
+        this(path, 0, Files.size(path), contentType);
+    }
+
+    /**
+     * @return
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        return new RegionInputStream(fileChannel, position, length);
+    }
+
+    /**
+     * @param outputStream
+     * @throws IOException
+     */
+    @Override
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        BeanUtils.assertNonNull(outputStream, "outputStream must provide!");
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final WritableByteChannel target = Channels.newChannel(outputStream);
+            long offset = position;
+            long remaining = length;
+            while (remaining > 0) {
+                final long transferred = fileChannel.transferTo(offset, remaining, target);
+                if (transferred <= 0 && offset >= fileChannel.size()) {
+                    throw new IOException("File truncated while sending, path:" + path);
+                }
+                offset += transferred;
+                remaining -= transferred;
+            }
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * @param encoder
+     * @param ioControl
+     * @throws IOException
+     */
+    @Override
+    public void produceContent(final ContentEncoder encoder, final IOControl ioControl) throws IOException {
+        if (producerChannel == null) {
+            producerChannel = FileChannel.open(path, StandardOpenOption.READ);
+            produced = 0;
+        }
+
+        final long transferred;
+        if (encoder instanceof FileContentEncoder) {
+            transferred = ((FileContentEncoder) encoder).transfer(producerChannel, position + produced,
+                                                                  length - produced);
+        } else {
+            transferred = producerChannel.transferTo(position + produced, length - produced,
+                                                     new ContentEncoderChannel(encoder));
+        }
+        // the transfers return 0 at the end of the file
+        if (transferred <= 0 && position + produced >= producerChannel.size()) {
+            close();
+            throw new IOException("File truncated while sending, path:" + path);
+        }
+
+        produced += transferred;
+        if (produced >= length) {
+            encoder.complete();
+            close();
+        }
+    }
+
+    /**
+     * Releases the channel of the async producer, the next <code>produceContent</code> starts over.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        produced = 0;
+        if (producerChannel != null) {
+            try {
+                producerChannel.close();
+            } finally {
+                producerChannel = null;
+            }
+        }
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(FileChannelEntity.class)
+            .add("path", getPath())
+            .add("position", getPosition())
+            .add("length", getContentLength())
+            .add("contentType", getContentType())
+            .toString();
+    }
+
+    /**
+     * Reads a region of the file with positional reads, so the channel is never shared.
+     */
+    private static final class RegionInputStream extends InputStream {
+
+        private final FileChannel fileChannel;
+        private long offset;
+        private long remaining;
+
+        private RegionInputStream(final FileChannel fileChannel, final long offset, final long remaining) {
+            this.fileChannel = fileChannel;
+            this.offset = offset;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return (read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF);
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int off, final int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            } else if (len == 0) {
+                return 0;
+            }
+
+            final int count = fileChannel.read(ByteBuffer.wrap(bytes, off, (int) Math.min(len, remaining)), offset);
+            if (count > 0) {
+                offset += count;
+                remaining -= count;
+            } else if (count == -1) {
+                LOGGER.warn("File shorter than expected, missing {} bytes", remaining);
+                remaining = 0;
+            }
+
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            fileChannel.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.rslakra.appsuite.protocol.http.entity;
+
+import com.rslakra.appsuite.core.BeanUtils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sends a memory-mapped file as the request body. Meant for large immutable payloads that are sent many times, the
+ * mapping is created once and shared by every send (and retry) of the entity.
+ * <p>
+ * A single mapping is limited to <code>Integer.MAX_VALUE</code> bytes, use <code>FileChannelEntity</code> for larger
+ * files.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:35 PM
+ */
+public class MappedFileEntity extends ByteBufferEntity {
+
+    private final Path path;
+
+    /**
+     * @param path
+     * @param contentType
+     * @throws IOException
+     */
+    public MappedFileEntity(final Path path, final String contentType) throws IOException {
+        super(map(path), contentType);
+        this.path = path;
+    }
+
+    /**
+     * @return
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * The mapping stays valid after the channel is closed.
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    private static MappedByteBuffer map(final Path path) throws IOException {
+        BeanUtils.assertNonNull(path, "path must provide!");
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = fileChannel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map, size:" + size + ", path:" + path);
+            }
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+}
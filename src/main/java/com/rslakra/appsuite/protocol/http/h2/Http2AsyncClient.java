@@ -0,0 +1,643 @@
+package com.rslakra.appsuite.protocol.http.h2;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * An apache async client sending the requests over the JDK <code>HttpClient</code>, which multiplexes the concurrent
+ * requests of an origin as HTTP/2 streams of one connection.
+ * <p>
+ * The protocol is negotiated with ALPN on https, a server without h2 is served over HTTP/1.1. On http the first
+ * request of a connection offers an <code>h2c</code> upgrade. As the apache async client, the response is buffered
+ * before the callback is completed, so the <code>AsyncHttpClient</code> (cache, hedging, retry, handlers) works the
+ * same on both transports. The connection pool, the route planner and the connection metrics of the apache client
+ * don't apply, the JDK client manages its connections itself. The interceptors of the <code>HttpProcessor</code> (e.g.
+ * the content encodings) run on a copy of the request before it is sent, and on the buffered response. The request
+ * producers and the response consumers of the apache client work on the buffered content as well.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 7:40 PM
+ */
+public final class Http2AsyncClient extends CloseableHttpAsyncClient {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(Http2AsyncClient.class);
+    private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+    // set by the JDK client itself, or not allowed on HTTP/2
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(Arrays.asList(HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH,
+                                                HttpHeaders.EXPECT, HttpHeaders.HOST, HttpHeaders.UPGRADE,
+                                                HttpHeaders.TRANSFER_ENCODING, HttpHeaders.TE, "Keep-Alive",
+                                                "Proxy-Connection"));
+    }
+
+    private final HttpClient httpClient;
+    private final Duration responseTimeout;
+    private final String userAgent;
+    private final List<? extends Header> defaultHeaders;
+    private final HttpProcessor httpProcessor;
+    private volatile boolean running;
+
+    /**
+     * @param httpClient
+     * @param responseTimeout the timeout of a whole exchange, <code>null</code> for none.
+     * @param userAgent
+     * @param defaultHeaders  sent unless set by the request.
+     * @param httpProcessor   the request and response interceptors, <code>null</code> for none.
+     */
+    public Http2AsyncClient(final HttpClient httpClient, final Duration responseTimeout, final String userAgent,
+                            final List<? extends Header> defaultHeaders, final HttpProcessor httpProcessor) {
+        BeanUtils.assertNonNull(httpClient, "httpClient must provide!");
+        this.httpClient = httpClient;
+        this.responseTimeout = responseTimeout;
+        this.userAgent = userAgent;
+        this.defaultHeaders = (BeanUtils.isNull(defaultHeaders) ? Collections.emptyList() : defaultHeaders);
+        this.httpProcessor = httpProcessor;
+    }
+
+    /**
+     * @param httpClient
+     * @param responseTimeout the timeout of a whole exchange, <code>null</code> for none.
+     * @param userAgent
+     * @param defaultHeaders  sent unless set by the request.
+     */
+    public Http2AsyncClient(final HttpClient httpClient, final Duration responseTimeout, final String userAgent,
+                            final List<? extends Header> defaultHeaders) {
+        this(httpClient, responseTimeout, userAgent, defaultHeaders, null);
+    }
+
+    /**
+     * @return
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Aborts the exchanges still running, the <code>AsyncHttpClient</code> drains its requests before.
+     */
+    @Override
+    public void close() {
+        running = false;
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * Sends the <code>request</code>, cancelling the returned future aborts the exchange.
+     *
+     * @param target
+     * @param request
+     * @param context
+     * @param callback
+     * @return
+     */
+    @Override
+    public Future<HttpResponse> execute(final HttpHost target, final HttpRequest request, final HttpContext context,
+                                        final FutureCallback<HttpResponse> callback) {
+        return sendAsync(target, request, context, callback);
+    }
+
+    /**
+     * Buffers the content of the <code>requestProducer</code> and sends it, the <code>responseConsumer</code> consumes
+     * the buffered response. Cancelling the returned future aborts the exchange.
+     *
+     * @param requestProducer
+     * @param responseConsumer
+     * @param context
+     * @param callback
+     * @param <T>
+     * @return
+     */
+    @Override
+    public <T> Future<T> execute(final HttpAsyncRequestProducer requestProducer,
+                                 final HttpAsyncResponseConsumer<T> responseConsumer, final HttpContext context,
+                                 final FutureCallback<T> callback) {
+        final HttpContext httpContext = (BeanUtils.isNull(context) ? HttpClientContext.create() : context);
+        final CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse> future;
+        try {
+            future = sendAsync(requestProducer.getTarget(), newHttpRequest(requestProducer), httpContext,
+                               null);
+        } catch (IOException | HttpException | RuntimeException ex) {
+            LOGGER.debug("execute() - cannot produce request, requestProducer={}", requestProducer, ex);
+            failed(requestProducer, responseConsumer, ex, completableFuture, callback);
+            return completableFuture;
+        }
+
+        future.whenComplete((httpResponse, throwable) -> {
+            if (future.isCancelled()) {
+                responseConsumer.cancel();
+                close(requestProducer, responseConsumer);
+                completableFuture.cancel(false);
+                if (BeanUtils.isNotNull(callback)) {
+                    callback.cancelled();
+                }
+            } else if (BeanUtils.isNotNull(throwable)) {
+                failed(requestProducer, responseConsumer, (throwable instanceof CompletionException
+                                                           ? throwable.getCause() : throwable), completableFuture,
+                       callback);
+            } else {
+                final T result;
+                try {
+                    requestProducer.requestCompleted(httpContext);
+                    consume(httpResponse, responseConsumer, httpContext);
+                    result = responseConsumer.getResult();
+                    if (BeanUtils.isNotNull(responseConsumer.getException())) {
+                        throw responseConsumer.getException();
+                    }
+                } catch (Exception ex) {
+                    failed(requestProducer, responseConsumer, ex, completableFuture, callback);
+                    return;
+                }
+                close(requestProducer, responseConsumer);
+                completableFuture.complete(result);
+                if (BeanUtils.isNotNull(callback)) {
+                    callback.completed(result);
+                }
+            }
+        });
+        completableFuture.whenComplete((result, throwable) -> {
+            if (completableFuture.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return completableFuture;
+    }
+
+    /**
+     * Sends the <code>request</code>, cancelling the returned future aborts the exchange.
+     *
+     * @param target
+     * @param request
+     * @param context
+     * @param callback
+     * @return
+     */
+    private CompletableFuture<HttpResponse> sendAsync(final HttpHost target, final HttpRequest request,
+                                                      final HttpContext context,
+                                                      final FutureCallback<HttpResponse> callback) {
+        final CompletableFuture<java.net.http.HttpResponse<byte[]>> future;
+        final HttpContext httpContext = (BeanUtils.isNull(context) ? HttpClientContext.create() : context);
+        try {
+            if (!running) {
+                throw new IllegalStateException("Request cannot be executed; I/O reactor status: INACTIVE");
+            }
+            HttpRequest httpRequest = request;
+            if (BeanUtils.isNotNull(httpProcessor)) {
+                // same as the apache client, the interceptors never change the request of the caller
+                httpRequest = HttpRequestWrapper.wrap(request, target);
+                httpProcessor.process(httpRequest, httpContext);
+            }
+            future = httpClient.sendAsync(newHttpRequest(target, httpRequest), BodyHandlers.ofByteArray());
+        } catch (IOException | HttpException | RuntimeException ex) {
+            LOGGER.debug("execute() - cannot send request={}", request.getRequestLine(), ex);
+            if (BeanUtils.isNotNull(callback)) {
+                callback.failed(ex);
+            }
+            return CompletableFuture.failedFuture(ex);
+        }
+
+        final CompletableFuture<HttpResponse> completableFuture = new CompletableFuture<>();
+        future.whenComplete((response, throwable) -> {
+            if (BeanUtils.isNull(throwable)) {
+                final HttpResponse httpResponse;
+                try {
+                    httpResponse = newHttpResponse(request, response);
+                    if (BeanUtils.isNotNull(httpProcessor)) {
+                        httpProcessor.process(httpResponse, httpContext);
+                    }
+                } catch (IOException | HttpException | RuntimeException ex) {
+                    completableFuture.completeExceptionally(ex);
+                    if (BeanUtils.isNotNull(callback)) {
+                        callback.failed(ex);
+                    }
+                    return;
+                }
+                completableFuture.complete(httpResponse);
+                if (BeanUtils.isNotNull(callback)) {
+                    callback.completed(httpResponse);
+                }
+            } else if (throwable instanceof CancellationException) {
+                completableFuture.cancel(false);
+                if (BeanUtils.isNotNull(callback)) {
+                    callback.cancelled();
+                }
+            } else {
+                final Throwable cause = (throwable instanceof CompletionException
+                                         && BeanUtils.isNotNull(throwable.getCause()) ? throwable.getCause()
+                                         : throwable);
+                completableFuture.completeExceptionally(cause);
+                if (BeanUtils.isNotNull(callback)) {
+                    callback.failed((cause instanceof Exception ? (Exception) cause : new RuntimeException(cause)));
+                }
+            }
+        });
+        completableFuture.whenComplete((httpResponse, throwable) -> {
+            if (completableFuture.isCancelled()) {
+                // aborts the stream, or the connection on HTTP/1.1
+                future.cancel(true);
+            }
+        });
+        return completableFuture;
+    }
+
+    /**
+     * Returns the request of the <code>requestProducer</code> with its content buffered.
+     *
+     * @param requestProducer
+     * @return
+     * @throws IOException
+     * @throws HttpException
+     */
+    private static HttpRequest newHttpRequest(final HttpAsyncRequestProducer requestProducer)
+        throws IOException, HttpException {
+        final HttpRequest request = requestProducer.generateRequest();
+        final HttpEntity entity = (request instanceof HttpEntityEnclosingRequest
+                                   ? ((HttpEntityEnclosingRequest) request).getEntity() : null);
+        if (BeanUtils.isNull(entity)) {
+            return request;
+        }
+
+        final BufferingContentEncoder contentEncoder = new BufferingContentEncoder();
+        while (!contentEncoder.isCompleted()) {
+            requestProducer.produceContent(contentEncoder, NoopIOControl.INSTANCE);
+        }
+        final ByteArrayEntity byteArrayEntity = new ByteArrayEntity(contentEncoder.toByteArray());
+        byteArrayEntity.setContentType(entity.getContentType());
+        byteArrayEntity.setContentEncoding(entity.getContentEncoding());
+        // the apache client doesn't change the request of the caller either
+        final HttpRequestWrapper httpRequest = HttpRequestWrapper.wrap(request, requestProducer.getTarget());
+        ((HttpEntityEnclosingRequest) httpRequest).setEntity(byteArrayEntity);
+        return httpRequest;
+    }
+
+    /**
+     * Feeds the buffered <code>httpResponse</code> to the <code>responseConsumer</code>.
+     *
+     * @param httpResponse
+     * @param responseConsumer
+     * @param context
+     * @throws IOException
+     * @throws HttpException
+     */
+    private static void consume(final HttpResponse httpResponse, final HttpAsyncResponseConsumer<?> responseConsumer,
+                                final HttpContext context) throws IOException, HttpException {
+        // the consumer replaces the entity with its own buffer
+        final HttpEntity entity = httpResponse.getEntity();
+        responseConsumer.responseReceived(httpResponse);
+        if (BeanUtils.isNotNull(entity)) {
+            try (ReadableByteChannel channel = Channels.newChannel(entity.getContent())) {
+                final ChannelContentDecoder contentDecoder = new ChannelContentDecoder(channel);
+                while (!contentDecoder.isCompleted() && !responseConsumer.isDone()) {
+                    responseConsumer.consumeContent(contentDecoder, NoopIOControl.INSTANCE);
+                }
+            }
+        }
+        responseConsumer.responseCompleted(context);
+    }
+
+    /**
+     * @param requestProducer
+     * @param responseConsumer
+     * @param throwable
+     * @param completableFuture
+     * @param callback
+     * @param <T>
+     */
+    private static <T> void failed(final HttpAsyncRequestProducer requestProducer,
+                                   final HttpAsyncResponseConsumer<T> responseConsumer, final Throwable throwable,
+                                   final CompletableFuture<T> completableFuture, final FutureCallback<T> callback) {
+        final Exception ex = (throwable instanceof Exception ? (Exception) throwable
+                              : new ExecutionException(throwable));
+        requestProducer.failed(ex);
+        responseConsumer.failed(ex);
+        close(requestProducer, responseConsumer);
+        completableFuture.completeExceptionally(ex);
+        if (BeanUtils.isNotNull(callback)) {
+            callback.failed(ex);
+        }
+    }
+
+    /**
+     * @param requestProducer
+     * @param responseConsumer
+     */
+    private static void close(final HttpAsyncRequestProducer requestProducer,
+                              final HttpAsyncResponseConsumer<?> responseConsumer) {
+        try {
+            requestProducer.close();
+        } catch (IOException ex) {
+            LOGGER.debug("close() - cannot close requestProducer={}", requestProducer, ex);
+        }
+        try {
+            responseConsumer.close();
+        } catch (IOException ex) {
+            LOGGER.debug("close() - cannot close responseConsumer={}", responseConsumer, ex);
+        }
+    }
+
+    /**
+     * @param target
+     * @param request
+     * @return
+     */
+    private java.net.http.HttpRequest newHttpRequest(final HttpHost target, final HttpRequest request) {
+        URI uri = (request instanceof HttpUriRequest ? ((HttpUriRequest) request).getURI()
+                   : URI.create(request.getRequestLine().getUri()));
+        if (!uri.isAbsolute()) {
+            uri = URI.create(target.toURI()).resolve(uri);
+        }
+
+        final java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(uri);
+        if (BeanUtils.isNotNull(responseTimeout)) {
+            builder.timeout(responseTimeout);
+        }
+        for (Header header : request.getAllHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName())) {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+        for (Header header : defaultHeaders) {
+            if (!request.containsHeader(header.getName())) {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+        if (BeanUtils.isNotNull(userAgent) && !request.containsHeader(HttpHeaders.USER_AGENT)) {
+            builder.header(HttpHeaders.USER_AGENT, userAgent);
+        }
+
+        BodyPublisher bodyPublisher = BodyPublishers.noBody();
+        final HttpEntity entity = (request instanceof HttpEntityEnclosingRequest
+                                   ? ((HttpEntityEnclosingRequest) request).getEntity() : null);
+        if (BeanUtils.isNotNull(entity)) {
+            if (BeanUtils.isNotNull(entity.getContentType()) && !request.containsHeader(HttpHeaders.CONTENT_TYPE)) {
+                builder.header(HttpHeaders.CONTENT_TYPE, entity.getContentType().getValue());
+            }
+            if (BeanUtils.isNotNull(entity.getContentEncoding())
+                && !request.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, entity.getContentEncoding().getValue());
+            }
+            bodyPublisher = newBodyPublisher(entity);
+        }
+
+        return builder.method(request.getRequestLine().getMethod(), bodyPublisher).build();
+    }
+
+    /**
+     * @param entity
+     * @return
+     */
+    private static BodyPublisher newBodyPublisher(final HttpEntity entity) {
+        if (entity.getContentLength() == 0) {
+            return BodyPublishers.noBody();
+        }
+
+        final BodyPublisher bodyPublisher = BodyPublishers.ofInputStream(() -> {
+            try {
+                return entity.getContent();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return (entity.getContentLength() > 0 ? BodyPublishers.fromPublisher(bodyPublisher, entity.getContentLength())
+                : bodyPublisher);
+    }
+
+    /**
+     * @param request
+     * @param response
+     * @return
+     */
+    private static HttpResponse newHttpResponse(final HttpRequest request,
+                                                final java.net.http.HttpResponse<byte[]> response) {
+        final int statusCode = response.statusCode();
+        final ProtocolVersion version = (HttpClient.Version.HTTP_2 == response.version() ? HTTP_2
+                                         : HttpVersion.HTTP_1_1);
+        final BasicHttpResponse httpResponse = new BasicHttpResponse(new BasicStatusLine(
+            version, statusCode, EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, Locale.ENGLISH)));
+        response.headers().map().forEach((name, values) -> {
+            // HTTP/2 pseudo-headers
+            if (!name.startsWith(":")) {
+                values.forEach(value -> httpResponse.addHeader(name, value));
+            }
+        });
+
+        // same as the apache client, no entity for the responses without a body
+        if (!"HEAD".equalsIgnoreCase(request.getRequestLine().getMethod())
+            && statusCode != HttpStatus.SC_NO_CONTENT && statusCode != HttpStatus.SC_NOT_MODIFIED) {
+            final ByteArrayEntity entity = new ByteArrayEntity(response.body());
+            final Header contentType = httpResponse.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+            if (BeanUtils.isNotNull(contentType)) {
+                entity.setContentType(contentType);
+            }
+            final Header contentEncoding = httpResponse.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+            if (BeanUtils.isNotNull(contentEncoding)) {
+                entity.setContentEncoding(contentEncoding);
+            }
+            httpResponse.setEntity(entity);
+        }
+
+        return httpResponse;
+    }
+
+    /**
+     * Collects the content a request producer writes.
+     */
+    private static final class BufferingContentEncoder implements ContentEncoder {
+
+        private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        private boolean completed;
+
+        /**
+         * @param src
+         * @return
+         */
+        @Override
+        public int write(final ByteBuffer src) {
+            final int length = src.remaining();
+            if (src.hasArray()) {
+                outputStream.write(src.array(), src.arrayOffset() + src.position(), length);
+                src.position(src.limit());
+            } else {
+                final byte[] bytes = new byte[length];
+                src.get(bytes);
+                outputStream.write(bytes, 0, length);
+            }
+            return length;
+        }
+
+        /**
+         *
+         */
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        /**
+         * @return
+         */
+        @Override
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        /**
+         * @return
+         */
+        private byte[] toByteArray() {
+            return outputStream.toByteArray();
+        }
+    }
+
+    /**
+     * Reads the content of a buffered response, a response consumer reads from.
+     */
+    private static final class ChannelContentDecoder implements ContentDecoder {
+
+        private final ReadableByteChannel channel;
+        private boolean completed;
+
+        /**
+         * @param channel
+         */
+        private ChannelContentDecoder(final ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * @param dst
+         * @return
+         * @throws IOException
+         */
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            if (completed) {
+                return -1;
+            }
+            final int length = channel.read(dst);
+            if (length == -1) {
+                completed = true;
+            }
+            return length;
+        }
+
+        /**
+         * @return
+         */
+        @Override
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+
+    /**
+     * The content is buffered, there is no I/O to suspend or request.
+     */
+    private enum NoopIOControl implements IOControl {
+        INSTANCE;
+
+        @Override
+        public void requestInput() {
+        }
+
+        @Override
+        public void suspendInput() {
+        }
+
+        @Override
+        public void requestOutput() {
+        }
+
+        @Override
+        public void suspendOutput() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(Http2AsyncClient.class)
+            .add("version", httpClient.version())
+            .add("responseTimeout", responseTimeout)
+            .add("running", isRunning())
+            .toString();
+    }
+}
@@ -0,0 +1,117 @@
+package com.rslakra.appsuite.protocol.http.handler;
+
+import com.rslakra.appsuite.protocol.http.AbstractResponseHandler;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+
+/**
+ * Base class of the response handlers that consume the response entity incrementally instead of materializing the
+ * body as <code>String</code> or <code>byte[]</code>.
+ * <p>
+ * Once the stream is drained, the entity is consumed so that the connection goes back to the pool right away. If
+ * streaming fails, the response is closed before the stream, so the rest of the body is not read and the connection is
+ * discarded.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 12:10 PM
+ */
+public abstract class AbstractStreamingResponseHandler<T> extends AbstractResponseHandler<T> {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractStreamingResponseHandler.class);
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * @param acceptCriteria
+     */
+    public AbstractStreamingResponseHandler(final Function<StatusLine, Boolean> acceptCriteria) {
+        super(acceptCriteria);
+    }
+
+    public AbstractStreamingResponseHandler() {
+        super();
+    }
+
+    /**
+     * @param httpResponse
+     * @return
+     * @throws IOException
+     */
+    @Override
+    protected T handleSuccessResponse(final HttpResponse httpResponse) throws IOException {
+        final HttpEntity httpEntity = (httpResponse == null ? null : httpResponse.getEntity());
+        if (httpEntity == null) {
+            return null;
+        }
+
+        final InputStream inputStream = httpEntity.getContent();
+        boolean aborted = false;
+        try {
+            final T payload = handleStream(httpEntity, inputStream);
+            // release the connection back to the pool as soon as the stream is drained
+            EntityUtils.consume(httpEntity);
+            return payload;
+        } catch (IOException | RuntimeException ex) {
+            // before closing the stream, which would otherwise read the rest of the body
+            abort(httpResponse);
+            aborted = true;
+            throw ex;
+        } finally {
+            close(inputStream, aborted);
+        }
+    }
+
+    /**
+     * @param inputStream
+     * @param aborted
+     * @throws IOException
+     */
+    private static void close(final InputStream inputStream, final boolean aborted) throws IOException {
+        if (inputStream == null) {
+            return;
+        }
+        try {
+            inputStream.close();
+        } catch (IOException ex) {
+            // the stream of an aborted connection fails to close
+            if (!aborted) {
+                throw ex;
+            }
+            LOGGER.debug("close() - error closing aborted stream", ex);
+        }
+    }
+
+    /**
+     * Closes the response without consuming the remaining content, so that the connection is not reused.
+     *
+     * @param httpResponse
+     */
+    protected void abort(final HttpResponse httpResponse) {
+        if (httpResponse instanceof CloseableHttpResponse) {
+            try {
+                ((CloseableHttpResponse) httpResponse).close();
+            } catch (IOException ex) {
+                LOGGER.debug("abort() - error closing response", ex);
+            }
+        }
+    }
+
+    /**
+     * Consumes the content of the <code>httpEntity</code> incrementally.
+     *
+     * @param httpEntity
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    protected abstract T handleStream(final HttpEntity httpEntity, final InputStream inputStream) throws IOException;
+}
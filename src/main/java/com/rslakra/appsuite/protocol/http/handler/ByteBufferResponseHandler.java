@@ -0,0 +1,108 @@
+package com.rslakra.appsuite.protocol.http.handler;
+
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.Function;
+
+/**
+ * Reads the response body into a bounded <code>ByteBuffer</code>, ready to be read (flipped).
+ * <p>
+ * Fails fast when the declared <code>Content-Length</code> exceeds <code>maxSize</code>, otherwise the buffer grows
+ * up to <code>maxSize</code> and the response is aborted as soon as the body exceeds it.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 12:50 PM
+ */
+public class ByteBufferResponseHandler extends AbstractStreamingResponseHandler<ByteBuffer> {
+
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+
+    private final int maxSize;
+    private final boolean directBuffer;
+
+    /**
+     * @param acceptCriteria
+     * @param maxSize
+     * @param directBuffer
+     */
+    public ByteBufferResponseHandler(final Function<StatusLine, Boolean> acceptCriteria, final int maxSize,
+                                     final boolean directBuffer) {
+        super(acceptCriteria);
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive!");
+        }
+        this.maxSize = maxSize;
+        this.directBuffer = directBuffer;
+    }
+
+    /**
+     * @param maxSize
+     */
+    public ByteBufferResponseHandler(final int maxSize) {
+        this(SUCCESS_CRITERIA, maxSize, false);
+    }
+
+    /**
+     * @return
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param capacity
+     * @return
+     */
+    private ByteBuffer allocate(final int capacity) {
+        return (directBuffer ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+    }
+
+    /**
+     * @param httpEntity
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    @Override
+    protected ByteBuffer handleStream(final HttpEntity httpEntity, final InputStream inputStream) throws IOException {
+        final long contentLength = httpEntity.getContentLength();
+        if (contentLength > maxSize) {
+            throw new HttpClientException("Response body of " + contentLength + " bytes exceeds maxSize=" + maxSize);
+        }
+
+        // known length is allocated exactly, unknown length grows by doubling
+        ByteBuffer buffer = allocate(contentLength >= 0 ? (int) contentLength : Math.min(INITIAL_CAPACITY, maxSize));
+        final ReadableByteChannel source = Channels.newChannel(inputStream);
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                // probe for end of stream before growing
+                final int next = inputStream.read();
+                if (next == -1) {
+                    break;
+                }
+                if (buffer.capacity() >= maxSize) {
+                    throw new HttpClientException("Response body exceeds maxSize=" + maxSize);
+                }
+                final long capacity = Math.max((long) buffer.capacity() * 2, INITIAL_CAPACITY);
+                final ByteBuffer grown = allocate((int) Math.min(capacity, maxSize));
+                buffer.flip();
+                grown.put(buffer);
+                grown.put((byte) next);
+                buffer = grown;
+            }
+            if (source.read(buffer) == -1) {
+                break;
+            }
+        }
+        buffer.flip();
+
+        return buffer;
+    }
+}
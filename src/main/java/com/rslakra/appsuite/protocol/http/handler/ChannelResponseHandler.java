@@ -0,0 +1,73 @@
+package com.rslakra.appsuite.protocol.http.handler;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.Function;
+
+/**
+ * Streams the response body into a <code>WritableByteChannel</code> through a single reusable buffer and returns the
+ * number of bytes copied. The channel is owned by the caller and not closed.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 12:25 PM
+ */
+public class ChannelResponseHandler extends AbstractStreamingResponseHandler<Long> {
+
+    private final WritableByteChannel channel;
+    private final int bufferSize;
+    private final boolean directBuffer;
+
+    /**
+     * @param acceptCriteria
+     * @param channel
+     * @param bufferSize
+     * @param directBuffer
+     */
+    public ChannelResponseHandler(final Function<StatusLine, Boolean> acceptCriteria,
+                                  final WritableByteChannel channel, final int bufferSize,
+                                  final boolean directBuffer) {
+        super(acceptCriteria);
+        BeanUtils.assertNonNull(channel, "channel must provide!");
+        this.channel = channel;
+        this.bufferSize = bufferSize;
+        this.directBuffer = directBuffer;
+    }
+
+    /**
+     * @param channel
+     */
+    public ChannelResponseHandler(final WritableByteChannel channel) {
+        this(SUCCESS_CRITERIA, channel, DEFAULT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * @param httpEntity
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    @Override
+    protected Long handleStream(final HttpEntity httpEntity, final InputStream inputStream) throws IOException {
+        final ReadableByteChannel source = Channels.newChannel(inputStream);
+        final ByteBuffer buffer = (directBuffer ? ByteBuffer.allocateDirect(bufferSize)
+                                                : ByteBuffer.allocate(bufferSize));
+        long count = 0;
+        while (source.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                count += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        return count;
+    }
+}
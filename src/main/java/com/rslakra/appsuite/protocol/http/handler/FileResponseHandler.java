@@ -0,0 +1,64 @@
+package com.rslakra.appsuite.protocol.http.handler;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Function;
+
+/**
+ * Streams the response body into a file and returns its path. The body is written to a temporary sibling file first
+ * and moved in place once complete, so that a partial download never replaces the target.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 12:30 PM
+ */
+public class FileResponseHandler extends AbstractStreamingResponseHandler<Path> {
+
+    private final Path targetPath;
+
+    /**
+     * @param acceptCriteria
+     * @param targetPath
+     */
+    public FileResponseHandler(final Function<StatusLine, Boolean> acceptCriteria, final Path targetPath) {
+        super(acceptCriteria);
+        BeanUtils.assertNonNull(targetPath, "targetPath must provide!");
+        this.targetPath = targetPath;
+    }
+
+    /**
+     * @param targetPath
+     */
+    public FileResponseHandler(final Path targetPath) {
+        this(SUCCESS_CRITERIA, targetPath);
+    }
+
+    /**
+     * @param httpEntity
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    @Override
+    protected Path handleStream(final HttpEntity httpEntity, final InputStream inputStream) throws IOException {
+        final Path parentPath = targetPath.toAbsolutePath().getParent();
+        final Path tempPath = Files.createTempFile(parentPath, targetPath.getFileName().toString(), ".part");
+        try {
+            Files.copy(inputStream, tempPath, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                return Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                return Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.rslakra.appsuite.protocol.http.handler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.rslakra.appsuite.protocol.http.AbstractResponseHandler;
+import com.rslakra.appsuite.protocol.http.ErrorResponse;
+import com.rslakra.appsuite.protocol.http.ErrorResponseException;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Decodes the JSON response body straight from the entity stream into <code>T</code>, without an intermediate
+ * <code>String</code>.
+ * <p>
+ * The <code>ObjectReader</code>s are immutable and thread-safe, they are cached per <code>JavaType</code>, so creating
+ * a handler per call is cheap. Not accepted responses are decoded as <code>ErrorResponse</code> and reported with an
+ * <code>ErrorResponseException</code>.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 1:35 PM
+ */
+public class JsonResponseHandler<T> extends AbstractResponseHandler<T> {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonResponseHandler.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    // objectReaders
+    private static final ConcurrentMap<JavaType, ObjectReader> OBJECT_READERS = new ConcurrentHashMap<>();
+    private static final ObjectReader ERROR_READER = objectReader(OBJECT_MAPPER.constructType(ErrorResponse.class));
+
+    private final ObjectReader objectReader;
+
+    /**
+     * @param acceptCriteria
+     * @param javaType
+     */
+    public JsonResponseHandler(final Function<StatusLine, Boolean> acceptCriteria, final JavaType javaType) {
+        super(acceptCriteria);
+        this.objectReader = objectReader(javaType);
+    }
+
+    /**
+     * @param javaType
+     */
+    public JsonResponseHandler(final JavaType javaType) {
+        this(SUCCESS_CRITERIA, javaType);
+    }
+
+    /**
+     * @param targetType
+     */
+    public JsonResponseHandler(final Class<T> targetType) {
+        this(OBJECT_MAPPER.constructType(targetType));
+    }
+
+    /**
+     * @param typeReference
+     */
+    public JsonResponseHandler(final TypeReference<T> typeReference) {
+        this(OBJECT_MAPPER.constructType(typeReference));
+    }
+
+    /**
+     * Returns the cached reader of the <code>javaType</code>.
+     *
+     * @param javaType
+     * @return
+     */
+    public static ObjectReader objectReader(final JavaType javaType) {
+        return OBJECT_READERS.computeIfAbsent(javaType, OBJECT_MAPPER::readerFor);
+    }
+
+    /**
+     * Returns the <code>ObjectMapper</code> the cached readers are created from, to build the <code>JavaType</code>s.
+     *
+     * @return
+     */
+    public static ObjectMapper getObjectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * @param httpEntity
+     * @param reader
+     * @param <R>
+     * @return
+     * @throws IOException
+     */
+    private static <R> R readEntity(final HttpEntity httpEntity, final ObjectReader reader) throws IOException {
+        if (httpEntity == null || httpEntity.getContentLength() == 0) {
+            EntityUtils.consume(httpEntity);
+            return null;
+        }
+
+        try (InputStream inputStream = httpEntity.getContent()) {
+            return reader.readValue(inputStream);
+        } finally {
+            EntityUtils.consume(httpEntity);
+        }
+    }
+
+    /**
+     * The handlers of the default criteria decode to the same target type with the same cached reader, so they share
+     * the payloads of their type.
+     *
+     * @return
+     */
+    @Override
+    public String getShareKey() {
+        return (JsonResponseHandler.class == getClass() && SUCCESS_CRITERIA == acceptCriteria
+                ? objectReader.getValueType().toCanonical() : null);
+    }
+
+    /**
+     * @param httpResponse
+     * @return
+     * @throws IOException
+     */
+    @Override
+    protected T handleSuccessResponse(final HttpResponse httpResponse) throws IOException {
+        return (httpResponse == null ? null : readEntity(httpResponse.getEntity(), objectReader));
+    }
+
+    /**
+     * Decodes the body as <code>ErrorResponse</code> and throws it as <code>ErrorResponseException</code>.
+     *
+     * @param httpResponse
+     * @return
+     * @throws IOException
+     */
+    @Override
+    protected T handleErrorResponse(final HttpResponse httpResponse) throws IOException {
+        final int statusCode = httpResponse.getStatusLine().getStatusCode();
+        ErrorResponse errorResponse = null;
+        try {
+            errorResponse = readEntity(httpResponse.getEntity(), ERROR_READER);
+        } catch (IOException ex) {
+            // not a JSON error body
+            LOGGER.debug("handleErrorResponse() - unable to decode error body, statusCode={}", statusCode, ex);
+        }
+        if (errorResponse != null && errorResponse.getStatusCode() == 0) {
+            errorResponse.setStatusCode(statusCode);
+        }
+
+        throw new ErrorResponseException(statusCode, errorResponse);
+    }
+}
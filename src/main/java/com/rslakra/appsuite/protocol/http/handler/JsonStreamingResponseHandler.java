@@ -0,0 +1,78 @@
+package com.rslakra.appsuite.protocol.http.handler;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+
+/**
+ * Feeds the response body to a Jackson <code>JsonParser</code>, so that large JSON documents can be processed token by
+ * token without being materialized. The parser reads directly from the entity stream and detects the encoding itself.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 12:40 PM
+ */
+public class JsonStreamingResponseHandler<T> extends AbstractStreamingResponseHandler<T> {
+
+    // JsonFactory is thread-safe and expensive to create
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonFactory jsonFactory;
+    private final JsonParserCallback<T> parserCallback;
+
+    /**
+     * Reads the JSON tokens from the parser and returns the result.
+     *
+     * @param <T>
+     */
+    @FunctionalInterface
+    public interface JsonParserCallback<T> {
+
+        /**
+         * Called once with the parser positioned before the first token, iterate with <code>nextToken()</code>.
+         *
+         * @param jsonParser
+         * @return
+         * @throws IOException
+         */
+        T parse(JsonParser jsonParser) throws IOException;
+    }
+
+    /**
+     * @param acceptCriteria
+     * @param jsonFactory
+     * @param parserCallback
+     */
+    public JsonStreamingResponseHandler(final Function<StatusLine, Boolean> acceptCriteria,
+                                        final JsonFactory jsonFactory, final JsonParserCallback<T> parserCallback) {
+        super(acceptCriteria);
+        BeanUtils.assertNonNull(parserCallback, "parserCallback must provide!");
+        this.jsonFactory = (jsonFactory == null ? JSON_FACTORY : jsonFactory);
+        this.parserCallback = parserCallback;
+    }
+
+    /**
+     * @param parserCallback
+     */
+    public JsonStreamingResponseHandler(final JsonParserCallback<T> parserCallback) {
+        this(SUCCESS_CRITERIA, JSON_FACTORY, parserCallback);
+    }
+
+    /**
+     * @param httpEntity
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    @Override
+    protected T handleStream(final HttpEntity httpEntity, final InputStream inputStream) throws IOException {
+        try (JsonParser jsonParser = jsonFactory.createParser(inputStream)) {
+            return parserCallback.parse(jsonParser);
+        }
+    }
+}
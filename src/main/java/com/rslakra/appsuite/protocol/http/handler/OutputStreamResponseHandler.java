@@ -0,0 +1,63 @@
+package com.rslakra.appsuite.protocol.http.handler;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Function;
+
+/**
+ * Streams the response body into an <code>OutputStream</code> and returns the number of bytes copied. The output
+ * stream is owned by the caller and not closed.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 12:20 PM
+ */
+public class OutputStreamResponseHandler extends AbstractStreamingResponseHandler<Long> {
+
+    private final OutputStream outputStream;
+    private final int bufferSize;
+
+    /**
+     * @param acceptCriteria
+     * @param outputStream
+     * @param bufferSize
+     */
+    public OutputStreamResponseHandler(final Function<StatusLine, Boolean> acceptCriteria,
+                                       final OutputStream outputStream, final int bufferSize) {
+        super(acceptCriteria);
+        BeanUtils.assertNonNull(outputStream, "outputStream must provide!");
+        this.outputStream = outputStream;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @param outputStream
+     */
+    public OutputStreamResponseHandler(final OutputStream outputStream) {
+        this(SUCCESS_CRITERIA, outputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param httpEntity
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    @Override
+    protected Long handleStream(final HttpEntity httpEntity, final InputStream inputStream) throws IOException {
+        final byte[] buffer = new byte[bufferSize];
+        long count = 0;
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
+            count += length;
+        }
+        outputStream.flush();
+
+        return count;
+    }
+}
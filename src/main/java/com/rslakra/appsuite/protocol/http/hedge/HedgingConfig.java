@@ -0,0 +1,232 @@
+package com.rslakra.appsuite.protocol.http.hedge;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+
+import java.time.Duration;
+
+/**
+ * Settings of the request hedging of an async client.
+ * <p>
+ * An idempotent request which has not completed after the hedge delay is sent once more, the first response wins. The
+ * delay is either fixed or the <code>percentile</code> of the latencies of the route, once the route has
+ * <code>minSamples</code> of them. Every request earns <code>budgetRatio</code> of a hedge, up to
+ * <code>budgetBurst</code> hedges, so that hedges never exceed that fraction of the traffic.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 4:40 PM
+ */
+public final class HedgingConfig {
+
+    public static final Duration DEFAULT_DELAY = Duration.ofMillis(100);
+    public static final double DEFAULT_BUDGET_RATIO = 0.1;
+    public static final int DEFAULT_BUDGET_BURST = 10;
+    public static final int DEFAULT_MIN_SAMPLES = 100;
+    public static final int DEFAULT_SAMPLE_WINDOW = 1000;
+
+    private final Duration delay;
+    private final double percentile;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final int minSamples;
+    private final int sampleWindow;
+    private final double budgetRatio;
+    private final int budgetBurst;
+
+    /**
+     * @param builder
+     */
+    private HedgingConfig(final HedgingConfigBuilder builder) {
+        this.delay = builder.delay;
+        this.percentile = builder.percentile;
+        this.minDelay = builder.minDelay;
+        this.maxDelay = builder.maxDelay;
+        this.minSamples = builder.minSamples;
+        this.sampleWindow = builder.sampleWindow;
+        this.budgetRatio = builder.budgetRatio;
+        this.budgetBurst = builder.budgetBurst;
+    }
+
+    /**
+     * Returns the hedge delay, or the delay of a route without <code>minSamples</code> latencies yet.
+     *
+     * @return
+     */
+    public Duration getDelay() {
+        return delay;
+    }
+
+    /**
+     * Returns the latency percentile used as hedge delay, <code>0</code> when the delay is fixed.
+     *
+     * @return
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * @return
+     */
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * @return
+     */
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * @return
+     */
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    /**
+     * Returns the number of latencies after which the percentile starts over, so that it follows the route.
+     *
+     * @return
+     */
+    public int getSampleWindow() {
+        return sampleWindow;
+    }
+
+    /**
+     * @return
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * @return
+     */
+    public int getBudgetBurst() {
+        return budgetBurst;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(HedgingConfig.class)
+            .add("delay", getDelay())
+            .add("percentile", getPercentile())
+            .add("minDelay", getMinDelay())
+            .add("maxDelay", getMaxDelay())
+            .add("minSamples", getMinSamples())
+            .add("sampleWindow", getSampleWindow())
+            .add("budgetRatio", getBudgetRatio())
+            .add("budgetBurst", getBudgetBurst())
+            .toString();
+    }
+
+    /**
+     * @return
+     */
+    public static HedgingConfig ofDefaults() {
+        return newBuilder().build();
+    }
+
+    /**
+     * @return
+     */
+    public static HedgingConfigBuilder newBuilder() {
+        return new HedgingConfigBuilder();
+    }
+
+    /**
+     *
+     */
+    public static class HedgingConfigBuilder {
+
+        private Duration delay = DEFAULT_DELAY;
+        private double percentile;
+        private Duration minDelay = Duration.ZERO;
+        private Duration maxDelay = DEFAULT_DELAY;
+        private int minSamples = DEFAULT_MIN_SAMPLES;
+        private int sampleWindow = DEFAULT_SAMPLE_WINDOW;
+        private double budgetRatio = DEFAULT_BUDGET_RATIO;
+        private int budgetBurst = DEFAULT_BUDGET_BURST;
+
+        private HedgingConfigBuilder() {
+        }
+
+        /**
+         * @param delay
+         * @return
+         */
+        public HedgingConfigBuilder setDelay(final Duration delay) {
+            BeanUtils.assertNonNull(delay, "delay must provide!");
+            this.delay = delay;
+            return this;
+        }
+
+        /**
+         * Hedges after the <code>percentile</code> (e.g. 95) of the latencies of the route, clamped to
+         * <code>minDelay</code> and <code>maxDelay</code>.
+         *
+         * @param percentile
+         * @param minDelay
+         * @param maxDelay
+         * @return
+         */
+        public HedgingConfigBuilder setPercentileDelay(final double percentile, final Duration minDelay,
+                                                       final Duration maxDelay) {
+            BeanUtils.assertNonNull(minDelay, "minDelay must provide!");
+            BeanUtils.assertNonNull(maxDelay, "maxDelay must provide!");
+            this.percentile = percentile;
+            this.minDelay = minDelay;
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * @param minSamples
+         * @param sampleWindow
+         * @return
+         */
+        public HedgingConfigBuilder setSamples(final int minSamples, final int sampleWindow) {
+            this.minSamples = minSamples;
+            this.sampleWindow = sampleWindow;
+            return this;
+        }
+
+        /**
+         * @param budgetRatio
+         * @param budgetBurst
+         * @return
+         */
+        public HedgingConfigBuilder setBudget(final double budgetRatio, final int budgetBurst) {
+            this.budgetRatio = budgetRatio;
+            this.budgetBurst = budgetBurst;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public HedgingConfig build() {
+            if (delay.isNegative() || minDelay.isNegative() || maxDelay.compareTo(minDelay) < 0) {
+                throw new HttpClientException("delays must not be negative and maxDelay at least minDelay!");
+            }
+            if (percentile < 0 || percentile >= 100) {
+                throw new HttpClientException("percentile must be between 0 and 100!");
+            }
+            if (minSamples <= 0 || sampleWindow < minSamples) {
+                throw new HttpClientException("minSamples must be positive and sampleWindow at least minSamples!");
+            }
+            if (budgetRatio <= 0 || budgetRatio > 1 || budgetBurst <= 0) {
+                throw new HttpClientException("budgetRatio must be between 0 and 1 and budgetBurst positive!");
+            }
+
+            return new HedgingConfig(this);
+        }
+    }
+}
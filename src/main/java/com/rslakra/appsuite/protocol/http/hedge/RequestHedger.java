@@ -0,0 +1,282 @@
+package com.rslakra.appsuite.protocol.http.hedge;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpMethod;
+import com.rslakra.appsuite.protocol.http.Request;
+import com.rslakra.appsuite.protocol.http.metrics.HttpClientMetrics;
+import com.rslakra.appsuite.protocol.http.metrics.LatencyHistogram;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedges the idempotent requests (GET, HEAD and OPTIONS without payload) of an async client, see
+ * <code>HedgingConfig</code>.
+ * <p>
+ * The hedger runs inside the circuit breaker and the retry of the client: the circuit breaker records one outcome per
+ * hedged call, whichever attempt decides it, and a retry hedges again. Hedges are only sent while the circuit breaker
+ * is closed, so that they never add to the probes of a half-open one.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 4:50 PM
+ */
+public final class RequestHedger {
+
+    private static final int TOKEN = 1000;
+
+    private final String clientName;
+    private final HedgingConfig config;
+    private final HttpClientMetrics metrics;
+    private final CircuitBreaker circuitBreaker;
+    private final ConcurrentMap<String, RouteLatency> latencies = new ConcurrentHashMap<>();
+    // budget in thousandths of a hedge
+    private final AtomicLong budget = new AtomicLong();
+    private final int ratioTokens;
+    private final LongAdder hedges = new LongAdder();
+
+    /**
+     * @param clientName
+     * @param config
+     * @param metrics
+     * @param circuitBreaker <code>null</code> without circuit breaker.
+     */
+    public RequestHedger(final String clientName, final HedgingConfig config, final HttpClientMetrics metrics,
+                         final CircuitBreaker circuitBreaker) {
+        BeanUtils.assertNonNull(config, "config must provide!");
+        this.clientName = clientName;
+        this.config = config;
+        this.metrics = metrics;
+        this.circuitBreaker = circuitBreaker;
+        this.ratioTokens = Math.max(1, (int) Math.round(config.getBudgetRatio() * TOKEN));
+    }
+
+    /**
+     * @return
+     */
+    public HedgingConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the number of hedges sent.
+     *
+     * @return
+     */
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * @param request
+     * @return
+     */
+    public boolean isHedgeable(final Request request) {
+        return ((HttpMethod.GET == request.getHttpMethod() || HttpMethod.HEAD == request.getHttpMethod()
+                 || HttpMethod.OPTIONS == request.getHttpMethod()) && BeanUtils.isNull(request.getPayload()));
+    }
+
+    /**
+     * Returns the current hedge delay of the route of the <code>request</code>, in nanos.
+     *
+     * @param request
+     * @return
+     */
+    public long getDelayNanos(final Request request) {
+        return getDelayNanos(HttpClientMetrics.routeOf(request.getUri()));
+    }
+
+    /**
+     * @param route
+     * @return
+     */
+    private long getDelayNanos(final String route) {
+        if (config.getPercentile() <= 0) {
+            return config.getDelay().toNanos();
+        }
+
+        final RouteLatency routeLatency = latencies.get(route);
+        final LatencyHistogram histogram = (BeanUtils.isNull(routeLatency) ? null : routeLatency.getHistogram());
+        if (BeanUtils.isNull(histogram)) {
+            return config.getDelay().toNanos();
+        }
+
+        final long delayNanos = histogram.getValueAtPercentile(config.getPercentile());
+        return Math.max(config.getMinDelay().toNanos(), Math.min(config.getMaxDelay().toNanos(), delayNanos));
+    }
+
+    /**
+     * Sends the first attempt right away and a hedge when the first one is still pending after the delay, if the
+     * budget allows. Completes with the first successful attempt and cancels the other one. Fails when all the sent
+     * attempts failed, with the failure of the first one.
+     *
+     * @param request
+     * @param attempt sends one attempt of the request.
+     * @param <T>
+     * @return
+     */
+    public <T> CompletableFuture<T> execute(final Request request, final Supplier<CompletableFuture<T>> attempt) {
+        final String route = HttpClientMetrics.routeOf(request.getUri());
+        budget.accumulateAndGet(ratioTokens, (tokens, deposit) -> Math.min(
+            (long) config.getBudgetBurst() * TOKEN, tokens + deposit));
+
+        final HedgedCall<T> hedgedCall = new HedgedCall<>(route);
+        hedgedCall.send(attempt, false);
+        if (!hedgedCall.result.isDone()) {
+            CompletableFuture.delayedExecutor(getDelayNanos(route), TimeUnit.NANOSECONDS)
+                .execute(() -> hedge(hedgedCall, attempt));
+        }
+
+        return hedgedCall.result;
+    }
+
+    /**
+     * @param hedgedCall
+     * @param attempt
+     * @param <T>
+     */
+    private <T> void hedge(final HedgedCall<T> hedgedCall, final Supplier<CompletableFuture<T>> attempt) {
+        if (hedgedCall.result.isDone()
+            || (BeanUtils.isNotNull(circuitBreaker) && CircuitBreaker.State.CLOSED != circuitBreaker.getState())) {
+            return;
+        }
+        if (budget.getAndUpdate(tokens -> (tokens >= TOKEN ? tokens - TOKEN : tokens)) < TOKEN) {
+            metrics.hedgeEvent(clientName, "BUDGET_EXHAUSTED");
+            return;
+        }
+        // the first attempt may have failed meanwhile, then the call is already decided
+        if (hedgedCall.pending.getAndUpdate(count -> (count == 0 ? 0 : count + 1)) == 0) {
+            budget.addAndGet(TOKEN);
+            return;
+        }
+
+        hedges.increment();
+        metrics.hedgeEvent(clientName, "ISSUED");
+        hedgedCall.send(attempt, true);
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(RequestHedger.class)
+            .add("clientName", clientName)
+            .add("config", getConfig())
+            .add("hedges", getHedges())
+            .add("budget", (double) budget.get() / TOKEN)
+            .toString();
+    }
+
+    /**
+     * The attempts of one hedged call.
+     *
+     * @param <T>
+     */
+    private final class HedgedCall<T> {
+
+        private final String route;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        /**
+         * @param route
+         */
+        private HedgedCall(final String route) {
+            this.route = route;
+        }
+
+        /**
+         * @param attempt
+         * @param hedge
+         */
+        private void send(final Supplier<CompletableFuture<T>> attempt, final boolean hedge) {
+            final long startNanos = System.nanoTime();
+            final CompletableFuture<T> future;
+            try {
+                future = attempt.get();
+            } catch (RuntimeException ex) {
+                onFailure(ex);
+                return;
+            }
+
+            // the loser is cancelled, as is every attempt when the caller cancels the call
+            result.whenComplete((value, throwable) -> future.cancel(true));
+            future.whenComplete((value, throwable) -> {
+                if (BeanUtils.isNull(throwable)) {
+                    latencies.computeIfAbsent(route, key -> new RouteLatency(config))
+                        .record(System.nanoTime() - startNanos);
+                    if (result.complete(value) && hedge) {
+                        metrics.hedgeEvent(clientName, "WON");
+                    }
+                } else {
+                    onFailure(throwable);
+                }
+            });
+        }
+
+        /**
+         * @param throwable
+         */
+        private void onFailure(final Throwable throwable) {
+            firstError.compareAndSet(null, throwable);
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(firstError.get());
+            }
+        }
+    }
+
+    /**
+     * The latencies of a route, the histogram starts over every <code>sampleWindow</code> latencies and the previous
+     * one serves the percentile meanwhile.
+     */
+    private static final class RouteLatency {
+
+        private final int minSamples;
+        private final int sampleWindow;
+        private final AtomicReference<LatencyHistogram> current = new AtomicReference<>(new LatencyHistogram());
+        private volatile LatencyHistogram previous;
+
+        /**
+         * @param config
+         */
+        private RouteLatency(final HedgingConfig config) {
+            this.minSamples = config.getMinSamples();
+            this.sampleWindow = config.getSampleWindow();
+        }
+
+        /**
+         * @param latencyNanos
+         */
+        private void record(final long latencyNanos) {
+            final LatencyHistogram histogram = current.get();
+            histogram.record(latencyNanos);
+            if (histogram.getCount() >= sampleWindow && current.compareAndSet(histogram, new LatencyHistogram())) {
+                previous = histogram;
+            }
+        }
+
+        /**
+         * Returns the histogram to take the percentile from, <code>null</code> until there are enough latencies.
+         *
+         * @return
+         */
+        private LatencyHistogram getHistogram() {
+            final LatencyHistogram histogram = current.get();
+            if (histogram.getCount() >= minSamples) {
+                return histogram;
+            }
+
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.rslakra.appsuite.protocol.http.limit;
+
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.metrics.HttpClientMetrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit of a single scope (a client or a route of a client), see <code>LimiterConfig</code>.
+ * <p>
+ * Permits are handed out as futures, so that the async client queues without blocking a thread. Requests over the
+ * limit wait in a FIFO queue up to <code>maxWait</code> and are rejected with
+ * <code>ConcurrencyLimitExceededException</code> when the queue is full or the wait expires. A cancelled waiter leaves
+ * the queue right away and is not counted as rejected.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 3:50 PM
+ */
+public final class AdaptiveLimiter {
+
+    private final String clientName;
+    private final String scope;
+    private final LimiterConfig config;
+    private final HttpClientMetrics metrics;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<CompletableFuture<Permit>> queue = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+    private double limit;
+    private int inFlight;
+    private long noLoadRttNanos = Long.MAX_VALUE;
+    private int samples;
+
+    /**
+     * @param clientName
+     * @param scope
+     * @param config
+     * @param metrics
+     */
+    AdaptiveLimiter(final String clientName, final String scope, final LimiterConfig config,
+                    final HttpClientMetrics metrics) {
+        this.clientName = clientName;
+        this.scope = scope;
+        this.config = config;
+        this.metrics = metrics;
+        this.limit = config.getInitialLimit();
+        metrics.concurrencyLimitChanged(clientName, scope, config.getInitialLimit(), 0);
+    }
+
+    /**
+     * @return
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * @return
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns a completed future when a permit is free, a pending one when the request is queued and a failed one
+     * when it is rejected.
+     *
+     * @return
+     */
+    public CompletableFuture<Permit> acquire() {
+        final CompletableFuture<Permit> waiter;
+        final int currentLimit;
+        final int queueDepth;
+        lock.lock();
+        try {
+            currentLimit = (int) limit;
+            if (inFlight < currentLimit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit());
+            }
+            if (queue.size() < config.getMaxQueueSize() && !config.getMaxWait().isZero()) {
+                waiter = new CompletableFuture<>();
+                queue.addLast(waiter);
+                queueDepth = queue.size();
+            } else {
+                waiter = null;
+                queueDepth = queue.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (waiter == null) {
+            return CompletableFuture.failedFuture(reject(currentLimit));
+        }
+
+        metrics.concurrencyLimitChanged(clientName, scope, currentLimit, queueDepth);
+        waiter.whenComplete((permit, ex) -> {
+            if (waiter.isCancelled()) {
+                leave(waiter);
+            }
+        });
+        CompletableFuture.delayedExecutor(config.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)
+            .execute(() -> expire(waiter));
+        return waiter;
+    }
+
+    /**
+     * Removes the cancelled <code>waiter</code> from the queue, if it is still queued.
+     *
+     * @param waiter
+     */
+    private void leave(final CompletableFuture<Permit> waiter) {
+        final int currentLimit;
+        final int queueDepth;
+        lock.lock();
+        try {
+            if (!queue.remove(waiter)) {
+                return;
+            }
+            currentLimit = (int) limit;
+            queueDepth = queue.size();
+        } finally {
+            lock.unlock();
+        }
+
+        metrics.concurrencyLimitChanged(clientName, scope, currentLimit, queueDepth);
+    }
+
+    /**
+     * Rejects the <code>waiter</code> if it is still queued.
+     *
+     * @param waiter
+     */
+    private void expire(final CompletableFuture<Permit> waiter) {
+        final int currentLimit;
+        final int queueDepth;
+        lock.lock();
+        try {
+            // a cancelled waiter leaves the queue on its own
+            if (waiter.isCancelled() || !queue.remove(waiter)) {
+                return;
+            }
+            currentLimit = (int) limit;
+            queueDepth = queue.size();
+        } finally {
+            lock.unlock();
+        }
+
+        metrics.concurrencyLimitChanged(clientName, scope, currentLimit, queueDepth);
+        waiter.completeExceptionally(reject(currentLimit));
+    }
+
+    /**
+     * @param currentLimit
+     * @return
+     */
+    private ConcurrencyLimitExceededException reject(final int currentLimit) {
+        rejected.increment();
+        metrics.concurrencyLimitExceeded(clientName, scope);
+        return new ConcurrencyLimitExceededException(scope, currentLimit);
+    }
+
+    /**
+     * Updates the limit with the outcome of a request and hands the freed permits to the queued requests.
+     *
+     * @param rttNanos
+     * @param dropped
+     * @param sample   false releases the permit without changing the limit.
+     */
+    private void onRelease(final long rttNanos, final boolean dropped, final boolean sample) {
+        final int oldLimit;
+        final int newLimit;
+        final int queueDepth;
+        Deque<CompletableFuture<Permit>> granted = null;
+        lock.lock();
+        try {
+            final int inFlightBefore = inFlight--;
+            oldLimit = (int) limit;
+            if (dropped) {
+                limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+            } else if (sample) {
+                if (++samples >= config.getRttProbeInterval()) {
+                    // forget the no-load RTT now and then, so that it follows a downstream that got slower for good
+                    samples = 0;
+                    noLoadRttNanos = rttNanos;
+                } else {
+                    noLoadRttNanos = Math.min(noLoadRttNanos, rttNanos);
+                }
+                if (rttNanos > noLoadRttNanos * config.getRttTolerance()) {
+                    limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+                } else if (inFlightBefore * 2 >= limit) {
+                    // grow only while the limit is in use, an idle client would grow it for nothing
+                    limit = Math.min(config.getMaxLimit(), limit + 1);
+                }
+            }
+            newLimit = (int) limit;
+            while (!queue.isEmpty() && inFlight < newLimit) {
+                if (granted == null) {
+                    granted = new ArrayDeque<>();
+                }
+                granted.addLast(queue.pollFirst());
+                inFlight++;
+            }
+            queueDepth = queue.size();
+        } finally {
+            lock.unlock();
+        }
+
+        if (oldLimit != newLimit || granted != null) {
+            metrics.concurrencyLimitChanged(clientName, scope, newLimit, queueDepth);
+        }
+        if (granted != null) {
+            for (CompletableFuture<Permit> waiter : granted) {
+                final Permit permit = new Permit();
+                if (!waiter.complete(permit)) {
+                    // the waiter was cancelled meanwhile
+                    permit.ignore();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(AdaptiveLimiter.class)
+            .add("scope", getScope())
+            .add("limit", getLimit())
+            .add("inFlight", getInFlight())
+            .add("queueDepth", getQueueDepth())
+            .add("rejected", getRejectedCount())
+            .toString();
+    }
+
+    /**
+     * A granted request, which must be released exactly once by one of <code>success()</code>,
+     * <code>dropped()</code> or <code>ignore()</code>. Further calls are no-ops.
+     */
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        /**
+         * Releases the permit with the RTT since it was granted.
+         */
+        public void success() {
+            if (released.compareAndSet(false, true)) {
+                onRelease(System.nanoTime() - startNanos, false, true);
+            }
+        }
+
+        /**
+         * Releases the permit of a request which timed out or was turned away by an overloaded downstream.
+         */
+        public void dropped() {
+            if (released.compareAndSet(false, true)) {
+                onRelease(0, true, true);
+            }
+        }
+
+        /**
+         * Releases the permit without changing the limit.
+         */
+        public void ignore() {
+            if (released.compareAndSet(false, true)) {
+                onRelease(0, false, false);
+            }
+        }
+    }
+}
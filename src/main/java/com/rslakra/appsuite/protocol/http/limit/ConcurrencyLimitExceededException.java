@@ -0,0 +1,41 @@
+package com.rslakra.appsuite.protocol.http.limit;
+
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+
+/**
+ * Thrown when a request is rejected by the concurrency limiter, either right away or after waiting in its queue. The
+ * request never reached the network, so it is neither retried nor recorded by the circuit breaker.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 3:45 PM
+ */
+public class ConcurrencyLimitExceededException extends HttpClientException {
+
+    private final String scope;
+    private final int limit;
+
+    /**
+     * @param scope
+     * @param limit
+     */
+    public ConcurrencyLimitExceededException(final String scope, final int limit) {
+        // no stack trace, rejections are cheap by design
+        super("Concurrency limit exceeded, scope=" + scope + ", limit=" + limit, null, false, false);
+        this.scope = scope;
+        this.limit = limit;
+    }
+
+    /**
+     * @return
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * @return
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
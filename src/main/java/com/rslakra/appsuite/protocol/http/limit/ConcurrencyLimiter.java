@@ -0,0 +1,152 @@
+package com.rslakra.appsuite.protocol.http.limit;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+import com.rslakra.appsuite.protocol.http.Request;
+import com.rslakra.appsuite.protocol.http.metrics.HttpClientMetrics;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The concurrency limit of a client, either one <code>AdaptiveLimiter</code> for the whole client or one per route
+ * (<code>scheme://host:port</code>).
+ * <p>
+ * Each attempt of a request takes its own permit, so that retries count against the limit. The outcome of the
+ * attempt drives the limit: a response is an RTT sample unless its status is 429, 503 or 504, which (like a request
+ * without any response) shrinks the limit.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 4:00 PM
+ */
+public final class ConcurrencyLimiter {
+
+    public static final String CLIENT_SCOPE = "*";
+
+    private final String clientName;
+    private final LimiterConfig config;
+    private final HttpClientMetrics metrics;
+    private final ConcurrentMap<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * @param clientName
+     * @param config
+     * @param metrics
+     */
+    public ConcurrencyLimiter(final String clientName, final LimiterConfig config, final HttpClientMetrics metrics) {
+        BeanUtils.assertNonNull(config, "config must provide!");
+        this.clientName = clientName;
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return
+     */
+    public LimiterConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the limiters by scope, the route or <code>CLIENT_SCOPE</code>.
+     *
+     * @return
+     */
+    public Map<String, AdaptiveLimiter> getLimiters() {
+        return Collections.unmodifiableMap(limiters);
+    }
+
+    /**
+     * @param request
+     * @return
+     */
+    public AdaptiveLimiter getLimiter(final Request request) {
+        final String scope = (config.isPerRoute() ? HttpClientMetrics.routeOf(request.getUri()) : CLIENT_SCOPE);
+        return limiters.computeIfAbsent(scope, key -> new AdaptiveLimiter(clientName, key, config, metrics));
+    }
+
+    /**
+     * Acquires a permit without blocking, for the async client.
+     *
+     * @param request
+     * @return
+     */
+    public CompletableFuture<AdaptiveLimiter.Permit> acquire(final Request request) {
+        return getLimiter(request).acquire();
+    }
+
+    /**
+     * Acquires a permit, waiting up to <code>maxWait</code> when the request is queued. For the sync client.
+     *
+     * @param request
+     * @return
+     */
+    public AdaptiveLimiter.Permit acquirePermit(final Request request) {
+        final CompletableFuture<AdaptiveLimiter.Permit> future = acquire(request);
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            if (!future.cancel(false) && !future.isCompletedExceptionally()) {
+                future.join().ignore();
+            }
+            Thread.currentThread().interrupt();
+            throw new HttpClientException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new HttpClientException(ex.getCause());
+        }
+    }
+
+    /**
+     * Releases the <code>permit</code> with the outcome of the attempt.
+     *
+     * @param permit
+     * @param httpResponse <code>null</code> when no response was received.
+     * @param throwable
+     */
+    public void release(final AdaptiveLimiter.Permit permit, final HttpResponse httpResponse,
+                        final Throwable throwable) {
+        final int statusCode = (BeanUtils.isNull(httpResponse) || BeanUtils.isNull(httpResponse.getStatusLine())
+                                ? 0 : httpResponse.getStatusLine().getStatusCode());
+        if (isOverloaded(statusCode)) {
+            permit.dropped();
+        } else if (statusCode > 0) {
+            permit.success();
+        } else if (BeanUtils.isNotNull(throwable) && !(throwable instanceof CancellationException)) {
+            permit.dropped();
+        } else {
+            permit.ignore();
+        }
+    }
+
+    /**
+     * @param statusCode
+     * @return
+     */
+    private static boolean isOverloaded(final int statusCode) {
+        return (statusCode == 429 || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT);
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(ConcurrencyLimiter.class)
+            .add("clientName", clientName)
+            .add("config", getConfig())
+            .add("limiters", getLimiters())
+            .toString();
+    }
+}
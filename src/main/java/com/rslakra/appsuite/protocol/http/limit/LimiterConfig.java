@@ -0,0 +1,263 @@
+package com.rslakra.appsuite.protocol.http.limit;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+
+import java.time.Duration;
+
+/**
+ * Settings of the AIMD concurrency limiter of a client.
+ * <p>
+ * The limit grows by one for every response within <code>rttTolerance</code> times the no-load RTT while the limiter
+ * is in use, and shrinks by <code>backoffRatio</code> for every slower response, timeout, 429, 503 or 504. The no-load
+ * RTT is the minimum RTT seen, re-probed every <code>rttProbeInterval</code> samples so that it follows the
+ * downstream.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 3:40 PM
+ */
+public final class LimiterConfig {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    public static final double DEFAULT_RTT_TOLERANCE = 2.0;
+    public static final int DEFAULT_RTT_PROBE_INTERVAL = 1000;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double rttTolerance;
+    private final int rttProbeInterval;
+    private final int maxQueueSize;
+    private final Duration maxWait;
+    private final boolean perRoute;
+
+    /**
+     * @param builder
+     */
+    private LimiterConfig(final LimiterConfigBuilder builder) {
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.rttTolerance = builder.rttTolerance;
+        this.rttProbeInterval = builder.rttProbeInterval;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.maxWait = builder.maxWait;
+        this.perRoute = builder.perRoute;
+    }
+
+    /**
+     * @return
+     */
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    /**
+     * @return
+     */
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    /**
+     * @return
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @return
+     */
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    /**
+     * @return
+     */
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    /**
+     * @return
+     */
+    public int getRttProbeInterval() {
+        return rttProbeInterval;
+    }
+
+    /**
+     * Returns the max number of requests waiting for a permit, <code>0</code> rejects right away.
+     *
+     * @return
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * @return
+     */
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Returns true when every route of the client has its own limit.
+     *
+     * @return
+     */
+    public boolean isPerRoute() {
+        return perRoute;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(LimiterConfig.class)
+            .add("initialLimit", getInitialLimit())
+            .add("minLimit", getMinLimit())
+            .add("maxLimit", getMaxLimit())
+            .add("backoffRatio", getBackoffRatio())
+            .add("rttTolerance", getRttTolerance())
+            .add("rttProbeInterval", getRttProbeInterval())
+            .add("maxQueueSize", getMaxQueueSize())
+            .add("maxWait", getMaxWait())
+            .add("perRoute", isPerRoute())
+            .toString();
+    }
+
+    /**
+     * @return
+     */
+    public static LimiterConfig ofDefaults() {
+        return newBuilder().build();
+    }
+
+    /**
+     * @return
+     */
+    public static LimiterConfigBuilder newBuilder() {
+        return new LimiterConfigBuilder();
+    }
+
+    /**
+     *
+     */
+    public static class LimiterConfigBuilder {
+
+        private int initialLimit = DEFAULT_INITIAL_LIMIT;
+        private int minLimit = DEFAULT_MIN_LIMIT;
+        private int maxLimit = DEFAULT_MAX_LIMIT;
+        private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+        private double rttTolerance = DEFAULT_RTT_TOLERANCE;
+        private int rttProbeInterval = DEFAULT_RTT_PROBE_INTERVAL;
+        private int maxQueueSize;
+        private Duration maxWait = Duration.ZERO;
+        private boolean perRoute;
+
+        private LimiterConfigBuilder() {
+        }
+
+        /**
+         * @param initialLimit
+         * @return
+         */
+        public LimiterConfigBuilder setInitialLimit(final int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * @param minLimit
+         * @param maxLimit
+         * @return
+         */
+        public LimiterConfigBuilder setLimits(final int minLimit, final int maxLimit) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @param backoffRatio
+         * @return
+         */
+        public LimiterConfigBuilder setBackoffRatio(final double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * @param rttTolerance
+         * @return
+         */
+        public LimiterConfigBuilder setRttTolerance(final double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        /**
+         * @param rttProbeInterval
+         * @return
+         */
+        public LimiterConfigBuilder setRttProbeInterval(final int rttProbeInterval) {
+            this.rttProbeInterval = rttProbeInterval;
+            return this;
+        }
+
+        /**
+         * Queues up to <code>maxQueueSize</code> requests over the limit for at most <code>maxWait</code>, the others
+         * are rejected.
+         *
+         * @param maxQueueSize
+         * @param maxWait
+         * @return
+         */
+        public LimiterConfigBuilder setQueue(final int maxQueueSize, final Duration maxWait) {
+            BeanUtils.assertNonNull(maxWait, "maxWait must provide!");
+            this.maxQueueSize = maxQueueSize;
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * @param perRoute
+         * @return
+         */
+        public LimiterConfigBuilder setPerRoute(final boolean perRoute) {
+            this.perRoute = perRoute;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public LimiterConfig build() {
+            if (minLimit <= 0 || maxLimit < minLimit) {
+                throw new HttpClientException("minLimit must be positive and maxLimit at least minLimit!");
+            }
+            initialLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new HttpClientException("backoffRatio must be between 0 and 1!");
+            }
+            if (rttTolerance < 1 || rttProbeInterval <= 0) {
+                throw new HttpClientException("rttTolerance must be at least 1 and rttProbeInterval positive!");
+            }
+            if (maxQueueSize < 0 || maxWait.isNegative()) {
+                throw new HttpClientException("maxQueueSize and maxWait must not be negative!");
+            }
+
+            return new LimiterConfig(this);
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.rslakra.appsuite.protocol.http.metrics;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory <code>HttpClientMetrics</code>, meant to be shared by all clients and read by an exporter (or a test).
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 7:10 PM
+ */
+public class DefaultHttpClientMetrics implements HttpClientMetrics {
+
+    private final ConcurrentMap<String, ClientMetrics> clients = new ConcurrentHashMap<>();
+
+    /**
+     * @param clientName
+     * @return
+     */
+    public ClientMetrics getClientMetrics(final String clientName) {
+        return clients.computeIfAbsent(clientName, ClientMetrics::new);
+    }
+
+    /**
+     * @return
+     */
+    public Map<String, ClientMetrics> getClients() {
+        return Collections.unmodifiableMap(clients);
+    }
+
+    /**
+     * @param clientName
+     * @param route
+     * @return
+     */
+    public RouteMetrics getRouteMetrics(final String clientName, final String route) {
+        return getClientMetrics(clientName).getRouteMetrics(route);
+    }
+
+    @Override
+    public void requestStarted(final String clientName, final String route) {
+        getRouteMetrics(clientName, route).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void requestCompleted(final String clientName, final String route, final int statusCode,
+                                 final long durationNanos, final Throwable error) {
+        final RouteMetrics routeMetrics = getRouteMetrics(clientName, route);
+        routeMetrics.inFlight.decrementAndGet();
+        routeMetrics.latency.record(durationNanos);
+        // 0 counts the requests without response
+        routeMetrics.statusClasses[Math.min(5, Math.max(0, statusCode / 100))].increment();
+        if (error != null) {
+            routeMetrics.errors.increment();
+        }
+    }
+
+    @Override
+    public void bytesSent(final String clientName, final String route, final long bytes) {
+        getRouteMetrics(clientName, route).bytesSent.add(bytes);
+    }
+
+    @Override
+    public void bytesReceived(final String clientName, final String route, final long bytes) {
+        getRouteMetrics(clientName, route).bytesReceived.add(bytes);
+    }
+
+    @Override
+    public void connectionLeased(final String clientName, final String route, final long leaseNanos) {
+        getRouteMetrics(clientName, route).leaseTime.record(leaseNanos);
+    }
+
+    @Override
+    public void tlsHandshakeCompleted(final String clientName, final String route, final boolean resumed,
+                                      final long durationNanos) {
+        final RouteMetrics routeMetrics = getRouteMetrics(clientName, route);
+        (resumed ? routeMetrics.resumedHandshakes : routeMetrics.fullHandshakes).increment();
+        routeMetrics.handshakeTime.record(durationNanos);
+    }
+
+    @Override
+    public void retryEvent(final String clientName, final String eventType) {
+        getClientMetrics(clientName).retryEvents.computeIfAbsent(eventType, type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void circuitBreakerRegistered(final String clientName, final CircuitBreaker circuitBreaker) {
+        getClientMetrics(clientName).circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public void circuitBreakerTransition(final String clientName, final String fromState, final String toState) {
+        getClientMetrics(clientName).circuitBreakerTransitions
+            .computeIfAbsent(fromState + "->" + toState, transition -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void hedgeEvent(final String clientName, final String eventType) {
+        getClientMetrics(clientName).hedgeEvents.computeIfAbsent(eventType, type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void concurrencyLimitChanged(final String clientName, final String scope, final int limit,
+                                        final int queueDepth) {
+        final LimiterMetrics limiterMetrics = getClientMetrics(clientName).getLimiterMetrics(scope);
+        limiterMetrics.limit = limit;
+        limiterMetrics.queueDepth = queueDepth;
+    }
+
+    @Override
+    public void concurrencyLimitExceeded(final String clientName, final String scope) {
+        getClientMetrics(clientName).getLimiterMetrics(scope).rejected.increment();
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(DefaultHttpClientMetrics.class)
+            .add("clients", getClients())
+            .toString();
+    }
+
+    /**
+     * The metrics of a client.
+     */
+    public static final class ClientMetrics {
+
+        private final String clientName;
+        private final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, LongAdder> retryEvents = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, LongAdder> circuitBreakerTransitions = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, LongAdder> hedgeEvents = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, LimiterMetrics> limiters = new ConcurrentHashMap<>();
+        private volatile CircuitBreaker circuitBreaker;
+
+        private ClientMetrics(final String clientName) {
+            this.clientName = clientName;
+        }
+
+        /**
+         * @return
+         */
+        public String getClientName() {
+            return clientName;
+        }
+
+        /**
+         * @param route
+         * @return
+         */
+        public RouteMetrics getRouteMetrics(final String route) {
+            return routes.computeIfAbsent(route, RouteMetrics::new);
+        }
+
+        /**
+         * @return
+         */
+        public Map<String, RouteMetrics> getRoutes() {
+            return Collections.unmodifiableMap(routes);
+        }
+
+        /**
+         * @param eventType
+         * @return
+         */
+        public long getRetryEvents(final String eventType) {
+            final LongAdder counter = retryEvents.get(eventType);
+            return (counter == null ? 0 : counter.sum());
+        }
+
+        /**
+         * @param fromState
+         * @param toState
+         * @return
+         */
+        public long getCircuitBreakerTransitions(final String fromState, final String toState) {
+            final LongAdder counter = circuitBreakerTransitions.get(fromState + "->" + toState);
+            return (counter == null ? 0 : counter.sum());
+        }
+
+        /**
+         * Returns the state of the circuit breaker of the client, <code>null</code> when none is registered.
+         *
+         * @return
+         */
+        public CircuitBreaker.State getCircuitBreakerState() {
+            final CircuitBreaker current = circuitBreaker;
+            return (BeanUtils.isNull(current) ? null : current.getState());
+        }
+
+        /**
+         * Returns the live failure rate, slow call rate and call counts of the circuit breaker of the client,
+         * <code>null</code> when none is registered.
+         *
+         * @return
+         */
+        public CircuitBreaker.Metrics getCircuitBreakerMetrics() {
+            final CircuitBreaker current = circuitBreaker;
+            return (BeanUtils.isNull(current) ? null : current.getMetrics());
+        }
+
+        /**
+         * @param eventType
+         * @return
+         */
+        public long getHedgeEvents(final String eventType) {
+            final LongAdder counter = hedgeEvents.get(eventType);
+            return (counter == null ? 0 : counter.sum());
+        }
+
+        /**
+         * @param scope
+         * @return
+         */
+        public LimiterMetrics getLimiterMetrics(final String scope) {
+            return limiters.computeIfAbsent(scope, LimiterMetrics::new);
+        }
+
+        /**
+         * @return
+         */
+        public Map<String, LimiterMetrics> getLimiters() {
+            return Collections.unmodifiableMap(limiters);
+        }
+
+        /**
+         * @return
+         */
+        @Override
+        public String toString() {
+            return ToString.of(ClientMetrics.class)
+                .add("clientName", getClientName())
+                .add("routes", getRoutes())
+                .add("retryEvents", retryEvents)
+                .add("circuitBreakerState", getCircuitBreakerState())
+                .add("circuitBreakerTransitions", circuitBreakerTransitions)
+                .add("hedgeEvents", hedgeEvents)
+                .add("limiters", getLimiters())
+                .toString();
+        }
+    }
+
+    /**
+     * The gauges of a concurrency limiter of a client, the values of its last change.
+     */
+    public static final class LimiterMetrics {
+
+        private final String scope;
+        private volatile int limit;
+        private volatile int queueDepth;
+        private final LongAdder rejected = new LongAdder();
+
+        private LimiterMetrics(final String scope) {
+            this.scope = scope;
+        }
+
+        /**
+         * @return
+         */
+        public String getScope() {
+            return scope;
+        }
+
+        /**
+         * @return
+         */
+        public int getLimit() {
+            return limit;
+        }
+
+        /**
+         * @return
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * @return
+         */
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * @return
+         */
+        @Override
+        public String toString() {
+            return ToString.of(LimiterMetrics.class)
+                .add("scope", getScope())
+                .add("limit", getLimit())
+                .add("queueDepth", getQueueDepth())
+                .add("rejected", getRejected())
+                .toString();
+        }
+    }
+
+    /**
+     * The metrics of a route of a client.
+     */
+    public static final class RouteMetrics {
+
+        private final String route;
+        private final AtomicLong inFlight = new AtomicLong();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram leaseTime = new LatencyHistogram();
+        private final LongAdder[] statusClasses = new LongAdder[6];
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder fullHandshakes = new LongAdder();
+        private final LongAdder resumedHandshakes = new LongAdder();
+        private final LatencyHistogram handshakeTime = new LatencyHistogram();
+
+        private RouteMetrics(final String route) {
+            this.route = route;
+            for (int i = 0; i < statusClasses.length; i++) {
+                statusClasses[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * @return
+         */
+        public String getRoute() {
+            return route;
+        }
+
+        /**
+         * @return
+         */
+        public long getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * @return
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return
+         */
+        public LatencyHistogram getLeaseTime() {
+            return leaseTime;
+        }
+
+        /**
+         * Returns the number of responses of the status class (1 to 5), 0 returns the requests without response.
+         *
+         * @param statusClass
+         * @return
+         */
+        public long getStatusCount(final int statusClass) {
+            return statusClasses[statusClass].sum();
+        }
+
+        /**
+         * @return
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * @return
+         */
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        /**
+         * @return
+         */
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        /**
+         * @return
+         */
+        public long getFullHandshakes() {
+            return fullHandshakes.sum();
+        }
+
+        /**
+         * @return
+         */
+        public long getResumedHandshakes() {
+            return resumedHandshakes.sum();
+        }
+
+        /**
+         * @return
+         */
+        public LatencyHistogram getHandshakeTime() {
+            return handshakeTime;
+        }
+
+        /**
+         * @return
+         */
+        @Override
+        public String toString() {
+            return ToString.of(RouteMetrics.class)
+                .add("route", getRoute())
+                .add("inFlight", getInFlight())
+                .add("latency", getLatency())
+                .add("leaseTime", getLeaseTime())
+                .add("errors", getErrors())
+                .add("bytesSent", getBytesSent())
+                .add("bytesReceived", getBytesReceived())
+                .add("fullHandshakes", getFullHandshakes())
+                .add("resumedHandshakes", getResumedHandshakes())
+                .toString();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.rslakra.appsuite.protocol.http.metrics;
+
+import org.apache.http.HttpHost;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.nio.reactor.ssl.SSLIOSession;
+
+import java.io.IOException;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+/**
+ * TLS session strategy of the async client reporting the handshakes of its new connections, full or resumed.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 11:30 PM
+ */
+public class HandshakeTimingSSLIOSessionStrategy extends SSLIOSessionStrategy {
+
+    private static final String HANDSHAKE_START = HandshakeTimingSSLIOSessionStrategy.class.getName() + ".start";
+
+    private final String clientName;
+    private final HttpClientMetrics metrics;
+
+    /**
+     * @param sslContext
+     * @param clientName
+     * @param metrics
+     */
+    public HandshakeTimingSSLIOSessionStrategy(final SSLContext sslContext, final String clientName,
+                                               final HttpClientMetrics metrics) {
+        super(sslContext);
+        this.clientName = clientName;
+        this.metrics = metrics;
+    }
+
+    /**
+     * The handshake starts here and completes on the I/O reactor, with <code>verifySession</code>.
+     *
+     * @param host
+     * @param ioSession
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public SSLIOSession upgrade(final HttpHost host, final IOSession ioSession) throws IOException {
+        ioSession.setAttribute(HANDSHAKE_START, new long[]{System.currentTimeMillis(), System.nanoTime()});
+        return super.upgrade(host, ioSession);
+    }
+
+    /**
+     * A session created before the handshake started is a resumed one.
+     *
+     * @param host
+     * @param ioSession
+     * @param sslSession
+     * @throws SSLException
+     */
+    @Override
+    protected void verifySession(final HttpHost host, final IOSession ioSession, final SSLSession sslSession)
+        throws SSLException {
+        super.verifySession(host, ioSession, sslSession);
+        final Object handshakeStart = ioSession.removeAttribute(HANDSHAKE_START);
+        if (handshakeStart instanceof long[]) {
+            final long[] start = (long[]) handshakeStart;
+            metrics.tlsHandshakeCompleted(clientName, host.toURI(), sslSession.getCreationTime() < start[0],
+                                          System.nanoTime() - start[1]);
+        }
+    }
+}
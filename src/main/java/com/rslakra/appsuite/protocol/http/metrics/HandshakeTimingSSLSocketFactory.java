@@ -0,0 +1,73 @@
+package com.rslakra.appsuite.protocol.http.metrics;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.RouteInfo;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.Socket;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+/**
+ * TLS socket factory of the sync client reporting the handshakes of its new connections, full or resumed.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 11:25 PM
+ */
+public class HandshakeTimingSSLSocketFactory extends SSLConnectionSocketFactory {
+
+    private final String clientName;
+    private final HttpClientMetrics metrics;
+
+    /**
+     * @param sslContext
+     * @param clientName
+     * @param metrics
+     */
+    public HandshakeTimingSSLSocketFactory(final SSLContext sslContext, final String clientName,
+                                           final HttpClientMetrics metrics) {
+        super(sslContext);
+        this.clientName = clientName;
+        this.metrics = metrics;
+    }
+
+    /**
+     * The handshake runs in <code>super</code>, a session created before it started is a resumed one.
+     *
+     * @param socket
+     * @param target
+     * @param port
+     * @param context
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public Socket createLayeredSocket(final Socket socket, final String target, final int port,
+                                      final HttpContext context) throws IOException {
+        final long startMillis = System.currentTimeMillis();
+        final long startTime = System.nanoTime();
+        final Socket sslSocket = super.createLayeredSocket(socket, target, port, context);
+        final long durationNanos = System.nanoTime() - startTime;
+        if (sslSocket instanceof SSLSocket) {
+            final boolean resumed = (((SSLSocket) sslSocket).getSession().getCreationTime() < startMillis);
+            metrics.tlsHandshakeCompleted(clientName, routeOf(target, port, context), resumed, durationNanos);
+        }
+
+        return sslSocket;
+    }
+
+    /**
+     * @param target
+     * @param port
+     * @param context
+     * @return
+     */
+    private static String routeOf(final String target, final int port, final HttpContext context) {
+        final RouteInfo route = (context == null ? null : HttpClientContext.adapt(context).getHttpRoute());
+        return (route == null ? new HttpHost(target, port, "https").toURI() : route.getTargetHost().toURI());
+    }
+}
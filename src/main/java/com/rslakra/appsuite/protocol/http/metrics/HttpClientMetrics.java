@@ -0,0 +1,154 @@
+package com.rslakra.appsuite.protocol.http.metrics;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+
+import java.net.URI;
+
+/**
+ * Metrics SPI of the http clients, every event is tagged by <code>clientName</code> and, where it applies, by route
+ * (<code>scheme://host:port</code>). All methods are called on the request path and must not block.
+ * <p>
+ * The defaults do nothing, so an adapter (i.e. micrometer) only overrides the events it records.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 6:40 PM
+ */
+public interface HttpClientMetrics {
+
+    /**
+     * Records nothing.
+     */
+    HttpClientMetrics NOOP = new HttpClientMetrics() {
+    };
+
+    /**
+     * @param clientName
+     * @param route
+     */
+    default void requestStarted(String clientName, String route) {
+    }
+
+    /**
+     * Called once per request, after <code>requestStarted</code>.
+     *
+     * @param clientName
+     * @param route
+     * @param statusCode    0 when no response was received
+     * @param durationNanos
+     * @param error         <code>null</code> on success
+     */
+    default void requestCompleted(String clientName, String route, int statusCode, long durationNanos,
+                                  Throwable error) {
+    }
+
+    /**
+     * @param clientName
+     * @param route
+     * @param bytes
+     */
+    default void bytesSent(String clientName, String route, long bytes) {
+    }
+
+    /**
+     * @param clientName
+     * @param route
+     * @param bytes
+     */
+    default void bytesReceived(String clientName, String route, long bytes) {
+    }
+
+    /**
+     * The time spent waiting for a pooled connection.
+     *
+     * @param clientName
+     * @param route
+     * @param leaseNanos
+     */
+    default void connectionLeased(String clientName, String route, long leaseNanos) {
+    }
+
+    /**
+     * Called once per TLS handshake of a new connection.
+     *
+     * @param clientName
+     * @param route
+     * @param resumed       true when a cached session was resumed, false for a full handshake
+     * @param durationNanos
+     */
+    default void tlsHandshakeCompleted(String clientName, String route, boolean resumed, long durationNanos) {
+    }
+
+    /**
+     * @param clientName
+     * @param eventType  the resilience4j retry event type (RETRY, SUCCESS, ERROR, IGNORED_ERROR)
+     */
+    default void retryEvent(String clientName, String eventType) {
+    }
+
+    /**
+     * Called once per circuit breaker a client of <code>clientName</code> reports to these metrics, so that its live
+     * state and failure rates can be exported (i.e. as gauges).
+     *
+     * @param clientName
+     * @param circuitBreaker
+     */
+    default void circuitBreakerRegistered(String clientName, CircuitBreaker circuitBreaker) {
+    }
+
+    /**
+     * @param clientName
+     * @param fromState
+     * @param toState
+     */
+    default void circuitBreakerTransition(String clientName, String fromState, String toState) {
+    }
+
+    /**
+     * @param clientName
+     * @param eventType  the hedging event type (ISSUED, WON, BUDGET_EXHAUSTED)
+     */
+    default void hedgeEvent(String clientName, String eventType) {
+    }
+
+    /**
+     * Called when the concurrency limit or the queue depth of a limiter changes.
+     *
+     * @param clientName
+     * @param scope      the route of a per-route limiter, <code>*</code> for a client-wide one
+     * @param limit
+     * @param queueDepth
+     */
+    default void concurrencyLimitChanged(String clientName, String scope, int limit, int queueDepth) {
+    }
+
+    /**
+     * Called for every request rejected by the concurrency limiter.
+     *
+     * @param clientName
+     * @param scope
+     */
+    default void concurrencyLimitExceeded(String clientName, String scope) {
+    }
+
+    /**
+     * Returns the route tag of the <code>uri</code>, the default port of the scheme is made explicit.
+     *
+     * @param uri
+     * @return
+     */
+    static String routeOf(final URI uri) {
+        final boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        final int port = (uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80));
+        return new HttpHost(uri.getHost(), port, uri.getScheme()).toURI();
+    }
+
+    /**
+     * @param httpRoute
+     * @return
+     */
+    static String routeOf(final HttpRoute httpRoute) {
+        return httpRoute.getTargetHost().toURI();
+    }
+}
@@ -0,0 +1,129 @@
+package com.rslakra.appsuite.protocol.http.metrics;
+
+import com.rslakra.appsuite.core.ToString;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of non-negative values (nanoseconds), in the spirit of HdrHistogram.
+ * <p>
+ * Each power of two is split into 32 linear sub-buckets, so a recorded value is reported within ~3% of its real value,
+ * in a fixed footprint of ~15K regardless of the number of recorded values.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 6:55 PM
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param value
+     */
+    public void record(final long value) {
+        final long safeValue = Math.max(0, value);
+        buckets.incrementAndGet(indexOf(safeValue));
+        count.increment();
+        sum.add(safeValue);
+        max.accumulateAndGet(safeValue, Math::max);
+    }
+
+    /**
+     * @return
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return
+     */
+    public double getMean() {
+        final long total = count.sum();
+        return (total == 0 ? 0 : (double) sum.sum() / total);
+    }
+
+    /**
+     * Returns the (upper bound of the bucket of the) value at the <code>percentile</code> (0-100).
+     *
+     * @param percentile
+     * @return
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += buckets.get(index);
+            if (seen >= target) {
+                return Math.min(upperBoundOf(index), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * @param value
+     * @return
+     */
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        final int msb = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = msb - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @param index
+     * @return
+     */
+    static long upperBoundOf(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        final int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        final int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(LatencyHistogram.class)
+            .add("count", getCount())
+            .add("meanMillis", getMean() / TimeUnit.MILLISECONDS.toNanos(1))
+            .add("p50Millis", TimeUnit.NANOSECONDS.toMillis(getValueAtPercentile(50)))
+            .add("p99Millis", TimeUnit.NANOSECONDS.toMillis(getValueAtPercentile(99)))
+            .add("maxMillis", TimeUnit.NANOSECONDS.toMillis(getMax()))
+            .toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.rslakra.appsuite.protocol.http.metrics;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooling connection manager of the sync client reporting the time spent waiting for a connection.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 7:25 PM
+ */
+public class LeaseTimingConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final String clientName;
+    private final HttpClientMetrics metrics;
+
+    /**
+     * @param socketFactoryRegistry
+     * @param timeToLive
+     * @param timeUnit
+     * @param clientName
+     * @param metrics
+     */
+    public LeaseTimingConnectionManager(final Registry<ConnectionSocketFactory> socketFactoryRegistry,
+                                        final long timeToLive, final TimeUnit timeUnit, final String clientName,
+                                        final HttpClientMetrics metrics) {
+        super(socketFactoryRegistry, null, null, null, timeToLive, timeUnit);
+        this.clientName = clientName;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param route
+     * @param state
+     * @return
+     */
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        final ConnectionRequest connectionRequest = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+
+            @Override
+            public HttpClientConnection get(final long timeout, final TimeUnit timeUnit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                final long startTime = System.nanoTime();
+                try {
+                    return connectionRequest.get(timeout, timeUnit);
+                } finally {
+                    metrics.connectionLeased(clientName, HttpClientMetrics.routeOf(route),
+                                             System.nanoTime() - startTime);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return connectionRequest.cancel();
+            }
+        };
+    }
+}
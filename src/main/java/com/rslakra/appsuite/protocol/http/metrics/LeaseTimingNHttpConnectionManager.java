@@ -0,0 +1,100 @@
+package com.rslakra.appsuite.protocol.http.metrics;
+
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooling connection manager of the async client reporting the time spent waiting for a connection.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 7:30 PM
+ */
+public class LeaseTimingNHttpConnectionManager extends PoolingNHttpClientConnectionManager {
+
+    private final String clientName;
+    private final HttpClientMetrics metrics;
+
+    /**
+     * @param ioReactor
+     * @param sessionStrategyRegistry
+     * @param timeToLive
+     * @param timeUnit
+     * @param clientName
+     * @param metrics
+     */
+    public LeaseTimingNHttpConnectionManager(final ConnectingIOReactor ioReactor,
+                                             final Registry<SchemeIOSessionStrategy> sessionStrategyRegistry,
+                                             final long timeToLive, final TimeUnit timeUnit, final String clientName,
+                                             final HttpClientMetrics metrics) {
+        super(ioReactor, null, sessionStrategyRegistry, null, null, timeToLive, timeUnit);
+        this.clientName = clientName;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param route
+     * @param state
+     * @param connectTimeout
+     * @param leaseTimeout
+     * @param timeUnit
+     * @param callback
+     * @return
+     */
+    @Override
+    public Future<NHttpClientConnection> requestConnection(final HttpRoute route, final Object state,
+                                                           final long connectTimeout, final long leaseTimeout,
+                                                           final TimeUnit timeUnit,
+                                                           final FutureCallback<NHttpClientConnection> callback) {
+        final String routeName = HttpClientMetrics.routeOf(route);
+        return super.requestConnection(route, state, connectTimeout, leaseTimeout, timeUnit,
+                                       new LeaseCallback(routeName, System.nanoTime(), callback));
+    }
+
+    /**
+     * Reports the lease time once the pool completes the request, then delegates to the callback of the client.
+     */
+    private final class LeaseCallback implements FutureCallback<NHttpClientConnection> {
+
+        private final String routeName;
+        private final long startTime;
+        private final FutureCallback<NHttpClientConnection> callback;
+
+        private LeaseCallback(final String routeName, final long startTime,
+                              final FutureCallback<NHttpClientConnection> callback) {
+            this.routeName = routeName;
+            this.startTime = startTime;
+            this.callback = callback;
+        }
+
+        @Override
+        public void completed(final NHttpClientConnection connection) {
+            metrics.connectionLeased(clientName, routeName, System.nanoTime() - startTime);
+            if (callback != null) {
+                callback.completed(connection);
+            }
+        }
+
+        @Override
+        public void failed(final Exception ex) {
+            metrics.connectionLeased(clientName, routeName, System.nanoTime() - startTime);
+            if (callback != null) {
+                callback.failed(ex);
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            if (callback != null) {
+                callback.cancelled();
+            }
+        }
+    }
+}
@@ -215,14 +215,7 @@ public class RestBuilder {
     protected Object doRequest(final URI uri, final HttpMethod httpMethod, final Object contentType,
                                final Closure configClosure)
         throws ClientProtocolException, IOException {
-        HttpRequestBase reqMethod;
-        try {
-            reqMethod = httpMethod.getRequestType().newInstance();
-        } catch (Exception var7) {
-            throw new RuntimeException(var7);
-        }
-
-        reqMethod.setURI(uri);
+        final HttpRequestBase reqMethod = HttpRequestFactory.newRequest(httpMethod, uri);
         RequestDelegate
             requestDelegate =
             new RequestDelegate(this, reqMethod, contentType, getHeaders(), getResponseHandlers());
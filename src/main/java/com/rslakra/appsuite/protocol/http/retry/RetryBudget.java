@@ -0,0 +1,66 @@
+package com.rslakra.appsuite.protocol.http.retry;
+
+import com.rslakra.appsuite.core.ToString;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of the retries of a client. Every call deposits <code>ratio</code> of a token and every retry takes a
+ * whole one, the bucket holds at most <code>burst</code> tokens. It starts full, so that a client retries right away.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 5:25 PM
+ */
+public final class RetryBudget {
+
+    private static final int TOKEN = 1000;
+
+    private final long ratioTokens;
+    private final long maxTokens;
+    // in thousandths of a token
+    private final AtomicLong tokens;
+
+    /**
+     * @param ratio
+     * @param burst
+     */
+    public RetryBudget(final double ratio, final int burst) {
+        this.ratioTokens = Math.max(1, Math.round(ratio * TOKEN));
+        this.maxTokens = (long) burst * TOKEN;
+        this.tokens = new AtomicLong(maxTokens);
+    }
+
+    /**
+     * Called once per call, not per attempt.
+     */
+    public void deposit() {
+        tokens.accumulateAndGet(ratioTokens, (current, deposit) -> Math.min(maxTokens, current + deposit));
+    }
+
+    /**
+     * Takes a token for a retry.
+     *
+     * @return false when the budget is exhausted.
+     */
+    public boolean tryAcquire() {
+        return (tokens.getAndUpdate(current -> (current >= TOKEN ? current - TOKEN : current)) >= TOKEN);
+    }
+
+    /**
+     * @return
+     */
+    public double getTokens() {
+        return (double) tokens.get() / TOKEN;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(RetryBudget.class)
+            .add("tokens", getTokens())
+            .add("maxTokens", maxTokens / TOKEN)
+            .toString();
+    }
+}
@@ -0,0 +1,310 @@
+package com.rslakra.appsuite.protocol.http.retry;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+import com.rslakra.appsuite.protocol.http.Response;
+import com.rslakra.appsuite.protocol.http.metrics.HttpClientMetrics;
+import io.github.resilience4j.retry.RetryConfig;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.util.EntityUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The retry of the sync and async clients, one per client.
+ * <p>
+ * The <code>RetryConfig</code> of the client still decides how many attempts a call gets and which exceptions are
+ * retried, its interval of the first attempt is the base of the back-off. On top of that:
+ * <ul>
+ * <li>the back-off is decorrelated jitter, a random delay between the base and three times the previous delay, capped
+ * at <code>maxDelay</code>;</li>
+ * <li>the responses with a retryable status (429, 503) are retried as well, after their <code>Retry-After</code>
+ * (seconds or HTTP-date) if longer than the back-off;</li>
+ * <li>retries draw on the <code>RetryBudget</code> of the client;</li>
+ * <li>the async client waits on a scheduler instead of a thread.</li>
+ * </ul>
+ * The events are reported as <code>HttpClientMetrics.retryEvent()</code>: RETRY, SUCCESS (after retries), ERROR
+ * (out of attempts), IGNORED_ERROR and BUDGET_EXHAUSTED.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 5:30 PM
+ */
+public final class RetryEngine {
+
+    private final String clientName;
+    private final int maxAttempts;
+    private final Predicate<Throwable> exceptionPredicate;
+    private final long baseDelayMillis;
+    private final RetryPolicy policy;
+    private final RetryBudget budget;
+    private final HttpClientMetrics metrics;
+
+    /**
+     * @param clientName
+     * @param retryConfig
+     * @param policy
+     * @param metrics
+     */
+    public RetryEngine(final String clientName, final RetryConfig retryConfig, final RetryPolicy policy,
+                       final HttpClientMetrics metrics) {
+        BeanUtils.assertNonNull(retryConfig, "retryConfig must provide!");
+        BeanUtils.assertNonNull(policy, "policy must provide!");
+        this.clientName = clientName;
+        this.maxAttempts = retryConfig.getMaxAttempts();
+        this.exceptionPredicate = retryConfig.getExceptionPredicate();
+        this.baseDelayMillis = Math.max(1, retryConfig.getIntervalFunction().apply(1));
+        this.policy = policy;
+        this.budget = new RetryBudget(policy.getBudgetRatio(), policy.getBudgetBurst());
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return
+     */
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return
+     */
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Executes the <code>attempt</code> until it succeeds, blocking the current thread during the back-off.
+     *
+     * @param attempt
+     * @param <T>
+     * @return
+     */
+    public <T> Response<T> execute(final Supplier<Response<T>> attempt) {
+        budget.deposit();
+        final RetryState state = new RetryState();
+        while (true) {
+            long delayMillis;
+            try {
+                final Response<T> response = attempt.get();
+                final int statusCode = (BeanUtils.isNull(response.getStatusLine()) ? 0
+                                        : response.getStatusLine().getStatusCode());
+                final List<String> retryAfter = response.getResponseHeaders().get(HttpHeaders.RETRY_AFTER);
+                delayMillis = nextDelay(state, statusCode, (BeanUtils.isEmpty(retryAfter) ? null : retryAfter.get(0)),
+                                        null);
+                if (delayMillis < 0) {
+                    return response;
+                }
+            } catch (RuntimeException ex) {
+                delayMillis = nextDelay(state, 0, null, ex);
+                if (delayMillis < 0) {
+                    throw ex;
+                }
+            }
+
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new HttpClientException(ex);
+            }
+        }
+    }
+
+    /**
+     * Executes the <code>attempt</code> until it succeeds, the back-off is scheduled on the <code>scheduler</code>.
+     *
+     * @param attempt
+     * @param scheduler
+     * @return
+     */
+    public CompletableFuture<HttpResponse> executeAsync(final Supplier<CompletionStage<HttpResponse>> attempt,
+                                                        final ScheduledExecutorService scheduler) {
+        BeanUtils.assertNonNull(scheduler, "scheduler must provide!");
+        budget.deposit();
+        final CompletableFuture<HttpResponse> promise = new CompletableFuture<>();
+        executeAsync(attempt, scheduler, new RetryState(), promise);
+        return promise;
+    }
+
+    /**
+     * @param attempt
+     * @param scheduler
+     * @param state
+     * @param promise
+     */
+    private void executeAsync(final Supplier<CompletionStage<HttpResponse>> attempt,
+                              final ScheduledExecutorService scheduler, final RetryState state,
+                              final CompletableFuture<HttpResponse> promise) {
+        CompletionStage<HttpResponse> completionStage;
+        try {
+            completionStage = attempt.get();
+        } catch (RuntimeException ex) {
+            completionStage = CompletableFuture.failedFuture(ex);
+        }
+
+        completionStage.whenComplete((httpResponse, throwable) -> {
+            if (promise.isDone()) {
+                // cancelled by the caller
+                return;
+            }
+
+            final long delayMillis;
+            if (BeanUtils.isNull(throwable)) {
+                final Header retryAfter = httpResponse.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                delayMillis = nextDelay(state, httpResponse.getStatusLine().getStatusCode(),
+                                        (BeanUtils.isNull(retryAfter) ? null : retryAfter.getValue()), null);
+            } else {
+                delayMillis = nextDelay(state, 0, null, throwable);
+            }
+            if (delayMillis < 0) {
+                if (BeanUtils.isNull(throwable)) {
+                    promise.complete(httpResponse);
+                } else {
+                    promise.completeExceptionally(unwrap(throwable));
+                }
+                return;
+            }
+
+            if (BeanUtils.isNotNull(httpResponse)) {
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
+            }
+            try {
+                scheduler.schedule(() -> executeAsync(attempt, scheduler, state, promise), delayMillis,
+                                   TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                promise.completeExceptionally(ex);
+            }
+        });
+    }
+
+    /**
+     * Returns the delay before the next attempt, <code>-1</code> when the outcome is final.
+     *
+     * @param state
+     * @param statusCode <code>0</code> when the attempt failed.
+     * @param retryAfter
+     * @param throwable
+     * @return
+     */
+    private long nextDelay(final RetryState state, final int statusCode, final String retryAfter,
+                           final Throwable throwable) {
+        if (BeanUtils.isNotNull(throwable)) {
+            if (!exceptionPredicate.test(unwrap(throwable))) {
+                metrics.retryEvent(clientName, "IGNORED_ERROR");
+                return -1;
+            }
+        } else if (!policy.isRetryableStatus(statusCode)) {
+            if (state.attempts > 1) {
+                metrics.retryEvent(clientName, "SUCCESS");
+            }
+            return -1;
+        }
+
+        if (state.attempts >= maxAttempts) {
+            metrics.retryEvent(clientName, "ERROR");
+            return -1;
+        }
+
+        final long retryAfterMillis = retryAfterMillis(retryAfter, System.currentTimeMillis());
+        if (retryAfterMillis > policy.getMaxRetryAfter().toMillis()) {
+            // the server is not coming back any time soon
+            metrics.retryEvent(clientName, "ERROR");
+            return -1;
+        }
+        if (!budget.tryAcquire()) {
+            metrics.retryEvent(clientName, "BUDGET_EXHAUSTED");
+            return -1;
+        }
+
+        state.attempts++;
+        metrics.retryEvent(clientName, "RETRY");
+        return Math.max(retryAfterMillis, backoff(state));
+    }
+
+    /**
+     * Returns the next decorrelated jitter delay of the call.
+     *
+     * @param state
+     * @return
+     */
+    private long backoff(final RetryState state) {
+        final long upperBound = Math.max(baseDelayMillis, state.delayMillis * 3);
+        state.delayMillis = Math.min(policy.getMaxDelay().toMillis(),
+                                     ThreadLocalRandom.current().nextLong(baseDelayMillis, upperBound + 1));
+        return state.delayMillis;
+    }
+
+    /**
+     * Returns the delay asked by a <code>Retry-After</code> header, either delay-seconds or an HTTP-date,
+     * <code>-1</code> when missing or invalid.
+     *
+     * @param retryAfter
+     * @param nowMillis
+     * @return
+     */
+    public static long retryAfterMillis(final String retryAfter, final long nowMillis) {
+        if (BeanUtils.isNull(retryAfter) || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+
+        final String value = retryAfter.trim();
+        try {
+            final long seconds = Long.parseLong(value);
+            return (seconds < 0 ? -1 : TimeUnit.SECONDS.toMillis(seconds));
+        } catch (NumberFormatException ex) {
+            final Date date = DateUtils.parseDate(value);
+            return (BeanUtils.isNull(date) ? -1 : Math.max(0, date.getTime() - nowMillis));
+        }
+    }
+
+    /**
+     * @param throwable
+     * @return
+     */
+    private static Throwable unwrap(final Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+            && BeanUtils.isNotNull(throwable.getCause())) {
+            return throwable.getCause();
+        }
+
+        return throwable;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(RetryEngine.class)
+            .add("clientName", clientName)
+            .add("maxAttempts", maxAttempts)
+            .add("baseDelayMillis", baseDelayMillis)
+            .add("policy", getPolicy())
+            .add("budget", getBudget())
+            .toString();
+    }
+
+    /**
+     * The attempts of one call, only touched by one attempt at a time.
+     */
+    private final class RetryState {
+
+        private int attempts = 1;
+        private long delayMillis = baseDelayMillis;
+    }
+}
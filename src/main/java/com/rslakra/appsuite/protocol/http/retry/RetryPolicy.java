@@ -0,0 +1,195 @@
+package com.rslakra.appsuite.protocol.http.retry;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Settings of the <code>RetryEngine</code> of a client, on top of the max attempts, the exception predicate and the
+ * base interval of its resilience4j <code>RetryConfig</code>.
+ * <p>
+ * Besides exceptions, the responses with a <code>retryableStatuses</code> status are retried, after their
+ * <code>Retry-After</code> if any. Every call earns <code>budgetRatio</code> of a retry, up to
+ * <code>budgetBurst</code> retries, so that retries never exceed that fraction of the traffic.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 5:20 PM
+ */
+public final class RetryPolicy {
+
+    public static final Set<Integer> DEFAULT_RETRYABLE_STATUSES = Collections.unmodifiableSet(
+        new TreeSet<>(Arrays.asList(429, 503)));
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_MAX_RETRY_AFTER = Duration.ofSeconds(30);
+    public static final double DEFAULT_BUDGET_RATIO = 0.2;
+    public static final int DEFAULT_BUDGET_BURST = 10;
+
+    private final Set<Integer> retryableStatuses;
+    private final Duration maxDelay;
+    private final Duration maxRetryAfter;
+    private final double budgetRatio;
+    private final int budgetBurst;
+
+    /**
+     * @param builder
+     */
+    private RetryPolicy(final RetryPolicyBuilder builder) {
+        this.retryableStatuses = builder.retryableStatuses;
+        this.maxDelay = builder.maxDelay;
+        this.maxRetryAfter = builder.maxRetryAfter;
+        this.budgetRatio = builder.budgetRatio;
+        this.budgetBurst = builder.budgetBurst;
+    }
+
+    /**
+     * @return
+     */
+    public Set<Integer> getRetryableStatuses() {
+        return retryableStatuses;
+    }
+
+    /**
+     * @param statusCode
+     * @return
+     */
+    public boolean isRetryableStatus(final int statusCode) {
+        return retryableStatuses.contains(statusCode);
+    }
+
+    /**
+     * Returns the cap of the jittered back-off.
+     *
+     * @return
+     */
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Returns the longest <code>Retry-After</code> honoured, a response asking for more is not retried.
+     *
+     * @return
+     */
+    public Duration getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    /**
+     * @return
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * @return
+     */
+    public int getBudgetBurst() {
+        return budgetBurst;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(RetryPolicy.class)
+            .add("retryableStatuses", getRetryableStatuses())
+            .add("maxDelay", getMaxDelay())
+            .add("maxRetryAfter", getMaxRetryAfter())
+            .add("budgetRatio", getBudgetRatio())
+            .add("budgetBurst", getBudgetBurst())
+            .toString();
+    }
+
+    /**
+     * @return
+     */
+    public static RetryPolicy ofDefaults() {
+        return newBuilder().build();
+    }
+
+    /**
+     * @return
+     */
+    public static RetryPolicyBuilder newBuilder() {
+        return new RetryPolicyBuilder();
+    }
+
+    /**
+     *
+     */
+    public static class RetryPolicyBuilder {
+
+        private Set<Integer> retryableStatuses = DEFAULT_RETRYABLE_STATUSES;
+        private Duration maxDelay = DEFAULT_MAX_DELAY;
+        private Duration maxRetryAfter = DEFAULT_MAX_RETRY_AFTER;
+        private double budgetRatio = DEFAULT_BUDGET_RATIO;
+        private int budgetBurst = DEFAULT_BUDGET_BURST;
+
+        private RetryPolicyBuilder() {
+        }
+
+        /**
+         * The statuses retried like failures, none turns off the retry of responses.
+         *
+         * @param retryableStatuses
+         * @return
+         */
+        public RetryPolicyBuilder setRetryableStatuses(final Integer... retryableStatuses) {
+            this.retryableStatuses = Collections.unmodifiableSet(new TreeSet<>(Arrays.asList(retryableStatuses)));
+            return this;
+        }
+
+        /**
+         * @param maxDelay
+         * @return
+         */
+        public RetryPolicyBuilder setMaxDelay(final Duration maxDelay) {
+            BeanUtils.assertNonNull(maxDelay, "maxDelay must provide!");
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * @param maxRetryAfter
+         * @return
+         */
+        public RetryPolicyBuilder setMaxRetryAfter(final Duration maxRetryAfter) {
+            BeanUtils.assertNonNull(maxRetryAfter, "maxRetryAfter must provide!");
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        /**
+         * @param budgetRatio
+         * @param budgetBurst
+         * @return
+         */
+        public RetryPolicyBuilder setBudget(final double budgetRatio, final int budgetBurst) {
+            this.budgetRatio = budgetRatio;
+            this.budgetBurst = budgetBurst;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public RetryPolicy build() {
+            if (maxDelay.isNegative() || maxRetryAfter.isNegative()) {
+                throw new HttpClientException("maxDelay and maxRetryAfter must not be negative!");
+            }
+            if (budgetRatio <= 0 || budgetRatio > 1 || budgetBurst <= 0) {
+                throw new HttpClientException("budgetRatio must be between 0 and 1 and budgetBurst positive!");
+            }
+
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -1,26 +1,40 @@
 package com.rslakra.appsuite.protocol.http.ssl;
 
 
+import com.rslakra.appsuite.core.ToString;
+
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
+import javax.security.auth.x500.X500Principal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.Principal;
 import java.security.cert.CertPath;
 import java.security.cert.CertPathValidator;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.PKIXParameters;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.List;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A custom X509TrustManager implementation that trusts a specified server certificate in addition to those that are
  * in the system TrustStore. Also handles an out-of-order certificate chain, as is often produced by Apache's
  * mod_ssl
+ * <p>
+ * The fingerprints (SHA-256 of the chain and the authentication type) of the validated chains are cached for a TTL,
+ * bounded by the expiry of the chain, so that the repeat handshakes to a server skip the PKIX validation. The PKIX
+ * parameters of the trust store are built once, <code>reload()</code> replaces the trust store and drops the cache.
  *
  * @author Rohtash Lakra
  * @see "http://chariotsolutions.com/blog/post/https-with-client-certificates-on"
@@ -29,11 +43,62 @@ import java.util.List;
  */
 public final class CustomX509TrustManager extends AbstractX509TrustManager implements X509TrustManager {
 
+    /* DEFAULT_CACHE_TTL */
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(10);
+
+    /* DEFAULT_MAX_CACHED_CHAINS */
+    public static final int DEFAULT_MAX_CACHED_CHAINS = 1024;
+
+    /* certificateFactory and certPathValidator, the SUN ones are stateless */
+    private final CertificateFactory certificateFactory;
+    private final CertPathValidator certPathValidator;
+
+    /* cacheTtlMillis */
+    private final long cacheTtlMillis;
+
+    /* validatedChains, the expiry time of the chain fingerprints, LRU */
+    private final Map<String, Long> validatedChains;
+
+    /* cacheHits and cacheMisses */
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
     /* originalX509TrustManager */
-    private final X509TrustManager originalX509TrustManager;
+    private volatile X509TrustManager originalX509TrustManager;
 
     /* trustStore */
-    private final KeyStore trustStore;
+    private volatile KeyStore trustStore;
+
+    /* pkixParameters, read only once built */
+    private volatile PKIXParameters pkixParameters;
+
+    /* generation, incremented by every reload, so that a validation against the old trust store isn't cached */
+    private long generation;
+
+    /**
+     * @param trustStore      A KeyStore containing the server certificate that should be trusted
+     * @param cacheTtl        how long a validated chain is trusted without validation, zero turns the cache off.
+     * @param maxCachedChains
+     * @throws NoSuchAlgorithmException
+     * @throws KeyStoreException
+     */
+    public CustomX509TrustManager(KeyStore trustStore, Duration cacheTtl, int maxCachedChains)
+        throws NoSuchAlgorithmException, KeyStoreException {
+        try {
+            this.certificateFactory = CertificateFactory.getInstance("X509");
+        } catch (CertificateException ex) {
+            throw new KeyStoreException(ex);
+        }
+        this.certPathValidator = CertPathValidator.getInstance("PKIX");
+        this.cacheTtlMillis = cacheTtl.toMillis();
+        this.validatedChains = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+                return size() > maxCachedChains;
+            }
+        };
+        reload(trustStore);
+    }
 
     /**
      * @param trustStore A KeyStore containing the server certificate that should be trusted
@@ -41,13 +106,68 @@ public final class CustomX509TrustManager extends AbstractX509TrustManager imple
      * @throws KeyStoreException
      */
     public CustomX509TrustManager(KeyStore trustStore) throws NoSuchAlgorithmException, KeyStoreException {
-        this.trustStore = trustStore;
+        this(trustStore, DEFAULT_CACHE_TTL, DEFAULT_MAX_CACHED_CHAINS);
+    }
 
+    /**
+     * Replaces the trust store, reloads the system TrustStore and drops the validated chains.
+     *
+     * @param trustStore
+     * @throws NoSuchAlgorithmException
+     * @throws KeyStoreException
+     */
+    public void reload(KeyStore trustStore) throws NoSuchAlgorithmException, KeyStoreException {
         TrustManagerFactory originalTrustManagerFactory = TrustManagerFactory.getInstance("X509");
         originalTrustManagerFactory.init((KeyStore) null);
 
         TrustManager[] originalTrustManagers = originalTrustManagerFactory.getTrustManagers();
-        originalX509TrustManager = (X509TrustManager) originalTrustManagers[0];
+        PKIXParameters params = null;
+        if (trustStore != null) {
+            try {
+                params = new PKIXParameters(trustStore);
+                params.setRevocationEnabled(false);
+            } catch (GeneralSecurityException ex) {
+                // no trusted certificate, only the system TrustStore applies
+            }
+        }
+
+        synchronized (validatedChains) {
+            this.originalX509TrustManager = (X509TrustManager) originalTrustManagers[0];
+            this.trustStore = trustStore;
+            this.pkixParameters = params;
+            generation++;
+            validatedChains.clear();
+        }
+    }
+
+    /**
+     * @return
+     */
+    public KeyStore getTrustStore() {
+        return trustStore;
+    }
+
+    /**
+     * @return
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return
+     */
+    public int getCacheSize() {
+        synchronized (validatedChains) {
+            return validatedChains.size();
+        }
     }
 
     /**
@@ -79,22 +199,68 @@ public final class CustomX509TrustManager extends AbstractX509TrustManager imple
      * @throws java.security.cert.CertificateException
      */
     public void checkServerTrusted(X509Certificate[] chain, String authType) throws java.security.cert.CertificateException {
+        final String fingerprint = (cacheTtlMillis > 0 ? fingerprint(chain, authType) : null);
+        final long chainGeneration;
+        synchronized (validatedChains) {
+            if (fingerprint != null) {
+                final Long expiryTime = validatedChains.get(fingerprint);
+                if (expiryTime != null && expiryTime > System.currentTimeMillis()) {
+                    cacheHits.increment();
+                    return;
+                }
+            }
+            chainGeneration = generation;
+        }
+        cacheMisses.increment();
+
         try {
             originalX509TrustManager.checkServerTrusted(chain, authType);
         } catch (CertificateException originalException) {
+            final PKIXParameters params = pkixParameters;
+            if (params == null) {
+                throw originalException;
+            }
             try {
                 X509Certificate[] reorderedChain = reorderCertificateChain(chain);
-                CertPathValidator validator = CertPathValidator.getInstance("PKIX");
-                CertificateFactory factory = CertificateFactory.getInstance("X509");
-                CertPath certPath = factory.generateCertPath(Arrays.asList(reorderedChain));
-                PKIXParameters params = new PKIXParameters(trustStore);
-                params.setRevocationEnabled(false);
-                validator.validate(certPath, params);
+                CertPath certPath = certificateFactory.generateCertPath(Arrays.asList(reorderedChain));
+                certPathValidator.validate(certPath, params);
             } catch (Exception ex) {
                 throw originalException;
             }
         }
 
+        if (fingerprint != null) {
+            long expiryTime = System.currentTimeMillis() + cacheTtlMillis;
+            for (X509Certificate certificate : chain) {
+                expiryTime = Math.min(expiryTime, certificate.getNotAfter().getTime());
+            }
+            synchronized (validatedChains) {
+                if (chainGeneration == generation) {
+                    validatedChains.put(fingerprint, expiryTime);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the SHA-256 of the <code>chain</code> and the <code>authType</code>.
+     *
+     * @param chain
+     * @param authType
+     * @return
+     * @throws CertificateException
+     */
+    private static String fingerprint(X509Certificate[] chain, String authType) throws CertificateException {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(String.valueOf(authType).getBytes(StandardCharsets.UTF_8));
+            for (X509Certificate certificate : chain) {
+                messageDigest.update(certificate.getEncoded());
+            }
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new CertificateException(ex);
+        }
     }
 
     /**
@@ -106,14 +272,22 @@ public final class CustomX509TrustManager extends AbstractX509TrustManager imple
      */
     private X509Certificate[] reorderCertificateChain(X509Certificate[] chain) {
         X509Certificate[] reorderedChain = new X509Certificate[chain.length];
-        List<X509Certificate> certificates = Arrays.asList(chain);
+        // the certificates by subject and by issuer, self-signed ones sign nothing else
+        Map<X500Principal, X509Certificate> subjects = new HashMap<>();
+        Map<X500Principal, X509Certificate> issuers = new HashMap<>();
+        for (X509Certificate cert : chain) {
+            subjects.putIfAbsent(cert.getSubjectX500Principal(), cert);
+            if (!cert.getIssuerX500Principal().equals(cert.getSubjectX500Principal())) {
+                issuers.putIfAbsent(cert.getIssuerX500Principal(), cert);
+            }
+        }
 
         int position = chain.length - 1;
-        X509Certificate rootCert = findRootCert(certificates);
+        X509Certificate rootCert = findRootCert(chain, subjects);
         reorderedChain[position] = rootCert;
 
         X509Certificate cert = rootCert;
-        while ((cert = findSignedCert(cert, certificates)) != null && position > 0) {
+        while (cert != null && (cert = issuers.get(cert.getSubjectX500Principal())) != null && position > 0) {
             reorderedChain[--position] = cert;
         }
 
@@ -124,59 +298,32 @@ public final class CustomX509TrustManager extends AbstractX509TrustManager imple
      * A helper method for certificate re-ordering. Finds the root certificate in a possibly out-of-order
      * certificate chain.
      *
-     * @param certificates the certificate change, possibly out-of-order
+     * @param chain    the certificate chain, possibly out-of-order
+     * @param subjects the certificates of the chain by subject
      * @return the root certificate, if any, that was found in the list of certificates
      */
-    private X509Certificate findRootCert(List<X509Certificate> certificates) {
-        X509Certificate rootCert = null;
-
-        for (X509Certificate cert : certificates) {
-            X509Certificate signer = findSigner(cert, certificates);
+    private X509Certificate findRootCert(X509Certificate[] chain, Map<X500Principal, X509Certificate> subjects) {
+        for (X509Certificate cert : chain) {
+            X509Certificate signer = subjects.get(cert.getIssuerX500Principal());
             // no signer present, or self-signed
             if (signer == null || signer.equals(cert)) {
-                rootCert = cert;
-                break;
-            }
-        }
-
-        return rootCert;
-    }
-
-    /**
-     * A helper method for certificate re-ordering. Finds the first certificate in the list of certificates that is
-     * signed by the sigingCert.
-     */
-    private X509Certificate findSignedCert(X509Certificate signingCert, List<X509Certificate> certificates) {
-        X509Certificate signed = null;
-
-        for (X509Certificate cert : certificates) {
-            Principal signingCertSubjectDN = signingCert.getSubjectDN();
-            Principal certIssuerDN = cert.getIssuerDN();
-            if (certIssuerDN.equals(signingCertSubjectDN) && !cert.equals(signingCert)) {
-                signed = cert;
-                break;
+                return cert;
             }
         }
 
-        return signed;
+        return null;
     }
 
     /**
-     * A helper method for certificate re-ordering. Finds the certificate in the list of certificates that signed
-     * the signedCert.
+     * @return
      */
-    private X509Certificate findSigner(X509Certificate signedCert, List<X509Certificate> certificates) {
-        X509Certificate signer = null;
-
-        for (X509Certificate cert : certificates) {
-            Principal certSubjectDN = cert.getSubjectDN();
-            Principal issuerDN = signedCert.getIssuerDN();
-            if (certSubjectDN.equals(issuerDN)) {
-                signer = cert;
-                break;
-            }
-        }
-
-        return signer;
+    @Override
+    public String toString() {
+        return ToString.of(CustomX509TrustManager.class)
+            .add("cacheTtlMillis", cacheTtlMillis)
+            .add("cacheSize", getCacheSize())
+            .add("cacheHits", getCacheHits())
+            .add("cacheMisses", getCacheMisses())
+            .toString();
     }
 }
@@ -0,0 +1,372 @@
+package com.rslakra.appsuite.protocol.http.ssl;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+/**
+ * Owns the <code>SSLContext</code> of a mutual TLS client and swaps its key and trust material when the files of the
+ * <code>MutualTlsConfig</code> change, without rebuilding the context or the connection pools.
+ * <p>
+ * The directories of the files are watched rather than the files, so the atomic renames and the symlink swaps of the
+ * mounted secrets are seen too. Every change is reloaded after the quiet period, and swapped only when the certificates
+ * differ. The new material applies to the handshakes started after the swap, the pooled connections keep serving with
+ * theirs until they are closed. A material failing to load (e.g. half written) keeps the current one.
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 1:10 AM
+ */
+public final class KeyMaterialReloader implements Closeable {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyMaterialReloader.class);
+
+    private final String clientName;
+    private final MutualTlsConfig mutualTlsConfig;
+    private final ReloadingX509KeyManager keyManager;
+    private final ReloadingX509TrustManager trustManager;
+    private final SSLContext sslContext;
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+    private final WatchService watchService;
+    private final Thread watcherThread;
+    private volatile String fingerprint;
+    private volatile boolean closed;
+
+    /**
+     * @param clientName
+     * @param mutualTlsConfig
+     * @param sessionConfig
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    public KeyMaterialReloader(final String clientName, final MutualTlsConfig mutualTlsConfig,
+                               final SSLSessionConfig sessionConfig) throws GeneralSecurityException, IOException {
+        BeanUtils.assertNonNull(mutualTlsConfig, "mutualTlsConfig must provide!");
+        BeanUtils.assertNonNull(sessionConfig, "sessionConfig must provide!");
+        this.clientName = clientName;
+        this.mutualTlsConfig = mutualTlsConfig;
+        final KeyStore keyStore = loadKeyStore();
+        final KeyStore trustStore = loadTrustStore();
+        this.keyManager = new ReloadingX509KeyManager(newKeyManager(keyStore));
+        this.trustManager = new ReloadingX509TrustManager(newTrustManager(trustStore));
+        this.fingerprint = fingerprint(keyStore, trustStore);
+        this.sslContext = SSLFactory.INSTANCE.newSSLContext(new KeyManager[]{keyManager},
+                                                            new TrustManager[]{trustManager}, sessionConfig);
+        if (mutualTlsConfig.isWatchFiles()) {
+            this.watchService = mutualTlsConfig.getKeyStoreFile().getFileSystem().newWatchService();
+            for (Path directory : getWatchedDirectories()) {
+                register(directory);
+            }
+            this.watcherThread = new Thread(this::watch, "key-material-reloader-" + clientName);
+            this.watcherThread.setDaemon(true);
+            this.watcherThread.start();
+        } else {
+            this.watchService = null;
+            this.watcherThread = null;
+        }
+    }
+
+    /**
+     * @return
+     */
+    public SSLContext getSSLContext() {
+        return sslContext;
+    }
+
+    /**
+     * Returns the key manager of the <code>SSLContext</code>, which delegates to the last material loaded.
+     *
+     * @return
+     */
+    X509ExtendedKeyManager getKeyManager() {
+        return keyManager;
+    }
+
+    /**
+     * @return
+     */
+    public MutualTlsConfig getMutualTlsConfig() {
+        return mutualTlsConfig;
+    }
+
+    /**
+     * Returns the number of times the material was swapped.
+     *
+     * @return
+     */
+    public long getReloads() {
+        return reloads.sum();
+    }
+
+    /**
+     * @return
+     */
+    public long getReloadFailures() {
+        return reloadFailures.sum();
+    }
+
+    /**
+     * Returns true while the files are watched, i.e. not after a watched directory was deleted.
+     *
+     * @return
+     */
+    public boolean isWatching() {
+        return (BeanUtils.isNotNull(watcherThread) && watcherThread.isAlive());
+    }
+
+    /**
+     * Loads the files and swaps the material if the certificates changed. The cached client sessions are invalidated,
+     * so the next connections do a full handshake presenting the new certificate.
+     *
+     * @return true if the material was swapped
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    public synchronized boolean reload() throws GeneralSecurityException, IOException {
+        final KeyStore keyStore;
+        final KeyStore trustStore;
+        final X509ExtendedKeyManager newKeyManager;
+        final X509ExtendedTrustManager newTrustManager;
+        try {
+            keyStore = loadKeyStore();
+            trustStore = loadTrustStore();
+            newKeyManager = newKeyManager(keyStore);
+            newTrustManager = newTrustManager(trustStore);
+        } catch (GeneralSecurityException | IOException ex) {
+            reloadFailures.increment();
+            throw ex;
+        }
+
+        final String newFingerprint = fingerprint(keyStore, trustStore);
+        if (newFingerprint.equals(fingerprint)) {
+            LOGGER.debug("reload() - unchanged material for clientName={}", clientName);
+            return false;
+        }
+
+        keyManager.swap(newKeyManager);
+        trustManager.swap(newTrustManager);
+        fingerprint = newFingerprint;
+        final SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        for (byte[] sessionId : Collections.list(sessionContext.getIds())) {
+            final SSLSession sslSession = sessionContext.getSession(sessionId);
+            if (BeanUtils.isNotNull(sslSession)) {
+                sslSession.invalidate();
+            }
+        }
+        reloads.increment();
+        LOGGER.info("reload() - swapped key material for clientName={}, mutualTlsConfig={}", clientName,
+                    mutualTlsConfig);
+        return true;
+    }
+
+    /**
+     * Reloads the material after each change of the watched directories, once they stay quiet. It stops when a
+     * directory can't be watched anymore, the material is then only reloaded by <code>reload()</code>.
+     */
+    private void watch() {
+        final long quietMillis = mutualTlsConfig.getQuietPeriod().toMillis();
+        try {
+            while (!closed) {
+                pollEvents(watchService.take());
+                WatchKey watchKey;
+                while (BeanUtils.isNotNull(watchKey = watchService.poll(quietMillis, TimeUnit.MILLISECONDS))) {
+                    pollEvents(watchKey);
+                }
+
+                try {
+                    reload();
+                } catch (Exception ex) {
+                    LOGGER.warn("watch() - failed to reload key material for clientName={}, keeping the current one",
+                                clientName, ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // closed
+        } catch (IOException ex) {
+            LOGGER.warn("watch() - stopped watching the key material of clientName={}, mutualTlsConfig={}",
+                        clientName, mutualTlsConfig, ex);
+            try {
+                watchService.close();
+            } catch (IOException closeEx) {
+                LOGGER.debug("watch() - failed to close the watchService for clientName={}", clientName, closeEx);
+            }
+        }
+    }
+
+    /**
+     * Registers the directory of the <code>watchKey</code> again when the key is no longer valid, i.e. the directory
+     * was deleted and created again.
+     *
+     * @param watchKey
+     * @throws IOException if the directory can't be watched anymore
+     */
+    private void pollEvents(final WatchKey watchKey) throws IOException {
+        for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
+            LOGGER.trace("pollEvents() - kind={}, context={}", watchEvent.kind(), watchEvent.context());
+        }
+        if (!watchKey.reset()) {
+            final Path directory = (Path) watchKey.watchable();
+            LOGGER.debug("pollEvents() - registering the directory={} again", directory);
+            register(directory);
+        }
+    }
+
+    /**
+     * @param directory
+     * @throws IOException
+     */
+    private void register(final Path directory) throws IOException {
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                           StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * @return
+     */
+    private Set<Path> getWatchedDirectories() {
+        final Set<Path> directories = new LinkedHashSet<>();
+        directories.add(mutualTlsConfig.getKeyStoreFile().toAbsolutePath().getParent());
+        if (BeanUtils.isNotNull(mutualTlsConfig.getTrustStoreFile())) {
+            directories.add(mutualTlsConfig.getTrustStoreFile().toAbsolutePath().getParent());
+        }
+
+        return directories;
+    }
+
+    /**
+     * @return
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    private KeyStore loadKeyStore() throws GeneralSecurityException, IOException {
+        final KeyStore keyStore = KeyStore.getInstance(mutualTlsConfig.getKeyStoreType());
+        try (InputStream inputStream = Files.newInputStream(mutualTlsConfig.getKeyStoreFile())) {
+            keyStore.load(inputStream, mutualTlsConfig.getKeyStorePassword());
+        }
+
+        return keyStore;
+    }
+
+    /**
+     * @return
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    private KeyStore loadTrustStore() throws GeneralSecurityException, IOException {
+        if (BeanUtils.isNull(mutualTlsConfig.getTrustStoreFile())) {
+            return null;
+        }
+
+        try (InputStream inputStream = Files.newInputStream(mutualTlsConfig.getTrustStoreFile())) {
+            return SSLFactory.INSTANCE.loadPEMTrustStore(inputStream);
+        }
+    }
+
+    /**
+     * @param keyStore
+     * @return
+     * @throws GeneralSecurityException
+     */
+    private X509ExtendedKeyManager newKeyManager(final KeyStore keyStore) throws GeneralSecurityException {
+        final KeyManagerFactory keyFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyFactory.init(keyStore, mutualTlsConfig.getKeyStorePassword());
+        for (KeyManager keyManager : keyFactory.getKeyManagers()) {
+            if (keyManager instanceof X509ExtendedKeyManager) {
+                return (X509ExtendedKeyManager) keyManager;
+            }
+        }
+
+        throw new GeneralSecurityException("No X509ExtendedKeyManager found!");
+    }
+
+    /**
+     * @param trustStore
+     * @return
+     * @throws GeneralSecurityException
+     */
+    private static X509ExtendedTrustManager newTrustManager(final KeyStore trustStore)
+        throws GeneralSecurityException {
+        final TrustManagerFactory trustFactory = TrustManagerFactory.getInstance(
+            TrustManagerFactory.getDefaultAlgorithm());
+        trustFactory.init(trustStore);
+        for (TrustManager trustManager : trustFactory.getTrustManagers()) {
+            if (trustManager instanceof X509ExtendedTrustManager) {
+                return (X509ExtendedTrustManager) trustManager;
+            }
+        }
+
+        throw new GeneralSecurityException("No X509ExtendedTrustManager found!");
+    }
+
+    /**
+     * @param keyStore
+     * @param trustStore
+     * @return
+     * @throws GeneralSecurityException
+     */
+    private static String fingerprint(final KeyStore keyStore, final KeyStore trustStore)
+        throws GeneralSecurityException {
+        return SSLFactory.fingerprint(keyStore, "none") + "/" + SSLFactory.fingerprint(trustStore, "default");
+    }
+
+    /**
+     * Stops watching the files, the <code>SSLContext</code> keeps the last material.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (BeanUtils.isNotNull(watchService)) {
+            try {
+                watchService.close();
+            } catch (IOException ex) {
+                LOGGER.warn("close() - failed to close the watchService for clientName={}", clientName, ex);
+            }
+        }
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(KeyMaterialReloader.class)
+            .add("clientName", clientName)
+            .add("mutualTlsConfig", getMutualTlsConfig())
+            .add("reloads", getReloads())
+            .add("reloadFailures", getReloadFailures())
+            .add("watching", isWatching())
+            .toString();
+    }
+}
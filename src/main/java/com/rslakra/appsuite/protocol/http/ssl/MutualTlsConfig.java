@@ -0,0 +1,202 @@
+package com.rslakra.appsuite.protocol.http.ssl;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The key and trust material of a mutual TLS client, loaded from files and reloaded by the
+ * <code>KeyMaterialReloader</code> when they change on disk (e.g. a certificate rotated by a sidecar or a mounted
+ * secret).
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 1:00 AM
+ */
+public final class MutualTlsConfig {
+
+    public static final String DEFAULT_KEY_STORE_TYPE = "PKCS12";
+    public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofSeconds(1);
+
+    private final Path keyStoreFile;
+    private final char[] keyStorePassword;
+    private final String keyStoreType;
+    private final Path trustStoreFile;
+    private final boolean watchFiles;
+    private final Duration quietPeriod;
+
+    /**
+     * @param builder
+     */
+    private MutualTlsConfig(final MutualTlsConfigBuilder builder) {
+        this.keyStoreFile = builder.keyStoreFile;
+        this.keyStorePassword = builder.keyStorePassword;
+        this.keyStoreType = builder.keyStoreType;
+        this.trustStoreFile = builder.trustStoreFile;
+        this.watchFiles = builder.watchFiles;
+        this.quietPeriod = builder.quietPeriod;
+    }
+
+    /**
+     * Returns the key store file, with the private key and the certificate chain of the client.
+     *
+     * @return
+     */
+    public Path getKeyStoreFile() {
+        return keyStoreFile;
+    }
+
+    /**
+     * @return
+     */
+    public char[] getKeyStorePassword() {
+        return keyStorePassword;
+    }
+
+    /**
+     * @return
+     */
+    public String getKeyStoreType() {
+        return keyStoreType;
+    }
+
+    /**
+     * Returns the PEM bundle of the CAs trusted to sign the server certificates, null for the JDK trust store.
+     *
+     * @return
+     */
+    public Path getTrustStoreFile() {
+        return trustStoreFile;
+    }
+
+    /**
+     * @return
+     */
+    public boolean isWatchFiles() {
+        return watchFiles;
+    }
+
+    /**
+     * Returns the time the files must stay unchanged before they are reloaded, as a key and its certificate are rarely
+     * written at once.
+     *
+     * @return
+     */
+    public Duration getQuietPeriod() {
+        return quietPeriod;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(MutualTlsConfig.class)
+            .add("keyStoreFile", getKeyStoreFile())
+            .add("keyStoreType", getKeyStoreType())
+            .add("trustStoreFile", getTrustStoreFile())
+            .add("watchFiles", isWatchFiles())
+            .add("quietPeriod", getQuietPeriod())
+            .toString();
+    }
+
+    /**
+     * @return
+     */
+    public static MutualTlsConfigBuilder newBuilder() {
+        return new MutualTlsConfigBuilder();
+    }
+
+    /**
+     *
+     */
+    public static class MutualTlsConfigBuilder {
+
+        private Path keyStoreFile;
+        private char[] keyStorePassword = new char[0];
+        private String keyStoreType = DEFAULT_KEY_STORE_TYPE;
+        private Path trustStoreFile;
+        private boolean watchFiles = true;
+        private Duration quietPeriod = DEFAULT_QUIET_PERIOD;
+
+        private MutualTlsConfigBuilder() {
+        }
+
+        /**
+         * @param keyStoreFile
+         * @return
+         */
+        public MutualTlsConfigBuilder setKeyStoreFile(final Path keyStoreFile) {
+            this.keyStoreFile = keyStoreFile;
+            return this;
+        }
+
+        /**
+         * @param keyStorePassword
+         * @return
+         */
+        public MutualTlsConfigBuilder setKeyStorePassword(final char[] keyStorePassword) {
+            this.keyStorePassword = keyStorePassword;
+            return this;
+        }
+
+        /**
+         * @param keyStoreType
+         * @return
+         */
+        public MutualTlsConfigBuilder setKeyStoreType(final String keyStoreType) {
+            this.keyStoreType = keyStoreType;
+            return this;
+        }
+
+        /**
+         * @param trustStoreFile
+         * @return
+         */
+        public MutualTlsConfigBuilder setTrustStoreFile(final Path trustStoreFile) {
+            this.trustStoreFile = trustStoreFile;
+            return this;
+        }
+
+        /**
+         * The files are then reloaded only with <code>KeyMaterialReloader.reload()</code>.
+         *
+         * @return
+         */
+        public MutualTlsConfigBuilder turnOffWatching() {
+            this.watchFiles = false;
+            return this;
+        }
+
+        /**
+         * @param quietPeriod
+         * @return
+         */
+        public MutualTlsConfigBuilder setQuietPeriod(final Duration quietPeriod) {
+            this.quietPeriod = quietPeriod;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public MutualTlsConfig build() {
+            if (BeanUtils.isNull(keyStoreFile)) {
+                throw new HttpClientException("keyStoreFile must provide!");
+            }
+            if (BeanUtils.isNull(keyStorePassword)) {
+                throw new HttpClientException("keyStorePassword must provide!");
+            }
+            if (BeanUtils.isEmpty(keyStoreType)) {
+                throw new HttpClientException("keyStoreType must provide!");
+            }
+            if (BeanUtils.isNull(quietPeriod) || quietPeriod.isNegative()) {
+                throw new HttpClientException("quietPeriod must not be negative!");
+            }
+
+            return new MutualTlsConfig(this);
+        }
+    }
+}
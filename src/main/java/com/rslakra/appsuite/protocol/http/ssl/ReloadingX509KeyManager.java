@@ -0,0 +1,121 @@
+package com.rslakra.appsuite.protocol.http.ssl;
+
+import com.rslakra.appsuite.core.BeanUtils;
+
+import java.net.Socket;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+
+/**
+ * Key manager delegating to a swappable one, the handshakes started after a <code>swap</code> present the new key and
+ * certificate chain while the established connections keep theirs.
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 12:50 AM
+ */
+public class ReloadingX509KeyManager extends X509ExtendedKeyManager {
+
+    private volatile X509ExtendedKeyManager delegate;
+
+    /**
+     * @param delegate
+     */
+    public ReloadingX509KeyManager(final X509ExtendedKeyManager delegate) {
+        BeanUtils.assertNonNull(delegate, "delegate must provide!");
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param delegate
+     */
+    public void swap(final X509ExtendedKeyManager delegate) {
+        BeanUtils.assertNonNull(delegate, "delegate must provide!");
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param keyType
+     * @param issuers
+     * @return
+     */
+    @Override
+    public String[] getClientAliases(final String keyType, final Principal[] issuers) {
+        return delegate.getClientAliases(keyType, issuers);
+    }
+
+    /**
+     * @param keyType
+     * @param issuers
+     * @param socket
+     * @return
+     */
+    @Override
+    public String chooseClientAlias(final String[] keyType, final Principal[] issuers, final Socket socket) {
+        return delegate.chooseClientAlias(keyType, issuers, socket);
+    }
+
+    /**
+     * @param keyType
+     * @param issuers
+     * @param engine
+     * @return
+     */
+    @Override
+    public String chooseEngineClientAlias(final String[] keyType, final Principal[] issuers, final SSLEngine engine) {
+        return delegate.chooseEngineClientAlias(keyType, issuers, engine);
+    }
+
+    /**
+     * @param keyType
+     * @param issuers
+     * @return
+     */
+    @Override
+    public String[] getServerAliases(final String keyType, final Principal[] issuers) {
+        return delegate.getServerAliases(keyType, issuers);
+    }
+
+    /**
+     * @param keyType
+     * @param issuers
+     * @param socket
+     * @return
+     */
+    @Override
+    public String chooseServerAlias(final String keyType, final Principal[] issuers, final Socket socket) {
+        return delegate.chooseServerAlias(keyType, issuers, socket);
+    }
+
+    /**
+     * @param keyType
+     * @param issuers
+     * @param engine
+     * @return
+     */
+    @Override
+    public String chooseEngineServerAlias(final String keyType, final Principal[] issuers, final SSLEngine engine) {
+        return delegate.chooseEngineServerAlias(keyType, issuers, engine);
+    }
+
+    /**
+     * @param alias
+     * @return
+     */
+    @Override
+    public X509Certificate[] getCertificateChain(final String alias) {
+        return delegate.getCertificateChain(alias);
+    }
+
+    /**
+     * @param alias
+     * @return
+     */
+    @Override
+    public PrivateKey getPrivateKey(final String alias) {
+        return delegate.getPrivateKey(alias);
+    }
+}
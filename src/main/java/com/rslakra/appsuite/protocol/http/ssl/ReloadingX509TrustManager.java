@@ -0,0 +1,114 @@
+package com.rslakra.appsuite.protocol.http.ssl;
+
+import com.rslakra.appsuite.core.BeanUtils;
+
+import java.net.Socket;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+/**
+ * Trust manager delegating to a swappable one, the handshakes started after a <code>swap</code> verify the peers
+ * against the new trust material while the established connections keep serving.
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 12:55 AM
+ */
+public class ReloadingX509TrustManager extends X509ExtendedTrustManager {
+
+    private volatile X509ExtendedTrustManager delegate;
+
+    /**
+     * @param delegate
+     */
+    public ReloadingX509TrustManager(final X509ExtendedTrustManager delegate) {
+        BeanUtils.assertNonNull(delegate, "delegate must provide!");
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param delegate
+     */
+    public void swap(final X509ExtendedTrustManager delegate) {
+        BeanUtils.assertNonNull(delegate, "delegate must provide!");
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param chain
+     * @param authType
+     * @throws CertificateException
+     */
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    /**
+     * @param chain
+     * @param authType
+     * @param socket
+     * @throws CertificateException
+     */
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType, final Socket socket)
+        throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, socket);
+    }
+
+    /**
+     * @param chain
+     * @param authType
+     * @param engine
+     * @throws CertificateException
+     */
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine)
+        throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, engine);
+    }
+
+    /**
+     * @param chain
+     * @param authType
+     * @throws CertificateException
+     */
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    /**
+     * @param chain
+     * @param authType
+     * @param socket
+     * @throws CertificateException
+     */
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType, final Socket socket)
+        throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, socket);
+    }
+
+    /**
+     * @param chain
+     * @param authType
+     * @param engine
+     * @throws CertificateException
+     */
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine)
+        throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, engine);
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+}
@@ -1,13 +1,17 @@
 package com.rslakra.appsuite.protocol.http.ssl;
 
+import com.rslakra.appsuite.core.BeanUtils;
 import com.rslakra.appsuite.core.IOUtils;
 import com.rslakra.appsuite.core.security.GuardUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
@@ -18,14 +22,29 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Creates the generic SSL factory.
@@ -53,6 +72,21 @@ public enum SSLFactory {
     /* SUN_X509 */
     public static final String SUN_X509 = "SunX509";
 
+
+    /* MAX_CACHED_SSL_CONTEXTS */
+    public static final int MAX_CACHED_SSL_CONTEXTS = 32;
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(SSLFactory.class);
+
+    /* sslContexts, keyed by the session settings and the fingerprints of the key and trust stores, LRU */
+    private final Map<String, SSLContext> sslContexts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, SSLContext> eldest) {
+            return size() > MAX_CACHED_SSL_CONTEXTS;
+        }
+    };
+
     /* trustAllSSLSocketFactory */
     private SSLSocketFactory trustAllSSLSocketFactory;
 
@@ -108,6 +142,215 @@ public enum SSLFactory {
         return getSSLContext(tlsVersion, null, trustManagers, secureRandom);
     }
 
+    /**
+     * Returns the cached SSL Context of the key and trust stores, built once per protocol, session settings and
+     * content of the stores. The clients sharing a context share its session cache, so their new connections resume
+     * the TLS sessions instead of a full handshake.
+     *
+     * @param keyStore      the client keys, <code>null</code> for none.
+     * @param keyPassword
+     * @param trustStore    <code>null</code> for the default trust store of the JDK.
+     * @param sessionConfig
+     * @return
+     * @throws GeneralSecurityException
+     */
+    public SSLContext getSSLContext(final KeyStore keyStore, final char[] keyPassword, final KeyStore trustStore,
+                                    final SSLSessionConfig sessionConfig) throws GeneralSecurityException {
+        BeanUtils.assertNonNull(sessionConfig, "sessionConfig must provide!");
+        // a context of the keys is only shared with the callers of their password
+        final String cacheKey = String.join("/", sessionConfig.toCacheKey(), fingerprint(keyStore, "none"),
+                                            (BeanUtils.isNull(keyStore) ? "none" : fingerprint(keyPassword)),
+                                            fingerprint(trustStore, "default"));
+        synchronized (sslContexts) {
+            SSLContext sslContext = sslContexts.get(cacheKey);
+            if (BeanUtils.isNull(sslContext)) {
+                sslContext = newSSLContext(keyStore, keyPassword, trustStore, sessionConfig);
+                sslContexts.put(cacheKey, sslContext);
+                LOGGER.debug("getSSLContext() - cached sslContext for sessionConfig={}", sessionConfig);
+            }
+
+            return sslContext;
+        }
+    }
+
+    /**
+     * Returns the cached SSL Context of the default key and trust stores of the JDK, the ones of the
+     * <code>javax.net.ssl.*</code> system properties as <code>SSLContext.getDefault()</code>.
+     *
+     * @param sessionConfig
+     * @return
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    public SSLContext getDefaultSSLContext(final SSLSessionConfig sessionConfig)
+        throws GeneralSecurityException, IOException {
+        final String keyStorePassword = System.getProperty("javax.net.ssl.keyStorePassword");
+        return getSSLContext(loadDefaultKeyStore(), (BeanUtils.isNull(keyStorePassword) ? new char[0]
+                                                     : keyStorePassword.toCharArray()), null, sessionConfig);
+    }
+
+    /**
+     * Removes the cached SSL Contexts, i.e. after the stores are rotated. The clients keep the contexts they were
+     * built with.
+     */
+    public void clearSSLContexts() {
+        synchronized (sslContexts) {
+            sslContexts.clear();
+        }
+    }
+
+    /**
+     * @param keyStore
+     * @param keyPassword
+     * @param trustStore
+     * @param sessionConfig
+     * @return
+     * @throws GeneralSecurityException
+     */
+    private SSLContext newSSLContext(final KeyStore keyStore, final char[] keyPassword, final KeyStore trustStore,
+                                     final SSLSessionConfig sessionConfig) throws GeneralSecurityException {
+        KeyManager[] keyManagers = null;
+        if (BeanUtils.isNotNull(keyStore)) {
+            final KeyManagerFactory keyFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyFactory.init(keyStore, keyPassword);
+            keyManagers = keyFactory.getKeyManagers();
+        }
+        final TrustManagerFactory trustFactory = TrustManagerFactory.getInstance(
+            TrustManagerFactory.getDefaultAlgorithm());
+        trustFactory.init(trustStore);
+
+        return newSSLContext(keyManagers, trustFactory.getTrustManagers(), sessionConfig);
+    }
+
+    /**
+     * Returns a new SSL Context of the managers with the session settings, not cached.
+     *
+     * @param keyManagers
+     * @param trustManagers
+     * @param sessionConfig
+     * @return
+     * @throws GeneralSecurityException
+     */
+    SSLContext newSSLContext(final KeyManager[] keyManagers, final TrustManager[] trustManagers,
+                             final SSLSessionConfig sessionConfig) throws GeneralSecurityException {
+        final SSLContext sslContext = SSLContext.getInstance(sessionConfig.getProtocol());
+        sslContext.init(keyManagers, trustManagers, null);
+        for (SSLSessionContext sessionContext : new SSLSessionContext[]{sslContext.getClientSessionContext(),
+                                                                         sslContext.getServerSessionContext()}) {
+            sessionContext.setSessionCacheSize(sessionConfig.getSessionCacheSize());
+            sessionContext.setSessionTimeout((int) sessionConfig.getSessionTimeout().getSeconds());
+        }
+
+        return sslContext;
+    }
+
+    /**
+     * Returns the SHA-256 of the aliases and the certificates of the <code>keyStore</code>, so that two stores loaded
+     * from the same content share a context.
+     *
+     * @param keyStore
+     * @param nullFingerprint the fingerprint of no store.
+     * @return
+     * @throws GeneralSecurityException
+     */
+    static String fingerprint(final KeyStore keyStore, final String nullFingerprint)
+        throws GeneralSecurityException {
+        if (BeanUtils.isNull(keyStore)) {
+            return nullFingerprint;
+        }
+
+        final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+        final List<String> aliases = Collections.list(keyStore.aliases());
+        Collections.sort(aliases);
+        for (String alias : aliases) {
+            messageDigest.update(alias.getBytes(StandardCharsets.UTF_8));
+            final boolean keyEntry = keyStore.isKeyEntry(alias);
+            messageDigest.update((byte) (keyEntry ? 1 : 0));
+            final Certificate[] certificates = (keyEntry ? keyStore.getCertificateChain(alias)
+                                                : new Certificate[]{keyStore.getCertificate(alias)});
+            if (BeanUtils.isNotNull(certificates)) {
+                for (Certificate certificate : certificates) {
+                    if (BeanUtils.isNotNull(certificate)) {
+                        messageDigest.update(certificate.getEncoded());
+                    }
+                }
+            }
+        }
+
+        return keyStore.getType() + ":" + HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    /**
+     * Returns the SHA-256 of the <code>password</code>, so that the cache keeps no password in clear.
+     *
+     * @param password
+     * @return
+     * @throws GeneralSecurityException
+     */
+    static String fingerprint(final char[] password) throws GeneralSecurityException {
+        if (BeanUtils.isNull(password)) {
+            return "none";
+        }
+
+        final ByteBuffer byteBuffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        final byte[] passwordBytes = new byte[byteBuffer.remaining()];
+        byteBuffer.get(passwordBytes);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(passwordBytes));
+        } finally {
+            Arrays.fill(passwordBytes, (byte) 0);
+            if (byteBuffer.hasArray()) {
+                Arrays.fill(byteBuffer.array(), (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Produces a KeyStore from a PEM bundle of certificates (typically, the CAs of the servers), to be used as a trust
+     * store.
+     *
+     * @param pemInputStream
+     * @return
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    public KeyStore loadPEMTrustStore(final InputStream pemInputStream) throws GeneralSecurityException, IOException {
+        final KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        trustStore.load(null, null);
+        int index = 0;
+        for (Certificate certificate : CertificateFactory.getInstance("X.509").generateCertificates(pemInputStream)) {
+            trustStore.setCertificateEntry("ca-" + index++, certificate);
+        }
+        if (index == 0) {
+            throw new CertificateException("No certificate found!");
+        }
+
+        return trustStore;
+    }
+
+    /**
+     * Loads the key store of the <code>javax.net.ssl.keyStore</code> system property, <code>null</code> when not set.
+     *
+     * @return
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    public KeyStore loadDefaultKeyStore() throws GeneralSecurityException, IOException {
+        final String keyStoreFile = System.getProperty("javax.net.ssl.keyStore");
+        if (BeanUtils.isEmpty(keyStoreFile) || "NONE".equals(keyStoreFile)) {
+            return null;
+        }
+
+        final KeyStore keyStore = KeyStore.getInstance(System.getProperty("javax.net.ssl.keyStoreType",
+                                                                          KeyStore.getDefaultType()));
+        final String keyStorePassword = System.getProperty("javax.net.ssl.keyStorePassword");
+        try (InputStream inputStream = Files.newInputStream(Paths.get(keyStoreFile))) {
+            keyStore.load(inputStream, (BeanUtils.isNull(keyStorePassword) ? null : keyStorePassword.toCharArray()));
+        }
+
+        return keyStore;
+    }
+
     /**
      * Creates the SSL Socket Factory.
      *
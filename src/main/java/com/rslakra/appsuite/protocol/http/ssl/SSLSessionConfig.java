@@ -0,0 +1,159 @@
+package com.rslakra.appsuite.protocol.http.ssl;
+
+import com.rslakra.appsuite.core.BeanUtils;
+import com.rslakra.appsuite.core.ToString;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+
+import java.time.Duration;
+
+/**
+ * The TLS session settings of the <code>SSLContext</code> built by the <code>SSLFactory</code>.
+ * <p>
+ * A new connection resumes a cached session (the session id on TLS 1.2, a session ticket as PSK on TLS 1.3) with an
+ * abbreviated handshake, without the certificate exchange and verification of a full one. The session cache is per
+ * <code>SSLContext</code>, so the clients sharing a context share their sessions.
+ * <p>
+ * The session tickets are not a setting of the context but of the whole JVM, on by default. The
+ * <code>jdk.tls.client.enableSessionTicketExtension</code> system property turns them off.
+ *
+ * @author Rohtash Lakra
+ * @created 10/17/26 11:10 PM
+ */
+public final class SSLSessionConfig {
+
+    public static final String DEFAULT_PROTOCOL = "TLS";
+    public static final int DEFAULT_SESSION_CACHE_SIZE = 20480;
+    public static final Duration DEFAULT_SESSION_TIMEOUT = Duration.ofHours(24);
+
+    private final String protocol;
+    private final int sessionCacheSize;
+    private final Duration sessionTimeout;
+
+    /**
+     * @param builder
+     */
+    private SSLSessionConfig(final SSLSessionConfigBuilder builder) {
+        this.protocol = builder.protocol;
+        this.sessionCacheSize = builder.sessionCacheSize;
+        this.sessionTimeout = builder.sessionTimeout;
+    }
+
+    /**
+     * Returns the protocol of the <code>SSLContext</code>, <code>TLS</code> enables TLS 1.3 and TLS 1.2.
+     *
+     * @return
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Returns the max number of cached sessions, 0 means no limit.
+     *
+     * @return
+     */
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * @return
+     */
+    public Duration getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    /**
+     * Returns the key of the settings in the <code>SSLContext</code> cache.
+     *
+     * @return
+     */
+    String toCacheKey() {
+        return protocol + "/" + sessionCacheSize + "/" + sessionTimeout.getSeconds();
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(SSLSessionConfig.class)
+            .add("protocol", getProtocol())
+            .add("sessionCacheSize", getSessionCacheSize())
+            .add("sessionTimeout", getSessionTimeout())
+            .toString();
+    }
+
+    /**
+     * @return
+     */
+    public static SSLSessionConfig ofDefaults() {
+        return newBuilder().build();
+    }
+
+    /**
+     * @return
+     */
+    public static SSLSessionConfigBuilder newBuilder() {
+        return new SSLSessionConfigBuilder();
+    }
+
+    /**
+     *
+     */
+    public static class SSLSessionConfigBuilder {
+
+        private String protocol = DEFAULT_PROTOCOL;
+        private int sessionCacheSize = DEFAULT_SESSION_CACHE_SIZE;
+        private Duration sessionTimeout = DEFAULT_SESSION_TIMEOUT;
+
+        private SSLSessionConfigBuilder() {
+        }
+
+        /**
+         * @param protocol
+         * @return
+         */
+        public SSLSessionConfigBuilder setProtocol(final String protocol) {
+            this.protocol = protocol;
+            return this;
+        }
+
+        /**
+         * @param sessionCacheSize
+         * @return
+         */
+        public SSLSessionConfigBuilder setSessionCacheSize(final int sessionCacheSize) {
+            this.sessionCacheSize = sessionCacheSize;
+            return this;
+        }
+
+        /**
+         * @param sessionTimeout
+         * @return
+         */
+        public SSLSessionConfigBuilder setSessionTimeout(final Duration sessionTimeout) {
+            this.sessionTimeout = sessionTimeout;
+            return this;
+        }
+
+        /**
+         * @return
+         */
+        public SSLSessionConfig build() {
+            if (BeanUtils.isEmpty(protocol)) {
+                throw new HttpClientException("protocol must provide!");
+            }
+            if (sessionCacheSize < 0) {
+                throw new HttpClientException("sessionCacheSize must not be negative!");
+            }
+            if (BeanUtils.isNull(sessionTimeout) || sessionTimeout.isNegative()
+                || sessionTimeout.getSeconds() > Integer.MAX_VALUE) {
+                throw new HttpClientException("sessionTimeout must be between 0 and " + Integer.MAX_VALUE
+                                              + " seconds!");
+            }
+
+            return new SSLSessionConfig(this);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.rslakra.appsuite.protocol.https;
+
+/**
+ * Handles the requests of the <code>HTTPSServer</code>, called concurrently from the threads of the connections.
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 2:10 AM
+ */
+@FunctionalInterface
+public interface HTTPSHandler {
+
+    /**
+     * Replies <code>200 OK</code> to every request.
+     */
+    HTTPSHandler OK = request -> HTTPSResponse.of(200, "OK");
+
+    /**
+     * Returns the response of the request, an exception is answered with <code>500 Internal Server Error</code>.
+     *
+     * @param request
+     * @return
+     * @throws Exception
+     */
+    HTTPSResponse handle(HTTPSRequest request) throws Exception;
+}
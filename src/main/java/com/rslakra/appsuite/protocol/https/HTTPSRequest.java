@@ -0,0 +1,118 @@
+package com.rslakra.appsuite.protocol.https;
+
+import com.rslakra.appsuite.core.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTTP/1.1 request parsed by the <code>HTTPSServer</code>, with its body fully read.
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 2:00 AM
+ */
+public final class HTTPSRequest {
+
+    private final String method;
+    private final String target;
+    private final String version;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+
+    /**
+     * @param method
+     * @param target
+     * @param version
+     * @param headers the case-insensitive headers
+     * @param body
+     */
+    HTTPSRequest(final String method, final String target, final String version,
+                 final Map<String, List<String>> headers, final byte[] body) {
+        this.method = method;
+        this.target = target;
+        this.version = version;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+    }
+
+    /**
+     * @return
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the request target, the path with the query string.
+     *
+     * @return
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @return
+     */
+    public String getPath() {
+        final int index = target.indexOf('?');
+        return (index < 0 ? target : target.substring(0, index));
+    }
+
+    /**
+     * @return
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the case-insensitive headers.
+     *
+     * @return
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the first value of the header, null if not present.
+     *
+     * @param name
+     * @return
+     */
+    public String getHeader(final String name) {
+        final List<String> values = headers.get(name);
+        return (values == null || values.isEmpty() ? null : values.get(0));
+    }
+
+    /**
+     * @return
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return
+     */
+    public String getBodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(HTTPSRequest.class)
+            .add("method", getMethod())
+            .add("target", getTarget())
+            .add("version", getVersion())
+            .add("headers", getHeaders())
+            .add("bodyLength", body.length)
+            .toString();
+    }
+}
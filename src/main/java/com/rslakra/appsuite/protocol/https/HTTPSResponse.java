@@ -0,0 +1,99 @@
+package com.rslakra.appsuite.protocol.https;
+
+import com.rslakra.appsuite.core.ToString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The response of an <code>HTTPSHandler</code>. The <code>HTTPSServer</code> sets the <code>Content-Length</code> and
+ * the <code>Connection</code> headers.
+ *
+ * @author Rohtash Lakra
+ * @created 10/18/26 2:05 AM
+ */
+public final class HTTPSResponse {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final int statusCode;
+    private final List<Map.Entry<String, String>> headers = new ArrayList<>();
+    private byte[] body = EMPTY_BODY;
+
+    /**
+     * @param statusCode
+     */
+    public HTTPSResponse(final int statusCode) {
+        if (statusCode < 100 || statusCode > 999) {
+            throw new IllegalArgumentException("Invalid statusCode:" + statusCode);
+        }
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Returns a <code>text/plain</code> response of the body.
+     *
+     * @param statusCode
+     * @param body
+     * @return
+     */
+    public static HTTPSResponse of(final int statusCode, final String body) {
+        return new HTTPSResponse(statusCode)
+            .addHeader("Content-Type", "text/plain; charset=UTF-8")
+            .setBody(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @param name
+     * @param value
+     * @return
+     */
+    public HTTPSResponse addHeader(final String name, final String value) {
+        headers.add(Map.entry(name, value));
+        return this;
+    }
+
+    /**
+     * @return
+     */
+    public List<Map.Entry<String, String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @param body
+     * @return
+     */
+    public HTTPSResponse setBody(final byte[] body) {
+        this.body = (body == null ? EMPTY_BODY : body);
+        return this;
+    }
+
+    /**
+     * @return
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return
+     */
+    @Override
+    public String toString() {
+        return ToString.of(HTTPSResponse.class)
+            .add("statusCode", getStatusCode())
+            .add("headers", getHeaders())
+            .add("bodyLength", body.length)
+            .toString();
+    }
+}
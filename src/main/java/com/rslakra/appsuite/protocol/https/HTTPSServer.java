@@ -30,105 +30,642 @@
  *****************************************************************************/
 package com.rslakra.appsuite.protocol.https;
 
+import com.rslakra.appsuite.core.BeanUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLServerSocket;
-import javax.net.ssl.SSLServerSocketFactory;
-import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
-* @author Rohtash Lakra
+ * HTTP/1.1 server over TLS, serving each connection on its own virtual thread with keep-alive.
+ * <p>
+ * The connections are bounded by <code>maxConnections</code>, at capacity an idle keep-alive connection is closed to
+ * make room for a new one, which waits otherwise. The requests are answered by the <code>HTTPSHandler</code>. The
+ * shutdown stops accepting, closes the idle connections and lets the in-flight requests complete, answered with
+ * <code>Connection: close</code>.
+ *
+ * @author Rohtash Lakra
  */
-public class HTTPSServer {
+public class HTTPSServer implements AutoCloseable {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(HTTPSServer.class);
 
-    private int port;
-    private boolean isServerDone = false;
+    public static final int DEFAULT_MAX_CONNECTIONS = 1024;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_LINE_LENGTH = 8192;
+    private static final int MAX_HEADERS = 100;
+    private static final int MAX_BODY_SIZE = 16 * 1024 * 1024;
+    private static final long ACQUIRE_INTERVAL_MILLIS = 100;
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final int port;
+    private final SSLContext sslContext;
+    private final HTTPSHandler handler;
+    private final int idleTimeoutMillis;
+    private final Semaphore connectionPermits;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executorService;
+    private volatile boolean isServerDone = false;
+    private volatile SSLServerSocket sslServerSocket;
+    private Thread acceptorThread;
 
     public static void main(String[] args) {
         HTTPSServer server = new HTTPSServer(Constants.getPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
         server.run();
     }
 
     HTTPSServer(int port) {
+        this(port, Constants.createSSLContext(HTTPSServer.class), HTTPSHandler.OK);
+    }
+
+    /**
+     * @param port    the port to listen on, 0 for an ephemeral one
+     * @param sslContext
+     * @param handler
+     */
+    public HTTPSServer(int port, SSLContext sslContext, HTTPSHandler handler) {
+        this(port, sslContext, handler, DEFAULT_MAX_CONNECTIONS, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param port           the port to listen on, 0 for an ephemeral one
+     * @param sslContext
+     * @param handler
+     * @param maxConnections
+     * @param idleTimeout    the time a connection waits for its handshake or next request before it is closed
+     */
+    public HTTPSServer(int port, SSLContext sslContext, HTTPSHandler handler, int maxConnections,
+                       Duration idleTimeout) {
+        BeanUtils.assertNonNull(sslContext, "sslContext must provide!");
+        BeanUtils.assertNonNull(handler, "handler must provide!");
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("maxConnections must be positive!");
+        }
         this.port = port;
+        this.sslContext = sslContext;
+        this.handler = handler;
+        this.idleTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, idleTimeout.toMillis());
+        this.connectionPermits = new Semaphore(maxConnections);
+        this.executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("https-server-", 0)
+                                                                      .factory());
     }
 
-    // Start to run the server
-    public void run() {
-        SSLContext sslContext = Constants.createSSLContext(HTTPSServer.class);
+    /**
+     * Binds the server socket and accepts the connections on a background thread.
+     *
+     * @return
+     * @throws IOException
+     */
+    public synchronized HTTPSServer start() throws IOException {
+        if (BeanUtils.isNotNull(sslServerSocket)) {
+            throw new IllegalStateException("Server already started!");
+        }
+
+        sslServerSocket = (SSLServerSocket) sslContext.getServerSocketFactory().createServerSocket(port);
+        acceptorThread = new Thread(this::accept, "https-server-acceptor-" + sslServerSocket.getLocalPort());
+        acceptorThread.setDaemon(true);
+        acceptorThread.start();
+        LOGGER.info("start() - SSL server started on port={}", sslServerSocket.getLocalPort());
+        return this;
+    }
 
+    // Start to run the server, until shutdown
+    public void run() {
         try {
-            // Create server socket factory
-            SSLServerSocketFactory sslServerSocketFactory = sslContext.getServerSocketFactory();
+            start();
+            acceptorThread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            LOGGER.error("run() - failed to start the server on port={}", port, ex);
+        }
+    }
 
-            // Create server socket
-            SSLServerSocket sslServerSocket = (SSLServerSocket) sslServerSocketFactory.createServerSocket(this.port);
+    /**
+     * Returns the port listened on, the bound one once started.
+     *
+     * @return
+     */
+    public int getPort() {
+        final SSLServerSocket serverSocket = sslServerSocket;
+        return (BeanUtils.isNull(serverSocket) ? port : serverSocket.getLocalPort());
+    }
 
-            System.out.println("SSL server started");
-            while (!isServerDone) {
-                SSLSocket sslSocket = (SSLSocket) sslServerSocket.accept();
+    /**
+     * @return
+     */
+    public boolean isServerDone() {
+        return isServerDone;
+    }
+
+    /**
+     * Returns the number of open connections.
+     *
+     * @return
+     */
+    public int getConnections() {
+        return connections.size();
+    }
 
-                // Start the server thread
-                new ServerThread(sslSocket).start();
+    /**
+     * Accepts the connections until shutdown, each served on a virtual thread.
+     */
+    private void accept() {
+        while (!isServerDone) {
+            final SSLSocket sslSocket;
+            try {
+                sslSocket = (SSLSocket) sslServerSocket.accept();
+            } catch (IOException ex) {
+                if (!isServerDone) {
+                    LOGGER.warn("accept() - failed to accept a connection", ex);
+                }
+                if (sslServerSocket.isClosed()) {
+                    return;
+                }
+                continue;
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
+
+            try {
+                if (!connectionPermits.tryAcquire()) {
+                    // at capacity, an idle keep-alive connection makes room for the new one
+                    do {
+                        closeIdleConnection();
+                    } while (!connectionPermits.tryAcquire(ACQUIRE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+                }
+            } catch (InterruptedException ex) {
+                closeQuietly(sslSocket);
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            final Connection connection = new Connection(sslSocket);
+            connections.add(connection);
+            try {
+                executorService.execute(connection);
+            } catch (RejectedExecutionException ex) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Closes the longest idle connection, if any, the least likely to be reused by its client.
+     */
+    private void closeIdleConnection() {
+        Connection idleConnection = null;
+        for (Connection connection : connections) {
+            if (connection.idle && (BeanUtils.isNull(idleConnection)
+                                    || connection.idleSince - idleConnection.idleSince < 0)) {
+                idleConnection = connection;
+            }
+        }
+        if (BeanUtils.isNotNull(idleConnection)) {
+            LOGGER.debug("closeIdleConnection() - closing an idle connection at maxConnections");
+            idleConnection.close();
         }
     }
 
-    // Thread handling the socket from client.
-    static class ServerThread extends Thread {
+    /**
+     * Stops accepting, closes the idle connections and waits for the in-flight requests, the connections still open
+     * after the timeout are closed.
+     *
+     * @param timeout
+     */
+    public void shutdown(final Duration timeout) {
+        isServerDone = true;
+        final SSLServerSocket serverSocket = sslServerSocket;
+        if (BeanUtils.isNotNull(serverSocket)) {
+            closeQuietly(serverSocket);
+        }
+        if (BeanUtils.isNotNull(acceptorThread)) {
+            acceptorThread.interrupt();
+        }
+        for (Connection connection : connections) {
+            if (connection.idle) {
+                connection.close();
+            }
+        }
 
-        private SSLSocket sslSocket = null;
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("shutdown() - closing {} connections still open after {}", connections.size(), timeout);
+                connections.forEach(Connection::close);
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        ServerThread(SSLSocket sslSocket) {
-            this.sslSocket = sslSocket;
+    /**
+     * Shuts down with the <code>DEFAULT_SHUTDOWN_TIMEOUT</code>.
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * @param closeable
+     */
+    private static void closeQuietly(final AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ex) {
+            LOGGER.debug("closeQuietly() - {}", ex.getMessage());
         }
+    }
 
-        public void run() {
-            sslSocket.setEnabledCipherSuites(sslSocket.getSupportedCipherSuites());
+    /**
+     * A request the server can't parse, answered with the status code before the connection is closed.
+     */
+    private static final class BadRequestException extends IOException {
 
-            try {
-                // Start handshake
-                sslSocket.startHandshake();
+        private final int statusCode;
 
-                // Get session after the connection is established
-                SSLSession sslSession = sslSocket.getSession();
+        BadRequestException(final int statusCode, final String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+    }
 
-                System.out.println("SSLSession :");
-                System.out.println("\tProtocol : " + sslSession.getProtocol());
-                System.out.println("\tCipher suite : " + sslSession.getCipherSuite());
+    // Serves the requests of a connection from a client, until closed.
+    private final class Connection implements Runnable {
 
-                // Start handling application content
-                InputStream inputStream = sslSocket.getInputStream();
-                OutputStream outputStream = sslSocket.getOutputStream();
+        private final SSLSocket sslSocket;
+        // true while waiting for the next request, the connection can then be closed
+        private volatile boolean idle;
+        private volatile long idleSince;
 
-                BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream));
-                PrintWriter printWriter = new PrintWriter(new OutputStreamWriter(outputStream));
+        Connection(SSLSocket sslSocket) {
+            this.sslSocket = sslSocket;
+        }
 
-                String line = null;
-                while ((line = bufferedReader.readLine()) != null) {
-                    System.out.println("Inut : " + line);
+        @Override
+        public void run() {
+            try {
+                sslSocket.setSoTimeout(idleTimeoutMillis);
+                sslSocket.startHandshake();
+                final InputStream inputStream = new BufferedInputStream(sslSocket.getInputStream());
+                final OutputStream outputStream = new BufferedOutputStream(sslSocket.getOutputStream());
+                boolean keepAlive = true;
+                while (true) {
+                    // idle before the check, so a concurrent shutdown either sees it idle or is seen here
+                    idleSince = System.nanoTime();
+                    idle = true;
+                    if (!keepAlive || isServerDone) {
+                        break;
+                    }
 
-                    if (line.trim().isEmpty()) {
+                    final int firstByte = inputStream.read();
+                    if (firstByte < 0) {
                         break;
                     }
+                    idle = false;
+                    keepAlive = serve(firstByte, inputStream, outputStream);
                 }
+            } catch (SocketTimeoutException ex) {
+                LOGGER.debug("run() - idle connection timed out");
+            } catch (IOException ex) {
+                LOGGER.debug("run() - connection closed, {}", ex.getMessage());
+            } finally {
+                close();
+            }
+        }
 
-                // Write data
-                printWriter.print("HTTP/1.1 200\r\n");
-                printWriter.flush();
+        /**
+         * Reads a request and writes its response, returns true if the connection stays open.
+         *
+         * @param firstByte
+         * @param inputStream
+         * @param outputStream
+         * @return
+         * @throws IOException
+         */
+        private boolean serve(final int firstByte, final InputStream inputStream, final OutputStream outputStream)
+            throws IOException {
+            final HTTPSRequest request;
+            try {
+                request = readRequest(firstByte, inputStream, outputStream);
+            } catch (BadRequestException ex) {
+                writeResponse(outputStream, HTTPSResponse.of(ex.statusCode, ex.getMessage()), false, false);
+                return false;
+            }
 
-                sslSocket.close();
+            HTTPSResponse response;
+            try {
+                response = handler.handle(request);
+                if (BeanUtils.isNull(response)) {
+                    throw new IllegalStateException("No response!");
+                }
             } catch (Exception ex) {
-                ex.printStackTrace();
+                LOGGER.warn("serve() - failed to handle request={}", request, ex);
+                response = HTTPSResponse.of(500, "Internal Server Error");
+            }
+
+            final boolean keepAlive = (isKeepAlive(request) && !isServerDone);
+            writeResponse(outputStream, response, keepAlive, "HEAD".equals(request.getMethod()));
+            return keepAlive;
+        }
+
+        void close() {
+            try {
+                // with a read timeout, the JDK waits that long for the close_notify of the client
+                sslSocket.setSoTimeout(0);
+            } catch (IOException ex) {
+                LOGGER.debug("close() - {}", ex.getMessage());
+            }
+            closeQuietly(sslSocket);
+            if (connections.remove(this)) {
+                connectionPermits.release();
+            }
+        }
+    }
+
+    /**
+     * @param firstByte
+     * @param inputStream
+     * @param outputStream
+     * @return
+     * @throws IOException
+     */
+    private static HTTPSRequest readRequest(final int firstByte, final InputStream inputStream,
+                                            final OutputStream outputStream) throws IOException {
+        final String requestLine = readLine(firstByte, inputStream);
+        final String[] tokens = requestLine.split(" ");
+        if (tokens.length != 3 || !tokens[2].startsWith("HTTP/1.")) {
+            throw new BadRequestException(400, "Invalid request line!");
+        }
+
+        final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        readHeaders(inputStream, headers);
+        final String transferEncoding = firstValue(headers, "Transfer-Encoding");
+        final String contentLength = firstValue(headers, "Content-Length");
+        if (BeanUtils.isNotNull(transferEncoding) && BeanUtils.isNotNull(contentLength)) {
+            throw new BadRequestException(400, "Both Transfer-Encoding and Content-Length!");
+        }
+        final boolean hasBody = (BeanUtils.isNotNull(transferEncoding)
+                                 || (BeanUtils.isNotNull(contentLength) && !"0".equals(contentLength.trim())));
+        if (hasBody && "HTTP/1.1".equals(tokens[2])
+            && "100-continue".equalsIgnoreCase(firstValue(headers, "Expect"))) {
+            outputStream.write(CONTINUE);
+            outputStream.flush();
+        }
+
+        final byte[] body;
+        if (BeanUtils.isNotNull(transferEncoding)) {
+            if (!"chunked".equalsIgnoreCase(transferEncoding.trim())) {
+                throw new BadRequestException(501, "Unsupported Transfer-Encoding!");
+            }
+            body = readChunkedBody(inputStream, headers);
+        } else if (BeanUtils.isNotNull(contentLength)) {
+            body = readFully(inputStream, parseLength(contentLength.trim(), 10));
+        } else {
+            body = new byte[0];
+        }
+
+        return new HTTPSRequest(tokens[0], tokens[1], tokens[2], headers, body);
+    }
+
+    /**
+     * @param inputStream
+     * @param headers
+     * @throws IOException
+     */
+    private static void readHeaders(final InputStream inputStream, final Map<String, List<String>> headers)
+        throws IOException {
+        int count = 0;
+        String line;
+        while (!(line = readLine(inputStream.read(), inputStream)).isEmpty()) {
+            final int index = line.indexOf(':');
+            if (index <= 0 || Character.isWhitespace(line.charAt(index - 1))) {
+                throw new BadRequestException(400, "Invalid header!");
+            }
+            if (++count > MAX_HEADERS) {
+                throw new BadRequestException(431, "Too many headers!");
+            }
+            headers.computeIfAbsent(line.substring(0, index), name -> new ArrayList<>())
+                .add(line.substring(index + 1).trim());
+        }
+    }
+
+    /**
+     * Reads a line ending with CRLF (or LF), without it.
+     *
+     * @param firstByte
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    private static String readLine(final int firstByte, final InputStream inputStream) throws IOException {
+        final StringBuilder lineBuilder = new StringBuilder();
+        int next = firstByte;
+        while (next != '\n') {
+            if (next < 0) {
+                throw new EOFException("Connection closed within a request!");
+            }
+            if (lineBuilder.length() >= MAX_LINE_LENGTH) {
+                throw new BadRequestException(431, "Line too long!");
+            }
+            lineBuilder.append((char) next);
+            next = inputStream.read();
+        }
+
+        final int length = lineBuilder.length();
+        if (length > 0 && lineBuilder.charAt(length - 1) == '\r') {
+            lineBuilder.setLength(length - 1);
+        }
+
+        return lineBuilder.toString();
+    }
+
+    /**
+     * @param inputStream
+     * @param headers     the trailers are added to the headers
+     * @return
+     * @throws IOException
+     */
+    private static byte[] readChunkedBody(final InputStream inputStream, final Map<String, List<String>> headers)
+        throws IOException {
+        final ByteArrayOutputStream bodyStream = new ByteArrayOutputStream();
+        while (true) {
+            String chunkSize = readLine(inputStream.read(), inputStream);
+            final int index = chunkSize.indexOf(';');
+            if (index >= 0) {
+                chunkSize = chunkSize.substring(0, index);
+            }
+            final int length = parseLength(chunkSize.trim(), 16);
+            if (length == 0) {
+                break;
+            }
+            if (bodyStream.size() + length > MAX_BODY_SIZE) {
+                throw new BadRequestException(413, "Body too large!");
+            }
+            bodyStream.write(readFully(inputStream, length));
+            if (!readLine(inputStream.read(), inputStream).isEmpty()) {
+                throw new BadRequestException(400, "Invalid chunk!");
             }
         }
+        readHeaders(inputStream, headers);
+
+        return bodyStream.toByteArray();
+    }
+
+    /**
+     * @param length
+     * @param radix
+     * @return
+     * @throws BadRequestException
+     */
+    private static int parseLength(final String length, final int radix) throws BadRequestException {
+        final long value;
+        try {
+            value = Long.parseLong(length, radix);
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException(400, "Invalid length!");
+        }
+        if (value < 0) {
+            throw new BadRequestException(400, "Invalid length!");
+        }
+        if (value > MAX_BODY_SIZE) {
+            throw new BadRequestException(413, "Body too large!");
+        }
+
+        return (int) value;
+    }
+
+    /**
+     * @param inputStream
+     * @param length
+     * @return
+     * @throws IOException
+     */
+    private static byte[] readFully(final InputStream inputStream, final int length) throws IOException {
+        final byte[] bytes = inputStream.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("Connection closed within a body!");
+        }
+
+        return bytes;
+    }
+
+    /**
+     * @param headers
+     * @param name
+     * @return
+     */
+    private static String firstValue(final Map<String, List<String>> headers, final String name) {
+        final List<String> values = headers.get(name);
+        return (BeanUtils.isNull(values) || values.isEmpty() ? null : values.get(0));
+    }
+
+    /**
+     * HTTP/1.1 connections are persistent unless closed by the client, HTTP/1.0 ones only when asked for.
+     *
+     * @param request
+     * @return
+     */
+    private static boolean isKeepAlive(final HTTPSRequest request) {
+        final String connection = request.getHeader("Connection");
+        if ("HTTP/1.0".equals(request.getVersion())) {
+            return (BeanUtils.isNotNull(connection) && connection.toLowerCase().contains("keep-alive"));
+        }
+
+        return (BeanUtils.isNull(connection) || !connection.toLowerCase().contains("close"));
+    }
+
+    /**
+     * @param outputStream
+     * @param response
+     * @param keepAlive
+     * @param headRequest
+     * @throws IOException
+     */
+    private static void writeResponse(final OutputStream outputStream, final HTTPSResponse response,
+                                      final boolean keepAlive, final boolean headRequest) throws IOException {
+        final int statusCode = response.getStatusCode();
+        final StringBuilder headBuilder = new StringBuilder(256)
+            .append("HTTP/1.1 ").append(statusCode).append(' ').append(reasonPhrase(statusCode)).append("\r\n");
+        for (Map.Entry<String, String> header : response.getHeaders()) {
+            if (!"Content-Length".equalsIgnoreCase(header.getKey())
+                && !"Connection".equalsIgnoreCase(header.getKey())) {
+                headBuilder.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+            }
+        }
+        final boolean noBody = (statusCode == 204 || statusCode == 304);
+        if (!noBody) {
+            headBuilder.append("Content-Length: ").append(response.getBody().length).append("\r\n");
+        }
+        headBuilder.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+
+        outputStream.write(headBuilder.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (!noBody && !headRequest) {
+            outputStream.write(response.getBody());
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * @param statusCode
+     * @return
+     */
+    private static String reasonPhrase(final int statusCode) {
+        switch (statusCode) {
+            case 200:
+                return "OK";
+            case 201:
+                return "Created";
+            case 202:
+                return "Accepted";
+            case 204:
+                return "No Content";
+            case 304:
+                return "Not Modified";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 413:
+                return "Content Too Large";
+            case 429:
+                return "Too Many Requests";
+            case 431:
+                return "Request Header Fields Too Large";
+            case 500:
+                return "Internal Server Error";
+            case 501:
+                return "Not Implemented";
+            case 503:
+                return "Service Unavailable";
+            default:
+                return "";
+        }
     }
 }
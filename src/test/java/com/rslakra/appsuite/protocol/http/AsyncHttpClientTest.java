@@ -10,6 +10,8 @@ import static com.xebialabs.restito.semantics.Condition.uri;
 import static java.lang.Thread.sleep;
 import static org.testng.Assert.assertEquals;
 
+import com.rslakra.appsuite.protocol.http.handler.JsonResponseHandler;
+import com.rslakra.appsuite.protocol.http.hedge.HedgingConfig;
 import com.xebialabs.restito.builder.stub.StubHttp;
 import com.xebialabs.restito.builder.verify.VerifyHttp;
 import com.xebialabs.restito.semantics.Action;
@@ -25,6 +27,8 @@ import org.testng.annotations.Test;
 
 import java.net.URISyntaxException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -334,6 +338,158 @@ public class AsyncHttpClientTest extends AbstractHttpClientTest {
         assertEquals(cancelledCallCount.get(), 0);
     }
 
+    @Test
+    public void testLifecycle() throws Exception {
+        String path = "/lifecycle";
+        StubHttp.whenHttp(server).match(Condition.get(path)).then(successAction);
+
+        AtomicInteger successCallCount = new AtomicInteger(0);
+        AtomicInteger failedCallCount = new AtomicInteger(0);
+        AtomicInteger cancelledCallCount = new AtomicInteger(0);
+        FutureCallback<Response<String>> futureCallback =
+            constructFutureCallback(successCallCount, failedCallCount, cancelledCallCount);
+
+        AsyncHttpClient client = new HttpClientBuilder("AsyncHttpClientTest")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .shutdownTimeout(Duration.ofSeconds(5))
+            .buildAsyncClient();
+        assertEquals(client.getLifecycle(), AsyncHttpClient.Lifecycle.ACTIVE);
+        Assert.assertTrue(client.isHealthy());
+
+        String url = "http://localhost:" + server.getPort() + path;
+        Request request = newRequest(url, HttpMethod.GET);
+        CompletableFuture<Response<String>> promise = client.executeWithCallback(request, futureCallback);
+        client.close();
+        assertEquals(client.getLifecycle(), AsyncHttpClient.Lifecycle.STOPPED);
+        assertEquals(client.getInFlightRequests(), 0);
+        assertEquals(promise.get(5, TimeUnit.SECONDS).getStatusLine().getStatusCode(), 200);
+        Assert.assertFalse(client.isHealthy());
+
+        // rejected once closed
+        client.executeWithCallback(request, futureCallback).get(5, TimeUnit.SECONDS);
+        assertEquals(successCallCount.get(), 1);
+        assertEquals(failedCallCount.get(), 1);
+        assertEquals(cancelledCallCount.get(), 0);
+    }
+
+    @Test
+    public void testRequestCoalescing() throws Exception {
+        String path = "/coalescing";
+        StubHttp.whenHttp(server).match(Condition.get(path)).then(timeoutAction);
+
+        AtomicInteger successCallCount = new AtomicInteger(0);
+        AtomicInteger failedCallCount = new AtomicInteger(0);
+        AtomicInteger cancelledCallCount = new AtomicInteger(0);
+        FutureCallback<Response<String>> futureCallback =
+            constructFutureCallback(successCallCount, failedCallCount, cancelledCallCount);
+
+        AsyncHttpClient client = new HttpClientBuilder("AsyncHttpClientTest")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .requestCoalescing("Authorization")
+            .buildAsyncClient();
+
+        String url = "http://localhost:" + server.getPort() + path;
+        Request request = newRequest(url, HttpMethod.GET);
+        List<CompletableFuture<Response<String>>> promises = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            promises.add(client.executeWithCallback(request, futureCallback));
+        }
+        // a cancelled waiter doesn't cancel the shared call
+        promises.remove(0).cancel(true);
+        for (CompletableFuture<Response<String>> promise : promises) {
+            assertEquals(promise.get(5, TimeUnit.SECONDS).getPayload(), "success");
+        }
+        client.close();
+
+        VerifyHttp.verifyHttp(server).once(Condition.uri(path));
+        assertEquals(client.getCoalescedRequests(), 9);
+        assertEquals(successCallCount.get(), 9);
+        assertEquals(failedCallCount.get(), 0);
+        assertEquals(cancelledCallCount.get(), 0);
+    }
+
+    @Test
+    public void testHedging() throws Exception {
+        String path = "/hedging";
+        StubHttp.whenHttp(server).match(Condition.get(path))
+            .then(ActionSequence.sequence(timeoutAction, successAction, successAction));
+
+        AsyncHttpClient client = new HttpClientBuilder("AsyncHttpClientTest")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .hedging(HedgingConfig.newBuilder()
+                         .setDelay(Duration.ofMillis(100))
+                         .setBudget(1.0, 1)
+                         .build())
+            .buildAsyncClient();
+
+        String url = "http://localhost:" + server.getPort() + path;
+        // the slow first attempt loses to the hedge
+        long startTime = System.nanoTime();
+        Response<String> response = client.executeWithCallback(newRequest(url, HttpMethod.GET))
+            .get(5, TimeUnit.SECONDS);
+        assertEquals(response.getPayload(), "success");
+        Assert.assertTrue(System.nanoTime() - startTime < TimeUnit.MILLISECONDS.toNanos(900));
+        assertEquals(client.getRequestHedger().getHedges(), 1);
+
+        // non-idempotent requests are never hedged
+        client.executeWithCallback(newRequest(url, HttpMethod.POST)).get(5, TimeUnit.SECONDS);
+        assertEquals(client.getRequestHedger().getHedges(), 1);
+        client.close();
+    }
+
+    @Test
+    public void testErrorResponse() throws Exception {
+        String path = "/error_json_handler";
+        StubHttp.whenHttp(server).match(Condition.get(path))
+            .then(status(HttpStatus.BAD_REQUEST_400), stringContent("{\"message\":\"invalid id\"}"));
+
+        AsyncHttpClient client = newAsyncHttpClient();
+        String url = "http://localhost:" + server.getPort() + path;
+        Response<MockObject> response = client.executeWithCallback(newRequest(url, HttpMethod.GET),
+                                                                    new JsonResponseHandler<>(MockObject.class))
+            .get(5, TimeUnit.SECONDS);
+
+        assertEquals(response.getStatusLine().getStatusCode(), 400);
+        Assert.assertNull(response.getPayload());
+        // the decoded error body is carried on the response
+        ErrorResponseException errorResponseException = ErrorResponseException.find(response.getError());
+        Assert.assertNotNull(errorResponseException);
+        assertEquals(errorResponseException.getErrorResponse().getMessage(), "invalid id");
+        assertEquals(errorResponseException.getErrorResponse().getStatusCode(), 400);
+        client.close();
+    }
+
+    @Test
+    public void testHttp2Transport() throws Exception {
+        String path = "/http2";
+        StubHttp.whenHttp(server).match(Condition.get(path)).then(successAction);
+        StubHttp.whenHttp(server).match(Condition.get("/http2/timeout")).then(timeoutAction);
+
+        AsyncHttpClient client = new HttpClientBuilder("AsyncHttpClientTest")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .http2()
+            .requestConfig(RequestConfig.custom().setSocketTimeout(500).build())
+            .buildAsyncClient();
+        Assert.assertTrue(client.isHealthy());
+
+        // the server doesn't speak h2c, the request falls back to HTTP/1.1
+        String url = "http://localhost:" + server.getPort() + path;
+        Response<String> response = client.executeWithCallback(newRequest(url, HttpMethod.GET))
+            .get(5, TimeUnit.SECONDS);
+        assertEquals(response.getStatusLine().getStatusCode(), 200);
+        assertEquals(response.getPayload(), "success");
+
+        // the socket timeout bounds the exchange
+        Assert.assertNull(client.executeWithCallback(newRequest(url + "/timeout", HttpMethod.GET))
+                              .get(5, TimeUnit.SECONDS));
+        client.close();
+        Assert.assertFalse(client.isHealthy());
+    }
+
     private <T> FutureCallback<Response<T>> constructFutureCallback(
         AtomicInteger successCallCount,
         AtomicInteger failedCallCount,
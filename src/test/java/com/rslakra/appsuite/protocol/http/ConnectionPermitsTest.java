@@ -0,0 +1,49 @@
+package com.rslakra.appsuite.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/18/26 9:20 AM
+ */
+public class ConnectionPermitsTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPermitsTest.class);
+
+    @Test
+    public void testSharedByClients() throws Exception {
+        final URI uri = URI.create("http://localhost:1/");
+        final HttpClientBuilder builder = new HttpClientBuilder("permits")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .requestConfig(RequestConfig.custom().setConnectionRequestTimeout(100).build())
+            .connectionPoolConfig(ConnectionPoolConfig.newBuilder().setMaxConnTotal(1).setMaxConnPerRoute(1).build());
+        try (SyncHttpClient syncHttpClient = builder.buildSyncClient();
+             SyncHttpClient otherClient = builder.buildSyncClient()) {
+            // the only connection of the pool, taken through the first client
+            final ConnectionPermits connectionPermits = builder.getConnectionPermits();
+            final HttpRoute route = connectionPermits.acquire(uri);
+            try {
+                // a platform thread of the other client waits for the permit too
+                final Request request = Request.newBuilder().setUri(uri).setHttpMethod(HttpMethod.GET).build();
+                final HttpClientException ex = assertThrows(HttpClientException.class,
+                                                            () -> otherClient.execute(request));
+                LOGGER.debug("ex: {}", ex.getMessage());
+                assertInstanceOf(ConnectionPoolTimeoutException.class, ex.getCause());
+            } finally {
+                connectionPermits.release(route);
+            }
+        }
+    }
+}
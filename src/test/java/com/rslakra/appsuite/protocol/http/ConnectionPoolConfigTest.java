@@ -0,0 +1,55 @@
+package com.rslakra.appsuite.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 11:02 AM
+ */
+public class ConnectionPoolConfigTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPoolConfigTest.class);
+
+    @Test
+    public void testDefaults() {
+        ConnectionPoolConfig poolConfig = ConnectionPoolConfig.ofDefaults();
+        LOGGER.debug("poolConfig: {}", poolConfig);
+        assertEquals(ConnectionPoolConfig.DEFAULT_MAX_CONN_TOTAL, poolConfig.getMaxConnTotal());
+        assertEquals(ConnectionPoolConfig.DEFAULT_MAX_CONN_PER_ROUTE, poolConfig.getMaxConnPerRoute());
+        assertTrue(poolConfig.isEvictIdleConnections());
+        assertTrue(poolConfig.getRouteOverrides().isEmpty());
+    }
+
+    @Test
+    public void testPerRouteCapNeverExceedsTotal() {
+        ConnectionPoolConfig poolConfig = ConnectionPoolConfig.newBuilder()
+            .setMaxConnTotal(10)
+            .setMaxConnPerRoute(50)
+            .build();
+        assertEquals(10, poolConfig.getMaxConnPerRoute());
+        assertThrows(HttpClientException.class, () -> ConnectionPoolConfig.newBuilder().setMaxConnTotal(0).build());
+    }
+
+    @Test
+    public void testRouteOverrides() {
+        ConnectionPoolConfig poolConfig = ConnectionPoolConfig.newBuilder()
+            .setMaxConnPerRoute("https://api.example.com", 5)
+            .setMaxConnPerRoute("localhost:8080", 3)
+            .build();
+        Map<HttpRoute, Integer> routeOverrides = poolConfig.getRouteOverrides();
+        LOGGER.debug("routeOverrides: {}", routeOverrides);
+        assertEquals(5, routeOverrides.get(new HttpRoute(new HttpHost("api.example.com", 443, "https"), null, true)));
+        assertEquals(3, routeOverrides.get(new HttpRoute(new HttpHost("localhost", 8080, "http"), null, false)));
+    }
+}
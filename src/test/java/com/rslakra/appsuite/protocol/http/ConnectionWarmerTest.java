@@ -0,0 +1,183 @@
+package com.rslakra.appsuite.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/18/26 3:40 AM
+ */
+public class ConnectionWarmerTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionWarmerTest.class);
+
+    /**
+     * Accepts connections and keeps them open, the warm-up of <code>http</code> routes sends no request.
+     */
+    private static final class AcceptingServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+        private AcceptingServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            final Thread acceptorThread = new Thread(() -> {
+                try {
+                    while (true) {
+                        sockets.add(serverSocket.accept());
+                    }
+                } catch (IOException ex) {
+                    // closed
+                }
+            });
+            acceptorThread.setDaemon(true);
+            acceptorThread.start();
+        }
+
+        private URI getUri() {
+            return URI.create("http://localhost:" + serverSocket.getLocalPort() + "/");
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void testConfig() {
+        WarmupConfig warmupConfig = WarmupConfig.newBuilder().addRoute(URI.create("https://localhost")).build();
+        LOGGER.debug("warmupConfig: {}", warmupConfig);
+        assertEquals(WarmupConfig.DEFAULT_CONNECTIONS_PER_ROUTE, warmupConfig.getConnectionsPerRoute());
+        assertTrue(warmupConfig.isKeepWarm());
+        assertThrows(HttpClientException.class, () -> WarmupConfig.newBuilder().build());
+        assertThrows(HttpClientException.class,
+                     () -> WarmupConfig.newBuilder().addRoute(URI.create("ftp://localhost")).build());
+        assertThrows(HttpClientException.class, () -> WarmupConfig.newBuilder()
+            .addRoute(URI.create("http://localhost")).setConnectionsPerRoute(0).build());
+    }
+
+    @Test
+    public void testWarmUpAndKeepWarm() throws Exception {
+        try (AcceptingServer server = new AcceptingServer()) {
+            final WarmupConfig warmupConfig = WarmupConfig.newBuilder()
+                .addRoute(server.getUri())
+                .setConnectionsPerRoute(3)
+                .setKeepWarmInterval(Duration.ofMillis(100))
+                .build();
+            final HttpClientBuilder builder = new HttpClientBuilder("warmer")
+                .turnOffRetry()
+                .turnOffCircuitBreaker()
+                .connectionPoolConfig(ConnectionPoolConfig.newBuilder()
+                                          .setMaxConnPerRoute(2)
+                                          .evictIdleConnections(Duration.ofMillis(200), Duration.ofMillis(100))
+                                          .build())
+                .warmup(warmupConfig);
+            final ConnectionWarmer connectionWarmer;
+            try (SyncHttpClient syncHttpClient = builder.buildSyncClient()) {
+                connectionWarmer = syncHttpClient.getConnectionWarmer();
+                LOGGER.debug("connectionWarmer: {}", connectionWarmer);
+                assertTrue(connectionWarmer.isReady());
+                assertTrue(connectionWarmer.isRunning());
+                // capped at the pool size of the route
+                final HttpRoute route = connectionWarmer.getTargets().keySet().iterator().next();
+                assertEquals(2, connectionWarmer.getTargets().get(route));
+                assertEquals(2, builder.getConnectionManager().getStats(route).getAvailable());
+                assertEquals(2, server.sockets.size());
+
+                // the keeper reopens the evicted connections
+                final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+                while (connectionWarmer.getWarmedConnections() < 4 && System.nanoTime() < deadline) {
+                    Thread.sleep(50);
+                }
+                assertTrue(connectionWarmer.getWarmedConnections() >= 4);
+                assertEquals(0, connectionWarmer.getFailedConnections());
+            }
+            assertFalse(connectionWarmer.isRunning());
+        }
+    }
+
+    @Test
+    public void testKeepWarmReopensLostConnections() throws Exception {
+        try (AcceptingServer server = new AcceptingServer()) {
+            final WarmupConfig warmupConfig = WarmupConfig.newBuilder()
+                .addRoute(server.getUri())
+                .setConnectionsPerRoute(3)
+                .setKeepWarmInterval(Duration.ofMillis(100))
+                .build();
+            final HttpClientBuilder builder = new HttpClientBuilder("warmerLost")
+                .turnOffRetry()
+                .turnOffCircuitBreaker()
+                .warmup(warmupConfig);
+            try (SyncHttpClient syncHttpClient = builder.buildSyncClient()) {
+                final ConnectionWarmer connectionWarmer = syncHttpClient.getConnectionWarmer();
+                assertTrue(connectionWarmer.isReady());
+                final HttpRoute route = connectionWarmer.getTargets().keySet().iterator().next();
+                final PoolingHttpClientConnectionManager connectionManager = builder.getConnectionManager();
+                assertEquals(3, connectionManager.getStats(route).getAvailable());
+                assertEquals(3, server.sockets.size());
+
+                // loses one of the idle connections
+                final HttpClientConnection connection = connectionManager.requestConnection(route, null)
+                    .get(1, TimeUnit.SECONDS);
+                connection.close();
+                connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+                assertEquals(2, connectionManager.getStats(route).getAvailable());
+
+                // the keeper opens the lost one rather than leasing the idle ones
+                final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+                while (server.sockets.size() < 4 && System.nanoTime() < deadline) {
+                    Thread.sleep(50);
+                }
+                Thread.sleep(300);
+                assertEquals(4, server.sockets.size());
+                assertEquals(4, connectionWarmer.getWarmedConnections());
+                assertEquals(3, connectionManager.getStats(route).getAvailable());
+                assertEquals(0, connectionManager.getStats(route).getLeased());
+            }
+        }
+    }
+
+    @Test
+    public void testRebuildSharesConnectionWarmer() throws Exception {
+        try (AcceptingServer server = new AcceptingServer()) {
+            final HttpClientBuilder builder = new HttpClientBuilder("warmerRebuilt")
+                .turnOffRetry()
+                .turnOffCircuitBreaker()
+                .warmup(WarmupConfig.newBuilder().addRoute(server.getUri()).setConnectionsPerRoute(2).build());
+            try (SyncHttpClient syncHttpClient = builder.buildSyncClient()) {
+                final ConnectionWarmer connectionWarmer = syncHttpClient.getConnectionWarmer();
+                try (SyncHttpClient otherClient = builder.buildSyncClient()) {
+                    // the pool is reused, so is its warmer, which isn't started again
+                    assertEquals(connectionWarmer, otherClient.getConnectionWarmer());
+                    assertEquals(2, connectionWarmer.getWarmedConnections());
+                    assertEquals(2, server.sockets.size());
+                }
+                assertTrue(connectionWarmer.isRunning());
+            }
+        }
+    }
+}
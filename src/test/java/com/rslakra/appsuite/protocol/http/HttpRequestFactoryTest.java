@@ -0,0 +1,56 @@
+package com.rslakra.appsuite.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 3:25 PM
+ */
+public class HttpRequestFactoryTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpRequestFactoryTest.class);
+    private static final URI TEST_URI = URI.create("http://localhost:8080/test");
+
+    @Test
+    public void testNewRequestForAllMethods() {
+        for (HttpMethod httpMethod : HttpMethod.values()) {
+            HttpRequestBase apacheRequest = HttpRequestFactory.newRequest(httpMethod, TEST_URI);
+            LOGGER.debug("apacheRequest: {}", apacheRequest);
+            assertEquals(httpMethod.name(), apacheRequest.getMethod());
+            assertEquals(httpMethod.getRequestType(), apacheRequest.getClass());
+            assertEquals(TEST_URI, apacheRequest.getURI());
+        }
+
+        assertThrows(HttpClientException.class, () -> HttpRequestFactory.newRequest(null, TEST_URI));
+    }
+
+    @Test
+    public void testEntityEnclosingMethods() {
+        final StringEntity payload = new StringEntity("{}", "UTF-8");
+        for (HttpMethod httpMethod : HttpMethod.values()) {
+            HttpRequestBase apacheRequest = HttpRequestFactory.newRequest(httpMethod, TEST_URI, payload);
+            if (HttpRequestFactory.isEntityEnclosing(httpMethod)) {
+                assertTrue(apacheRequest instanceof HttpEntityEnclosingRequest);
+                assertSame(payload, ((HttpEntityEnclosingRequest) apacheRequest).getEntity());
+            } else {
+                assertFalse(apacheRequest instanceof HttpEntityEnclosingRequest);
+            }
+        }
+        assertTrue(HttpRequestFactory.isEntityEnclosing(HttpMethod.PATCH));
+        assertFalse(HttpRequestFactory.isEntityEnclosing(HttpMethod.HEAD));
+    }
+}
@@ -0,0 +1,153 @@
+package com.rslakra.appsuite.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.rslakra.appsuite.protocol.http.handler.JsonResponseHandler;
+import com.rslakra.appsuite.protocol.http.handler.OutputStreamResponseHandler;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/18/26 4:20 AM
+ */
+public class RequestCoalescerTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestCoalescerTest.class);
+
+    private static Request newRequest() {
+        return Request.newBuilder()
+            .setUri(URI.create("http://localhost/coalescing"))
+            .setHttpMethod(HttpMethod.GET)
+            .build();
+    }
+
+    /**
+     * Records the upstream calls, completed by the test.
+     *
+     * @param <T>
+     */
+    private static final class Upstream<T> implements Function<FutureCallback<Response<T>>,
+        CompletableFuture<Response<T>>> {
+
+        private final List<FutureCallback<Response<T>>> callbacks = new ArrayList<>();
+        private final List<CompletableFuture<Response<T>>> futures = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<Response<T>> apply(final FutureCallback<Response<T>> futureCallback) {
+            final CompletableFuture<Response<T>> future = new CompletableFuture<>();
+            callbacks.add(futureCallback);
+            futures.add(future);
+            return future;
+        }
+    }
+
+    @Test
+    public void testKeyOf() {
+        final RequestCoalescer requestCoalescer = new RequestCoalescer(null);
+        final Request request = newRequest();
+        // buffering handlers without state are interchangeable
+        assertEquals(requestCoalescer.keyOf(request, new StringResponseHandler()),
+                     requestCoalescer.keyOf(request, new StringResponseHandler()));
+        assertNotEquals(requestCoalescer.keyOf(request, new StringResponseHandler()),
+                        requestCoalescer.keyOf(request, new StringResponseHandler(
+                            AbstractResponseHandler.ALL_CRITERIA)));
+
+        final JsonResponseHandler<Map> jsonResponseHandler = new JsonResponseHandler<>(Map.class);
+        LOGGER.debug("key: {}", requestCoalescer.keyOf(request, jsonResponseHandler));
+        assertEquals(requestCoalescer.keyOf(request, jsonResponseHandler),
+                     requestCoalescer.keyOf(request, jsonResponseHandler));
+        assertNotEquals(requestCoalescer.keyOf(request, jsonResponseHandler),
+                        requestCoalescer.keyOf(request, new JsonResponseHandler<>(List.class)));
+    }
+
+    @Test
+    public void testTypedHandlersAreMerged() throws Exception {
+        final RequestCoalescer requestCoalescer = new RequestCoalescer(null);
+        final Request request = newRequest();
+        final Upstream<Map> upstream = new Upstream<>();
+        // a handler per call
+        final CompletableFuture<Response<Map>> first = requestCoalescer.execute(
+            request, new JsonResponseHandler<>(Map.class), FutureCallbacks.ignoreCallback(), upstream);
+        final CompletableFuture<Response<Map>> second = requestCoalescer.execute(
+            request, new JsonResponseHandler<>(Map.class), FutureCallbacks.ignoreCallback(), upstream);
+        assertEquals(1, upstream.futures.size());
+        assertEquals(1, requestCoalescer.getCoalescedRequests());
+
+        // not with the handlers of other criteria
+        requestCoalescer.execute(request, new JsonResponseHandler<Map>(AbstractResponseHandler.ALL_CRITERIA,
+                                                                       JsonResponseHandler.getObjectMapper()
+                                                                           .constructType(Map.class)),
+                                 FutureCallbacks.ignoreCallback(), upstream);
+        assertEquals(2, upstream.futures.size());
+        assertEquals(1, requestCoalescer.getCoalescedRequests());
+
+        final Response<Map> response = Response.of(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"),
+                                                   Collections.singletonMap("id", 1));
+        upstream.callbacks.get(0).completed(response);
+        assertSame(first.get().getPayload(), second.get().getPayload());
+    }
+
+    @Test
+    public void testSinkHandlersAreNotMerged() {
+        final RequestCoalescer requestCoalescer = new RequestCoalescer(null);
+        final Request request = newRequest();
+        final Upstream<Long> upstream = new Upstream<>();
+        final ResponseHandler<Long> firstHandler = new OutputStreamResponseHandler(new ByteArrayOutputStream());
+        final ResponseHandler<Long> secondHandler = new OutputStreamResponseHandler(new ByteArrayOutputStream());
+        requestCoalescer.execute(request, firstHandler, FutureCallbacks.ignoreCallback(), upstream);
+        requestCoalescer.execute(request, secondHandler, FutureCallbacks.ignoreCallback(), upstream);
+        assertEquals(2, upstream.futures.size());
+        assertEquals(0, requestCoalescer.getCoalescedRequests());
+
+        // the same sink is
+        requestCoalescer.execute(request, firstHandler, FutureCallbacks.ignoreCallback(), upstream);
+        assertEquals(2, upstream.futures.size());
+        assertEquals(1, requestCoalescer.getCoalescedRequests());
+    }
+
+    @Test
+    public void testLastWaiterCancelsUpstream() throws Exception {
+        final RequestCoalescer requestCoalescer = new RequestCoalescer(null);
+        final Request request = newRequest();
+        final Upstream<String> upstream = new Upstream<>();
+        final CompletableFuture<Response<String>> first = requestCoalescer.execute(
+            request, new StringResponseHandler(), FutureCallbacks.ignoreCallback(), upstream);
+        final CompletableFuture<Response<String>> second = requestCoalescer.execute(
+            request, new StringResponseHandler(), FutureCallbacks.ignoreCallback(), upstream);
+        assertEquals(1, upstream.futures.size());
+
+        first.cancel(true);
+        assertFalse(upstream.futures.get(0).isCancelled());
+        second.cancel(true);
+        assertTrue(upstream.futures.get(0).isCancelled());
+        assertEquals(0, requestCoalescer.getInFlightKeys());
+
+        // the next request starts over
+        final CompletableFuture<Response<String>> third = requestCoalescer.execute(
+            request, new StringResponseHandler(), FutureCallbacks.ignoreCallback(), upstream);
+        assertEquals(2, upstream.futures.size());
+        final Response<String> response = Response.of(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"), "done");
+        upstream.callbacks.get(1).completed(response);
+        assertEquals("done", third.get().getPayload());
+    }
+}
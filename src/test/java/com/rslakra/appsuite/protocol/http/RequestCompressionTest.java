@@ -0,0 +1,131 @@
+package com.rslakra.appsuite.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/18/26 5:10 AM
+ */
+public class RequestCompressionTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestCompressionTest.class);
+
+    /**
+     * Records the headers and the decoded body of the last request it received.
+     */
+    private static final class RecordingServer implements AutoCloseable {
+
+        private final HttpServer httpServer;
+        private volatile Headers requestHeaders;
+        private volatile String requestBody;
+
+        private RecordingServer() throws IOException {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            httpServer.createContext("/", exchange -> {
+                requestHeaders = exchange.getRequestHeaders();
+                final byte[] body = exchange.getRequestBody().readAllBytes();
+                try (InputStream inputStream = ("gzip".equals(requestHeaders.getFirst(HttpHeaders.CONTENT_ENCODING))
+                                                ? new GZIPInputStream(new ByteArrayInputStream(body))
+                                                : new ByteArrayInputStream(body))) {
+                    requestBody = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            });
+            httpServer.start();
+        }
+
+        private URI getUri() {
+            return URI.create("http://localhost:" + httpServer.getAddress().getPort() + "/ingest");
+        }
+
+        @Override
+        public void close() {
+            httpServer.stop(0);
+        }
+    }
+
+    private static String newPayload() {
+        final StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            payload.append("{\"id\":").append(i).append("},");
+        }
+        return payload.append("{}]").toString();
+    }
+
+    private static HttpClientBuilder newBuilder(final String clientName) {
+        return new HttpClientBuilder(clientName)
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .requestCompression(ContentEncoding.EncodingType.GZIP, 1024);
+    }
+
+    private static Request newRequest(final URI uri, final String payload) {
+        return Request.newBuilder()
+            .setUri(uri)
+            .setHttpMethod(HttpMethod.POST)
+            .setPayload(new StringEntity(payload, ContentType.APPLICATION_JSON))
+            .build();
+    }
+
+    /**
+     * Asserts the received request is the compressed <code>payload</code>.
+     *
+     * @param server
+     * @param payload
+     */
+    private static void assertCompressed(final RecordingServer server, final String payload) {
+        LOGGER.debug("requestHeaders: {}", server.requestHeaders.entrySet());
+        assertEquals("gzip", server.requestHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("chunked", server.requestHeaders.getFirst(HttpHeaders.TRANSFER_ENCODING));
+        assertNull(server.requestHeaders.getFirst(HttpHeaders.CONTENT_LENGTH));
+        assertEquals(payload, server.requestBody);
+    }
+
+    @Test
+    public void testSyncRequestCompression() throws Exception {
+        try (RecordingServer server = new RecordingServer();
+             SyncHttpClient client = newBuilder("RequestCompressionTest").buildSyncClient()) {
+            final String payload = newPayload();
+            assertEquals(200, client.execute(newRequest(server.getUri(), payload)).getStatusLine().getStatusCode());
+            assertCompressed(server, payload);
+
+            // below the threshold
+            client.execute(newRequest(server.getUri(), "{}"));
+            assertNull(server.requestHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals("2", server.requestHeaders.getFirst(HttpHeaders.CONTENT_LENGTH));
+            assertEquals("{}", server.requestBody);
+        }
+    }
+
+    @Test
+    public void testAsyncRequestCompression() throws Exception {
+        try (RecordingServer server = new RecordingServer();
+             AsyncHttpClient client = newBuilder("RequestCompressionAsyncTest").buildAsyncClient()) {
+            final String payload = newPayload();
+            final Response<String> response = client.executeWithCallback(newRequest(server.getUri(), payload)).get();
+            assertEquals(200, response.getStatusLine().getStatusCode());
+            assertCompressed(server, payload);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.rslakra.appsuite.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.rslakra.appsuite.protocol.http.metrics.DefaultHttpClientMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.RetryConfig;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 6:30 PM
+ */
+public class ResilienceRegistriesTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResilienceRegistriesTest.class);
+
+    @Test
+    public void testSharedCircuitBreaker() throws Exception {
+        final DefaultHttpClientMetrics metrics = new DefaultHttpClientMetrics();
+        try (SyncHttpClient first = new HttpClientBuilder("sharedClient").metrics(metrics).buildSyncClient();
+             SyncHttpClient second = new HttpClientBuilder("sharedClient").metrics(metrics).buildSyncClient()) {
+            assertSame(first.getCircuitBreaker(), second.getCircuitBreaker());
+            assertSame(first.getRetry(), second.getRetry());
+            assertSame(first.getCircuitBreaker(),
+                       ResilienceRegistries.circuitBreakerRegistry().circuitBreaker("sharedClient"));
+
+            // reported once, whatever the number of clients
+            first.getCircuitBreaker().transitionToOpenState();
+            LOGGER.debug("metrics: {}", metrics);
+            assertEquals(1, metrics.getClientMetrics("sharedClient").getCircuitBreakerTransitions("CLOSED", "OPEN"));
+            assertEquals(CircuitBreaker.State.OPEN, metrics.getClientMetrics("sharedClient").getCircuitBreakerState());
+            assertEquals(0, metrics.getClientMetrics("sharedClient").getCircuitBreakerMetrics()
+                .getNumberOfBufferedCalls());
+            first.getCircuitBreaker().reset();
+        }
+    }
+
+    @Test
+    public void testOverrideCircuitBreakerConfig() throws Exception {
+        try (SyncHttpClient first = new HttpClientBuilder("overriddenClient").buildSyncClient();
+             SyncHttpClient second = new HttpClientBuilder("overriddenClient")
+                 .circuitBreakerConfig(CircuitBreakerConfig.ofDefaults())
+                 .buildSyncClient()) {
+            assertNotSame(first.getCircuitBreaker(), second.getCircuitBreaker());
+            assertSame(second.getCircuitBreaker(),
+                       ResilienceRegistries.circuitBreakerRegistry().circuitBreaker("overriddenClient"));
+        }
+    }
+
+    private static CircuitBreakerConfig newCircuitBreakerConfig(final int slidingWindowSize) {
+        return CircuitBreakerConfig.custom()
+            .slidingWindowSize(slidingWindowSize)
+            .waitDurationInOpenState(Duration.ofSeconds(5))
+            .build();
+    }
+
+    @Test
+    public void testEqualConfigsShareCircuitBreaker() throws Exception {
+        try (SyncHttpClient first = new HttpClientBuilder("equalConfigClient")
+            .circuitBreakerConfig(newCircuitBreakerConfig(20))
+            .retryConfig(RetryConfig.custom().maxAttempts(2).build())
+            .buildSyncClient();
+             SyncHttpClient second = new HttpClientBuilder("equalConfigClient")
+                 .circuitBreakerConfig(newCircuitBreakerConfig(20))
+                 .retryConfig(RetryConfig.custom().maxAttempts(2).build())
+                 .buildSyncClient();
+             SyncHttpClient third = new HttpClientBuilder("equalConfigClient")
+                 .circuitBreakerConfig(newCircuitBreakerConfig(30))
+                 .retryConfig(RetryConfig.custom().maxAttempts(4).build())
+                 .buildSyncClient()) {
+            assertSame(first.getCircuitBreaker(), second.getCircuitBreaker());
+            assertSame(first.getRetry(), second.getRetry());
+            // other settings still override
+            assertNotSame(second.getCircuitBreaker(), third.getCircuitBreaker());
+            assertNotSame(second.getRetry(), third.getRetry());
+            assertEquals(4, third.getRetry().getRetryConfig().getMaxAttempts());
+        }
+    }
+}
@@ -13,6 +13,9 @@ import static org.testng.Assert.assertNotSame;
 
 import com.rslakra.appsuite.core.IOUtils;
 import com.rslakra.appsuite.core.json.JSONUtils;
+import com.rslakra.appsuite.protocol.http.cache.CacheConfig;
+import com.rslakra.appsuite.protocol.http.handler.JsonResponseHandler;
+import com.rslakra.appsuite.protocol.http.metrics.DefaultHttpClientMetrics;
 import com.xebialabs.restito.builder.stub.StubHttp;
 import com.xebialabs.restito.builder.verify.VerifyHttp;
 import com.xebialabs.restito.semantics.Action;
@@ -23,15 +26,22 @@ import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig.SlidingWindowType;
 import io.github.resilience4j.retry.RetryConfig;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.config.RequestConfig;
+import org.glassfish.grizzly.http.util.HttpStatus;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 public class SyncHttpClientTest extends AbstractHttpClientTest {
 
@@ -111,6 +121,25 @@ public class SyncHttpClientTest extends AbstractHttpClientTest {
         VerifyHttp.verifyHttp(server).once(Condition.uri(path));
     }
 
+    @Test
+    public void testWithJsonResponseHandler() throws Exception {
+        MockObject mockObject = newMockObject();
+        String json = JSONUtils.toJson(mockObject);
+        String path = "/success_json_handler";
+        StubHttp.whenHttp(server).match(Condition.get(path)).then(Action.stringContent(json));
+        String url = "http://localhost:" + server.getPort() + path;
+
+        SyncHttpClient client = newSyncHttpClient();
+        Request request = newRequest(url, HttpMethod.GET);
+        Response<MockObject> response = client.execute(request, new JsonResponseHandler<>(MockObject.class));
+
+        assertNotNull(response);
+        assertEquals(response.getStatusLine().getStatusCode(), 200);
+        assertNotNull(response.getPayload());
+        assertEquals(response.getPayload().toString(), mockObject.toString());
+        VerifyHttp.verifyHttp(server).once(Condition.uri(path));
+    }
+
     @Test
     public void testCircuitBreaker() throws Exception {
 
@@ -301,4 +330,136 @@ public class SyncHttpClientTest extends AbstractHttpClientTest {
         VerifyHttp.verifyHttp(server).times(3, Condition.uri(path));
         assertEquals(failedCallCount, 1);
     }
+
+    @Test
+    public void testRetryReleasesConnection() throws Exception {
+
+        String path = "/retry_unavailable";
+        Action unavailableAction = Action.composite(Action.status(HttpStatus.SERVICE_UNAVAILABLE_503),
+                                                    Action.stringContent("unavailable"));
+        StubHttp.whenHttp(server).match(Condition.get(path))
+            .then(ActionSequence.sequence(unavailableAction, unavailableAction, successAction));
+
+        // a single connection, the retries wait for the one the 503 responses held
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectionRequestTimeout(1000)
+            .build();
+
+        HttpClientBuilder builder = new HttpClientBuilder("SyncHttpClientTest")
+            .turnOffCircuitBreaker()
+            .connectionPoolConfig(ConnectionPoolConfig.newBuilder().setMaxConnPerRoute(1).build())
+            .requestConfig(requestConfig);
+        SyncHttpClient client = builder.buildSyncClient();
+
+        String url = "http://localhost:" + server.getPort() + path;
+        Response<String> response = client.execute(newRequest(url, HttpMethod.GET));
+        assertEquals(response.getStatusLine().getStatusCode(), 200);
+        VerifyHttp.verifyHttp(server).times(3, Condition.uri(path));
+        assertEquals(builder.getConnectionManager().getTotalStats().getLeased(), 0);
+        client.close();
+    }
+
+    @Test
+    public void testResponseCache() throws Exception {
+        String path = "/cached";
+        StubHttp.whenHttp(server).match(Condition.get(path)).then(
+            Action.composite(Action.status(HttpStatus.OK_200), Action.header("Cache-Control", "max-age=60"),
+                             Action.stringContent("cached")));
+
+        SyncHttpClient client = new HttpClientBuilder("SyncHttpClientTest")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .responseCache(CacheConfig.ofDefaults())
+            .buildSyncClient();
+        String url = "http://localhost:" + server.getPort() + path;
+        Request request = newRequest(url, HttpMethod.GET);
+        for (int i = 0; i < 3; i++) {
+            Response<String> response = client.execute(request);
+            assertEquals(response.getStatusLine().getStatusCode(), 200);
+            assertEquals(response.getPayload(), "cached");
+        }
+
+        VerifyHttp.verifyHttp(server).once(Condition.uri(path));
+        assertEquals(client.getHttpCache().getHitCount(), 2);
+        client.close();
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        String path = "/metrics";
+        StubHttp.whenHttp(server).match(Condition.get(path)).then(successAction);
+
+        DefaultHttpClientMetrics metrics = new DefaultHttpClientMetrics();
+        SyncHttpClient client = new HttpClientBuilder("SyncHttpClientMetricsTest")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .metrics(metrics)
+            .buildSyncClient();
+        String url = "http://localhost:" + server.getPort() + path;
+        client.execute(newRequest(url, HttpMethod.GET));
+        client.close();
+
+        DefaultHttpClientMetrics.RouteMetrics routeMetrics =
+            metrics.getRouteMetrics("SyncHttpClientMetricsTest", "http://localhost:" + server.getPort());
+        assertEquals(routeMetrics.getLatency().getCount(), 1);
+        assertEquals(routeMetrics.getStatusCount(2), 1);
+        assertEquals(routeMetrics.getInFlight(), 0);
+        assertEquals(routeMetrics.getLeaseTime().getCount(), 1);
+    }
+
+    @Test
+    public void testExecuteAll() throws Exception {
+        String path = "/fanOut";
+        StubHttp.whenHttp(server).match(Condition.get(path)).then(successAction);
+
+        SyncHttpClient client = new HttpClientBuilder("SyncHttpClientFanOutTest")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .connectionPoolConfig(ConnectionPoolConfig.newBuilder().setMaxConnTotal(4).build())
+            .buildSyncClient();
+        String url = "http://localhost:" + server.getPort() + path;
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(newRequest(url, HttpMethod.GET));
+        }
+        // nothing listens on port 1, so the last request fails without failing the others
+        requests.add(newRequest("http://localhost:1" + path, HttpMethod.GET));
+
+        List<Response<String>> responses = client.executeAll(requests);
+        client.close();
+
+        assertEquals(responses.size(), 201);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(responses.get(i).getPayload(), "success");
+        }
+        Assert.assertTrue(responses.get(200).isError());
+        VerifyHttp.verifyHttp(server).times(200, Condition.uri(path));
+    }
+
+    @Test
+    public void testContentEncoding() throws Exception {
+        String path = "/encoded";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write("encoded".getBytes(StandardCharsets.UTF_8));
+        }
+        StubHttp.whenHttp(server)
+            .match(Condition.get(path), Condition.withHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate;q=0.5"))
+            .then(Action.composite(Action.status(HttpStatus.OK_200),
+                                   Action.header(HttpHeaders.CONTENT_ENCODING, "gzip"),
+                                   Action.bytesContent(outputStream.toByteArray())));
+
+        SyncHttpClient client = new HttpClientBuilder("SyncHttpClientTest")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .contentEncoding(ContentEncoding.EncodingType.GZIP, ContentEncoding.EncodingType.DEFLATE)
+            .buildSyncClient();
+        String url = "http://localhost:" + server.getPort() + path;
+        Response<String> response = client.execute(newRequest(url, HttpMethod.GET));
+        client.close();
+
+        assertEquals(response.getStatusLine().getStatusCode(), 200);
+        assertEquals(response.getPayload(), "encoded");
+        VerifyHttp.verifyHttp(server).once(Condition.uri(path));
+    }
 }
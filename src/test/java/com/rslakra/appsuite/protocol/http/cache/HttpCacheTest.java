@@ -0,0 +1,187 @@
+package com.rslakra.appsuite.protocol.http.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.rslakra.appsuite.protocol.http.HttpMethod;
+import com.rslakra.appsuite.protocol.http.Request;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 6:10 PM
+ */
+public class HttpCacheTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpCacheTest.class);
+
+    private static Request newRequest(final HttpMethod httpMethod, final String url) {
+        return Request.newBuilder().setUri(URI.create(url)).setHttpMethod(httpMethod).build();
+    }
+
+    private static HttpResponse newResponse(final int statusCode, final String body, final String... headers) {
+        final BasicHttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, "OK");
+        for (int i = 0; i < headers.length; i += 2) {
+            httpResponse.addHeader(headers[i], headers[i + 1]);
+        }
+        if (body != null) {
+            httpResponse.setEntity(new StringEntity(body, "UTF-8"));
+        }
+
+        return httpResponse;
+    }
+
+    @Test
+    public void testFreshnessAndRevalidation() throws IOException {
+        final HttpCache httpCache = new HttpCache(CacheConfig.ofDefaults());
+        final Request request = newRequest(HttpMethod.GET, "http://localhost/reference");
+        final long now = System.currentTimeMillis();
+        httpCache.cacheResponse(request, null, newResponse(200, "v1", "Cache-Control", "max-age=60", "ETag", "\"1\""),
+                                now, now);
+
+        final CacheEntry cacheEntry = httpCache.lookup(request);
+        LOGGER.debug("cacheEntry: {}", cacheEntry);
+        assertTrue(httpCache.isServable(request, cacheEntry, now + 1000));
+        assertFalse(httpCache.isServable(request, cacheEntry, now + 61000));
+
+        // stale, revalidated with the etag
+        final BasicHttpRequest conditionalRequest = new BasicHttpRequest("GET", "/reference");
+        httpCache.addConditionalHeaders(conditionalRequest, cacheEntry);
+        assertEquals("\"1\"", conditionalRequest.getFirstHeader("If-None-Match").getValue());
+
+        final HttpResponse notModified = newResponse(304, null, "Cache-Control", "max-age=120");
+        final HttpResponse httpResponse = httpCache.cacheResponse(request, cacheEntry, notModified, now + 61000,
+                                                                  now + 61000);
+        assertEquals(200, httpResponse.getStatusLine().getStatusCode());
+        assertEquals("v1", EntityUtils.toString(httpResponse.getEntity()));
+        assertTrue(httpCache.isServable(request, httpCache.lookup(request), now + 120000));
+        assertEquals(1, httpCache.getRevalidationCount());
+    }
+
+    @Test
+    public void testReceivedAge() throws IOException {
+        final HttpCache httpCache = new HttpCache(CacheConfig.ofDefaults());
+        final Request request = newRequest(HttpMethod.GET, "http://localhost/relayed");
+        final long now = System.currentTimeMillis();
+        // relayed by a proxy which held it for 3500 of its 3600 seconds
+        httpCache.cacheResponse(request, null, newResponse(200, "v1", "Cache-Control", "max-age=3600", "Age", "3500",
+                                                           "ETag", "\"1\""), now, now);
+        final CacheEntry cacheEntry = httpCache.lookup(request);
+        assertTrue(httpCache.isServable(request, cacheEntry, now + 90000));
+        assertFalse(httpCache.isServable(request, cacheEntry, now + 101000));
+        assertEquals("3510", cacheEntry.toHttpResponse(now + 10000).getFirstHeader("Age").getValue());
+        assertEquals(1, cacheEntry.toHttpResponse(now).getHeaders("Age").length);
+
+        // the age of the 304 replaces the one of the stored response
+        final HttpResponse httpResponse = httpCache.cacheResponse(
+            request, cacheEntry, newResponse(304, null, "Age", "600"), now + 101000, now + 101000);
+        assertEquals("600", httpResponse.getFirstHeader("Age").getValue());
+        final CacheEntry revalidated = httpCache.lookup(request);
+        assertTrue(httpCache.isServable(request, revalidated, now + 101000 + 2999000));
+        assertFalse(httpCache.isServable(request, revalidated, now + 101000 + 3001000));
+    }
+
+    @Test
+    public void testNotStoredAndInvalidated() throws IOException {
+        final HttpCache httpCache = new HttpCache(CacheConfig.ofDefaults());
+        final long now = System.currentTimeMillis();
+        final Request noStore = newRequest(HttpMethod.GET, "http://localhost/no-store");
+        httpCache.cacheResponse(noStore, null, newResponse(200, "secret", "Cache-Control", "no-store"), now, now);
+        assertNull(httpCache.lookup(noStore));
+
+        final Request request = newRequest(HttpMethod.GET, "http://localhost/resource");
+        httpCache.cacheResponse(request, null, newResponse(200, "v1", "Cache-Control", "max-age=60"), now, now);
+        assertNotNull(httpCache.lookup(request));
+        httpCache.cacheResponse(newRequest(HttpMethod.PUT, "http://localhost/resource"), null,
+                                newResponse(204, null), now, now);
+        assertNull(httpCache.lookup(request));
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws IOException {
+        final HttpCache httpCache = new HttpCache(CacheConfig.ofDefaults());
+        final Request request = newRequest(HttpMethod.GET, "http://localhost/swr");
+        final long now = System.currentTimeMillis();
+        httpCache.cacheResponse(request, null,
+                                newResponse(200, "v1", "Cache-Control", "max-age=1, stale-while-revalidate=30"), now,
+                                now);
+        final CacheEntry cacheEntry = httpCache.lookup(request);
+        assertFalse(httpCache.isServable(request, cacheEntry, now + 2000));
+        assertTrue(httpCache.isServableStale(request, cacheEntry, now + 2000));
+        assertFalse(httpCache.isServableStale(request, cacheEntry, now + 40000));
+    }
+
+    @Test
+    public void testDiskTier() throws IOException {
+        final Path diskDirectory = Files.createTempDirectory("http-cache");
+        final HttpCache httpCache = new HttpCache(CacheConfig.newBuilder()
+                                                      .setMaxMemoryBytes(4 * 1024)
+                                                      .setMaxEntryBytes(2 * 1024)
+                                                      .setDiskTier(diskDirectory, 64 * 1024)
+                                                      .setDiskSegmentBytes(16 * 1024)
+                                                      .build());
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            httpCache.cacheResponse(newRequest(HttpMethod.GET, "http://localhost/item/" + i), null,
+                                    newResponse(200, "item-" + i + "-" + "x".repeat(1000), "Cache-Control",
+                                                "max-age=60"), now, now);
+        }
+
+        // evicted from memory, read back from the mapped segments
+        final CacheEntry cacheEntry = httpCache.lookup(newRequest(HttpMethod.GET, "http://localhost/item/0"));
+        assertNotNull(cacheEntry);
+        assertTrue(EntityUtils.toString(cacheEntry.toHttpResponse(now).getEntity()).startsWith("item-0-"));
+
+        httpCache.close();
+        assertEquals(0, diskDirectory.toFile().list().length);
+    }
+
+    @Test
+    public void testDiskTiersShareDirectory() throws IOException {
+        final Path diskDirectory = Files.createTempDirectory("http-cache");
+        final CacheConfig cacheConfig = CacheConfig.newBuilder()
+            .setMaxMemoryBytes(4 * 1024)
+            .setMaxEntryBytes(2 * 1024)
+            .setDiskTier(diskDirectory, 64 * 1024)
+            .setDiskSegmentBytes(16 * 1024)
+            .build();
+        // the caches of two clients of the same builder
+        final HttpCache httpCache = new HttpCache(cacheConfig);
+        final HttpCache otherCache = new HttpCache(cacheConfig);
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < 10; i++) {
+            httpCache.cacheResponse(newRequest(HttpMethod.GET, "http://localhost/item/" + i), null,
+                                    newResponse(200, "item-" + i + "-" + "x".repeat(1000), "Cache-Control",
+                                                "max-age=60"), now, now);
+            otherCache.cacheResponse(newRequest(HttpMethod.GET, "http://localhost/item/" + i), null,
+                                     newResponse(200, "other-" + i + "-" + "x".repeat(1000), "Cache-Control",
+                                                 "max-age=60"), now, now);
+        }
+        assertEquals(2, diskDirectory.toFile().list().length);
+
+        otherCache.close();
+        final CacheEntry cacheEntry = httpCache.lookup(newRequest(HttpMethod.GET, "http://localhost/item/0"));
+        assertNotNull(cacheEntry);
+        assertTrue(EntityUtils.toString(cacheEntry.toHttpResponse(now).getEntity()).startsWith("item-0-"));
+
+        httpCache.close();
+        assertEquals(0, diskDirectory.toFile().list().length);
+    }
+}
@@ -0,0 +1,160 @@
+package com.rslakra.appsuite.protocol.http.encoding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.rslakra.appsuite.protocol.http.ContentEncoding;
+import com.rslakra.appsuite.protocol.http.ContentEncodingRegistry;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 8:40 PM
+ */
+public class CompressingEntityTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressingEntityTest.class);
+
+    private static String newPayload() {
+        final StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            payload.append("{\"id\":").append(i).append(",\"name\":\"name-").append(i).append("\"},");
+        }
+        return payload.append("{}]").toString();
+    }
+
+    private static byte[] toByteArray(final HttpEntity httpEntity) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        httpEntity.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static String readFully(final InputStream inputStream) throws IOException {
+        try (InputStream input = inputStream) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        final String payload = newPayload();
+        final DeflaterPool deflaterPool = new DeflaterPool(true);
+        final HttpEntity entity = new CompressingEntity(new StringEntity(payload, ContentType.APPLICATION_JSON), "gzip",
+                                                        deflaterPool, true);
+        final byte[] compressed = toByteArray(entity);
+        LOGGER.debug("payload: {}, compressed: {}", payload.length(), compressed.length);
+        assertTrue(compressed.length * 5 < payload.length());
+        assertEquals(payload, readFully(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        assertEquals("gzip", entity.getContentEncoding().getValue());
+        assertEquals(-1, entity.getContentLength());
+
+        // the deflater is reused
+        assertEquals(1, deflaterPool.getIdle());
+        assertEquals(payload, readFully(new GZIPInputStream(entity.getContent())));
+        assertEquals(1, deflaterPool.getIdle());
+        deflaterPool.clear();
+        assertEquals(0, deflaterPool.getIdle());
+    }
+
+    @Test
+    public void testDeflate() throws IOException {
+        final String payload = newPayload();
+        final HttpEntity entity = new CompressingEntity(new StringEntity(payload, ContentType.APPLICATION_JSON),
+                                                        "deflate", new DeflaterPool(false), false);
+        assertEquals(payload, readFully(new InflaterInputStream(entity.getContent())));
+    }
+
+    @Test
+    public void testCompressionInterceptor() throws Exception {
+        final ContentEncoding gzipEncoding = new ContentEncodingRegistry()
+            .getContentEncoding(ContentEncoding.EncodingType.GZIP);
+        final HttpPost largeRequest = new HttpPost("http://localhost/ingest");
+        final StringEntity largeEntity = new StringEntity(newPayload(), ContentType.APPLICATION_JSON);
+        largeRequest.setEntity(largeEntity);
+        gzipEncoding.getCompressionInterceptor(1024).process(largeRequest, null);
+        assertTrue(largeRequest.getEntity() instanceof CompressingEntity);
+        assertEquals("gzip", largeRequest.getFirstHeader(HttpHeaders.CONTENT_ENCODING).getValue());
+        // not framed yet, RequestContent frames the chunked entity
+        assertNull(largeRequest.getFirstHeader(HttpHeaders.TRANSFER_ENCODING));
+
+        // framed by RequestContent with the original length
+        final HttpPost framedRequest = new HttpPost("http://localhost/ingest");
+        final StringEntity framedEntity = new StringEntity(newPayload(), ContentType.APPLICATION_JSON);
+        framedRequest.setEntity(framedEntity);
+        framedRequest.setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(framedEntity.getContentLength()));
+        gzipEncoding.getCompressionInterceptor(1024).process(framedRequest, null);
+        assertNull(framedRequest.getFirstHeader(HttpHeaders.CONTENT_LENGTH));
+        assertEquals("chunked", framedRequest.getFirstHeader(HttpHeaders.TRANSFER_ENCODING).getValue());
+        assertEquals("gzip", framedRequest.getFirstHeader(HttpHeaders.CONTENT_ENCODING).getValue());
+
+        // below the threshold
+        final HttpPost smallRequest = new HttpPost("http://localhost/ingest");
+        final StringEntity smallEntity = new StringEntity("{}", ContentType.APPLICATION_JSON);
+        smallRequest.setEntity(smallEntity);
+        gzipEncoding.getCompressionInterceptor(1024).process(smallRequest, null);
+        assertSame(smallEntity, smallRequest.getEntity());
+        assertNull(smallRequest.getFirstHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testAcceptEncoding() throws Exception {
+        final ContentEncodingRegistry registry = new ContentEncodingRegistry();
+        final HttpGet httpGet = new HttpGet("http://localhost/");
+        assertNull(httpGet.getFirstHeader(HttpHeaders.ACCEPT_ENCODING));
+        final ContentEncoding gzipEncoding = registry.getContentEncoding(ContentEncoding.EncodingType.GZIP);
+        final ContentEncoding deflateEncoding = registry.getContentEncoding(ContentEncoding.EncodingType.DEFLATE);
+        gzipEncoding.getRequestInterceptor().process(httpGet, null);
+        deflateEncoding.getRequestInterceptor().process(httpGet, null);
+        // listed once
+        gzipEncoding.getRequestInterceptor().process(httpGet, null);
+        assertEquals("gzip, deflate;q=0.5", httpGet.getFirstHeader(HttpHeaders.ACCEPT_ENCODING).getValue());
+    }
+
+    @Test
+    public void testRegisterCoding() throws Exception {
+        // a third-party decoder of a coding without an EncodingType
+        final ContentEncoding brotliEncoding = new ContentEncoding("br", 0.9) {
+            @Override
+            protected HttpEntity wrapResponseEntity(final HttpEntity httpEntity) {
+                return new StringEntity("decoded", StandardCharsets.UTF_8);
+            }
+        };
+        final ContentEncodingRegistry registry = new ContentEncodingRegistry().register(brotliEncoding);
+        assertSame(brotliEncoding, registry.getContentEncoding("BR"));
+        assertNull(brotliEncoding.getContentEncodingType());
+
+        final HttpGet httpGet = new HttpGet("http://localhost/");
+        registry.getRequestInterceptor(Arrays.asList("br", "gzip")).process(httpGet, null);
+        assertEquals("br;q=0.9, gzip", httpGet.getFirstHeader(HttpHeaders.ACCEPT_ENCODING).getValue());
+
+        final BasicHttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        final StringEntity encodedEntity = new StringEntity("encoded", StandardCharsets.UTF_8);
+        encodedEntity.setContentEncoding("br");
+        httpResponse.setEntity(encodedEntity);
+        registry.getResponseInterceptor(Arrays.asList("br", "gzip")).process(httpResponse, null);
+        assertEquals("decoded", EntityUtils.toString(httpResponse.getEntity()));
+    }
+}
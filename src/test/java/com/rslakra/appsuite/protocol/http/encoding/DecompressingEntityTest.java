@@ -0,0 +1,112 @@
+package com.rslakra.appsuite.protocol.http.encoding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 9:30 PM
+ */
+public class DecompressingEntityTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(DecompressingEntityTest.class);
+    private static final String PAYLOAD = "{\"name\":\"decompressing entity\"}".repeat(100);
+
+    private static byte[] gzip(final byte[] bytes) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] deflate(final byte[] bytes, final boolean nowrap) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputStream,
+                                                                            new Deflater(6, nowrap))) {
+            deflaterStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        final InflaterPool inflaterPool = new InflaterPool();
+        final DecompressionStats stats = new DecompressionStats();
+        final byte[] compressed = gzip(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 3; i++) {
+            final HttpEntity entity = new DecompressingEntity(new ByteArrayEntity(compressed), inflaterPool,
+                                                              DecompressingEntity.DEFAULT_MAX_INFLATED_BYTES, stats,
+                                                              true);
+            assertEquals(PAYLOAD, EntityUtils.toString(entity, StandardCharsets.UTF_8));
+            assertNull(entity.getContentEncoding());
+        }
+        LOGGER.debug("stats: {}, inflaterPool: {}", stats, inflaterPool);
+        // one inflater served all the responses
+        assertEquals(1, inflaterPool.getIdle());
+        assertEquals(3, stats.getResponses());
+        assertEquals(3L * compressed.length, stats.getCompressedBytes());
+        assertEquals(3L * PAYLOAD.length(), stats.getInflatedBytes());
+    }
+
+    @Test
+    public void testDeflate() throws IOException {
+        final InflaterPool inflaterPool = new InflaterPool();
+        final DecompressionStats stats = new DecompressionStats();
+        // ZLIB as per the RFC, and raw deflate as sent by some servers
+        for (boolean nowrap : new boolean[]{false, true}) {
+            final byte[] compressed = deflate(PAYLOAD.getBytes(StandardCharsets.UTF_8), nowrap);
+            final HttpEntity entity = new DecompressingEntity(
+                new InputStreamEntity(new ByteArrayInputStream(compressed)), inflaterPool,
+                DecompressingEntity.DEFAULT_MAX_INFLATED_BYTES, stats, false);
+            assertEquals(PAYLOAD, EntityUtils.toString(entity, StandardCharsets.UTF_8));
+        }
+        assertEquals(2, inflaterPool.getIdle());
+        assertEquals(2, stats.getResponses());
+    }
+
+    @Test
+    public void testCorruptContent() throws IOException {
+        final DecompressionStats stats = new DecompressionStats();
+        final byte[] compressed = gzip(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+        // CRC32 of the trailer
+        compressed[compressed.length - 8] ^= 0x01;
+        assertThrows(ZipException.class, () -> EntityUtils.toString(new DecompressingEntity(
+            new ByteArrayEntity(compressed), new InflaterPool(), DecompressingEntity.DEFAULT_MAX_INFLATED_BYTES, stats,
+            true)));
+        assertThrows(ZipException.class, () -> EntityUtils.toString(new DecompressingEntity(
+            new ByteArrayEntity(PAYLOAD.getBytes(StandardCharsets.UTF_8)), new InflaterPool(),
+            DecompressingEntity.DEFAULT_MAX_INFLATED_BYTES, stats, true)));
+    }
+
+    @Test
+    public void testZipBomb() throws IOException {
+        // 16MB of zeros compress to about 16KB
+        final byte[] compressed = gzip(new byte[16 * 1024 * 1024]);
+        LOGGER.debug("compressed: {}", compressed.length);
+        final DecompressionStats stats = new DecompressionStats();
+        final HttpEntity entity = new DecompressingEntity(new ByteArrayEntity(compressed), new InflaterPool(),
+                                                          1024 * 1024, stats, true);
+        assertThrows(ZipException.class, () -> EntityUtils.toByteArray(entity));
+        assertEquals(1, stats.getLimitExceeded());
+    }
+}
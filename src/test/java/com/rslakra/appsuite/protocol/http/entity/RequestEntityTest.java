@@ -0,0 +1,108 @@
+package com.rslakra.appsuite.protocol.http.entity;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.http.nio.ContentEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 2:50 PM
+ */
+public class RequestEntityTest {
+
+    private static Path newTempFile(final byte[] content) throws IOException {
+        final Path path = Files.createTempFile("request-entity", ".bin");
+        path.toFile().deleteOnExit();
+        return Files.write(path, content);
+    }
+
+    @Test
+    public void testFileChannelEntityRegion() throws IOException {
+        final byte[] content = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+        final FileChannelEntity entity = new FileChannelEntity(newTempFile(content), 5, 10, "text/plain");
+        assertTrue(entity.isRepeatable());
+        assertEquals(10, entity.getContentLength());
+
+        // repeatable, every write sends the same region
+        for (int i = 0; i < 2; i++) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            entity.writeTo(outputStream);
+            assertArrayEquals(Arrays.copyOfRange(content, 5, 15), outputStream.toByteArray());
+        }
+        assertArrayEquals(Arrays.copyOfRange(content, 5, 15), entity.getContent().readAllBytes());
+    }
+
+    @Test
+    public void testFileChannelEntityTruncated() throws IOException {
+        final Path path = newTempFile("0123456789abcdefghij".getBytes(StandardCharsets.UTF_8));
+        final FileChannelEntity entity = new FileChannelEntity(path, "text/plain");
+        // the file shrinks after the length was taken
+        Files.write(path, "0123456789".getBytes(StandardCharsets.UTF_8));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ContentEncoder encoder = new ContentEncoder() {
+            private boolean completed;
+
+            @Override
+            public int write(final ByteBuffer src) {
+                final byte[] bytes = new byte[src.remaining()];
+                src.get(bytes);
+                outputStream.write(bytes, 0, bytes.length);
+                return bytes.length;
+            }
+
+            @Override
+            public void complete() {
+                completed = true;
+            }
+
+            @Override
+            public boolean isCompleted() {
+                return completed;
+            }
+        };
+
+        // the first call sends what is left, the next one fails instead of producing nothing forever
+        entity.produceContent(encoder, null);
+        assertEquals(10, outputStream.size());
+        assertThrows(IOException.class, () -> entity.produceContent(encoder, null));
+        assertFalse(encoder.isCompleted());
+    }
+
+    @Test
+    public void testMappedFileEntity() throws IOException {
+        final byte[] content = new byte[64 * 1024];
+        Arrays.fill(content, (byte) 7);
+        final MappedFileEntity entity = new MappedFileEntity(newTempFile(content), "application/octet-stream");
+        assertEquals(content.length, entity.getContentLength());
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        entity.writeTo(outputStream);
+        assertArrayEquals(content, outputStream.toByteArray());
+    }
+
+    @Test
+    public void testByteBufferEntityDoesNotConsumeBuffer() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put("payload".getBytes(StandardCharsets.UTF_8)).flip();
+        final ByteBufferEntity entity = new ByteBufferEntity(buffer, "text/plain");
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        entity.writeTo(outputStream);
+        assertEquals("payload", outputStream.toString(StandardCharsets.UTF_8.name()));
+        assertEquals(7, buffer.remaining());
+        assertEquals(7, entity.getContentLength());
+    }
+}
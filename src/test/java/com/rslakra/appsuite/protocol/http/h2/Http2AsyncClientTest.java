@@ -0,0 +1,61 @@
+package com.rslakra.appsuite.protocol.http.h2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.nio.protocol.BasicAsyncRequestProducer;
+import org.apache.http.nio.protocol.BasicAsyncResponseConsumer;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/18/26 11:40 AM
+ */
+public class Http2AsyncClientTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(Http2AsyncClientTest.class);
+
+    @Test
+    public void testExecuteRequestProducer() throws Exception {
+        final HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", exchange -> {
+            // echoes the body
+            final byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        httpServer.start();
+        try (Http2AsyncClient http2AsyncClient = new Http2AsyncClient(HttpClient.newHttpClient(), Duration.ofSeconds(5),
+                                                                      null, null)) {
+            http2AsyncClient.start();
+            final HttpHost target = new HttpHost("localhost", httpServer.getAddress().getPort());
+            final HttpPost httpPost = new HttpPost("/echo");
+            httpPost.setEntity(new StringEntity("{\"id\":1}", ContentType.APPLICATION_JSON));
+            final HttpResponse httpResponse = http2AsyncClient.execute(
+                new BasicAsyncRequestProducer(target, httpPost), new BasicAsyncResponseConsumer(), null, null)
+                .get(5, TimeUnit.SECONDS);
+            LOGGER.debug("httpResponse: {}", httpResponse);
+            assertEquals(200, httpResponse.getStatusLine().getStatusCode());
+            assertEquals("{\"id\":1}", EntityUtils.toString(httpResponse.getEntity()));
+        } finally {
+            httpServer.stop(0);
+        }
+    }
+}
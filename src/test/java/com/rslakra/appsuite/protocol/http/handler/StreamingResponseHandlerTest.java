@@ -0,0 +1,128 @@
+package com.rslakra.appsuite.protocol.http.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+import com.rslakra.appsuite.protocol.http.MockBasicHttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.BasicHttpEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 1:05 PM
+ */
+public class StreamingResponseHandlerTest {
+
+    /**
+     * @param content
+     * @param contentLength
+     * @return
+     */
+    private MockBasicHttpResponse newResponse(final byte[] content, final long contentLength) {
+        MockBasicHttpResponse httpResponse = new MockBasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        BasicHttpEntity httpEntity = new BasicHttpEntity();
+        httpEntity.setContent(new ByteArrayInputStream(content));
+        httpEntity.setContentLength(contentLength);
+        httpResponse.setEntity(httpEntity);
+        return httpResponse;
+    }
+
+    /**
+     * @param size
+     * @return
+     */
+    private byte[] newContent(final int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    @Test
+    public void testOutputStreamResponseHandler() throws Exception {
+        byte[] content = newContent(20000);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        MockBasicHttpResponse httpResponse = newResponse(content, content.length);
+        Long count = new OutputStreamResponseHandler(outputStream).handleResponse(httpResponse);
+        assertEquals(content.length, count);
+        assertEquals(content.length, outputStream.size());
+        assertFalse(httpResponse.isClosed());
+    }
+
+    @Test
+    public void testByteBufferResponseHandler() throws Exception {
+        byte[] content = newContent(10000);
+        // unknown content length grows the buffer
+        ByteBuffer buffer = new ByteBufferResponseHandler(10000).handleResponse(newResponse(content, -1));
+        assertEquals(content.length, buffer.remaining());
+        assertEquals(content[9999], buffer.get(9999));
+
+        // known content length
+        buffer = new ByteBufferResponseHandler(20000).handleResponse(newResponse(content, content.length));
+        assertEquals(content.length, buffer.remaining());
+    }
+
+    @Test
+    public void testByteBufferResponseHandlerMaxSize() {
+        byte[] content = newContent(10000);
+        MockBasicHttpResponse httpResponse = newResponse(content, -1);
+        assertThrows(HttpClientException.class,
+                     () -> new ByteBufferResponseHandler(5000).handleResponse(httpResponse));
+        // aborted, not drained
+        assertTrue(httpResponse.isClosed());
+
+        assertThrows(HttpClientException.class,
+                     () -> new ByteBufferResponseHandler(5000).handleResponse(newResponse(content, content.length)));
+    }
+
+    @Test
+    public void testAbortBeforeClosingStream() {
+        byte[] content = newContent(10000);
+        MockBasicHttpResponse httpResponse = new MockBasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        AtomicBoolean closedAfterAbort = new AtomicBoolean();
+        BasicHttpEntity httpEntity = new BasicHttpEntity();
+        // like the stream of a pooled connection, closing it reads the rest of the body unless aborted
+        httpEntity.setContent(new ByteArrayInputStream(content) {
+            @Override
+            public void close() {
+                closedAfterAbort.set(httpResponse.isClosed());
+                if (!httpResponse.isClosed()) {
+                    skip(available());
+                }
+            }
+        });
+        httpEntity.setContentLength(-1);
+        httpResponse.setEntity(httpEntity);
+        assertThrows(HttpClientException.class,
+                     () -> new ByteBufferResponseHandler(5000).handleResponse(httpResponse));
+        assertTrue(closedAfterAbort.get());
+    }
+
+    @Test
+    public void testJsonStreamingResponseHandler() throws Exception {
+        byte[] content = "{\"ids\":[1,2,3,4]}".getBytes(StandardCharsets.UTF_8);
+        Integer sum = new JsonStreamingResponseHandler<Integer>(jsonParser -> {
+            int total = 0;
+            JsonToken jsonToken;
+            while ((jsonToken = jsonParser.nextToken()) != null) {
+                if (jsonToken == JsonToken.VALUE_NUMBER_INT) {
+                    total += jsonParser.getIntValue();
+                }
+            }
+            return total;
+        }).handleResponse(newResponse(content, content.length));
+        assertEquals(10, sum);
+    }
+}
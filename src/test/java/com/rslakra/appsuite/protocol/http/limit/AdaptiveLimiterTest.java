@@ -0,0 +1,148 @@
+package com.rslakra.appsuite.protocol.http.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.rslakra.appsuite.protocol.http.metrics.DefaultHttpClientMetrics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 4:20 PM
+ */
+public class AdaptiveLimiterTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveLimiterTest.class);
+
+    @Test
+    public void testRejectWithoutQueue() {
+        final DefaultHttpClientMetrics metrics = new DefaultHttpClientMetrics();
+        final LimiterConfig config = LimiterConfig.newBuilder().setInitialLimit(2).build();
+        final AdaptiveLimiter limiter = new AdaptiveLimiter("client", ConcurrencyLimiter.CLIENT_SCOPE, config, metrics);
+
+        final AdaptiveLimiter.Permit first = limiter.acquire().join();
+        final AdaptiveLimiter.Permit second = limiter.acquire().join();
+        final CompletableFuture<AdaptiveLimiter.Permit> third = limiter.acquire();
+        assertTrue(third.isCompletedExceptionally());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(1, metrics.getClientMetrics("client").getLimiterMetrics(ConcurrencyLimiter.CLIENT_SCOPE)
+            .getRejected());
+
+        first.ignore();
+        // released only once
+        first.ignore();
+        second.ignore();
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void testQueue() throws Exception {
+        final LimiterConfig config = LimiterConfig.newBuilder()
+            .setInitialLimit(1)
+            .setQueue(1, Duration.ofMillis(100))
+            .build();
+        final AdaptiveLimiter limiter = new AdaptiveLimiter("client", "route", config,
+                                                            new DefaultHttpClientMetrics());
+
+        final AdaptiveLimiter.Permit permit = limiter.acquire().join();
+        final CompletableFuture<AdaptiveLimiter.Permit> queued = limiter.acquire();
+        assertFalse(queued.isDone());
+        assertEquals(1, limiter.getQueueDepth());
+        // the queue is full
+        assertTrue(limiter.acquire().isCompletedExceptionally());
+
+        // the freed permit goes to the queued request
+        permit.ignore();
+        queued.get(1, TimeUnit.SECONDS).ignore();
+        assertEquals(0, limiter.getInFlight());
+
+        // an expired request is rejected and leaves the queue
+        final AdaptiveLimiter.Permit busy = limiter.acquire().join();
+        final CompletableFuture<AdaptiveLimiter.Permit> expired = limiter.acquire();
+        final ExecutionException ex = assertThrows(ExecutionException.class, () -> expired.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(ConcurrencyLimitExceededException.class, ex.getCause());
+        assertEquals(0, limiter.getQueueDepth());
+
+        // a cancelled request does not take the permit
+        final CompletableFuture<AdaptiveLimiter.Permit> cancelled = limiter.acquire();
+        cancelled.cancel(false);
+        busy.ignore();
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getQueueDepth());
+    }
+
+    @Test
+    public void testCancelledWaitersLeaveQueue() throws Exception {
+        final DefaultHttpClientMetrics metrics = new DefaultHttpClientMetrics();
+        final LimiterConfig config = LimiterConfig.newBuilder()
+            .setInitialLimit(1)
+            .setQueue(2, Duration.ofMillis(100))
+            .build();
+        final AdaptiveLimiter limiter = new AdaptiveLimiter("client", "route", config, metrics);
+
+        final AdaptiveLimiter.Permit busy = limiter.acquire().join();
+        // i.e. the losers of hedged requests
+        for (int i = 0; i < 5; i++) {
+            final CompletableFuture<AdaptiveLimiter.Permit> cancelled = limiter.acquire();
+            assertFalse(cancelled.isCompletedExceptionally());
+            cancelled.cancel(false);
+            assertEquals(0, limiter.getQueueDepth());
+        }
+
+        // their expiry is not a rejection
+        Thread.sleep(300);
+        assertEquals(0, limiter.getRejectedCount());
+        assertEquals(0, metrics.getClientMetrics("client").getLimiterMetrics("route").getRejected());
+
+        final CompletableFuture<AdaptiveLimiter.Permit> queued = limiter.acquire();
+        busy.ignore();
+        queued.get(1, TimeUnit.SECONDS).ignore();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testAdaptLimit() {
+        final LimiterConfig config = LimiterConfig.newBuilder()
+            .setInitialLimit(4)
+            .setLimits(2, 8)
+            .setBackoffRatio(0.5)
+            // only drops shrink the limit, whatever the RTT
+            .setRttTolerance(1_000_000)
+            .build();
+        final AdaptiveLimiter limiter = new AdaptiveLimiter("client", "route", config,
+                                                            new DefaultHttpClientMetrics());
+
+        // grows while the limit is in use
+        for (int i = 0; i < 10; i++) {
+            final List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+            for (int j = 0; j < limiter.getLimit(); j++) {
+                permits.add(limiter.acquire().join());
+            }
+            permits.forEach(AdaptiveLimiter.Permit::success);
+        }
+        LOGGER.debug("limiter: {}", limiter);
+        assertEquals(8, limiter.getLimit());
+
+        // shrinks on drops, down to the min limit
+        limiter.acquire().join().dropped();
+        assertEquals(4, limiter.getLimit());
+        limiter.acquire().join().dropped();
+        limiter.acquire().join().dropped();
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,63 @@
+package com.rslakra.appsuite.protocol.http.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 7:45 PM
+ */
+public class LatencyHistogramTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(LatencyHistogramTest.class);
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+        LOGGER.debug("histogram: {}", histogram);
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        // within the ~3% precision of the buckets
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 * 0.03);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 * 0.03);
+        assertEquals(histogram.getMax(), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testBucketBounds() {
+        for (long value : new long[]{0, 1, 31, 32, 33, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            final int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= value);
+        }
+    }
+
+    @Test
+    public void testDefaultMetrics() {
+        final DefaultHttpClientMetrics metrics = new DefaultHttpClientMetrics();
+        final String route = HttpClientMetrics.routeOf(URI.create("https://api.example.com/v1/items"));
+        assertEquals("https://api.example.com:443", route);
+
+        metrics.requestStarted("client", route);
+        assertEquals(1, metrics.getRouteMetrics("client", route).getInFlight());
+        metrics.requestCompleted("client", route, 503, 1_000_000, null);
+        metrics.circuitBreakerTransition("client", "CLOSED", "OPEN");
+
+        final DefaultHttpClientMetrics.RouteMetrics routeMetrics = metrics.getRouteMetrics("client", route);
+        assertEquals(0, routeMetrics.getInFlight());
+        assertEquals(1, routeMetrics.getStatusCount(5));
+        assertEquals(1, routeMetrics.getLatency().getCount());
+        assertEquals(1, metrics.getClientMetrics("client").getCircuitBreakerTransitions("CLOSED", "OPEN"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.rslakra.appsuite.protocol.http.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+import com.rslakra.appsuite.protocol.http.Response;
+import com.rslakra.appsuite.protocol.http.metrics.DefaultHttpClientMetrics;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.RetryConfig;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 5:50 PM
+ */
+public class RetryEngineTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryEngineTest.class);
+
+    private static final RetryConfig RETRY_CONFIG = RetryConfig.custom()
+        .maxAttempts(3)
+        .intervalFunction(IntervalFunction.of(Duration.ofMillis(10)))
+        .retryOnException(throwable -> !(throwable instanceof IllegalArgumentException))
+        .build();
+
+    private static Response<String> newResponse(final int statusCode, final String retryAfter) {
+        final Response<String> response = Response.of(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null),
+                                                      "payload");
+        if (retryAfter != null) {
+            response.addResponseHeader(HttpHeaders.RETRY_AFTER, Collections.singletonList(retryAfter));
+        }
+        return response;
+    }
+
+    @Test
+    public void testRetryAfterMillis() {
+        final long now = System.currentTimeMillis();
+        assertEquals(-1, RetryEngine.retryAfterMillis(null, now));
+        assertEquals(-1, RetryEngine.retryAfterMillis("soon", now));
+        assertEquals(-1, RetryEngine.retryAfterMillis("-5", now));
+        assertEquals(120_000, RetryEngine.retryAfterMillis(" 120 ", now));
+        final String httpDate = DateUtils.formatDate(new Date(now + 60_000));
+        // HTTP-dates have a resolution of one second
+        assertEquals(60_000, RetryEngine.retryAfterMillis(httpDate, now), 1000);
+        assertEquals(0, RetryEngine.retryAfterMillis(DateUtils.formatDate(new Date(now - 60_000)), now));
+    }
+
+    @Test
+    public void testRetryStatus() {
+        final DefaultHttpClientMetrics metrics = new DefaultHttpClientMetrics();
+        final RetryEngine retryEngine = new RetryEngine("client", RETRY_CONFIG, RetryPolicy.ofDefaults(), metrics);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final long startTime = System.nanoTime();
+        final Response<String> response = retryEngine.execute(
+            () -> (attempts.incrementAndGet() == 1 ? newResponse(503, "1") : newResponse(200, null)));
+        LOGGER.debug("retryEngine: {}", retryEngine);
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        assertEquals(2, attempts.get());
+        // waited for the Retry-After
+        assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(1, metrics.getClientMetrics("client").getRetryEvents("RETRY"));
+        assertEquals(1, metrics.getClientMetrics("client").getRetryEvents("SUCCESS"));
+
+        // out of attempts, the last response is returned
+        attempts.set(0);
+        assertEquals(503, retryEngine.execute(() -> {
+            attempts.incrementAndGet();
+            return newResponse(503, null);
+        }).getStatusLine().getStatusCode());
+        assertEquals(3, attempts.get());
+
+        // the server asks for longer than maxRetryAfter
+        attempts.set(0);
+        retryEngine.execute(() -> {
+            attempts.incrementAndGet();
+            return newResponse(429, "3600");
+        });
+        assertEquals(1, attempts.get());
+        assertEquals(2, metrics.getClientMetrics("client").getRetryEvents("ERROR"));
+    }
+
+    @Test
+    public void testRetryException() {
+        final RetryEngine retryEngine = new RetryEngine("client", RETRY_CONFIG, RetryPolicy.ofDefaults(),
+                                                        new DefaultHttpClientMetrics());
+        final AtomicInteger attempts = new AtomicInteger();
+        assertThrows(HttpClientException.class, () -> retryEngine.execute(() -> {
+            attempts.incrementAndGet();
+            throw new HttpClientException("failed");
+        }));
+        assertEquals(3, attempts.get());
+
+        // not retryable
+        attempts.set(0);
+        assertThrows(IllegalArgumentException.class, () -> retryEngine.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("bad");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void testBudget() {
+        final RetryBudget budget = new RetryBudget(0.5, 2);
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+        budget.deposit();
+        assertFalse(budget.tryAcquire());
+        budget.deposit();
+        assertTrue(budget.tryAcquire());
+
+        final DefaultHttpClientMetrics metrics = new DefaultHttpClientMetrics();
+        final RetryEngine retryEngine = new RetryEngine("client", RETRY_CONFIG, RetryPolicy.newBuilder()
+            .setBudget(0.1, 1)
+            .build(), metrics);
+        final AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            retryEngine.execute(() -> {
+                attempts.incrementAndGet();
+                return newResponse(503, null);
+            });
+        }
+        // one retry from the initial token, none after
+        assertEquals(6, attempts.get());
+        assertEquals(5, metrics.getClientMetrics("client").getRetryEvents("BUDGET_EXHAUSTED"));
+    }
+
+    @Test
+    public void testRetryAsync() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final RetryEngine retryEngine = new RetryEngine("client", RETRY_CONFIG, RetryPolicy.ofDefaults(),
+                                                            new DefaultHttpClientMetrics());
+            final AtomicInteger attempts = new AtomicInteger();
+            final CompletableFuture<HttpResponse> future = retryEngine.executeAsync(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    return CompletableFuture.failedFuture(new HttpClientException("failed"));
+                }
+                return CompletableFuture.completedFuture(new BasicHttpResponse(HttpVersion.HTTP_1_1,
+                                                                               attempts.get() == 2 ? 503 : 200, null));
+            }, scheduler);
+            assertEquals(200, future.get(5, TimeUnit.SECONDS).getStatusLine().getStatusCode());
+            assertEquals(3, attempts.get());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.rslakra.appsuite.protocol.http.ssl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/18/26 12:20 AM
+ */
+public class CustomX509TrustManagerTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomX509TrustManagerTest.class);
+    private static final String AUTH_TYPE = "ECDHE_ECDSA";
+    // self-signed, CN=localhost, valid until 2126, unknown to the system TrustStore
+    private static final String SERVER_CERTIFICATE = "-----BEGIN CERTIFICATE-----\n"
+        + "MIIBezCCASKgAwIBAgIJAIkeXrzQfDW1MAoGCCqGSM49BAMDMDExGzAZBgNVBAoT\n"
+        + "EmFwcHN1aXRlLXByb3RvY29sczESMBAGA1UEAxMJbG9jYWxob3N0MCAXDTI2MTAx\n"
+        + "NzIzMTAxNloYDzIxMjYwOTIzMjMxMDE2WjAxMRswGQYDVQQKExJhcHBzdWl0ZS1w\n"
+        + "cm90b2NvbHMxEjAQBgNVBAMTCWxvY2FsaG9zdDBZMBMGByqGSM49AgEGCCqGSM49\n"
+        + "AwEHA0IABC8nDvHYzzH41ZYapUg4A/es3Tbr/kIi+m1a+aFtLpdqjyhepXfhPKm/\n"
+        + "WeddDatEd27ruSuUNHQMxPbunZHb3DajITAfMB0GA1UdDgQWBBSFGio23XHRwRj7\n"
+        + "oZKPt2+3Gp4ANDAKBggqhkjOPQQDAwNHADBEAiAzzCfrqKgW5NFmAJpGYjspOLdr\n"
+        + "iW+TUGWg8HvREhYRaQIgagXdPLYykZ58cdKlE8KHFOzdwChxBfAnWdO0KD1q+5I=\n"
+        + "-----END CERTIFICATE-----\n";
+
+    /**
+     * @return
+     * @throws Exception
+     */
+    private static X509Certificate newServerCertificate() throws Exception {
+        return (X509Certificate) CertificateFactory.getInstance("X509").generateCertificate(
+            new ByteArrayInputStream(SERVER_CERTIFICATE.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * @param certificates
+     * @return
+     * @throws Exception
+     */
+    private static KeyStore newTrustStore(final X509Certificate... certificates) throws Exception {
+        final KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        trustStore.load(null, null);
+        for (int i = 0; i < certificates.length; i++) {
+            trustStore.setCertificateEntry("server-" + i, certificates[i]);
+        }
+        return trustStore;
+    }
+
+    @Test
+    public void testValidatedChainCache() throws Exception {
+        final X509Certificate certificate = newServerCertificate();
+        final X509Certificate[] chain = {certificate};
+        final CustomX509TrustManager trustManager = new CustomX509TrustManager(newTrustStore(certificate));
+        for (int i = 0; i < 3; i++) {
+            trustManager.checkServerTrusted(chain, AUTH_TYPE);
+        }
+        LOGGER.debug("trustManager: {}", trustManager);
+        assertEquals(1, trustManager.getCacheMisses());
+        assertEquals(2, trustManager.getCacheHits());
+        assertEquals(1, trustManager.getCacheSize());
+
+        // the certificate is no longer trusted after the reload
+        trustManager.reload(newTrustStore());
+        assertEquals(0, trustManager.getCacheSize());
+        assertThrows(CertificateException.class, () -> trustManager.checkServerTrusted(chain, AUTH_TYPE));
+        assertEquals(2, trustManager.getCacheMisses());
+        assertEquals(0, trustManager.getCacheSize());
+    }
+
+    @Test
+    public void testCacheTurnedOff() throws Exception {
+        final X509Certificate certificate = newServerCertificate();
+        final CustomX509TrustManager trustManager = new CustomX509TrustManager(newTrustStore(certificate),
+                                                                               Duration.ZERO, 1);
+        trustManager.checkServerTrusted(new X509Certificate[]{certificate}, AUTH_TYPE);
+        trustManager.checkServerTrusted(new X509Certificate[]{certificate}, AUTH_TYPE);
+        assertEquals(0, trustManager.getCacheHits());
+        assertEquals(0, trustManager.getCacheSize());
+    }
+}
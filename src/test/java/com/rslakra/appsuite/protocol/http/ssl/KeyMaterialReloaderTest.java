@@ -0,0 +1,238 @@
+package com.rslakra.appsuite.protocol.http.ssl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.rslakra.appsuite.protocol.http.AsyncHttpClient;
+import com.rslakra.appsuite.protocol.http.HttpClientBuilder;
+import com.rslakra.appsuite.protocol.http.SyncHttpClient;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/18/26 1:30 AM
+ */
+public class KeyMaterialReloaderTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyMaterialReloaderTest.class);
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    /**
+     * Writes the first <code>count</code> CAs of the JDK as a PEM bundle.
+     *
+     * @param pemFile
+     * @param count
+     * @throws Exception
+     */
+    private static void writeTrustStore(final Path pemFile, final int count) throws Exception {
+        final File cacertsFile = new File(System.getProperty("java.home"), "lib/security/cacerts");
+        final KeyStore cacerts = KeyStore.getInstance(cacertsFile, (char[]) null);
+        final List<String> aliases = Collections.list(cacerts.aliases());
+        Collections.sort(aliases);
+        final StringBuilder pemBuilder = new StringBuilder();
+        for (String alias : aliases.subList(0, count)) {
+            final X509Certificate certificate = (X509Certificate) cacerts.getCertificate(alias);
+            pemBuilder.append("-----BEGIN CERTIFICATE-----\n")
+                .append(Base64.getMimeEncoder(64, new byte[]{'\n'}).encodeToString(certificate.getEncoded()))
+                .append("\n-----END CERTIFICATE-----\n");
+        }
+        Files.write(pemFile, pemBuilder.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @param keyStoreFile
+     * @throws Exception
+     */
+    private static void writeKeyStore(final Path keyStoreFile) throws Exception {
+        final KeyStore keyStore = KeyStore.getInstance(MutualTlsConfig.DEFAULT_KEY_STORE_TYPE);
+        keyStore.load(null, null);
+        try (OutputStream outputStream = Files.newOutputStream(keyStoreFile)) {
+            keyStore.store(outputStream, PASSWORD);
+        }
+    }
+
+    /**
+     * Writes a key store of a new EC key pair, self-signed for the <code>commonName</code>.
+     *
+     * @param keyStoreFile
+     * @param commonName
+     * @throws Exception
+     */
+    private static void writeKeyStore(final Path keyStoreFile, final String commonName) throws Exception {
+        final Path newKeyStoreFile = keyStoreFile.resolveSibling(keyStoreFile.getFileName() + ".new");
+        final Process keytool = new ProcessBuilder(
+            new File(System.getProperty("java.home"), "bin/keytool").getPath(), "-genkeypair", "-alias", "client",
+            "-keyalg", "EC", "-groupname", "secp256r1", "-dname", "CN=" + commonName, "-validity", "1",
+            "-storetype", MutualTlsConfig.DEFAULT_KEY_STORE_TYPE, "-keystore", newKeyStoreFile.toString(),
+            "-storepass", new String(PASSWORD), "-keypass", new String(PASSWORD))
+            .redirectErrorStream(true)
+            .start();
+        final String output = new String(keytool.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, keytool.waitFor(), output);
+        Files.move(newKeyStoreFile, keyStoreFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the subject of the client certificate the <code>reloader</code> presents.
+     *
+     * @param reloader
+     * @return
+     */
+    private static String getClientSubject(final KeyMaterialReloader reloader) {
+        final String alias = reloader.getKeyManager().chooseClientAlias(new String[]{"EC"}, null, null);
+        final X509Certificate[] certificateChain = reloader.getKeyManager().getCertificateChain(alias);
+        return certificateChain[0].getSubjectX500Principal().getName();
+    }
+
+    /**
+     * @param watch
+     * @return
+     * @throws Exception
+     */
+    private static MutualTlsConfig newMutualTlsConfig(final boolean watch) throws Exception {
+        final Path tempDir = Files.createTempDirectory("key-material");
+        final Path keyStoreFile = tempDir.resolve("client.p12");
+        final Path trustStoreFile = tempDir.resolve("ca.pem");
+        writeKeyStore(keyStoreFile);
+        writeTrustStore(trustStoreFile, 1);
+        final MutualTlsConfig.MutualTlsConfigBuilder builder = MutualTlsConfig.newBuilder()
+            .setKeyStoreFile(keyStoreFile)
+            .setKeyStorePassword(PASSWORD)
+            .setTrustStoreFile(trustStoreFile)
+            .setQuietPeriod(Duration.ofMillis(50));
+        if (!watch) {
+            builder.turnOffWatching();
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        final MutualTlsConfig mutualTlsConfig = newMutualTlsConfig(false);
+        try (KeyMaterialReloader reloader = new KeyMaterialReloader("testReload", mutualTlsConfig,
+                                                                    SSLSessionConfig.ofDefaults())) {
+            final SSLContext sslContext = reloader.getSSLContext();
+            assertFalse(reloader.isWatching());
+            // unchanged files
+            assertFalse(reloader.reload());
+
+            writeTrustStore(mutualTlsConfig.getTrustStoreFile(), 2);
+            assertTrue(reloader.reload());
+            assertEquals(1, reloader.getReloads());
+
+            // a broken file keeps the current material
+            Files.write(mutualTlsConfig.getTrustStoreFile(), "broken".getBytes(StandardCharsets.US_ASCII));
+            assertThrows(Exception.class, reloader::reload);
+            assertEquals(1, reloader.getReloads());
+            assertEquals(1, reloader.getReloadFailures());
+            assertSame(sslContext, reloader.getSSLContext());
+            LOGGER.debug("reloader: {}", reloader);
+        }
+    }
+
+    @Test
+    public void testReloadKeyStore() throws Exception {
+        final MutualTlsConfig mutualTlsConfig = newMutualTlsConfig(false);
+        writeKeyStore(mutualTlsConfig.getKeyStoreFile(), "first-client");
+        try (KeyMaterialReloader reloader = new KeyMaterialReloader("testReloadKeyStore", mutualTlsConfig,
+                                                                    SSLSessionConfig.ofDefaults())) {
+            assertEquals("CN=first-client", getClientSubject(reloader));
+
+            // a new key pair
+            writeKeyStore(mutualTlsConfig.getKeyStoreFile(), "second-client");
+            assertTrue(reloader.reload());
+            assertEquals("CN=second-client", getClientSubject(reloader));
+        }
+    }
+
+    @Test
+    public void testWatchedDirectoryDeleted() throws Exception {
+        final MutualTlsConfig mutualTlsConfig = newMutualTlsConfig(true);
+        try (KeyMaterialReloader reloader = new KeyMaterialReloader("testWatchedDirectoryDeleted", mutualTlsConfig,
+                                                                    SSLSessionConfig.ofDefaults())) {
+            assertTrue(reloader.isWatching());
+            Files.delete(mutualTlsConfig.getKeyStoreFile());
+            Files.delete(mutualTlsConfig.getTrustStoreFile());
+            Files.delete(mutualTlsConfig.getKeyStoreFile().getParent());
+
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (reloader.isWatching() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertFalse(reloader.isWatching());
+        }
+    }
+
+    @Test
+    public void testSharedByClients() throws Exception {
+        final HttpClientBuilder builder = new HttpClientBuilder("testSharedByClients")
+            .turnOffRetry()
+            .turnOffCircuitBreaker()
+            .mutualTls(newMutualTlsConfig(true));
+        final SyncHttpClient syncHttpClient = builder.buildSyncClient();
+        final KeyMaterialReloader reloader = builder.getKeyMaterialReloader();
+        try (AsyncHttpClient asyncHttpClient = builder.buildAsyncClient();
+             SyncHttpClient otherClient = builder.buildSyncClient()) {
+            // one watcher for both transports
+            assertSame(reloader, builder.getKeyMaterialReloader());
+        }
+        // stopped by the client built with it only
+        assertTrue(reloader.isWatching());
+
+        syncHttpClient.close();
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (reloader.isWatching() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(reloader.isWatching());
+    }
+
+    @Test
+    public void testWatchFiles() throws Exception {
+        final MutualTlsConfig mutualTlsConfig = newMutualTlsConfig(true);
+        final KeyMaterialReloader reloader = new KeyMaterialReloader("testWatchFiles", mutualTlsConfig,
+                                                                     SSLSessionConfig.ofDefaults());
+        try {
+            assertTrue(reloader.isWatching());
+            final Path newTrustStoreFile = mutualTlsConfig.getTrustStoreFile().resolveSibling("ca.pem.new");
+            writeTrustStore(newTrustStoreFile, 3);
+            Files.move(newTrustStoreFile, mutualTlsConfig.getTrustStoreFile(),
+                       StandardCopyOption.REPLACE_EXISTING);
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (reloader.getReloads() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, reloader.getReloads());
+        } finally {
+            reloader.close();
+        }
+
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (reloader.isWatching() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(reloader.isWatching());
+    }
+}
@@ -0,0 +1,99 @@
+package com.rslakra.appsuite.protocol.http.ssl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.rslakra.appsuite.protocol.http.HttpClientException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/17/26 11:40 PM
+ */
+public class SSLFactoryTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(SSLFactoryTest.class);
+
+    /**
+     * Returns a new trust store with the first <code>count</code> CAs of the JDK.
+     *
+     * @param count
+     * @return
+     * @throws Exception
+     */
+    private static KeyStore newTrustStore(final int count) throws Exception {
+        final File cacertsFile = new File(System.getProperty("java.home"), "lib/security/cacerts");
+        final KeyStore cacerts = KeyStore.getInstance(cacertsFile, (char[]) null);
+        final List<String> aliases = Collections.list(cacerts.aliases());
+        Collections.sort(aliases);
+        final KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        trustStore.load(null, null);
+        for (String alias : aliases.subList(0, count)) {
+            final Certificate certificate = cacerts.getCertificate(alias);
+            trustStore.setCertificateEntry(alias, certificate);
+        }
+
+        return trustStore;
+    }
+
+    @Test
+    public void testCachedSSLContext() throws Exception {
+        final SSLSessionConfig sessionConfig = SSLSessionConfig.ofDefaults();
+        final SSLContext sslContext = SSLFactory.INSTANCE.getSSLContext(null, null, newTrustStore(2), sessionConfig);
+        LOGGER.debug("sslContext: {}, sessionConfig: {}", sslContext, sessionConfig);
+        // the same content, loaded again
+        assertSame(sslContext, SSLFactory.INSTANCE.getSSLContext(null, null, newTrustStore(2), sessionConfig));
+        assertNotSame(sslContext, SSLFactory.INSTANCE.getSSLContext(null, null, newTrustStore(3), sessionConfig));
+        assertNotSame(sslContext, SSLFactory.INSTANCE.getSSLContext(
+            null, null, newTrustStore(2), SSLSessionConfig.newBuilder().setProtocol("TLSv1.2").build()));
+
+        SSLFactory.INSTANCE.clearSSLContexts();
+        assertNotSame(sslContext, SSLFactory.INSTANCE.getSSLContext(null, null, newTrustStore(2), sessionConfig));
+    }
+
+    @Test
+    public void testCachedSSLContextOfKeyPassword() throws Exception {
+        final SSLSessionConfig sessionConfig = SSLSessionConfig.ofDefaults();
+        final KeyStore keyStore = newTrustStore(1);
+        final SSLContext sslContext = SSLFactory.INSTANCE.getSSLContext(keyStore, "changeit".toCharArray(), null,
+                                                                        sessionConfig);
+        assertSame(sslContext, SSLFactory.INSTANCE.getSSLContext(keyStore, "changeit".toCharArray(), null,
+                                                                 sessionConfig));
+        // not served to a caller of another password
+        assertNotSame(sslContext, SSLFactory.INSTANCE.getSSLContext(keyStore, "secret".toCharArray(), null,
+                                                                    sessionConfig));
+        assertNotEquals(SSLFactory.fingerprint("changeit".toCharArray()), SSLFactory.fingerprint(new char[0]));
+    }
+
+    @Test
+    public void testSessionConfig() throws Exception {
+        final SSLSessionConfig sessionConfig = SSLSessionConfig.newBuilder()
+            .setSessionCacheSize(100)
+            .setSessionTimeout(Duration.ofMinutes(10))
+            .build();
+        final SSLContext sslContext = SSLFactory.INSTANCE.getSSLContext(null, null, null, sessionConfig);
+        assertEquals(100, sslContext.getClientSessionContext().getSessionCacheSize());
+        assertEquals(600, sslContext.getClientSessionContext().getSessionTimeout());
+        assertEquals(600, sslContext.getServerSessionContext().getSessionTimeout());
+        assertEquals("TLS", sslContext.getProtocol());
+
+        assertThrows(HttpClientException.class, () -> SSLSessionConfig.newBuilder().setSessionCacheSize(-1).build());
+        assertThrows(HttpClientException.class,
+                     () -> SSLSessionConfig.newBuilder().setSessionTimeout(Duration.ofSeconds(-1)).build());
+    }
+}
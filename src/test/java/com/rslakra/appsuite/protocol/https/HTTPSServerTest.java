@@ -0,0 +1,160 @@
+package com.rslakra.appsuite.protocol.https;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.rslakra.appsuite.protocol.http.ssl.DefaultX509TrustManager;
+import com.rslakra.appsuite.protocol.http.ssl.SSLFactory;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+
+/**
+ * @author Rohtash Lakra
+ * @created 10/18/26 2:30 AM
+ */
+public class HTTPSServerTest {
+
+    // LOGGER
+    private static final Logger LOGGER = LoggerFactory.getLogger(HTTPSServerTest.class);
+
+    /**
+     * @return
+     * @throws Exception
+     */
+    private static SSLContext newServerSSLContext() throws Exception {
+        final KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream inputStream = HTTPSServerTest.class.getResourceAsStream("/https/" + Constants.CERTIFICATE)) {
+            keyStore.load(inputStream, Constants.keyStorePassword());
+        }
+        final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(
+            KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, Constants.keyStorePassword());
+        final SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+        return sslContext;
+    }
+
+    /**
+     * @param server
+     * @return
+     * @throws Exception
+     */
+    private static SSLSocket newClientSocket(final HTTPSServer server) throws Exception {
+        // the test certificate is self-signed
+        final SSLContext sslContext = SSLFactory.INSTANCE.getSSLContext(
+            "TLS", new TrustManager[]{new DefaultX509TrustManager()}, null);
+        return (SSLSocket) sslContext.getSocketFactory().createSocket(Constants.getHost(), server.getPort());
+    }
+
+    /**
+     * Reads a response of the server, returns the status line and the body.
+     *
+     * @param reader
+     * @return
+     * @throws Exception
+     */
+    private static String[] readResponse(final BufferedReader reader) throws Exception {
+        final String statusLine = reader.readLine();
+        int contentLength = 0;
+        String line;
+        while (!(line = reader.readLine()).isEmpty()) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                contentLength = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        final char[] body = new char[contentLength];
+        int offset = 0;
+        while (offset < contentLength) {
+            offset += reader.read(body, offset, contentLength - offset);
+        }
+
+        return new String[]{statusLine, new String(body)};
+    }
+
+    @Test
+    public void testKeepAlive() throws Exception {
+        final HTTPSHandler handler = request -> HTTPSResponse.of(200, request.getMethod() + " " + request.getPath()
+                                                                      + " " + request.getBodyAsString());
+        try (HTTPSServer server = new HTTPSServer(0, newServerSSLContext(), handler).start();
+             SSLSocket socket = newClientSocket(server)) {
+            final OutputStream outputStream = socket.getOutputStream();
+            final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            outputStream.write(("GET /first?q=1 HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                                   .getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            String[] response = readResponse(reader);
+            LOGGER.debug("response: {}", (Object) response);
+            assertEquals("HTTP/1.1 200 OK", response[0]);
+            assertEquals("GET /first ", response[1]);
+
+            // the same connection, a chunked body
+            outputStream.write(("POST /second HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n"
+                                + "5\r\nhello\r\n6\r\n world\r\n0\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            response = readResponse(reader);
+            assertEquals("POST /second hello world", response[1]);
+
+            outputStream.write(("PUT /third HTTP/1.1\r\nHost: localhost\r\nContent-Length: 3\r\n\r\nabc")
+                                   .getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            response = readResponse(reader);
+            assertEquals("PUT /third abc", response[1]);
+            assertEquals(1, server.getConnections());
+
+            outputStream.write("bad request\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            assertEquals("HTTP/1.1 400 Bad Request", readResponse(reader)[0]);
+            assertEquals(null, reader.readLine());
+        }
+    }
+
+    @Test
+    public void testGracefulShutdown() throws Exception {
+        final CountDownLatch handling = new CountDownLatch(1);
+        final HTTPSHandler handler = request -> {
+            handling.countDown();
+            Thread.sleep(200);
+            return HTTPSResponse.of(200, "done");
+        };
+        final HTTPSServer server = new HTTPSServer(0, newServerSSLContext(), handler, 4, Duration.ofSeconds(5))
+            .start();
+        try (SSLSocket socket = newClientSocket(server);
+             SSLSocket idleSocket = newClientSocket(server)) {
+            idleSocket.startHandshake();
+            final OutputStream outputStream = socket.getOutputStream();
+            outputStream.write("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            assertTrue(handling.await(5, TimeUnit.SECONDS));
+
+            final long startTime = System.nanoTime();
+            server.shutdown(Duration.ofSeconds(5));
+            assertTrue(server.isServerDone());
+            assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(5));
+            assertEquals(0, server.getConnections());
+
+            // the in-flight request completes, then the connection is closed
+            final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            final String[] response = readResponse(reader);
+            assertEquals("done", response[1]);
+            assertEquals(null, reader.readLine());
+        }
+    }
+}